@@ -0,0 +1,116 @@
+package com.example.proj.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Carga de registros pelo HTTP um request por vez e em lotes de 1000 (POST /api/livros/batch
+ * e createUsuariosBatchRequest). O resultado é em registros por segundo nos dois casos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BatchIngestBenchmark {
+
+    private static final int LOTE = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String url;
+    private long sequencia;
+
+    @Setup
+    public void setup() {
+        //um cliente só, o mais rápido possível: sem rate limit
+        context = BenchmarkContext.startServer("--gateway.admission.enabled=false");
+        url = BenchmarkContext.url(context);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int livroUmPorVez() throws Exception {
+        return post("/api/livros", "application/json", livro("um", sequencia++));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int livrosEmLote() throws Exception {
+        return post("/api/livros/batch", "application/json", "[" + lote(i -> livro("lote", i), ",") + "]");
+    }
+
+    @Benchmark
+    public int usuarioUmPorVez() throws Exception {
+        return post("/ws", "text/xml", envelope("<usr:createUsuarioRequest>" + usuario("um", sequencia++) + "</usr:createUsuarioRequest>"));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int usuariosEmLote() throws Exception {
+        return post("/ws", "text/xml", envelope("<usr:createUsuariosBatchRequest>"
+                + lote(i -> "<usr:usuario>" + usuario("lote", i) + "</usr:usuario>", "")
+                + "</usr:createUsuariosBatchRequest>"));
+    }
+
+    private String lote(LongFunction<String> item, String separador) {
+        StringBuilder corpo = new StringBuilder();
+        for (int i = 0; i < LOTE; i++) {
+            if (i > 0) {
+                corpo.append(separador);
+            }
+            corpo.append(item.apply(sequencia++));
+        }
+        return corpo.toString();
+    }
+
+    private int post(String path, String contentType, String body) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url + path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST " + path + " respondeu " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private static String livro(String prefixo, long i) {
+        return "{\"titulo\":\"" + prefixo + " " + i + "\",\"autor\":\"Bench\",\"isbn\":\"" + prefixo + "-" + i + "\"}";
+    }
+
+    private static String usuario(String prefixo, long i) {
+        return "<usr:nome>" + prefixo + " " + i + "</usr:nome><usr:email>" + prefixo + i + "@bench.com</usr:email>";
+    }
+
+    private static String envelope(String payload) {
+        return "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:usr=\"http://proj.example.com/usuario\">"
+                + "<soap:Body>" + payload + "</soap:Body></soap:Envelope>";
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.LibraryApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sobe a aplicação sem servidor HTTP: os benchmarks chamam os beans direto,
+ * com a mesma configuração (stores, backends, Jackson, Spring-WS) da aplicação real.
+ *
+ * Os benchmarks que medem o caminho HTTP inteiro usam {@link #startServer}, com o Tomcat
+ * numa porta livre da mesma JVM.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param args propriedades extras, no formato da linha de comando (--chave=valor)
+     */
+    static ConfigurableApplicationContext start(String... args) {
+        return run(WebApplicationType.NONE, List.of(), args);
+    }
+
+    /**
+     * Com o servidor HTTP numa porta livre; o endereço sai em {@link #url}.
+     */
+    static ConfigurableApplicationContext startServer(String... args) {
+        return startServer(List.of(), args);
+    }
+
+    static ConfigurableApplicationContext startServer(List<ApplicationContextInitializer<ConfigurableApplicationContext>> initializers,
+                                                      String... args) {
+        List<String> todos = new ArrayList<>(List.of("--server.port=0"));
+        todos.addAll(List.of(args));
+        return run(WebApplicationType.SERVLET, initializers, todos.toArray(String[]::new));
+    }
+
+    static String url(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConfigurableApplicationContext run(WebApplicationType tipo,
+                                                      List<ApplicationContextInitializer<ConfigurableApplicationContext>> initializers,
+                                                      String... args) {
+        //o que os benchmarks registram (tamanhos, contadores) continua saindo no log
+        List<String> todos = new ArrayList<>(List.of("--logging.level.root=WARN",
+                "--logging.level.org.springframework.ws=WARN",
+                "--logging.level.com.example.proj=WARN",
+                "--logging.level.com.example.proj.benchmark=INFO"));
+        todos.addAll(List.of(args));
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .web(tipo)
+                .logStartupInfo(false)
+                .initializers(initializers.toArray(ApplicationContextInitializer[]::new))
+                .run(todos.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.model.Livro;
+import com.example.proj.model.Usuario;
+import com.example.proj.store.LivroStore;
+import com.example.proj.store.UsuarioStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vazão de criação com várias threads escrevendo ao mesmo tempo nos stores
+ * (o que um POST /api/livros ou createUsuarioRequest faz por baixo).
+ * Os stores são recriados a cada iteração para o tamanho não crescer sem limite.
+ * Mude o número de threads com -Djmh.args="ConcurrentCreate -t 8".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class ConcurrentCreateBenchmark {
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private LivroStore livroStore;
+    private UsuarioStore usuarioStore;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        livroStore = new LivroStore();
+        usuarioStore = new UsuarioStore();
+    }
+
+    @Benchmark
+    public Object createLivro() {
+        long n = sequencia.incrementAndGet();
+        return livroStore.save(new Livro(null, "Livro " + n, "Autor " + (n % 1000), "isbn-" + n));
+    }
+
+    @Benchmark
+    public Object createUsuario() {
+        long n = sequencia.incrementAndGet();
+        return usuarioStore.save(new Usuario(null, "Usuario " + n, "usuario" + n + "@bench.com"));
+    }
+
+    @Benchmark
+    public Object createLivrosBatch() {
+        long n = sequencia.getAndAdd(100);
+        Livro[] lote = new Livro[100];
+        for (int i = 0; i < lote.length; i++) {
+            lote[i] = new Livro(null, "Lote " + (n + i), "Autor", "lote-" + (n + i));
+        }
+        return livroStore.saveAll(List.of(lote));
+    }
+}
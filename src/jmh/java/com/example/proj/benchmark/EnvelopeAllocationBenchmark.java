@@ -0,0 +1,96 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.envelope.Link;
+import com.example.proj.envelope.LivroEnvelope;
+import com.example.proj.envelope.LivrosEnvelope;
+import com.example.proj.model.Livro;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montar + serializar uma resposta com HashMap/Map.of (como era antes dos envelopes) e com os
+ * envelopes tipados. Os bytes alocados por resposta saem no gc.alloc.rate.norm do profiler gc:
+ * mvn -Pbenchmark verify -Djmh.args="EnvelopeAllocation -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeAllocationBenchmark {
+
+    private static final Link SELF = Link.prefixo("self", "/api/livros/");
+    private static final Link ALL = Link.fixo("all", "/api/livros");
+    private static final Link GATEWAY = Link.prefixo("gateway", "/gateway/livros/");
+    private static final Link SELF_QUERY = Link.prefixo("self", "/api/livros");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+    private final List<Livro> livros = new ArrayList<>();
+    private long id;
+
+    @Setup
+    public void setup() {
+        for (long i = 1; i <= 20; i++) {
+            livros.add(new Livro(i, "Livro " + i, "Autor " + i, "isbn-" + i));
+        }
+    }
+
+    @Benchmark
+    public int livroHashMap() throws IOException {
+        long atual = id++;
+        Map<String, Object> response = new HashMap<>();
+        response.put("livro", livros.get((int) (atual % 20)));
+        response.put("_links", Map.of("self", "/api/livros/" + atual, "all", "/api/livros", "gateway", "/gateway/livros/" + atual));
+        return write(response);
+    }
+
+    @Benchmark
+    public int livroEnvelope() throws IOException {
+        long atual = id++;
+        return write(new LivroEnvelope(livros.get((int) (atual % 20)), SELF.comId(atual), ALL, GATEWAY.comId(atual)));
+    }
+
+    @Benchmark
+    public int listaHashMap() throws IOException {
+        Map<String, Object> links = new HashMap<>();
+        links.put("self", "/api/livros" + "?limit=20");
+        links.put("first", "/api/livros" + "?limit=20");
+        Map<String, Object> response = new HashMap<>();
+        response.put("livros", livros);
+        response.put("count", livros.size());
+        response.put("total", 1000);
+        response.put("_links", links);
+        return write(response);
+    }
+
+    @Benchmark
+    public int listaEnvelope() throws IOException {
+        return write(new LivrosEnvelope(livros, livros.size(), 1000, null, null,
+                new Link[] {SELF_QUERY.comSufixo("?limit=20"), SELF_QUERY.comSufixo("?limit=20")}));
+    }
+
+    private int write(Object resposta) throws IOException {
+        out.reset();
+        mapper.writeValue(out, resposta);
+        return out.size();
+    }
+}
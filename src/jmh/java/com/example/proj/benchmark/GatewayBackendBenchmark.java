@@ -0,0 +1,83 @@
+package com.example.proj.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão do gateway pelo HTTP com os backends in-process e remote.
+ *
+ * Sobe duas aplicações na mesma JVM: uma "backend" (modo in-process, que também serve
+ * /api/livros e /ws) e, no modo remote, uma "gateway" apontando para a primeira.
+ * 64 clientes em loop fechado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(64)
+public class GatewayBackendBenchmark {
+
+    @Param({"in-process", "remote"})
+    private String modo;
+
+    @Param({"/gateway/livros/1", "/gateway/usuarios/1"})
+    private String rota;
+
+    private ConfigurableApplicationContext backend;
+    private ConfigurableApplicationContext gateway;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setup() {
+        //um cliente só, o mais rápido possível: sem rate limit (as chamadas do gateway ao backend já passam direto)
+        backend = BenchmarkContext.startServer("--gateway.backend.mode=in-process", "--gateway.admission.enabled=false");
+        String url = BenchmarkContext.url(backend);
+        if (modo.equals("remote")) {
+            gateway = BenchmarkContext.startServer("--gateway.backend.mode=remote", "--gateway.admission.enabled=false",
+                    "--gateway.backend.livros.url=" + url,
+                    "--gateway.backend.usuarios.url=" + url + "/ws");
+            url = BenchmarkContext.url(gateway);
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create(url + rota)).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        if (gateway != null) {
+            gateway.close();
+        }
+        backend.close();
+    }
+
+    @Benchmark
+    public int get() throws Exception {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(rota + " respondeu " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
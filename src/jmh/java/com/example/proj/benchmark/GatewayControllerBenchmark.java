@@ -0,0 +1,88 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.controller.GatewayController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem dos envelopes do GatewayController (backends in-process) e escrita do JSON.
+ * Os métodos *Envelope medem só a montagem, os outros montagem + JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayControllerBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private GatewayController gateway;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        gateway = context.getBean(GatewayController.class);
+        mapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object livroByIdEnvelope() {
+        return gateway.getLivroByIdViaGateway(1L);
+    }
+
+    @Benchmark
+    public void livroById() throws IOException {
+        write(gateway.getLivroByIdViaGateway(1L).getBody());
+    }
+
+    @Benchmark
+    public void livrosPagina() throws IOException {
+        write(gateway.getAllLivrosViaGateway(20, null, null, null));
+    }
+
+    @Benchmark
+    public Object usuarioByIdEnvelope() throws Exception {
+        return gateway.getUsuarioByIdViaGateway(1L, null);
+    }
+
+    @Benchmark
+    public void usuarioById() throws Exception {
+        write(gateway.getUsuarioByIdViaGateway(1L, null).getBody());
+    }
+
+    @Benchmark
+    public void usuarios() throws Exception {
+        write(gateway.getAllUsuariosViaGateway(null, null).getBody());
+    }
+
+    @Benchmark
+    public void gatewayInfo() throws IOException {
+        write(gateway.getGatewayInfo());
+    }
+
+    private void write(Object body) throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), body);
+    }
+}
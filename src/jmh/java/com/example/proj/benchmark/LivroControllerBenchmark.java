@@ -0,0 +1,88 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.controller.LivroController;
+import com.example.proj.model.Livro;
+import com.example.proj.store.LivroStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/livros/{id} e GET /api/livros (página e lista inteira) por tamanho de catálogo,
+ * incluindo a escrita do JSON (descartado, só o custo de gerar conta).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LivroControllerBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int catalogo;
+
+    private ConfigurableApplicationContext context;
+    private LivroController controller;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        controller = context.getBean(LivroController.class);
+        mapper = context.getBean(ObjectMapper.class);
+
+        LivroStore store = context.getBean(LivroStore.class);
+        for (int i = store.count(); i < catalogo; i++) {
+            store.save(new Livro(null, "Livro " + i, "Autor " + (i % 1000), "isbn-" + i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getLivroById() throws IOException {
+        long id = ThreadLocalRandom.current().nextLong(1, catalogo + 1);
+        write(controller.getLivroById(id).getBody());
+    }
+
+    @Benchmark
+    public void getAllLivrosPagina() throws IOException {
+        long after = ThreadLocalRandom.current().nextLong(0, Math.max(1, catalogo - 100));
+        write(controller.getAllLivros(100, after, null, null));
+    }
+
+    @Benchmark
+    public void getAllLivrosProjecao() throws IOException {
+        long after = ThreadLocalRandom.current().nextLong(0, Math.max(1, catalogo - 100));
+        write(controller.getAllLivros(100, after, "id,titulo", null));
+    }
+
+    @Benchmark
+    public void getAllLivros() throws IOException {
+        write(controller.getAllLivros(null, null, null, null));
+    }
+
+    private void write(Object body) throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), body);
+    }
+}
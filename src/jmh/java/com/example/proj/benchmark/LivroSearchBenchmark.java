@@ -0,0 +1,100 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.model.Livro;
+import com.example.proj.store.LivroSearchIndex;
+import com.example.proj.store.LivroStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência da busca (LivroStore.search) por tipo de consulta em catálogos de até 1M livros,
+ * e o custo de um save com o índice sendo atualizado.
+ *
+ * Os títulos e autores são sorteados de vocabulários em português (com acento), com
+ * distribuição desigual: poucas palavras muito comuns e muitas raras, como num catálogo real.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class LivroSearchBenchmark {
+
+    private static final String[] PALAVRAS = {
+            "história", "memórias", "coração", "viagem", "cidade", "noite", "mar", "sertão", "tempo", "vida",
+            "amor", "guerra", "casa", "caminho", "segredo", "sombra", "terra", "céu", "rio", "floresta",
+            "programação", "introdução", "fundamentos", "prática", "arquitetura", "sistemas", "dados", "redes",
+            "cálculo", "física", "química", "biologia", "filosofia", "política", "economia", "ensaios", "contos",
+            "poemas", "crônicas", "cartas", "diário", "manual", "guia", "lições", "estudos", "relatos", "máquina",
+            "estrela", "ilha", "montanha", "deserto", "inverno", "verão", "outono", "primavera", "fogo", "água",
+            "pedra", "vento", "silêncio", "lembranças", "destino", "jornada", "herança", "retrato", "espelho"};
+    private static final String[] NOMES = {
+            "Ana", "João", "Maria", "José", "Clarice", "Machado", "Cecília", "Jorge", "Graciliano", "Lygia",
+            "Carlos", "Raquel", "Érico", "Rubem", "Adélia", "Mário", "Oswald", "Hilda", "Conceição", "Milton"};
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Souza", "Oliveira", "Pereira", "Lima", "Carvalho", "Ferreira", "Rodrigues", "Almeida",
+            "Assis", "Lispector", "Meireles", "Amado", "Ramos", "Telles", "Drummond", "Queiroz", "Veríssimo", "Braga",
+            "Prado", "Andrade", "Hilst", "Evaristo", "Hatoum", "Rosa", "Bandeira", "Quintana", "Barros", "Moraes"};
+
+    @Param({"100000", "1000000"})
+    private int catalogo;
+
+    /**
+     * rara: uma palavra que aparece em poucos livros; comum: uma das palavras mais frequentes;
+     * duas: palavra comum + sobrenome; prefixo: início de palavra (várias palavras casam);
+     * acento: consulta sem acento e em maiúsculas para títulos com acento.
+     */
+    @Param({"espelho", "história", "história assis", "prog", "SERTAO MEMORIAS"})
+    private String consulta;
+
+    private LivroStore store;
+    private int proximo;
+
+    @Setup
+    public void setup() {
+        store = new LivroStore();
+        Random random = new Random(42);
+        for (int i = store.count(); i < catalogo; i++) {
+            store.save(livro(random, i));
+        }
+        proximo = catalogo;
+    }
+
+    @Benchmark
+    public LivroSearchIndex.Resultado search() {
+        return store.search(consulta, 20);
+    }
+
+    @Benchmark
+    public Object saveComIndice() {
+        return store.save(livro(new Random(proximo), proximo++));
+    }
+
+    private static Livro livro(Random random, int i) {
+        int palavras = 2 + random.nextInt(3);
+        StringBuilder titulo = new StringBuilder();
+        for (int p = 0; p < palavras; p++) {
+            titulo.append(p == 0 ? "" : p == 1 ? " de " : " e ").append(frequente(random, PALAVRAS));
+        }
+        String autor = frequente(random, NOMES) + " " + frequente(random, SOBRENOMES);
+        return new Livro(null, titulo.toString(), autor, "isbn-" + i);
+    }
+
+    // sorteio desigual: os primeiros itens saem muito mais que os últimos
+    private static String frequente(Random random, String[] valores) {
+        return valores[random.nextInt(random.nextInt(valores.length) + 1)];
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.proj.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+import org.springframework.ws.transport.http.MessageDispatcherServlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo das métricas no caminho do request: o mesmo getUsuario do UsuarioSoapBenchmark
+ * com as métricas ligadas (soap.requests, soap.unmarshal/marshal com percentis e
+ * histograma) e desligadas (management.metrics.enable.all=false), e o custo de um
+ * Timer.record isolado com a mesma configuração de percentis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private static final byte[] GET_USUARIO = """
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+            <soap:Body><usr:getUsuarioRequest><usr:id>1</usr:id></usr:getUsuarioRequest></soap:Body>
+            </soap:Envelope>""".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"on", "off"})
+    private String metricas;
+
+    private ConfigurableApplicationContext context;
+    private WebServiceMessageFactory messageFactory;
+    private SoapMessageDispatcher dispatcher;
+    private Timer timer;
+
+    @Setup
+    public void setup() {
+        context = "on".equals(metricas)
+                ? BenchmarkContext.start()
+                : BenchmarkContext.start("--management.metrics.enable.all=false");
+        messageFactory = context.getBean(MessageDispatcherServlet.DEFAULT_MESSAGE_FACTORY_BEAN_NAME, WebServiceMessageFactory.class);
+        dispatcher = new SoapMessageDispatcher();
+        dispatcher.setApplicationContext(context);
+        timer = Timer.builder("soap.benchmark").register(context.getBean(MeterRegistry.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getUsuarioRequest() throws Exception {
+        WebServiceMessage request = messageFactory.createWebServiceMessage(new ByteArrayInputStream(GET_USUARIO));
+        MessageContext messageContext = new DefaultMessageContext(request, messageFactory);
+        dispatcher.receive(messageContext);
+        messageContext.getResponse().writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void timerRecord() {
+        timer.record(1_000, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.gateway.UsuariosBackend;
+import com.example.proj.model.Usuario;
+import com.example.proj.store.UsuarioStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * /gateway/usuarios/{id} com e sem o RequestCoalescer, 64 clientes pedindo ids sorteados numa
+ * distribuição de Zipf (poucos ids concentram a maior parte dos requests).
+ *
+ * O backend in-process ganha uma latência fixa (como um SOAP remoto) e o cache de respostas
+ * fica desligado, para medir só o coalescing. Além da vazão, cada iteração registra no log
+ * quantas chamadas chegaram no backend por request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(RequestCoalescingBenchmark.CLIENTES)
+public class RequestCoalescingBenchmark {
+
+    static final int CLIENTES = 64;
+
+    private static final Logger log = LoggerFactory.getLogger(RequestCoalescingBenchmark.class);
+    private static final int IDS = 1_000;
+    private static final double EXPOENTE = 1.1;
+    private static final Duration LATENCIA = Duration.ofMillis(20);
+
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    private final LongAdder chamadas = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String base;
+    private Zipf zipf;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.startServer(List.of(latencia()),
+                "--gateway.coalescing.enabled=" + coalescing,
+                "--gateway.admission.enabled=false", //um cliente só: sem rate limit
+                "--gateway.cache.enabled=false",
+                "--gateway.resilience.usuarios.max-concurrent=" + CLIENTES);
+        UsuarioStore store = context.getBean(UsuarioStore.class);
+        for (int i = store.count(); i < IDS; i++) {
+            store.save(new Usuario(null, "Usuario " + i, "usuario" + i + "@bench.com"));
+        }
+        base = BenchmarkContext.url(context) + "/gateway/usuarios/";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        zipf = new Zipf(IDS, EXPOENTE);
+    }
+
+    @Setup(Level.Iteration)
+    public void zerar() {
+        chamadas.reset();
+        requests.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void registrar() {
+        log.info("{} coalescing: {} requests, {} chamadas ao backend, {} chamadas por request (Zipf s={} sobre {} ids, backend de {} ms)",
+                coalescing ? "com" : "sem", requests.sum(), chamadas.sum(),
+                String.format("%.3f", chamadas.sum() / (double) Math.max(1, requests.sum())), EXPOENTE, IDS, LATENCIA.toMillis());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getUsuario() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + zipf.proximo())).GET().build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 200) {
+            requests.increment();
+        }
+        return response.statusCode();
+    }
+
+    // as operações do UsuariosBackend in-process ganham a latência e contam as chamadas que chegam nele
+    private ApplicationContextInitializer<ConfigurableApplicationContext> latencia() {
+        return context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof UsuariosBackend backend)) {
+                    return bean;
+                }
+                return Proxy.newProxyInstance(UsuariosBackend.class.getClassLoader(), new Class<?>[] {UsuariosBackend.class},
+                        (proxy, method, argumentos) -> {
+                            //remoto() é configuração, não chamada ao backend
+                            if (!method.isDefault()) {
+                                chamadas.increment();
+                                Thread.sleep(LATENCIA);
+                            }
+                            try {
+                                return method.invoke(backend, argumentos);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        });
+    }
+
+    // id de 1 a n com probabilidade proporcional a 1 / id^s
+    private static final class Zipf {
+
+        private final double[] acumulada;
+
+        Zipf(int n, double s) {
+            acumulada = new double[n];
+            double soma = 0;
+            for (int i = 0; i < n; i++) {
+                soma += 1 / Math.pow(i + 1, s);
+                acumulada[i] = soma;
+            }
+            for (int i = 0; i < n; i++) {
+                acumulada[i] /= soma;
+            }
+        }
+
+        int proximo() {
+            int i = Arrays.binarySearch(acumulada, ThreadLocalRandom.current().nextDouble());
+            return Math.min((i >= 0 ? i : -i - 1), acumulada.length - 1) + 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.controller.LivroController;
+import com.example.proj.envelope.LivrosEnvelope;
+import com.example.proj.model.Livro;
+import com.example.proj.store.LivroStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GET /api/livros (lista inteira) em JSON, CBOR e Smile, com e sem gzip: escrita da resposta
+ * (encode) e leitura pelo cliente numa árvore (decode). O tamanho de cada resposta sai no log
+ * do setup, para comparar com o tempo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ResponseFormatBenchmark {
+
+    @Param({"10000", "100000"})
+    private int catalogo;
+
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private LivrosEnvelope resposta;
+    private byte[] corpo;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setup() throws IOException {
+        context = BenchmarkContext.start();
+        //os mesmos mappers que os converters do Spring MVC usam para cada Accept
+        mapper = switch (formato) {
+            case "cbor" -> context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+            case "smile" -> context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+            default -> context.getBean(ObjectMapper.class);
+        };
+
+        LivroStore store = context.getBean(LivroStore.class);
+        for (int i = store.count(); i < catalogo; i++) {
+            store.save(new Livro(null, "Livro " + i, "Autor " + (i % 1000), "isbn-" + i));
+        }
+        resposta = context.getBean(LivroController.class).getAllLivros(null, null, null, null);
+        buffer = new ByteArrayOutputStream(1 << 20);
+        corpo = encode();
+        System.out.printf("%n%s%s com %,d livros: %,d bytes%n", formato, gzip ? "+gzip" : "", catalogo, corpo.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        buffer.reset();
+        try (OutputStream out = gzip ? new GZIPOutputStream(buffer, 8192) : buffer) {
+            mapper.writeValue(out, resposta);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public JsonNode decode() throws IOException {
+        try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(corpo), 8192) : new ByteArrayInputStream(corpo)) {
+            return mapper.readTree(in);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.model.Usuario;
+import com.example.proj.store.UsuarioStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+import org.springframework.ws.transport.TransportInputStream;
+import org.springframework.ws.transport.http.MessageDispatcherServlet;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * getAllUsuarios pelo MessageDispatcher do /ws respondido em XML e em Fast Infoset (Accept do
+ * request), com e sem o gzip que o Tomcat aplicaria: o tempo é a CPU do servidor por request,
+ * e o tamanho de cada resposta sai no log do setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoapEncodingBenchmark {
+
+    private static final byte[] GET_ALL_USUARIOS = """
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+            <soap:Body><usr:getAllUsuariosRequest><usr:streaming>true</usr:streaming></usr:getAllUsuariosRequest></soap:Body>
+            </soap:Envelope>""".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"100", "10000"})
+    private int usuarios;
+
+    @Param({"xml", "fastinfoset"})
+    private String formato;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ConfigurableApplicationContext context;
+    private WebServiceMessageFactory messageFactory;
+    private SoapMessageDispatcher dispatcher;
+    private Map<String, String> headers;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkContext.start();
+        messageFactory = context.getBean(MessageDispatcherServlet.DEFAULT_MESSAGE_FACTORY_BEAN_NAME, WebServiceMessageFactory.class);
+        dispatcher = new SoapMessageDispatcher();
+        dispatcher.setApplicationContext(context);
+
+        UsuarioStore store = context.getBean(UsuarioStore.class);
+        for (int i = store.count(); i < usuarios; i++) {
+            store.save(new Usuario(null, "Usuario " + i, "usuario" + i + "@bench.com"));
+        }
+
+        headers = Map.of("Content-Type", "text/xml; charset=utf-8",
+                "Accept", formato.equals("fastinfoset") ? "application/fastinfoset, text/xml" : "text/xml");
+        buffer = new ByteArrayOutputStream(1 << 20);
+        getAllUsuarios();
+        System.out.printf("%n%s%s com %,d usuários: %,d bytes%n", formato, gzip ? "+gzip" : "", usuarios, buffer.size());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getAllUsuarios() throws Exception {
+        WebServiceMessage request = messageFactory.createWebServiceMessage(new Request(GET_ALL_USUARIOS, headers));
+        MessageContext messageContext = new DefaultMessageContext(request, messageFactory);
+        dispatcher.receive(messageContext);
+        buffer.reset();
+        //o buffer faz o papel do buffer de 8KB da resposta do Tomcat, que fica antes do gzip
+        try (OutputStream out = new BufferedOutputStream(gzip ? new GZIPOutputStream(buffer, 8192) : buffer, 8192)) {
+            messageContext.getResponse().writeTo(out);
+        }
+        return buffer.size();
+    }
+
+    // request com headers HTTP, como o que o MessageDispatcherServlet entrega para a messageFactory
+    private static final class Request extends TransportInputStream {
+
+        private final byte[] corpo;
+        private final Map<String, String> headers;
+
+        Request(byte[] corpo, Map<String, String> headers) {
+            this.corpo = corpo;
+            this.headers = headers;
+        }
+
+        @Override
+        protected InputStream createInputStream() {
+            return new ByteArrayInputStream(corpo);
+        }
+
+        @Override
+        public Iterator<String> getHeaderNames() {
+            return headers.keySet().iterator();
+        }
+
+        @Override
+        public Iterator<String> getHeaders(String name) throws IOException {
+            String valor = headers.get(name);
+            return valor == null ? List.<String>of().iterator() : List.of(valor).iterator();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.controller.GatewayController;
+import com.example.proj.envelope.Link;
+import com.example.proj.gateway.GatewaySoapRoutesProperties;
+import com.example.proj.gateway.SoapJsonTranscoder;
+import com.example.proj.model.Usuario;
+import com.example.proj.store.UsuarioStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lista de usuários do gateway em JSON pelos dois caminhos, in-process:
+ * - dto: GatewayController tipado (GetAllUsuariosResponse → UsuarioXml → UsuariosEnvelope → Jackson)
+ * - transcoder: getAllUsuariosRequest pelo MessageDispatcher, XML do JAXB direto no JsonGenerator
+ * - transcoderStreaming: o mesmo com streaming=true, sem nenhum UsuarioXml
+ * Com -prof gc dá para comparar a alocação por request, que é o que o transcoder economiza.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoapTranscoderBenchmark {
+
+    private static final Link[] LINKS = {Link.fixo("self", "/gateway/usuarios")};
+
+    @Param({"100", "10000"})
+    private int usuarios;
+
+    private ConfigurableApplicationContext context;
+    private GatewayController gateway;
+    private ObjectMapper mapper;
+    private SoapJsonTranscoder transcoder;
+    private SoapJsonTranscoder.Operacao operacao;
+    private byte[] pedido;
+    private byte[] pedidoStreaming;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        gateway = context.getBean(GatewayController.class);
+        mapper = context.getBean(ObjectMapper.class);
+        transcoder = context.getBean(SoapJsonTranscoder.class);
+        operacao = transcoder.operacao(new GatewaySoapRoutesProperties.Route("/bench", "getAllUsuarios", false,
+                Map.of("usuario", "usuarios")));
+        pedido = transcoder.pedido(operacao, Map.of());
+        pedidoStreaming = transcoder.pedido(operacao, Map.of("streaming", "true"));
+
+        UsuarioStore store = context.getBean(UsuarioStore.class);
+        for (int i = store.count(); i < usuarios; i++) {
+            store.save(new Usuario(null, "Usuario " + i, "usuario" + i + "@bench.com"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void dto() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), gateway.getAllUsuariosViaGateway(null, null).getBody());
+    }
+
+    @Benchmark
+    public byte[] transcoder() {
+        return transcoder.transcodificar(operacao, pedido, MediaType.APPLICATION_JSON, LINKS).corpo();
+    }
+
+    @Benchmark
+    public byte[] transcoderStreaming() {
+        return transcoder.transcodificar(operacao, pedidoStreaming, MediaType.APPLICATION_JSON, LINKS).corpo();
+    }
+}
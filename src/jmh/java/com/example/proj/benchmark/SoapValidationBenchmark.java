@@ -0,0 +1,113 @@
+package com.example.proj.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+import org.springframework.ws.transport.http.MessageDispatcherServlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests SOAP por segundo com a validação do payload contra o usuarios.xsd
+ * ligada e desligada (soap.validation.enabled), pelo mesmo MessageDispatcher do /ws.
+ *
+ * - getUsuarioRequest: payload mínimo, mostra o custo fixo de validar
+ * - getUsuariosByIdsRequest: payload com 500 ids, mostra o custo por elemento
+ * - invalidRequest: payload fora do contrato; com a validação ligada vira Fault sem chegar no endpoint
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoapValidationBenchmark {
+
+    private static final String ENVELOPE = """
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+            <soap:Body>%s</soap:Body>
+            </soap:Envelope>""";
+
+    @Param({"off", "on"})
+    private String validacao;
+
+    private ConfigurableApplicationContext context;
+    private WebServiceMessageFactory messageFactory;
+    private SoapMessageDispatcher dispatcher;
+    private byte[] getUsuario;
+    private byte[] getUsuariosByIds;
+    private byte[] invalido;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("--soap.validation.enabled=" + "on".equals(validacao));
+        messageFactory = context.getBean(MessageDispatcherServlet.DEFAULT_MESSAGE_FACTORY_BEAN_NAME, WebServiceMessageFactory.class);
+        dispatcher = new SoapMessageDispatcher();
+        dispatcher.setApplicationContext(context);
+
+        StringBuilder ids = new StringBuilder("<usr:getUsuariosByIdsRequest>");
+        for (int i = 1; i <= 500; i++) {
+            ids.append("<usr:id>").append(i).append("</usr:id>");
+        }
+        ids.append("</usr:getUsuariosByIdsRequest>");
+
+        getUsuario = envelope("<usr:getUsuarioRequest><usr:id>1</usr:id></usr:getUsuarioRequest>");
+        getUsuariosByIds = envelope(ids.toString());
+        invalido = envelope("<usr:getUsuarioRequest><usr:id>abc</usr:id></usr:getUsuarioRequest>");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getUsuarioRequest() throws Exception {
+        dispatch(getUsuario);
+    }
+
+    @Benchmark
+    public void getUsuariosByIdsRequest() throws Exception {
+        dispatch(getUsuariosByIds);
+    }
+
+    @Benchmark
+    public void invalidRequest() throws Exception {
+        dispatch(invalido);
+    }
+
+    private void dispatch(byte[] envelope) throws Exception {
+        WebServiceMessage request = messageFactory.createWebServiceMessage(new ByteArrayInputStream(envelope));
+        MessageContext messageContext = new DefaultMessageContext(request, messageFactory);
+        try {
+            dispatcher.receive(messageContext);
+        } catch (Exception e) {
+            //sem a validação o "abc" só falha no unmarshal; aqui só interessa o tempo até a resposta
+        }
+        if (messageContext.hasResponse()) {
+            messageContext.getResponse().writeTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static byte[] envelope(String payload) {
+        return ENVELOPE.formatted(payload).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.model.Livro;
+import com.example.proj.model.Usuario;
+import com.example.proj.store.JournalProperties;
+import com.example.proj.store.LivroStore;
+import com.example.proj.store.StorePersistence;
+import com.example.proj.store.UsuarioStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de restart dos stores com 1M de livros e 100k usuários: só com o journal (queda
+ * sem snapshot) e com o snapshot gravado num shutdown normal.
+ *
+ * Os dados são gravados uma vez por fork; cada medição restaura uma cópia deles, num
+ * diretório novo (o close depois da medição grava um snapshot, que não pode valer para a
+ * próxima). Menos registros com -Djmh.args="StoreRestart -p registros=100000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StoreRestartBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreRestartBenchmark.class);
+    private static final int LOTE = 10_000;
+
+    @Param({"1000000"})
+    private int registros;
+
+    @Param({"journal", "snapshot"})
+    private String modo;
+
+    private final List<Path> temporarios = new ArrayList<>();
+    private Path origem;
+    private Path dir;
+    private StorePersistence restaurado;
+
+    @Setup(Level.Trial)
+    public void gravar() throws IOException {
+        origem = temporario();
+        //grava e "cai": a persistência nunca é fechada, então não existe snapshot
+        LivroStore livros = new LivroStore();
+        UsuarioStore usuarios = new UsuarioStore();
+        abrir(origem, livros, usuarios);
+        long inicio = System.nanoTime();
+        for (int primeiro = 0; primeiro < registros; primeiro += LOTE) {
+            List<Livro> loteLivros = new ArrayList<>(LOTE);
+            List<Usuario> loteUsuarios = new ArrayList<>(LOTE / 10);
+            for (int i = primeiro; i < Math.min(primeiro + LOTE, registros); i++) {
+                loteLivros.add(new Livro(null, "Livro " + i, "Autor " + (i % 1000), "isbn-" + i));
+                if (i % 10 == 0) {
+                    loteUsuarios.add(new Usuario(null, "Usuario " + i, "usuario" + i + "@email.com"));
+                }
+            }
+            livros.saveAll(loteLivros);
+            usuarios.saveAll(loteUsuarios);
+        }
+        log.info("gravação no journal ({} livros, {} usuarios): {} ms", registros, registros / 10,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+
+        if (modo.equals("snapshot")) {
+            Path copia = copiar(origem);
+            abrir(copia, new LivroStore(), new UsuarioStore()).close();
+            origem = copia;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void preparar() throws IOException {
+        dir = copiar(origem);
+    }
+
+    @Benchmark
+    public StorePersistence restart() throws IOException {
+        LivroStore livros = new LivroStore();
+        UsuarioStore usuarios = new UsuarioStore();
+        restaurado = abrir(dir, livros, usuarios);
+        if (livros.count() != registros + 2 || usuarios.count() != registros / 10 + 2) {
+            throw new IllegalStateException("Restauração incompleta: " + livros.count() + " livros, " + usuarios.count() + " usuarios");
+        }
+        return restaurado;
+    }
+
+    @TearDown(Level.Iteration)
+    public void fechar() throws IOException {
+        restaurado.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @TearDown(Level.Trial)
+    public void apagar() throws IOException {
+        for (Path temporario : temporarios) {
+            FileSystemUtils.deleteRecursively(temporario);
+        }
+    }
+
+    private Path temporario() throws IOException {
+        Path temporario = Files.createTempDirectory("store-restart");
+        temporarios.add(temporario);
+        return temporario;
+    }
+
+    private static StorePersistence abrir(Path dir, LivroStore livros, UsuarioStore usuarios) throws IOException {
+        return new StorePersistence(livros, usuarios,
+                new JournalProperties(true, dir, DataSize.ofMegabytes(64), true, Duration.ZERO));
+    }
+
+    private Path copiar(Path origem) throws IOException {
+        Path copia = temporario();
+        try (var arquivos = Files.list(origem)) {
+            for (Path arquivo : arquivos.toList()) {
+                Files.copy(arquivo, copia.resolve(arquivo.getFileName()));
+            }
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.proj.benchmark;
+
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosResponse;
+import com.example.proj.controller.UsuarioSoapController.UsuarioXml;
+import com.example.proj.model.Usuario;
+import com.example.proj.store.UsuarioStore;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+import org.springframework.ws.transport.http.MessageDispatcherServlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tratamento de requests SOAP de usuários sem o HTTP: envelope lido pela
+ * messageFactory, despachado pelo mesmo MessageDispatcher do /ws (unmarshal,
+ * @Endpoint, marshal) e escrito. Também mede só o JAXB do GetAllUsuariosResponse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsuarioSoapBenchmark {
+
+    private static final String ENVELOPE = """
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+            <soap:Body>%s</soap:Body>
+            </soap:Envelope>""";
+
+    @Param({"10", "1000", "10000"})
+    private int usuarios;
+
+    private ConfigurableApplicationContext context;
+    private WebServiceMessageFactory messageFactory;
+    private SoapMessageDispatcher dispatcher;
+    private JAXBContext jaxbContext;
+    private GetAllUsuariosResponse response;
+    private byte[] responseXml;
+    private byte[] getUsuario;
+    private byte[] getAllUsuarios;
+    private byte[] getAllUsuariosStreaming;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkContext.start();
+        messageFactory = context.getBean(MessageDispatcherServlet.DEFAULT_MESSAGE_FACTORY_BEAN_NAME, WebServiceMessageFactory.class);
+        dispatcher = new SoapMessageDispatcher();
+        dispatcher.setApplicationContext(context);
+
+        UsuarioStore store = context.getBean(UsuarioStore.class);
+        for (int i = store.count(); i < usuarios; i++) {
+            store.save(new Usuario(null, "Usuario " + i, "usuario" + i + "@bench.com"));
+        }
+
+        jaxbContext = JAXBContext.newInstance(GetAllUsuariosResponse.class);
+        response = new GetAllUsuariosResponse();
+        for (Usuario usuario : store.findAll()) {
+            UsuarioXml xml = new UsuarioXml();
+            xml.setId(usuario.getId());
+            xml.setNome(usuario.getNome());
+            xml.setEmail(usuario.getEmail());
+            response.getUsuarios().add(xml);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        jaxbContext.createMarshaller().marshal(response, out);
+        responseXml = out.toByteArray();
+
+        getUsuario = envelope("<usr:getUsuarioRequest><usr:id>1</usr:id></usr:getUsuarioRequest>");
+        getAllUsuarios = envelope("<usr:getAllUsuariosRequest/>");
+        getAllUsuariosStreaming = envelope("<usr:getAllUsuariosRequest><usr:streaming>true</usr:streaming></usr:getAllUsuariosRequest>");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getUsuarioRequest() throws Exception {
+        dispatch(getUsuario);
+    }
+
+    @Benchmark
+    public void getAllUsuariosRequest() throws Exception {
+        dispatch(getAllUsuarios);
+    }
+
+    @Benchmark
+    public void getAllUsuariosRequestStreaming() throws Exception {
+        dispatch(getAllUsuariosStreaming);
+    }
+
+    @Benchmark
+    public void marshalGetAllUsuariosResponse(Jaxb jaxb) throws JAXBException {
+        jaxb.marshaller.marshal(response, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public Object unmarshalGetAllUsuariosResponse(Jaxb jaxb) throws JAXBException {
+        return jaxb.unmarshaller.unmarshal(new ByteArrayInputStream(responseXml));
+    }
+
+    private void dispatch(byte[] envelope) throws Exception {
+        WebServiceMessage request = messageFactory.createWebServiceMessage(new ByteArrayInputStream(envelope));
+        MessageContext messageContext = new DefaultMessageContext(request, messageFactory);
+        dispatcher.receive(messageContext);
+        messageContext.getResponse().writeTo(OutputStream.nullOutputStream());
+    }
+
+    private static byte[] envelope(String payload) {
+        return ENVELOPE.formatted(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Marshaller/Unmarshaller não são thread-safe: um par por thread, criado do mesmo JAXBContext.
+     */
+    @State(Scope.Thread)
+    public static class Jaxb {
+
+        private Marshaller marshaller;
+        private Unmarshaller unmarshaller;
+
+        @Setup(Level.Trial)
+        public void setup(UsuarioSoapBenchmark benchmark) throws JAXBException {
+            marshaller = benchmark.jaxbContext.createMarshaller();
+            unmarshaller = benchmark.jaxbContext.createUnmarshaller();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.proj.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Saturação do gateway com platform threads (pool do Tomcat) e com virtual threads.
+ *
+ * O backend é um stub que demora LATENCIA para responder, como um serviço remoto de verdade:
+ * enquanto espera, a thread do request no gateway fica bloqueada. Com o pool de 200 platform
+ * threads a vazão para em ~200 / LATENCIA e o resto dos clientes espera na fila do Tomcat
+ * (p99 alto); com virtual threads a espera não ocupa thread nenhuma. O p50/p99 sai da
+ * distribuição do modo SampleTime; os erros de cada iteração vão para o log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 1, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(VirtualThreadsBenchmark.CLIENTES)
+public class VirtualThreadsBenchmark {
+
+    static final int CLIENTES = 1_000;
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsBenchmark.class);
+    private static final Duration LATENCIA = Duration.ofSeconds(1);
+
+    private static final String SOAP_USUARIO = """
+            <SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/"><SOAP-ENV:Body>
+            <getUsuarioResponse xmlns="http://proj.example.com/usuario"><usuario><id>1</id><nome>Stub</nome><email>stub@email.com</email></usuario></getUsuarioResponse>
+            </SOAP-ENV:Body></SOAP-ENV:Envelope>""";
+
+    @Param({"false", "true"})
+    private boolean virtual;
+
+    @Param({"/gateway/livros/1", "/gateway/usuarios/1"})
+    private String rota;
+
+    private final LongAdder erros = new LongAdder();
+    private HttpServer stub;
+    private ExecutorService stubExecutor;
+    private ConfigurableApplicationContext gateway;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setup() throws IOException {
+        startStub();
+        String backend = "http://localhost:" + stub.getAddress().getPort();
+        gateway = BenchmarkContext.startServer(
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.threads.max=200",
+                "--server.tomcat.max-connections=" + (CLIENTES * 2),
+                "--server.tomcat.accept-count=" + CLIENTES,
+                //só o modo de execução limita: sem rate limit, cache, coalescing, bulkhead nem timeout curto
+                "--gateway.admission.enabled=false",
+                "--gateway.cache.enabled=false",
+                "--gateway.coalescing.enabled=false",
+                "--gateway.resilience.enabled=false",
+                "--gateway.backend.mode=remote",
+                "--gateway.backend.connect-timeout=10s", //com virtual threads o gateway abre CLIENTES conexões de uma vez
+                "--gateway.backend.livros.url=" + backend,
+                "--gateway.backend.livros.timeout=30s",
+                "--gateway.backend.usuarios.url=" + backend + "/ws",
+                "--gateway.backend.usuarios.timeout=30s");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create(BenchmarkContext.url(gateway) + rota))
+                .timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    @Setup(Level.Iteration)
+    public void zerar() {
+        erros.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void registrar() {
+        log.info("{} {}: {} erros", rota, virtual ? "virtual" : "platform", erros.sum());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        gateway.close();
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int get() throws InterruptedException {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                erros.increment();
+            }
+            return response.statusCode();
+        } catch (IOException e) {
+            erros.increment();
+            return 0;
+        }
+    }
+
+    // backend lento: cada resposta espera LATENCIA numa thread do stub (pool sem limite)
+    private void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), CLIENTES);
+        stubExecutor = Executors.newCachedThreadPool();
+        stub.setExecutor(stubExecutor);
+        stub.createContext("/api/livros", exchange -> reply(exchange, "application/json", """
+                {"livro":{"id":1,"titulo":"Livro remoto","autor":"Stub","isbn":"1"},"_links":{"self":"/api/livros/1"}}"""));
+        stub.createContext("/ws", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            reply(exchange, "text/xml; charset=utf-8", SOAP_USUARIO);
+        });
+        stub.start();
+    }
+
+    private static void reply(HttpExchange exchange, String contentType, String body) throws IOException {
+        try {
+            Thread.sleep(LATENCIA);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.proj.load;
+
+import com.example.proj.events.ChangeFeed;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Milhares de assinantes parados no /gateway/events de uma aplicação no ar: threads e heap
+ * do servidor com as conexões abertas (pelo /actuator/metrics) e o tempo para um livro
+ * criado chegar em todos.
+ *
+ * Da mesma máquina os assinantes são um cliente só (o IP) para o controle de admissão: as
+ * conexões recusadas (429 e 503) tentam de novo depois do Retry-After, e o tempo para conectar
+ * todos inclui essa espera. O cliente abre uma conexão por assinante (cuidado com o ulimit -n).
+ * Roda com o profile load, que sobe a aplicação antes:
+ * mvn -Pload verify -Dload.main=com.example.proj.load.EventsBenchmark -Dload.args="--assinantes=5000"
+ */
+public class EventsBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(EventsBenchmark.class);
+    private static final Duration LIMITE = Duration.ofMinutes(2);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = Opcoes.ler(args);
+        URI url = URI.create(opcoes.getOrDefault("url", "http://localhost:8080"));
+        int assinantes = Integer.parseInt(opcoes.getOrDefault("assinantes", "5000"));
+
+        //sem close no fim: ele esperaria os streams, que não terminam
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            long threadsAntes = metrica(client, url, "jvm.threads.live");
+            long heapAntes = metrica(client, url, "jvm.memory.used?tag=area:heap");
+
+            CountDownLatch recebido = new CountDownLatch(assinantes);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < assinantes; i++) {
+                assinar(client, HttpRequest.newBuilder(url.resolve("/gateway/events")).build(), recebido);
+            }
+            while (metrica(client, url, "gateway.events.subscribers") < assinantes) {
+                if (System.nanoTime() - inicio > LIMITE.toNanos()) {
+                    throw new IllegalStateException("Os " + assinantes + " assinantes não conectaram em " + LIMITE.toSeconds() + "s");
+                }
+                Thread.sleep(50);
+            }
+            long conectar = System.nanoTime() - inicio;
+            long threads = metrica(client, url, "jvm.threads.live");
+            long heapPorAssinante = (metrica(client, url, "jvm.memory.used?tag=area:heap") - heapAntes) / assinantes;
+
+            HttpRequest livro = HttpRequest.newBuilder(url.resolve("/api/livros"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"titulo\":\"Para todos\",\"autor\":\"Feed\",\"isbn\":\"feed-" + System.nanoTime() + "\"}"))
+                    .build();
+            long publicado;
+            HttpResponse<Void> criado;
+            do {
+                publicado = System.nanoTime();
+                criado = client.send(livro, HttpResponse.BodyHandlers.discarding());
+                if (recusado(criado)) {
+                    TimeUnit.SECONDS.sleep(retryAfter(criado));
+                }
+            } while (recusado(criado));
+            if (criado.statusCode() != 200) {
+                throw new IllegalStateException("POST /api/livros respondeu " + criado.statusCode());
+            }
+            if (!recebido.await(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException((assinantes - recebido.getCount()) + " de " + assinantes + " assinantes receberam o evento");
+            }
+            long entregar = System.nanoTime() - publicado;
+
+            //o heap é o usado no momento, sem GC forçado: serve de ordem de grandeza
+            log.info("{} assinantes: conectados em {} ms, threads do servidor {} -> {}, ~{} bytes de heap por assinante, "
+                    + "evento entregue a todos em {} ms", assinantes, TimeUnit.NANOSECONDS.toMillis(conectar),
+                    threadsAntes, threads, heapPorAssinante, TimeUnit.NANOSECONDS.toMillis(entregar));
+        } finally {
+            client.shutdownNow();
+        }
+    }
+
+    // a rajada de conexões passa do rate limit (429) e do limite de concorrência (503): tenta de novo
+    private static void assinar(HttpClient client, HttpRequest request, CountDownLatch recebido) {
+        client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new Contador(recebido)))
+                .thenAccept(response -> {
+                    if (recusado(response)) {
+                        CompletableFuture.delayedExecutor(retryAfter(response), TimeUnit.SECONDS)
+                                .execute(() -> assinar(client, request, recebido));
+                    }
+                });
+    }
+
+    private static boolean recusado(HttpResponse<?> response) {
+        return response.statusCode() == 429 || response.statusCode() == 503;
+    }
+
+    private static long retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValueAsLong("Retry-After").orElse(1);
+    }
+
+    // valor de uma métrica do /actuator/metrics (o "?tag=" vai junto no nome)
+    private static long metrica(HttpClient client, URI url, String nome) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(url.resolve("/actuator/metrics/" + nome)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("/actuator/metrics/" + nome + " respondeu " + response.statusCode());
+        }
+        JsonNode json = mapper.readTree(response.body());
+        return (long) json.path("measurements").path(0).path("value").asDouble();
+    }
+
+    // conta a chegada do evento (linha "event:") sem segurar thread no cliente
+    private static final class Contador implements Flow.Subscriber<String> {
+
+        private final CountDownLatch recebido;
+
+        Contador(CountDownLatch recebido) {
+            this.recebido = recebido;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String linha) {
+            if (linha.startsWith("event:" + ChangeFeed.LIVRO_CRIADO)) {
+                recebido.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable erro) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.proj.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * GERADOR DE CARGA EM MODELO ABERTO
+ *
+ * Dispara o mix de operações REST (/api/livros), gateway (/gateway/**) e SOAP (/ws) numa taxa
+ * fixa: o request i sai em inicio + i/rate, esteja a aplicação respondendo ou não, e a latência
+ * é contada desse horário planejado. Num modelo fechado (N clientes que esperam a resposta
+ * para mandar o próximo) um servidor travado faz os clientes pararem de mandar e a pausa some
+ * das estatísticas (coordinated omission); aqui ela aparece inteira no p99.
+ *
+ * Os requests são distribuídos entre --clients valores do X-API-Key (load-0, load-1...), para o
+ * rate limit por cliente do AdmissionFilter enxergar vários clientes e não um só; a aplicação só
+ * separa as chaves de gateway.admission.client-keys, que o profile load preenche com as de
+ * -Dload.client-keys (load-0 a load-19). Os primeiros --warmup
+ * segundos não entram no relatório. Roda com o profile load, que sobe a aplicação antes:
+ * mvn -Pload verify -Dload.args="--rate=500 --duration=60s"
+ */
+public class LoadGenerator {
+
+    /**
+     * Opções da linha de comando (--chave=valor).
+     */
+    record Config(URI url, double rate, Duration duration, Duration warmup, String mix, int clients,
+                  Duration timeout, Path report, long seed) {
+
+        static Config ler(String... args) {
+            Map<String, String> opcoes = Opcoes.ler(args);
+            Config config = new Config(
+                    URI.create(opcoes.getOrDefault("url", "http://localhost:8080")),
+                    Double.parseDouble(opcoes.getOrDefault("rate", "200")),
+                    DurationStyle.detectAndParse(opcoes.getOrDefault("duration", "30s")),
+                    DurationStyle.detectAndParse(opcoes.getOrDefault("warmup", "5s")),
+                    opcoes.getOrDefault("mix", LoadMix.PADRAO),
+                    Integer.parseInt(opcoes.getOrDefault("clients", "20")),
+                    DurationStyle.detectAndParse(opcoes.getOrDefault("timeout", "5s")),
+                    Path.of(opcoes.getOrDefault("report", "target/load-report.json")),
+                    Long.parseLong(opcoes.getOrDefault("seed", "42")));
+            if (config.rate() <= 0 || config.clients() <= 0 || config.duration().isZero() || config.duration().isNegative()) {
+                throw new IllegalArgumentException("rate, clients e duration precisam ser positivos");
+            }
+            return config;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.ler(args);
+        LoadMix mix = LoadMix.ler(config.mix());
+        LoadReport report = new LoadReport(mix);
+
+        System.out.printf("%s: %.0f req/s por %ds (+%ds de aquecimento), %d clientes%n", config.url(), config.rate(),
+                config.duration().toSeconds(), config.warmup().toSeconds(), config.clients());
+        Instant inicio = Instant.now();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(config.timeout())
+                     .executor(executor)
+                     .build()) {
+            disparar(config, mix, report, client);
+        } //o close do HttpClient espera os requests em andamento (no máximo --timeout)
+
+        LoadReport.Relatorio relatorio = report.relatorio(config, inicio, config.duration().toNanos() / 1e9);
+        LoadReport.gravar(relatorio, config.report());
+        System.out.print(LoadReport.tabela(relatorio));
+        System.out.println("Relatório: " + config.report().toAbsolutePath());
+        if (relatorio.total().throughput() == 0) {
+            System.out.println("Nenhuma resposta de sucesso: a aplicação está no ar em " + config.url() + "?");
+        }
+    }
+
+    private static void disparar(Config config, LoadMix mix, LoadReport report, HttpClient client) {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        double intervalo = 1e9 / config.rate();
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + config.warmup().toNanos();
+        long fim = inicioMedicao + config.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long planejado = inicio + (long) (i * intervalo);
+            if (planejado >= fim) {
+                break;
+            }
+            //atrasado (GC, máquina ocupada) não pula requests: sai tudo o que devia ter saído
+            for (long espera = planejado - System.nanoTime(); espera > 0; espera = planejado - System.nanoTime()) {
+                LockSupport.parkNanos(espera);
+            }
+            LoadMix.Operacao operacao = mix.sortear(random);
+            HttpRequest request = operacao.request().montar(config.url(), random)
+                    .header("X-API-Key", "load-" + i % config.clients())
+                    .timeout(config.timeout())
+                    .build();
+            boolean medir = planejado >= inicioMedicao;
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+                long latencia = System.nanoTime() - planejado;
+                if (medir) {
+                    if (resposta != null) {
+                        report.resposta(operacao.nome(), resposta.statusCode(), latencia);
+                    } else {
+                        report.semResposta(operacao.nome());
+                    }
+                }
+            });
+        }
+    }
+}
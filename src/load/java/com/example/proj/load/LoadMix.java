@@ -0,0 +1,109 @@
+package com.example.proj.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * As operações que o gerador sabe disparar e o peso de cada uma no mix.
+ *
+ * Cada operação monta um request novo a cada sorteio (id sorteado entre os dados iniciais
+ * dos stores), então o cache do gateway e o coalescing funcionam como com clientes reais.
+ * O mix vem como "nome:peso,nome:peso"; operações fora dele não são disparadas.
+ */
+final class LoadMix {
+
+    static final String PADRAO = "rest-livros:25,rest-livro:15,rest-search:10,gateway-livros:10,"
+            + "gateway-usuarios:10,gateway-usuario:5,gateway-dashboard:5,soap-getAllUsuarios:10,soap-getUsuario:10";
+
+    private static final String SOAP_NS = "http://proj.example.com/usuario";
+    private static final int LIVROS = 2; //dados iniciais do LivroStore
+    private static final int USUARIOS = 2; //dados iniciais do UsuarioStore
+
+    /**
+     * Monta o request de uma operação a partir da URL base da aplicação.
+     */
+    interface Request {
+        HttpRequest.Builder montar(URI base, RandomGenerator random);
+    }
+
+    record Operacao(String nome, int peso, Request request) {
+    }
+
+    private static final Map<String, Request> CATALOGO = new LinkedHashMap<>();
+
+    static {
+        CATALOGO.put("rest-livros", (base, random) -> get(base, "/api/livros?limit=20"));
+        CATALOGO.put("rest-livro", (base, random) -> get(base, "/api/livros/" + (1 + random.nextInt(LIVROS))));
+        CATALOGO.put("rest-search", (base, random) -> get(base, "/api/livros/search?q=clean"));
+        CATALOGO.put("gateway-livros", (base, random) -> get(base, "/gateway/livros?limit=20"));
+        CATALOGO.put("gateway-usuarios", (base, random) -> get(base, "/gateway/usuarios"));
+        CATALOGO.put("gateway-usuario", (base, random) -> get(base, "/gateway/usuarios/" + (1 + random.nextInt(USUARIOS))));
+        CATALOGO.put("gateway-dashboard", (base, random) -> get(base, "/gateway/dashboard"));
+        CATALOGO.put("soap-getAllUsuarios", (base, random) -> soap(base, "<u:getAllUsuariosRequest/>"));
+        CATALOGO.put("soap-getUsuario", (base, random) -> soap(base,
+                "<u:getUsuarioRequest><u:id>" + (1 + random.nextInt(USUARIOS)) + "</u:id></u:getUsuarioRequest>"));
+    }
+
+    private final List<Operacao> operacoes;
+    private final int pesoTotal;
+
+    private LoadMix(List<Operacao> operacoes) {
+        this.operacoes = operacoes;
+        this.pesoTotal = operacoes.stream().mapToInt(Operacao::peso).sum();
+    }
+
+    /**
+     * @throws IllegalArgumentException se o mix cita uma operação que não existe ou um peso inválido
+     */
+    static LoadMix ler(String mix) {
+        List<Operacao> operacoes = new ArrayList<>();
+        for (String item : mix.split(",")) {
+            String[] partes = item.strip().split(":");
+            Request request = CATALOGO.get(partes[0]);
+            if (request == null) {
+                throw new IllegalArgumentException("Operação desconhecida no mix: " + partes[0]
+                        + " (disponíveis: " + String.join(", ", CATALOGO.keySet()) + ")");
+            }
+            int peso = partes.length > 1 ? Integer.parseInt(partes[1]) : 1;
+            if (peso <= 0) {
+                throw new IllegalArgumentException("Peso inválido para " + partes[0] + ": " + peso);
+            }
+            operacoes.add(new Operacao(partes[0], peso, request));
+        }
+        return new LoadMix(List.copyOf(operacoes));
+    }
+
+    List<Operacao> operacoes() {
+        return operacoes;
+    }
+
+    Operacao sortear(RandomGenerator random) {
+        int valor = random.nextInt(pesoTotal);
+        for (Operacao operacao : operacoes) {
+            valor -= operacao.peso();
+            if (valor < 0) {
+                return operacao;
+            }
+        }
+        throw new IllegalStateException(); //nunca: valor < pesoTotal
+    }
+
+    private static HttpRequest.Builder get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET();
+    }
+
+    private static HttpRequest.Builder soap(URI base, String payload) {
+        String envelope = "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:u=\""
+                + SOAP_NS + "\"><soapenv:Body>" + payload + "</soapenv:Body></soapenv:Envelope>";
+        return HttpRequest.newBuilder(base.resolve("/ws"))
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", "\"\"")
+                .POST(HttpRequest.BodyPublishers.ofString(envelope, StandardCharsets.UTF_8));
+    }
+}
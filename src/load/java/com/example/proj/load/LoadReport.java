@@ -0,0 +1,132 @@
+package com.example.proj.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latência e contadores de cada operação durante a medição.
+ *
+ * A latência vai num Recorder do HdrHistogram (escrita sem lock, de qualquer thread) em
+ * microssegundos, contada a partir do horário em que o request deveria ter saído. Requests
+ * que nem chegaram a ter resposta (timeout, conexão recusada) só entram em errors.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTIS = {50, 90, 99, 99.9};
+    private static final String[] NOMES = {"p50", "p90", "p99", "p99.9"};
+
+    private final Map<String, Medidas> operacoes = new LinkedHashMap<>();
+
+    private static final class Medidas {
+        final Recorder latencia = new Recorder(3);
+        final LongAdder semResposta = new LongAdder();
+        final Map<Integer, LongAdder> status = new ConcurrentHashMap<>();
+    }
+
+    LoadReport(LoadMix mix) {
+        for (LoadMix.Operacao operacao : mix.operacoes()) {
+            operacoes.put(operacao.nome(), new Medidas());
+        }
+    }
+
+    void resposta(String operacao, int status, long latenciaNanos) {
+        Medidas medidas = operacoes.get(operacao);
+        medidas.latencia.recordValue(Math.max(1, latenciaNanos / 1_000));
+        medidas.status.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void semResposta(String operacao) {
+        operacoes.get(operacao).semResposta.increment();
+    }
+
+    /**
+     * Latência em milissegundos, como sai no JSON. errors conta as respostas 4xx/5xx e os
+     * requests sem resposta; throughput é só das respostas de sucesso.
+     */
+    record Latencia(long count, double mean, Map<String, Double> percentiles, double max) {
+    }
+
+    record Resultado(long requests, long errors, double throughput, Map<Integer, Long> status, Latencia latencyMs) {
+    }
+
+    record Relatorio(String url, double rate, long warmupSeconds, long durationSeconds, int clients, Instant startedAt,
+                     Resultado total, Map<String, Resultado> operations) {
+    }
+
+    /**
+     * Fecha a medição: cada Recorder é lido uma vez, então só pode ser chamado no fim.
+     */
+    Relatorio relatorio(LoadGenerator.Config config, Instant inicio, double segundos) {
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        Histogram total = new Histogram(3);
+        Map<Integer, Long> statusTotal = new TreeMap<>();
+        long semResposta = 0;
+        for (Map.Entry<String, Medidas> entrada : operacoes.entrySet()) {
+            Medidas medidas = entrada.getValue();
+            Histogram histograma = medidas.latencia.getIntervalHistogram();
+            total.add(histograma);
+            Map<Integer, Long> status = new TreeMap<>();
+            medidas.status.forEach((codigo, contador) -> status.put(codigo, contador.sum()));
+            status.forEach((codigo, quantos) -> statusTotal.merge(codigo, quantos, Long::sum));
+            semResposta += medidas.semResposta.sum();
+            resultados.put(entrada.getKey(), resultado(medidas.semResposta.sum(), segundos, status, histograma));
+        }
+        return new Relatorio(config.url().toString(), config.rate(), config.warmup().toSeconds(),
+                config.duration().toSeconds(), config.clients(), inicio,
+                resultado(semResposta, segundos, statusTotal, total), resultados);
+    }
+
+    private static Resultado resultado(long semResposta, double segundos, Map<Integer, Long> status, Histogram histograma) {
+        long ok = status.entrySet().stream().filter(e -> e.getKey() < 400).mapToLong(Map.Entry::getValue).sum();
+        long falhas = status.entrySet().stream().filter(e -> e.getKey() >= 400).mapToLong(Map.Entry::getValue).sum();
+        Map<String, Double> percentis = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTIS.length; i++) {
+            percentis.put(NOMES[i], ms(histograma.getValueAtPercentile(PERCENTIS[i])));
+        }
+        Latencia latencia = new Latencia(histograma.getTotalCount(), ms(histograma.getMean()), percentis,
+                ms(histograma.getMaxValue()));
+        return new Resultado(ok + falhas + semResposta, falhas + semResposta, ok / segundos, status, latencia);
+    }
+
+    private static double ms(double micros) {
+        return Math.round(micros) / 1_000.0;
+    }
+
+    static void gravar(Relatorio relatorio, Path arquivo) throws IOException {
+        Path pasta = arquivo.toAbsolutePath().getParent();
+        if (pasta != null) {
+            Files.createDirectories(pasta);
+        }
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(arquivo.toFile(), relatorio);
+    }
+
+    static String tabela(Relatorio relatorio) {
+        StringBuilder saida = new StringBuilder(String.format("%-20s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operação", "requests", "erros", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        relatorio.operations().forEach((nome, resultado) -> linha(saida, nome, resultado));
+        linha(saida, "total", relatorio.total());
+        return saida.toString();
+    }
+
+    private static void linha(StringBuilder saida, String nome, Resultado resultado) {
+        Map<String, Double> p = resultado.latencyMs().percentiles();
+        saida.append(String.format("%-20s %,10d %,8d %,10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", nome, resultado.requests(),
+                resultado.errors(), resultado.throughput(), p.get("p50"), p.get("p90"), p.get("p99"), p.get("p99.9"),
+                resultado.latencyMs().max()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.proj.load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opções da linha de comando dos programas de carga, no formato --chave=valor.
+ */
+final class Opcoes {
+
+    private Opcoes() {
+    }
+
+    static Map<String, String> ler(String... args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --chave=valor)");
+            }
+            int igual = arg.indexOf('=');
+            opcoes.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+        return opcoes;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.proj.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tempo até o primeiro request respondido e memória residente (RSS, do /proc) da aplicação
+ * subindo em cada modo, cada um num processo novo:
+ * - padrão: java -jar, com springdoc e WSDL montado na inicialização
+ * - fast: profile fast (sem springdoc, WSDL pré-gerado)
+ * - fast + AOT: com o código gerado pelo process-aot
+ * - fast + AOT + CDS: com o arquivo de classes gravado no build
+ * Usa o que o mvn -Pfast-startup package gera em target/ (--jar, --cds) e sobe cada modo
+ * --runs vezes, registrando a mediana. Só em Linux:
+ * mvn -Pfast-startup package && mvn -Pload test-compile exec:exec@startup-benchmark -Dload.args="--runs=5"
+ */
+public class StartupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmark.class);
+    private static final Duration LIMITE = Duration.ofMinutes(2);
+
+    private record Modo(String nome, List<String> jvm, List<String> app) {
+    }
+
+    private record Medida(long primeiroRequestMs, long rssMb) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = Opcoes.ler(args);
+        Path jar = Path.of(opcoes.getOrDefault("jar", "target/proj-0.0.1-SNAPSHOT.jar"));
+        Path cds = Path.of(opcoes.getOrDefault("cds", "target/app.jsa"));
+        int execucoes = Integer.parseInt(opcoes.getOrDefault("runs", "3"));
+        if (!Files.exists(jar) || !Files.exists(cds)) {
+            throw new IllegalStateException(jar + " e " + cds + " não existem: rode antes mvn -Pfast-startup package");
+        }
+        List<String> fast = List.of("--spring.profiles.active=fast");
+        List<Modo> modos = List.of(
+                new Modo("padrão", List.of(), List.of()),
+                new Modo("fast", List.of(), fast),
+                new Modo("fast + AOT", List.of("-Dspring.aot.enabled=true"), fast),
+                new Modo("fast + AOT + CDS", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + cds), fast));
+
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            for (Modo modo : modos) {
+                List<Medida> medidas = new ArrayList<>();
+                for (int i = 0; i < execucoes; i++) {
+                    medidas.add(subir(client, jar, modo));
+                }
+                medidas.sort(Comparator.comparingLong(Medida::primeiroRequestMs));
+                Medida mediana = medidas.get(medidas.size() / 2);
+                log.info("{}: 1º request em {} ms (mediana de {}), RSS {} MB",
+                        modo.nome(), mediana.primeiroRequestMs(), execucoes, mediana.rssMb());
+            }
+        }
+    }
+
+    private static Medida subir(HttpClient client, Path jar, Modo modo) throws Exception {
+        int porta = portaLivre();
+        List<String> comando = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        comando.addAll(modo.jvm());
+        comando.addAll(List.of("-jar", jar.toString(), "--server.port=" + porta));
+        comando.addAll(modo.app());
+
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/livros")).build();
+            while (true) {
+                if (!processo.isAlive()) {
+                    throw new IllegalStateException("A aplicação parou no modo " + modo.nome());
+                }
+                if (System.nanoTime() - inicio > LIMITE.toNanos()) {
+                    throw new IllegalStateException("O modo " + modo.nome() + " não respondeu em " + LIMITE.toSeconds() + "s");
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException e) {
+                    //ainda subindo
+                }
+                Thread.sleep(10);
+            }
+            long primeiroRequest = Duration.ofNanos(System.nanoTime() - inicio).toMillis();
+            return new Medida(primeiroRequest, rssMb(processo.pid()));
+        } finally {
+            processo.destroy();
+            processo.waitFor();
+        }
+    }
+
+    private static long rssMb(long pid) throws IOException {
+        for (String linha : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (linha.startsWith("VmRSS:")) {
+                return Long.parseLong(linha.replaceAll("\\D", "")) / 1024; //em kB no /proc
+            }
+        }
+        throw new IllegalStateException("VmRSS não encontrado para o processo " + pid);
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
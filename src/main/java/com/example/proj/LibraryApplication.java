@@ -4,11 +4,15 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.servers.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import java.net.InetAddress;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @OpenAPIDefinition(
     info = @Info(
         title = "Library API Gateway",
@@ -26,30 +30,34 @@ import java.net.InetAddress;
 )
 public class LibraryApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(LibraryApplication.class);
+
     public static void main(String[] args) {
         SpringApplication.run(LibraryApplication.class, args);
         
         try {
             String localIP = InetAddress.getLocalHost().getHostAddress();
-            System.out.println("\n=================================================");
-            System.out.println("🚀 Library API Gateway iniciado com sucesso!");
-            System.out.println("=================================================");
-            System.out.println("📱 ACESSO LOCAL:");
-            System.out.println("📋 Swagger UI: http://localhost:8080/swagger-ui.html");
-            System.out.println("🌐 Cliente Web: http://localhost:8080/");
-            System.out.println("🚺 Gateway: http://localhost:8080/gateway");
-            System.out.println("📚 REST API: http://localhost:8080/api/livros");
-            System.out.println("🌐 SOAP WSDL: http://localhost:8080/ws/usuarios.wsdl");
-            System.out.println("=================================================");
-            System.out.println("🌍 ACESSO NA REDE:");
-            System.out.println("📋 Swagger UI: http://" + localIP + ":8080/swagger-ui.html");
-            System.out.println("🌐 Cliente Web: http://" + localIP + ":8080/");
-            System.out.println("🚺 Gateway: http://" + localIP + ":8080/gateway");
-            System.out.println("📚 REST API: http://" + localIP + ":8080/api/livros");
-            System.out.println("🌐 SOAP WSDL: http://" + localIP + ":8080/ws/usuarios.wsdl");
-            System.out.println("=================================================\n");
+            log.info("""
+
+                    =================================================
+                    🚀 Library API Gateway iniciado com sucesso!
+                    =================================================
+                    📱 ACESSO LOCAL:
+                    📋 Swagger UI: http://localhost:8080/swagger-ui.html
+                    🌐 Cliente Web: http://localhost:8080/
+                    🚺 Gateway: http://localhost:8080/gateway
+                    📚 REST API: http://localhost:8080/api/livros
+                    🌐 SOAP WSDL: http://localhost:8080/ws/usuarios.wsdl
+                    =================================================
+                    🌍 ACESSO NA REDE:
+                    📋 Swagger UI: http://{}:8080/swagger-ui.html
+                    🌐 Cliente Web: http://{}:8080/
+                    🚺 Gateway: http://{}:8080/gateway
+                    📚 REST API: http://{}:8080/api/livros
+                    🌐 SOAP WSDL: http://{}:8080/ws/usuarios.wsdl
+                    =================================================""", localIP, localIP, localIP, localIP, localIP);
         } catch (Exception e) {
-            System.out.println("Erro ao obter IP local: " + e.getMessage());
+            log.warn("Erro ao obter IP local: {}", e.getMessage());
         }
     }
 
@@ -0,0 +1,236 @@
+package com.example.proj.accesslog;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ACCESS LOG ASSÍNCRONO
+ *
+ * A thread do request só monta o {@link Registro} e o coloca num {@link RingBuffer}; uma thread
+ * própria (access-log) tira os registros da fila, escreve cada um como uma linha JSON e grava na
+ * {@link Saida} (arquivo ou logger "access"), com um flush só quando a fila esvazia.
+ *
+ * Com o disco lento a fila enche e os registros novos são descartados na hora, sem segurar o
+ * request: {@link #descartados()} conta quantos (métrica accesslog.records{result=dropped}).
+ */
+public class AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    //fila vazia: a thread confere de novo depois disso (os requests não acordam ninguém)
+    private static final long ESPERA = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * Um request atendido. inicio em epoch millis; rota é o padrão do Spring MVC
+     * (/gateway/usuarios/{id}) ou o path do /ws; operacao só no SOAP; os corpos só
+     * nos requests amostrados (null nos outros).
+     */
+    public record Registro(long inicio, String metodo, String path, String rota, String operacao, int status,
+                           long bytes, long duracaoNanos, String cliente, String corpoRequest, String corpoResposta) {
+    }
+
+    /**
+     * Para onde vão as linhas; só é chamada pela thread do access log.
+     */
+    public interface Saida {
+
+        void gravar(String linha) throws IOException;
+
+        default void flush() throws IOException {
+        }
+
+        default void close() throws IOException {
+        }
+    }
+
+    private final RingBuffer<Registro> fila;
+    private final Saida saida;
+    private final JsonFactory json = new JsonFactory();
+    private final StringWriter linha = new StringWriter(256);
+    private final LongAdder descartados = new LongAdder();
+    private final Thread gravador;
+    private volatile long gravados; //só a thread do access log escreve
+    private volatile long falhas;
+    private volatile boolean fechando;
+
+    public AccessLog(int bufferSize, Saida saida) {
+        this.fila = new RingBuffer<>(bufferSize);
+        this.saida = saida;
+        this.gravador = Thread.ofPlatform().name("access-log").daemon().start(this::consumir);
+    }
+
+    /**
+     * Logger "access" do Logback, uma linha JSON por mensagem.
+     */
+    public static Saida logger() {
+        Logger access = LoggerFactory.getLogger("access");
+        return access::info;
+    }
+
+    /**
+     * Acrescenta as linhas no arquivo (criado se não existe).
+     */
+    public static Saida arquivo(Path arquivo) throws IOException {
+        Path pasta = arquivo.toAbsolutePath().getParent();
+        if (pasta != null) {
+            Files.createDirectories(pasta);
+        }
+        Writer writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new Saida() {
+            @Override
+            public void gravar(String linha) throws IOException {
+                writer.write(linha);
+                writer.write('\n');
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    /**
+     * Nunca bloqueia.
+     *
+     * @return false se o registro foi descartado (fila cheia ou access log fechado)
+     */
+    public boolean registrar(Registro registro) {
+        if (!fechando && fila.offer(registro)) {
+            return true;
+        }
+        descartados.increment();
+        return false;
+    }
+
+    public long gravados() {
+        return gravados;
+    }
+
+    public long descartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Registros que a Saida não conseguiu gravar (IOException).
+     */
+    public long falhas() {
+        return falhas;
+    }
+
+    public int pendentes() {
+        return fila.size();
+    }
+
+    public int capacidade() {
+        return fila.capacidade();
+    }
+
+    /**
+     * Grava o que já está na fila (até 5 s) e fecha a Saida.
+     */
+    public void close() {
+        fechando = true;
+        LockSupport.unpark(gravador);
+        try {
+            gravador.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!gravador.isAlive()) {
+            //quem passou do teste de fechando antes dele mudar pode ter colocado um registro depois da thread sair
+            while (fila.poll() != null) {
+                descartados.increment();
+            }
+            try {
+                saida.close();
+            } catch (IOException e) {
+                log.warn("Falha ao fechar o access log", e);
+            }
+        }
+    }
+
+    private void consumir() {
+        boolean pendente = false;
+        while (true) {
+            Registro registro = fila.poll();
+            if (registro != null) {
+                try {
+                    saida.gravar(json(registro));
+                    gravados++;
+                    pendente = true;
+                } catch (IOException | RuntimeException e) {
+                    falhar(e);
+                }
+                continue;
+            }
+            if (pendente) {
+                try {
+                    saida.flush();
+                } catch (IOException | RuntimeException e) {
+                    falhar(e);
+                }
+                pendente = false;
+            }
+            if (fechando) {
+                return;
+            }
+            LockSupport.parkNanos(this, ESPERA);
+        }
+    }
+
+    // só a primeira falha vai para o log da aplicação: com o disco cheio seria uma por request
+    private void falhar(Exception e) {
+        if (falhas++ == 0) {
+            log.warn("Falha ao gravar o access log (as próximas só aparecem na métrica accesslog.records)", e);
+        }
+    }
+
+    private String json(Registro registro) throws IOException {
+        linha.getBuffer().setLength(0);
+        try (JsonGenerator gerador = json.createGenerator(linha)) {
+            gerador.writeStartObject();
+            gerador.writeStringField("ts", Instant.ofEpochMilli(registro.inicio()).toString());
+            gerador.writeStringField("method", registro.metodo());
+            gerador.writeStringField("path", registro.path());
+            if (registro.rota() != null) {
+                gerador.writeStringField("route", registro.rota());
+            }
+            if (registro.operacao() != null) {
+                gerador.writeStringField("operation", registro.operacao());
+            }
+            gerador.writeNumberField("status", registro.status());
+            gerador.writeNumberField("bytes", registro.bytes());
+            gerador.writeNumberField("durationMs", Math.round(registro.duracaoNanos() / 1_000.0) / 1_000.0);
+            gerador.writeStringField("client", registro.cliente());
+            if (registro.corpoRequest() != null) {
+                gerador.writeStringField("requestBody", registro.corpoRequest());
+            }
+            if (registro.corpoResposta() != null) {
+                gerador.writeStringField("responseBody", registro.corpoResposta());
+            }
+            gerador.writeEndObject();
+        }
+        return linha.toString();
+    }
+}
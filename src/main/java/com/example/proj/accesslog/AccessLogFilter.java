@@ -0,0 +1,278 @@
+package com.example.proj.accesslog;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Um registro no {@link AccessLog} para cada request de /api/**, /gateway/** e /ws/**:
+ * método, path, rota, operação SOAP, status, bytes do corpo da resposta (antes do gzip),
+ * duração e IP do cliente.
+ *
+ * Em access-log.payload-sample-rate dos requests o registro leva também o começo do corpo do
+ * request e da resposta (até access-log.max-payload-size, só conteúdo texto: JSON, XML, text/*).
+ * Request com Content-Encoding fica sem o corpo (o que passa por aqui ainda está comprimido).
+ *
+ * Vem logo depois do filtro de métricas do Spring e antes do AdmissionFilter, para as recusas
+ * (429, 503) também aparecerem. Resposta assíncrona (SSE, dashboard) é registrada quando termina.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    /**
+     * Atributo do request com a operação SOAP, preenchido pelo {@link AccessLogSoapInterceptor}.
+     */
+    public static final String OPERACAO = AccessLogFilter.class.getName() + ".operacao";
+
+    private final AccessLogProperties properties;
+    private final AccessLog accessLog;
+
+    public AccessLogFilter(AccessLogProperties properties, AccessLog accessLog) {
+        this.properties = properties;
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.enabled()) {
+            return true;
+        }
+        String path = path(request);
+        return !(path.startsWith("/api/") || path.equals("/gateway") || path.startsWith("/gateway/") || soap(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long inicio = System.currentTimeMillis();
+        long agora = System.nanoTime();
+        int limite = amostrar() ? (int) properties.maxPayloadSize().toBytes() : 0;
+        HttpServletRequest entrada = limite > 0 ? new ContentCachingRequestWrapper(request, limite) : request;
+        ContadorResponse saida = new ContadorResponse(response, limite);
+
+        boolean concluido = false;
+        boolean assincrono = false;
+        try {
+            filterChain.doFilter(entrada, saida);
+            concluido = true;
+            assincrono = request.isAsyncStarted();
+        } finally {
+            if (assincrono) {
+                request.getAsyncContext().addListener(new Registrar(entrada, saida, inicio, agora));
+            } else {
+                if (concluido) {
+                    saida.terminar();
+                }
+                //exceção antes da resposta sair: quem responde é a página de erro do container, com 500
+                int status = concluido || response.isCommitted() ? response.getStatus() : 500;
+                registrar(entrada, saida, inicio, agora, status);
+            }
+        }
+    }
+
+    private boolean amostrar() {
+        double taxa = properties.payloadSampleRate();
+        return taxa > 0 && (taxa >= 1 || ThreadLocalRandom.current().nextDouble() < taxa);
+    }
+
+    private void registrar(HttpServletRequest request, ContadorResponse response, long inicio, long agora, int status) {
+        long duracao = System.nanoTime() - agora;
+        String path = path(request);
+        String rota = soap(path) ? path
+                : request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String padrao ? padrao : null;
+        accessLog.registrar(new AccessLog.Registro(inicio, request.getMethod(), path, rota,
+                (String) request.getAttribute(OPERACAO), status, response.bytes, duracao, request.getRemoteAddr(),
+                corpoRequest(request), response.corpo()));
+    }
+
+    private static String corpoRequest(HttpServletRequest request) {
+        if (!(request instanceof ContentCachingRequestWrapper cache) || request.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                || !texto(request.getContentType())) {
+            return null;
+        }
+        return new String(cache.getContentAsByteArray(), charset(request.getCharacterEncoding()));
+    }
+
+    private static boolean texto(String tipo) {
+        return tipo != null && (tipo.startsWith("text/") || tipo.contains("json") || tipo.contains("xml"));
+    }
+
+    private static Charset charset(String nome) {
+        return nome != null && Charset.isSupported(nome) ? Charset.forName(nome) : StandardCharsets.UTF_8;
+    }
+
+    private static boolean soap(String path) {
+        return path.equals("/ws") || path.startsWith("/ws/");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Conta os bytes escritos e, no request amostrado, guarda os primeiros limite bytes.
+     */
+    private static final class ContadorResponse extends HttpServletResponseWrapper {
+
+        private final int limite;
+        private final ByteArrayOutputStream corpo;
+        private ServletOutputStream saida;
+        private PrintWriter writer;
+        private long bytes;
+
+        ContadorResponse(HttpServletResponse response, int limite) {
+            super(response);
+            this.limite = limite;
+            this.corpo = limite > 0 ? new ByteArrayOutputStream() : null;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (saida == null) {
+                saida = new ContadorOutputStream(super.getOutputStream());
+            }
+            return saida;
+        }
+
+        //o OutputStreamWriter codifica com estado: um par surrogate dividido entre dois write sai inteiro.
+        //o buffer dele sai no flush/close, no flushBuffer e no fim do request (terminar)
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        //o container só conhece o writer dele: o que ficou no nosso buffer sai antes do registro
+        private void terminar() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        private String corpo() {
+            if (corpo == null || !texto(getContentType())) {
+                return null;
+            }
+            return corpo.toString(charset(getCharacterEncoding()));
+        }
+
+        private void capturar(byte[] b, int off, int len) {
+            int resto = limite - corpo.size();
+            if (resto > 0) {
+                corpo.write(b, off, Math.min(resto, len));
+            }
+        }
+
+        private final class ContadorOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            ContadorOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                bytes++;
+                if (corpo != null && corpo.size() < limite) {
+                    corpo.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                bytes += len;
+                if (corpo != null) {
+                    capturar(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+
+    private final class Registrar implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final ContadorResponse response;
+        private final long inicio;
+        private final long agora;
+
+        Registrar(HttpServletRequest request, ContadorResponse response, long inicio, long agora) {
+            this.request = request;
+            this.response = response;
+            this.inicio = inicio;
+            this.agora = agora;
+        }
+
+        //onComplete vem sempre, também depois de timeout e erro
+        @Override
+        public void onComplete(AsyncEvent event) {
+            registrar(request, response, inicio, agora, response.getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
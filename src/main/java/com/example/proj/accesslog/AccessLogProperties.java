@@ -0,0 +1,23 @@
+package com.example.proj.accesslog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Access log de /api, /gateway e /ws (prefixo access-log).
+ *
+ * @param enabled           liga/desliga o AccessLogFilter
+ * @param bufferSize        registros esperando a gravação; com a fila cheia (disco lento) os novos são descartados
+ * @param file              arquivo onde as linhas JSON são acrescentadas; vazio: logger "access" do Logback
+ * @param payloadSampleRate fração dos requests (0 a 1) com o corpo do request e da resposta no registro
+ * @param maxPayloadSize    quanto de cada corpo vai no registro amostrado
+ */
+@ConfigurationProperties(prefix = "access-log")
+public record AccessLogProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("8192") int bufferSize,
+        String file,
+        @DefaultValue("0") double payloadSampleRate,
+        @DefaultValue("4KB") DataSize maxPayloadSize) {
+}
@@ -0,0 +1,52 @@
+package com.example.proj.accesslog;
+
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Passa a operação SOAP (@PayloadRoot) do request para o {@link AccessLogFilter}, como atributo
+ * do HttpServletRequest: o filtro vê só o POST /ws, quem sabe a operação é o Spring-WS.
+ */
+public class AccessLogSoapInterceptor implements EndpointInterceptor {
+
+    private final ConcurrentHashMap<Method, String> operacoes = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) {
+        TransportContext contexto = TransportContextHolder.getTransportContext();
+        WebServiceConnection conexao = contexto != null ? contexto.getConnection() : null;
+        if (conexao instanceof HttpServletConnection http && endpoint instanceof MethodEndpoint metodo) {
+            http.getHttpServletRequest().setAttribute(AccessLogFilter.OPERACAO,
+                    operacoes.computeIfAbsent(metodo.getMethod(), AccessLogSoapInterceptor::operacao));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+    }
+
+    private static String operacao(Method metodo) {
+        PayloadRoot payloadRoot = metodo.getAnnotation(PayloadRoot.class);
+        return payloadRoot != null ? payloadRoot.localPart() : metodo.getName();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.proj.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fila circular de tamanho fixo, sem lock: vários produtores (as threads dos requests) e um
+ * único consumidor (a thread do AccessLog).
+ *
+ * Cada posição tem um número de sequência que diz de quem é a vez: igual à posição do produtor,
+ * ela está livre; igual à posição + 1, tem item para o consumidor. O produtor reserva a posição
+ * com um CAS na cauda e publica o item gravando a sequência, então ninguém espera ninguém.
+ * Fila cheia não bloqueia: offer devolve false e quem chamou decide (o AccessLog descarta).
+ */
+final class RingBuffer<T> {
+
+    private final Object[] itens;
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+    private volatile long cabeca; //só o consumidor escreve
+
+    /**
+     * @param capacidade arredondada para a próxima potência de 2
+     */
+    RingBuffer(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("Capacidade precisa ser positiva: " + capacidade);
+        }
+        int tamanho = Integer.highestOneBit(capacidade);
+        if (tamanho < capacidade) {
+            tamanho <<= 1;
+        }
+        this.itens = new Object[tamanho];
+        this.sequencias = new AtomicLongArray(tamanho);
+        this.mascara = tamanho - 1;
+        for (int i = 0; i < tamanho; i++) {
+            sequencias.set(i, i);
+        }
+    }
+
+    /**
+     * @return false se a fila está cheia (o item não entra)
+     */
+    boolean offer(T item) {
+        long posicao = cauda.get();
+        while (true) {
+            int indice = (int) (posicao & mascara);
+            long diferenca = sequencias.getAcquire(indice) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    itens[indice] = item;
+                    sequencias.setRelease(indice, posicao + 1);
+                    return true;
+                }
+                posicao = cauda.get();
+            } else if (diferenca < 0) {
+                return false; //o consumidor ainda não liberou a posição de uma volta atrás
+            } else {
+                posicao = cauda.get(); //outro produtor pegou esta posição
+            }
+        }
+    }
+
+    /**
+     * Só pode ser chamado pela thread consumidora.
+     *
+     * @return o próximo item, ou null se a fila está vazia
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long posicao = cabeca;
+        int indice = (int) (posicao & mascara);
+        if (sequencias.getAcquire(indice) != posicao + 1) {
+            return null;
+        }
+        T item = (T) itens[indice];
+        itens[indice] = null;
+        sequencias.setRelease(indice, posicao + itens.length);
+        cabeca = posicao + 1;
+        return item;
+    }
+
+    /**
+     * Itens esperando o consumidor (aproximado enquanto há produtores escrevendo).
+     */
+    int size() {
+        return (int) Math.max(0, cauda.get() - cabeca);
+    }
+
+    int capacidade() {
+        return itens.length;
+    }
+}
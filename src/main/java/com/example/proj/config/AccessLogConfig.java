@@ -0,0 +1,49 @@
+package com.example.proj.config;
+
+import com.example.proj.accesslog.AccessLog;
+import com.example.proj.accesslog.AccessLogProperties;
+import com.example.proj.accesslog.AccessLogSoapInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.StringUtils;
+import org.springframework.ws.config.annotation.WsConfigurer;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Access log de /api, /gateway e /ws: linhas JSON em access-log.file ou no logger "access".
+ *
+ * No close o que ainda está na fila é gravado e o arquivo é fechado.
+ */
+@Configuration
+@Order(Ordered.HIGHEST_PRECEDENCE) //o interceptor vem antes da validação, para o request recusado já ter a operação
+public class AccessLogConfig implements WsConfigurer {
+
+    @Bean(destroyMethod = "close")
+    public AccessLog accessLog(AccessLogProperties properties) throws IOException {
+        AccessLog.Saida saida = StringUtils.hasText(properties.file())
+                ? AccessLog.arquivo(Path.of(properties.file()))
+                : AccessLog.logger();
+        return new AccessLog(properties.bufferSize(), saida);
+    }
+
+    @Override
+    public void addInterceptors(List<EndpointInterceptor> interceptors) {
+        interceptors.add(new AccessLogSoapInterceptor());
+    }
+
+    @Override
+    public void addArgumentResolvers(List<MethodArgumentResolver> argumentResolvers) {
+    }
+
+    @Override
+    public void addReturnValueHandlers(List<MethodReturnValueHandler> returnValueHandlers) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.proj.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR e Smile além do JSON, escolhidos pelo header Accept (e Content-Type nos POSTs).
+ *
+ * Os envelopes são escritos pelo EnvelopeWriter só com a API do JsonGenerator, então
+ * saem iguais nos três formatos. Os mappers vêm do mesmo builder do ObjectMapper do JSON
+ * (módulos e configuração do Spring Boot; o builder é prototype, cada bean recebe uma cópia
+ * e trocar a factory não afeta o JSON); os converters daqui substituem os padrões do
+ * Spring MVC na mesma posição, depois do JSON, que continua sendo o formato quando o cliente
+ * aceita qualquer tipo.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
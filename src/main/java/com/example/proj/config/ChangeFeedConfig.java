@@ -0,0 +1,21 @@
+package com.example.proj.config;
+
+import com.example.proj.events.ChangeFeed;
+import com.example.proj.events.ChangeFeedProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Feed de criações do GET /gateway/events.
+ *
+ * No close as conexões SSE abertas são encerradas e o heartbeat para.
+ */
+@Configuration
+public class ChangeFeedConfig {
+
+    @Bean(destroyMethod = "close")
+    public ChangeFeed changeFeed(ChangeFeedProperties properties, ObjectMapper objectMapper) {
+        return new ChangeFeed(properties, objectMapper);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.proj.config;
+
+import com.example.proj.gateway.AdmissionProperties;
+import com.example.proj.gateway.GatewayApiKey;
+import com.example.proj.gateway.GatewayBackendProperties;
+import com.example.proj.gateway.LivrosBackend;
+import com.example.proj.gateway.RemoteLivrosBackend;
+import com.example.proj.gateway.RemoteUsuariosBackend;
+import com.example.proj.gateway.UsuariosBackend;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.web.client.RestClient;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.transport.http.ClientHttpRequestMessageSender;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * CONFIGURAÇÃO DOS BACKENDS REMOTOS DO GATEWAY
+ * 
+ * Com gateway.backend.mode=remote o gateway deixa de chamar os controllers
+ * como beans e passa a chamar /api/livros (REST) e /ws (SOAP) via HTTP,
+ * permitindo subir o gateway separado dos serviços.
+ * 
+ * Os dois backends usam o mesmo HttpClient do JDK: ele mantém um pool de
+ * conexões keep-alive e roda em virtual threads. Cada backend tem o seu
+ * próprio timeout de resposta.
+ * 
+ * Toda chamada leva a GatewayApiKey no header do controle de admissão: o
+ * backend não conta de novo (rate limit e concorrência) o que o gateway já admitiu.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.backend.mode", havingValue = "remote")
+public class GatewayBackendConfig {
+    
+    /**
+     * Executor de virtual threads usado pelo HttpClient (uma virtual thread por chamada).
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService gatewayBackendExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+    
+    /**
+     * HttpClient compartilhado: um só pool de conexões para os dois backends.
+     */
+    @Bean
+    public HttpClient gatewayHttpClient(GatewayBackendProperties properties,
+                                        @Qualifier("gatewayBackendExecutor") ExecutorService gatewayBackendExecutor) {
+        return HttpClient.newBuilder()
+                .executor(gatewayBackendExecutor)
+                .connectTimeout(properties.connectTimeout())
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+    
+    @Bean
+    public LivrosBackend livrosBackend(GatewayBackendProperties properties, HttpClient gatewayHttpClient,
+                                       RestClient.Builder restClientBuilder, AdmissionProperties admission,
+                                       GatewayApiKey gatewayApiKey) {
+        RestClient restClient = restClientBuilder
+                .baseUrl(properties.livros().url())
+                .requestFactory(requestFactory(gatewayHttpClient, properties.livros()))
+                .defaultHeader(admission.clientHeader(), gatewayApiKey.valor())
+                .build();
+        return new RemoteLivrosBackend(restClient);
+    }
+    
+    @Bean
+    public UsuariosBackend usuariosBackend(GatewayBackendProperties properties, HttpClient gatewayHttpClient,
+                                           Jaxb2Marshaller soapMarshaller, AdmissionProperties admission,
+                                           GatewayApiKey gatewayApiKey) {
+        //mesmo Jaxb2Marshaller (e JAXBContext) do /ws, ver WebServiceConfig
+        WebServiceTemplate template = new WebServiceTemplate(soapMarshaller);
+        template.setDefaultUri(properties.usuarios().url());
+        JdkClientHttpRequestFactory requestFactory = requestFactory(gatewayHttpClient, properties.usuarios());
+        template.setMessageSender(new ClientHttpRequestMessageSender((uri, method) -> {
+            ClientHttpRequest request = requestFactory.createRequest(uri, method);
+            request.getHeaders().set(admission.clientHeader(), gatewayApiKey.valor());
+            return request;
+        }));
+        //as chamadas transcodificadas (SoapJsonTranscoder) vão pelo HttpClient direto, com o mesmo timeout
+        return new RemoteUsuariosBackend(template, gatewayHttpClient, URI.create(properties.usuarios().url()),
+                properties.usuarios().timeout(), admission.clientHeader(), gatewayApiKey.valor());
+    }
+    
+    //cada backend tem a sua fábrica (e o seu timeout), mas todas usam o mesmo HttpClient
+    private static JdkClientHttpRequestFactory requestFactory(HttpClient httpClient, GatewayBackendProperties.Backend backend) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(backend.timeout());
+        return requestFactory;
+    }
+}
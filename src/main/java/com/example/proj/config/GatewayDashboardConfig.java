@@ -0,0 +1,22 @@
+package com.example.proj.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor do /gateway/dashboard: uma virtual thread por chamada de backend.
+ *
+ * Virtual threads são baratas, então não existe pool para dimensionar; uma
+ * chamada bloqueada esperando o backend não segura nenhuma thread do sistema.
+ */
+@Configuration
+public class GatewayDashboardConfig {
+    
+    @Bean(destroyMethod = "close")
+    public ExecutorService dashboardExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
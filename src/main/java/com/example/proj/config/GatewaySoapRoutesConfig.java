@@ -0,0 +1,49 @@
+package com.example.proj.config;
+
+import com.example.proj.controller.GatewayController;
+import com.example.proj.gateway.SoapJsonTranscoder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+
+/**
+ * ROTAS SOAP DECLARADAS NO application.properties (gateway.soap.routes)
+ *
+ * Cada rota vira um GET no Spring MVC apontando para o GatewayController.getSoapRoute, então
+ * passa pelos mesmos filtros (admissão, cache, compressão) e @ExceptionHandler das rotas
+ * escritas à mão. Expor outra operação do usuarios.xsd é só mais uma entrada na tabela.
+ * Sem servidor web (ex: benchmarks JMH) não há o que registrar.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class GatewaySoapRoutesConfig {
+
+    @Bean
+    public SmartInitializingSingleton gatewaySoapRoutes(
+            @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+            SoapJsonTranscoder soapTranscoder, GatewayController gatewayController) {
+        return () -> {
+            Method handler;
+            try {
+                handler = GatewayController.class.getMethod("getSoapRoute", HttpServletRequest.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+            for (SoapJsonTranscoder.Operacao operacao : soapTranscoder.rotas()) {
+                RequestMappingInfo info = RequestMappingInfo.paths(operacao.route().path())
+                        .methods(RequestMethod.GET)
+                        .options(handlerMapping.getBuilderConfiguration())
+                        .build();
+                handlerMapping.registerMapping(info, gatewayController, handler);
+            }
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.proj.config;
+
+import com.example.proj.accesslog.AccessLog;
+import com.example.proj.events.ChangeFeed;
+import com.example.proj.gateway.AdmissionFilter;
+import com.example.proj.gateway.BackendGuard;
+import com.example.proj.gateway.BackendGuards;
+import com.example.proj.gateway.BackendIndisponivelException;
+import com.example.proj.gateway.RequestCoalescer;
+import com.example.proj.soap.SoapMetricsInterceptor;
+import com.example.proj.store.LivroStore;
+import com.example.proj.store.UsuarioStore;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.config.annotation.WsConfigurer;
+import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+
+import java.util.List;
+
+/**
+ * MÉTRICAS (Micrometer, expostas em /actuator/prometheus)
+ *
+ * - http.server.requests: já vem do Spring MVC; aqui só ganha a tag source (REST, SOAP ou REST+SOAP)
+ * - soap.requests / soap.faults: por operação SOAP, via {@link SoapMetricsInterceptor}
+ * - soap.unmarshal / soap.marshal: tempo do JAXB por tipo, via PooledJaxbPayloadMethodProcessor (WebServiceConfig)
+ * - store.size: quantidade de livros e usuários em memória
+ * - gateway.errors: backend fora do ar ou atrasado, contado no GatewayController e no dashboard
+ * - gateway.admission.*: limite de concorrência, requests em andamento, clientes e recusas do AdmissionFilter
+ * - gateway.circuit.state / gateway.bulkhead.*: circuito (0 fechado, 1 aberto, 2 meio aberto), vagas e recusas por backend
+ * - gateway.coalescing.*: chamadas aos backends, requests que esperaram a chamada igual de outro e esperas esgotadas
+ * - gateway.events.*: conexões do /gateway/events, eventos publicados e assinantes lentos desconectados
+ * - accesslog.*: registros do access log gravados, descartados (fila cheia) e com falha, e a fila
+ */
+@Configuration
+@Order(Ordered.HIGHEST_PRECEDENCE) //o SoapMetricsInterceptor vem antes dos outros, para contar também os Faults da validação
+public class MetricsConfig implements WsConfigurer {
+
+    //ObjectProvider: esta classe é criada junto com os BeanPostProcessor do Spring-WS, antes do registry ficar pronto
+    @Autowired
+    private ObjectProvider<MeterRegistry> registry;
+
+    @Override
+    public void addInterceptors(List<EndpointInterceptor> interceptors) {
+        interceptors.add(new SoapMetricsInterceptor(registry));
+    }
+
+    @Override
+    public void addArgumentResolvers(List<MethodArgumentResolver> argumentResolvers) {
+    }
+
+    @Override
+    public void addReturnValueHandlers(List<MethodReturnValueHandler> returnValueHandlers) {
+    }
+
+    @Bean
+    public MeterBinder storeSizeMetrics(LivroStore livroStore, UsuarioStore usuarioStore) {
+        return registry -> {
+            Gauge.builder("store.size", livroStore, LivroStore::count)
+                    .description("Registros guardados em memória")
+                    .tag("store", "livros")
+                    .register(registry);
+            Gauge.builder("store.size", usuarioStore, UsuarioStore::count)
+                    .description("Registros guardados em memória")
+                    .tag("store", "usuarios")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(AdmissionFilter admission) {
+        return registry -> {
+            Gauge.builder("gateway.admission.limit", admission, AdmissionFilter::limite)
+                    .description("Requests em andamento permitidos (ajustado pela latência)")
+                    .register(registry);
+            Gauge.builder("gateway.admission.inflight", admission, AdmissionFilter::emUso)
+                    .description("Requests em andamento")
+                    .register(registry);
+            Gauge.builder("gateway.admission.clients", admission, AdmissionFilter::clientes)
+                    .description("Clientes com token bucket")
+                    .register(registry);
+            for (String motivo : List.of(AdmissionFilter.RATE_LIMITED, AdmissionFilter.OVERLOADED)) {
+                FunctionCounter.builder("gateway.admission.rejected", admission, filtro -> filtro.rejeitados(motivo))
+                        .description("Requests recusados na entrada (429 rate_limited, 503 overloaded)")
+                        .tag("reason", motivo)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder backendGuardMetrics(BackendGuards guards) {
+        return registry -> {
+            for (BackendGuard guard : guards.todos()) {
+                Gauge.builder("gateway.circuit.state", guard, g -> g.estado().ordinal())
+                        .description("Circuit breaker do backend: 0 fechado, 1 aberto, 2 meio aberto")
+                        .tag("backend", guard.nome())
+                        .register(registry);
+                Gauge.builder("gateway.bulkhead.available", guard, BackendGuard::vagasLivres)
+                        .description("Vagas livres no bulkhead do backend")
+                        .tag("backend", guard.nome())
+                        .register(registry);
+                for (String motivo : List.of(BackendIndisponivelException.CIRCUIT_OPEN, BackendIndisponivelException.BULKHEAD_FULL)) {
+                    FunctionCounter.builder("gateway.bulkhead.rejected", guard, g -> g.rejeitados(motivo))
+                            .description("Chamadas recusadas sem chegar no backend")
+                            .tag("backend", guard.nome())
+                            .tag("reason", motivo)
+                            .register(registry);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder coalescingMetrics(RequestCoalescer coalescer) {
+        return registry -> {
+            Gauge.builder("gateway.coalescing.inflight", coalescer, RequestCoalescer::emAndamento)
+                    .description("Leituras em andamento nos backends que outros requests podem esperar")
+                    .register(registry);
+            FunctionCounter.builder("gateway.coalescing.requests", coalescer, RequestCoalescer::chamadas)
+                    .description("Leituras do gateway por resultado: call chamou o backend, coalesced esperou outro request")
+                    .tag("result", "call")
+                    .register(registry);
+            FunctionCounter.builder("gateway.coalescing.requests", coalescer, RequestCoalescer::juntados)
+                    .description("Leituras do gateway por resultado: call chamou o backend, coalesced esperou outro request")
+                    .tag("result", "coalesced")
+                    .register(registry);
+            FunctionCounter.builder("gateway.coalescing.timeouts", coalescer, RequestCoalescer::esgotados)
+                    .description("Requests que desistiram de esperar a chamada de outro (503)")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder changeFeedMetrics(ChangeFeed changeFeed) {
+        return registry -> {
+            Gauge.builder("gateway.events.subscribers", changeFeed, ChangeFeed::assinantes)
+                    .description("Conexões abertas no /gateway/events")
+                    .register(registry);
+            FunctionCounter.builder("gateway.events.published", changeFeed, ChangeFeed::publicados)
+                    .description("Eventos publicados no feed de criações")
+                    .register(registry);
+            FunctionCounter.builder("gateway.events.dropped", changeFeed, ChangeFeed::desconectados)
+                    .description("Assinantes desconectados por ficarem para trás do buffer")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder accessLogMetrics(AccessLog accessLog) {
+        return registry -> {
+            Gauge.builder("accesslog.queue", accessLog, AccessLog::pendentes)
+                    .description("Registros do access log esperando a gravação")
+                    .register(registry);
+            Gauge.builder("accesslog.queue.capacity", accessLog, AccessLog::capacidade)
+                    .description("Tamanho da fila do access log")
+                    .register(registry);
+            FunctionCounter.builder("accesslog.records", accessLog, AccessLog::gravados)
+                    .description("Registros do access log: written gravado, dropped descartado com a fila cheia, failed erro na gravação")
+                    .tag("result", "written")
+                    .register(registry);
+            FunctionCounter.builder("accesslog.records", accessLog, AccessLog::descartados)
+                    .description("Registros do access log: written gravado, dropped descartado com a fila cheia, failed erro na gravação")
+                    .tag("result", "dropped")
+                    .register(registry);
+            FunctionCounter.builder("accesslog.records", accessLog, AccessLog::falhas)
+                    .description("Registros do access log: written gravado, dropped descartado com a fila cheia, failed erro na gravação")
+                    .tag("result", "failed")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public DefaultServerRequestObservationConvention sourceObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(source(context));
+            }
+        };
+    }
+
+    private static KeyValue source(ServerRequestObservationContext context) {
+        String path = context.getCarrier().getRequestURI().substring(context.getCarrier().getContextPath().length());
+        String source;
+        if (path.startsWith("/gateway/livros") || path.startsWith("/api/livros")) {
+            source = "REST";
+        } else if (path.startsWith("/gateway/usuarios") || path.startsWith("/ws")) {
+            source = "SOAP";
+        } else if (path.startsWith("/gateway/dashboard")) {
+            source = "REST+SOAP";
+        } else {
+            source = "none";
+        }
+        return KeyValue.of("source", source);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.proj.config;
+
+import com.example.proj.store.JournalProperties;
+import com.example.proj.store.LivroStore;
+import com.example.proj.store.StorePersistence;
+import com.example.proj.store.UsuarioStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Persistência dos livros e usuários (store.journal.enabled=true).
+ *
+ * O StorePersistence restaura os stores na criação, antes do servidor web subir,
+ * e no close grava um último snapshot para o próximo start ser rápido.
+ */
+@Configuration
+@ConditionalOnProperty(name = "store.journal.enabled", havingValue = "true")
+public class StorePersistenceConfig {
+
+    @Bean(destroyMethod = "close")
+    public StorePersistence storePersistence(LivroStore livroStore, UsuarioStore usuarioStore,
+                                             JournalProperties properties) throws IOException {
+        return new StorePersistence(livroStore, usuarioStore, properties);
+    }
+}
@@ -1,15 +1,44 @@
 package com.example.proj.config;
 
+import com.example.proj.controller.UsuarioSoapController;
+import com.example.proj.soap.FastInfosetInterceptor;
+import com.example.proj.soap.JaxbPool;
+import com.example.proj.soap.PooledJaxbPayloadMethodProcessor;
+import com.example.proj.soap.SchemaValidatingInterceptor;
+import com.example.proj.soap.SoapProperties;
+import com.example.proj.soap.SoapSchema;
+import com.example.proj.soap.StreamingSaajSoapMessageFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
 import org.springframework.ws.config.annotation.EnableWs;
+import org.springframework.ws.config.annotation.WsConfigurer;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.adapter.DefaultMethodEndpointAdapter;
+import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
+import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
 import org.springframework.ws.transport.http.MessageDispatcherServlet;
 import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
+import org.springframework.ws.wsdl.wsdl11.SimpleWsdl11Definition;
+import org.springframework.ws.wsdl.wsdl11.Wsdl11Definition;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 import org.springframework.xml.xsd.XsdSchema;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * CONFIGURAÇÃO PRINCIPAL DO SISTEMA SOAP
@@ -20,7 +49,50 @@ import org.springframework.xml.xsd.XsdSchema;
  */
 @EnableWs  // ⚡ ATIVA o sistema de Web Services SOAP no Spring
 @Configuration  // 🏗️ Indica que esta classe contém configurações do Spring
-public class WebServiceConfig {
+public class WebServiceConfig implements WsConfigurer {
+    
+    //ObjectProvider: os WsConfigurer são criados junto com os BeanPostProcessor do Spring-WS,
+    //antes das propriedades e do XSD; tudo é buscado só quando os interceptors são montados
+    @Autowired
+    private ObjectProvider<SoapProperties> properties;
+    
+    @Autowired
+    private ObjectProvider<XsdSchema> usuariosSchema;
+    
+    /**
+     * FAST INFOSET (soap.encoding.fast-infoset) E VALIDAÇÃO DOS REQUESTS (opcional, soap.validation.enabled)
+     * 
+     * O FastInfosetInterceptor vem antes da validação, para que o Fault de um request
+     * inválido também saia no formato que o cliente pediu.
+     * 
+     * Com a validação ligada, todo payload que chega no /ws é conferido contra o
+     * usuarios.xsd; um XML fora do contrato recebe um SOAP Fault (Client) sem
+     * nunca chegar no UsuarioSoapController.
+     */
+    @Override
+    public void addInterceptors(List<EndpointInterceptor> interceptors) {
+        SoapProperties soap = properties.getObject();
+        if (soap.encoding().fastInfoset()) {
+            interceptors.add(new FastInfosetInterceptor());
+        }
+        if (!soap.validation().enabled()) {
+            return;
+        }
+        try {
+            interceptors.add(new SchemaValidatingInterceptor(usuariosSchema.getObject().getSource(),
+                    soap.validation().maxErrors(), soap.jaxb().poolSize()));
+        } catch (SAXException e) {
+            throw new IllegalStateException("Não foi possível compilar o usuarios.xsd: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public void addArgumentResolvers(List<MethodArgumentResolver> argumentResolvers) {
+    }
+    
+    @Override
+    public void addReturnValueHandlers(List<MethodReturnValueHandler> returnValueHandlers) {
+    }
     
     /**
      * CONFIGURA O SERVLET QUE GERENCIA REQUISIÇÕES SOAP
@@ -51,14 +123,94 @@ public class WebServiceConfig {
         return new ServletRegistrationBean<>(servlet, "/ws/*");
     }
     
+    /**
+     * CONFIGURA A FÁBRICA DE MENSAGENS SOAP
+     * 
+     * O MessageDispatcherServlet procura um bean chamado "messageFactory".
+     * As respostas criadas por esta fábrica são escritas direto no OutputStream
+     * (StAX) em vez de passarem por uma árvore DOM com o XML inteiro.
+     */
+    @Bean(name = MessageDispatcherServlet.DEFAULT_MESSAGE_FACTORY_BEAN_NAME)
+    public SaajSoapMessageFactory messageFactory() {
+        return new StreamingSaajSoapMessageFactory();
+    }
+    
+    /**
+     * JAXB DOS "DTOs DO SOAP"
+     * 
+     * Um único JAXBContext com todas as classes do UsuarioSoapController, criado
+     * uma vez. É usado pelo /ws (através do JaxbPool) e pelo gateway em modo remote
+     * (WebServiceTemplate), em vez de um JAXBContext por classe.
+     */
+    @Bean
+    public Jaxb2Marshaller soapMarshaller() {
+        Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+        marshaller.setPackagesToScan(UsuarioSoapController.class.getPackageName());
+        return marshaller;
+    }
+    
+    /**
+     * Marshaller/Unmarshaller do JAXBContext compartilhado, reaproveitados entre os requests.
+     */
+    @Bean
+    public JaxbPool jaxbPool(Jaxb2Marshaller soapMarshaller, SoapProperties properties) {
+        return new JaxbPool(soapMarshaller.getJaxbContext(), soapMarshaller::supports, properties.jaxb().poolSize());
+    }
+    
+    /**
+     * Troca o processador JAXB padrão do Spring-WS pelo que usa o JaxbPool. Os resolvers
+     * adicionados por WsConfigurer entram depois dos padrões e nunca seriam usados,
+     * por isso a troca é feita direto nas listas do DefaultMethodEndpointAdapter.
+     */
+    @Bean
+    public static BeanPostProcessor pooledJaxbProcessor(ObjectProvider<JaxbPool> jaxbPool,
+                                                        ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DefaultMethodEndpointAdapter adapter) {
+                    PooledJaxbPayloadMethodProcessor processor =
+                            new PooledJaxbPayloadMethodProcessor(jaxbPool.getObject(), registry);
+                    adapter.setMethodArgumentResolvers(trocar(adapter.getMethodArgumentResolvers(), processor));
+                    adapter.setMethodReturnValueHandlers(trocar(adapter.getMethodReturnValueHandlers(), processor));
+                }
+                return bean;
+            }
+        };
+    }
+    
+    private static <T> List<T> trocar(List<T> atuais, T processor) {
+        List<T> novos = new ArrayList<>(atuais.size());
+        for (T atual : atuais) {
+            novos.add(atual instanceof XmlRootElementPayloadMethodProcessor ? processor : atual);
+        }
+        return novos;
+    }
+    
     /**
      * CONFIGURA A GERAÇÃO AUTOMÁTICA DO WSDL
      * 
      * Este bean gera automaticamente o arquivo WSDL que serve como "contrato"
      * do serviço SOAP. Clientes usam este WSDL para saber como consumir o serviço.
+     * 
+     * Com soap.wsdl.prerendered=true (profile fast) o WSDL servido é o arquivo gerado
+     * no build pelo WsdlPrerender, a partir deste mesmo método: o conteúdo é igual e
+     * nada do WSDL é montado na inicialização.
      */
     @Bean(name = "usuarios")  //  Nome do WSDL: usuarios.wsdl
-    public DefaultWsdl11Definition defaultWsdl11Definition(XsdSchema usuariosSchema) {
+    public Wsdl11Definition defaultWsdl11Definition(ObjectProvider<XsdSchema> usuariosSchema, SoapProperties properties) {
+        if (!properties.wsdl().prerendered()) {
+            return wsdlGerado(usuariosSchema.getObject());
+        }
+        ClassPathResource wsdl = new ClassPathResource(WsdlPrerender.RECURSO);
+        if (!wsdl.exists()) {
+            throw new IllegalStateException("soap.wsdl.prerendered=true, mas " + WsdlPrerender.RECURSO
+                    + " não está no classpath (é gerado por mvn -Pfast-startup package)");
+        }
+        return new SimpleWsdl11Definition(wsdl);
+    }
+    
+    static DefaultWsdl11Definition wsdlGerado(XsdSchema usuariosSchema) {
         DefaultWsdl11Definition wsdl11Definition = new DefaultWsdl11Definition();
         
         // Nome do "port" no WSDL - representa o ponto de acesso ao serviço
@@ -86,9 +238,21 @@ public class WebServiceConfig {
      * @return Schema XSD carregado do arquivo usuarios.xsd
      */
     @Bean
+    @Lazy  // só é lido se o WSDL for gerado aqui ou a validação estiver ligada
     public XsdSchema usuariosSchema() {
         // 📁 Carrega o arquivo usuarios.xsd da pasta src/main/resources/
         // Este arquivo define a estrutura dos XMLs de request e response
         return new SimpleXsdSchema(new ClassPathResource("usuarios.xsd"));
     }
+    
+    /**
+     * Estrutura dos elementos do mesmo usuarios.xsd, para o gateway converter as respostas
+     * SOAP em JSON sem JAXB (ver SoapJsonTranscoder).
+     */
+    @Bean
+    public SoapSchema soapSchema() throws IOException {
+        try (InputStream xsd = new ClassPathResource("usuarios.xsd").getInputStream()) {
+            return SoapSchema.ler(xsd);
+        }
+    }
 }
\ No newline at end of file
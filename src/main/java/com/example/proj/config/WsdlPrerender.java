@@ -0,0 +1,50 @@
+package com.example.proj.config;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
+import org.springframework.xml.transform.TransformerHelper;
+import org.springframework.xml.xsd.SimpleXsdSchema;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.stream.StreamResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Gera o usuarios.wsdl no build (profile fast-startup), com a mesma configuração do
+ * WebServiceConfig, para a aplicação servir o arquivo pronto com soap.wsdl.prerendered=true.
+ *
+ * Uso: java WsdlPrerender <pasta de saída, ex: target/classes>
+ */
+public final class WsdlPrerender {
+
+    /**
+     * Onde o WSDL gerado fica no classpath.
+     */
+    public static final String RECURSO = "wsdl/usuarios.wsdl";
+
+    private WsdlPrerender() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Uso: WsdlPrerender <pasta de saída>");
+        }
+        Path saida = Path.of(args[0]).resolve(RECURSO);
+        Files.createDirectories(saida.getParent());
+        render(saida);
+        System.out.println("WSDL gerado em " + saida);
+    }
+
+    static void render(Path saida) throws Exception {
+        SimpleXsdSchema schema = new SimpleXsdSchema(new ClassPathResource("usuarios.xsd"));
+        schema.afterPropertiesSet();
+        DefaultWsdl11Definition definicao = WebServiceConfig.wsdlGerado(schema);
+        definicao.afterPropertiesSet();
+
+        Transformer transformer = new TransformerHelper().createTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(definicao.getSource(), new StreamResult(saida.toFile()));
+    }
+}
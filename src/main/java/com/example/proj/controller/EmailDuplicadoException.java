@@ -0,0 +1,26 @@
+package com.example.proj.controller;
+
+import org.springframework.ws.soap.server.endpoint.annotation.FaultCode;
+import org.springframework.ws.soap.server.endpoint.annotation.SoapFault;
+
+/**
+ * Lançada quando o createUsuarioRequest usa um email que já pertence a outro usuário.
+ * O Spring-WS converte essa exceção em um SOAP Fault do tipo Client.
+ */
+@SoapFault(faultCode = FaultCode.CLIENT)
+public class EmailDuplicadoException extends RuntimeException {
+
+    private static final String MENSAGEM = "Já existe um usuário com o email ";
+
+    public EmailDuplicadoException(String email) {
+        super(MENSAGEM + email);
+    }
+
+    /**
+     * true se o faultstring é o desta exceção: o gateway no modo remote separa assim o email
+     * duplicado dos outros Faults Client do createUsuario.
+     */
+    public static boolean isMensagem(String faultString) {
+        return faultString != null && faultString.startsWith(MENSAGEM);
+    }
+}
@@ -1,25 +1,132 @@
 package com.example.proj.controller;
 
+import com.example.proj.envelope.DashboardEnvelope;
+import com.example.proj.envelope.ErroEnvelope;
+import com.example.proj.envelope.GatewayEnvelope;
+import com.example.proj.envelope.Link;
+import com.example.proj.envelope.LivrosEnvelope;
+import com.example.proj.envelope.LoteEnvelope;
+import com.example.proj.envelope.UsuarioEnvelope;
+import com.example.proj.envelope.UsuariosEnvelope;
+import com.example.proj.events.ChangeFeed;
 import com.example.proj.model.Livro;
+import com.example.proj.gateway.AdmissionFilter;
+import com.example.proj.gateway.BackendGuards;
+import com.example.proj.gateway.BackendIndisponivelException;
+import com.example.proj.gateway.GatewayCacheFilter;
+import com.example.proj.gateway.GatewayDashboard;
+import com.example.proj.gateway.GatewayResponseCache;
+import com.example.proj.gateway.GatewaySoapRoutesProperties;
+import com.example.proj.gateway.LivrosBackend;
+import com.example.proj.gateway.RequestCoalescer;
+import com.example.proj.gateway.SoapFaultException;
+import com.example.proj.gateway.SoapJsonTranscoder;
+import com.example.proj.gateway.UsuariosBackend;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.ws.client.WebServiceIOException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/gateway")
 @Tag(name = "API Gateway", description = "Gateway que integra APIs REST e SOAP")
 public class GatewayController {
     
+    private static final String REST = "REST API";
+    private static final String SOAP = "SOAP API";
+    
+    //links HATEOAS: os fixos são criados uma vez só, os outros só completam o prefixo com id/query
+    private static final Link GATEWAY = Link.fixo("gateway", "/gateway");
+    private static final Link ALL_LIVROS = Link.fixo("all", "/gateway/livros");
+    private static final Link ALL_USUARIOS = Link.fixo("all", "/gateway/usuarios");
+    private static final Link WSDL = Link.fixo("wsdl", "/ws/usuarios.wsdl");
+    private static final Link SELF_LIVROS = Link.prefixo("self", "/gateway/livros");
+    private static final Link NEXT_LIVROS = Link.prefixo("next", "/gateway/livros");
+    private static final Link DIRECT_LIVROS = Link.prefixo("direct", "/api/livros");
+    private static final Link SELF_SEARCH = Link.prefixo("self", "/gateway/livros/search");
+    private static final Link DIRECT_SEARCH = Link.prefixo("direct", "/api/livros/search");
+    private static final Link SELF_LIVRO = Link.prefixo("self", "/gateway/livros/");
+    private static final Link DIRECT_LIVRO = Link.prefixo("direct", "/api/livros/");
+    private static final Link SELF_USUARIO = Link.prefixo("self", "/gateway/usuarios/");
+    private static final Link SELF_USUARIOS = Link.prefixo("self", "/gateway/usuarios");
+    private static final Link SOAP_ENDPOINT = Link.fixo("soap", "/ws");
+    private static final Link[] USUARIOS_LINKS = {GATEWAY, Link.fixo("self", "/gateway/usuarios"), WSDL, SOAP_ENDPOINT};
+    private static final Link[] LIVROS_BATCH_LINKS = {GATEWAY, Link.fixo("self", "/gateway/livros/batch"), ALL_LIVROS};
+    private static final Link[] USUARIOS_BATCH_LINKS = {GATEWAY, Link.fixo("self", "/gateway/usuarios/batch"), ALL_USUARIOS, WSDL};
+    
+    //operações transcodificadas do GET /gateway/usuarios e /gateway/usuarios/{id} no modo remote
+    private static final GatewaySoapRoutesProperties.Route ALL_USUARIOS_SOAP =
+        new GatewaySoapRoutesProperties.Route("/gateway/usuarios", "getAllUsuarios", false, Map.of("usuario", "usuarios"));
+    private static final GatewaySoapRoutesProperties.Route USUARIO_SOAP =
+        new GatewaySoapRoutesProperties.Route("/gateway/usuarios/{id}", "getUsuario", true, Map.of());
+    
+    //a resposta do GET /gateway não muda, então é montada uma vez só
+    private static final Map<String, Object> INFO = gatewayInfo();
+    
+    //os backends podem ser os controllers da mesma aplicação (in-process)
+    //ou as APIs REST/SOAP de outra instância via HTTP (remote), ver gateway.backend.mode
+    @Autowired
+    private LivrosBackend livrosBackend;
+    
+    @Autowired
+    private UsuariosBackend usuariosBackend;
+    
+    //bulkhead + circuit breaker de cada backend: toda chamada aos backends passa por aqui
+    @Autowired
+    private BackendGuards guards;
+    
+    //GETs iguais ao mesmo tempo viram uma chamada só ao backend, ver livros()/usuarios() abaixo
+    @Autowired
+    private RequestCoalescer coalescer;
+    
+    //XML das respostas SOAP direto em JSON: rotas de gateway.soap.routes e usuários no modo remote
+    @Autowired
+    private SoapJsonTranscoder soapTranscoder;
+    
+    //as respostas GET de livros/usuarios passam pelo GatewayCacheFilter, aqui só expomos os contadores
+    @Autowired
+    private GatewayResponseCache responseCache;
+    
+    //rate limit e limite de concorrência ficam no AdmissionFilter, aqui só expomos os contadores
     @Autowired
-    private LivroController livroController;
+    private AdmissionFilter admissionFilter;
     
+    //chama os dois backends em paralelo para o /gateway/dashboard
+    @Autowired
+    private GatewayDashboard gatewayDashboard;
+    
+    //livros e usuários criados, para o /gateway/events
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    //gateway.errors: quantas vezes um backend ficou fora do ar, por fonte
     @Autowired
-    private UsuarioSoapController usuarioSoapController;
+    private MeterRegistry meterRegistry;
 
     //injeção de dependência via construtor
     // public GatewayController() {
@@ -27,166 +134,410 @@ public class GatewayController {
     //     this.usuarioSoapController = new UsuarioSoapController();
     // }
 
-    //hashmap funciona como dicionário
     @GetMapping
     @Operation(summary = "Informações do Gateway", description = "Retorna informações sobre as APIs disponíveis via Gateway")
     public Map<String, Object> getGatewayInfo() {
-        Map<String, Object> info = new HashMap<>();
+        return INFO;
+    }
+    
+    //mesma ordem de campos que o HashMap usado antes produzia
+    private static Map<String, Object> gatewayInfo() {
+        Map<String, Object> apis = new LinkedHashMap<>();
+        apis.put("rest", "Livros API - Gerenciamento de livros via REST");
+        apis.put("soap", "Usuarios API - Gerenciamento de usuários via SOAP");
+        
+        Map<String, Object> links = new LinkedHashMap<>();
+        links.put("self", "/gateway");
+        links.put("livros", "/gateway/livros");
+        links.put("usuarios", "/gateway/usuarios");
+        links.put("dashboard", "/gateway/dashboard");
+        links.put("events", "/gateway/events");
+        links.put("swagger", "/swagger-ui.html");
+        links.put("wsdl", "/ws/usuarios.wsdl");
+        
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("apis", Collections.unmodifiableMap(apis));
+        info.put("_links", Collections.unmodifiableMap(links));
         info.put("name", "Library API Gateway");
-        info.put("version", "1.0.0");
         info.put("description", "Gateway integrating REST and SOAP APIs");
-        info.put("apis", Map.of(
-            "rest", "Livros API - Gerenciamento de livros via REST",
-            "soap", "Usuarios API - Gerenciamento de usuários via SOAP"
-        ));
-        info.put("_links", Map.of(
-            "self", "/gateway",
-            "livros", "/gateway/livros",
-            "usuarios", "/gateway/usuarios",
-            "swagger", "/swagger-ui.html",
-            "wsdl", "/ws/usuarios.wsdl"
-        ));
-        
-        return info;
+        info.put("version", "1.0.0");
+        return Collections.unmodifiableMap(info);
+    }
+
+    @GetMapping("/dashboard")
+    @Operation(summary = "Dashboard via Gateway", description = "Livros (REST) e usuários (SOAP) em uma resposta só, "
+            + "buscados em paralelo. Com deadlineMs limita a espera; a fonte que não responder a tempo vem com status timeout")
+    public ResponseEntity<DashboardEnvelope> getDashboard(@RequestParam(required = false) Long deadlineMs) {
+        var dashboard = gatewayDashboard.montar(deadlineMs == null ? null : Duration.ofMillis(deadlineMs));
+        
+        //resultado parcial ainda é 200, só quando nenhuma fonte respondeu vira 504
+        boolean algumaFonte = dashboard.sources().stream().anyMatch(fonte -> DashboardEnvelope.OK.equals(fonte.status()));
+        return ResponseEntity.status(algumaFonte ? HttpStatus.OK : HttpStatus.GATEWAY_TIMEOUT).body(dashboard);
+    }
+
+    @GetMapping("/cache")
+    @Operation(summary = "Estatísticas do cache", description = "Acertos, faltas, remoções, respostas 304 e invalidações do cache de respostas do Gateway")
+    public Map<String, Object> getCacheStats() {
+        return responseCache.stats();
+    }
+
+    @GetMapping("/admission")
+    @Operation(summary = "Controle de admissão", description = "Rate limit por cliente e limite de concorrência atual, "
+            + "com quantos requests foram recusados (429 e 503)")
+    public Map<String, Object> getAdmissionStats() {
+        return admissionFilter.stats();
+    }
+
+    @GetMapping("/resilience")
+    @Operation(summary = "Bulkheads e circuit breakers", description = "Estado do circuito, vagas livres do bulkhead "
+            + "e chamadas recusadas de cada backend, e quantos requests esperaram a chamada igual de outro (coalescing)")
+    public Map<String, Object> getResilienceStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(guards.stats());
+        stats.put("coalescing", coalescer.stats());
+        return stats;
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Eventos de criação (SSE)", description = "Stream com um evento livro.created ou usuario.created "
+            + "por criação. Com o header Last-Event-ID (ou ?lastEventId=) reenvia o que foi perdido, se ainda estiver no buffer; "
+            + "senão envia um evento reset e o cliente deve recarregar as listas")
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(required = false) String lastEventId) {
+        SseEmitter emitter = changeFeed.assinar(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Limite de conexões do /gateway/events atingido");
+        }
+        return emitter;
     }
 
-    //hashmap funciona como dicionário
     @GetMapping("/livros")
-    @Operation(summary = "Livros via Gateway", description = "Acessa API REST de livros através do Gateway")
-    public Map<String, Object> getAllLivrosViaGateway() {
-        var livros = livroController.getAllLivros();
+    @Operation(summary = "Livros via Gateway", description = "Acessa API REST de livros através do Gateway. "
+            + "Repassa limit/after (paginação por cursor), fields (projeção) e ids (busca em lote) para a API REST")
+    public GatewayEnvelope getAllLivrosViaGateway(@RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) String fields,
+                                                  @RequestParam(required = false) String ids) {
+        if (ids != null) {
+            List<Long> pedidos = LivroController.parseIds(ids);
+            String query = LivroController.idsQuery(pedidos, fields);
+            return new GatewayEnvelope(REST, livros("/livros" + query, () -> livrosBackend.getLivrosByIds(pedidos, fields)),
+                DIRECT_LIVROS.comSufixo(query), SELF_LIVROS.comSufixo(query), GATEWAY);
+        }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("source", "REST API");
-        response.put("data", livros);
-        response.put("_links", Map.of(
-            "gateway", "/gateway",
-            "self", "/gateway/livros",
-            "direct", "/api/livros"
-        ));
+        String query = LivroController.query(limit, after, fields);
+        var livros = livros("/livros" + query, () -> livrosBackend.getAllLivros(limit, after, fields));
         
-        return response;
+        Link direct = DIRECT_LIVROS.comSufixo(query);
+        Link self = SELF_LIVROS.comSufixo(query);
+        //o cursor da próxima página vem da API REST, o gateway só troca o endereço
+        Long cursor = nextCursor(livros);
+        if (cursor == null) {
+            return new GatewayEnvelope(REST, livros, direct, self, GATEWAY);
+        }
+        Link next = NEXT_LIVROS.comSufixo(LivroController.query(LivroController.pageSize(limit), cursor, fields));
+        return new GatewayEnvelope(REST, livros, next, direct, self, GATEWAY);
+    }
+    
+    //envelope tipado no modo in-process, mapa lido do JSON no modo remote
+    private static Long nextCursor(Object livros) {
+        if (livros instanceof LivrosEnvelope envelope) {
+            return envelope.nextCursor();
+        }
+        if (livros instanceof Map<?, ?> map && map.get("nextCursor") instanceof Number cursor) {
+            return cursor.longValue();
+        }
+        return null;
+    }
+    
+    @GetMapping("/livros/search")
+    @Operation(summary = "Buscar livros via Gateway", description = "Busca por título e autor na API REST "
+            + "(sem diferenciar acentos, com prefixo, ordenada por relevância)")
+    public GatewayEnvelope searchLivrosViaGateway(@RequestParam String q,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String fields) {
+        String query = LivroController.searchQuery(q, limit, fields);
+        return new GatewayEnvelope(REST, livros("/livros/search" + query, () -> livrosBackend.searchLivros(q, limit, fields)),
+            DIRECT_SEARCH.comSufixo(query), SELF_SEARCH.comSufixo(query), GATEWAY);
     }
     
-    //hashmap funciona como dicionário
     @GetMapping("/livros/{id}")
     @Operation(summary = "Livro por ID via Gateway", description = "Acessa livro específico via Gateway")
-    public ResponseEntity<Map<String, Object>> getLivroByIdViaGateway(@PathVariable Long id) {
-        var livro = livroController.getLivroById(id);
+    public ResponseEntity<GatewayEnvelope> getLivroByIdViaGateway(@PathVariable Long id) {
+        var livro = livros("/livros/" + id, () -> livrosBackend.getLivroById(id));
         
         if (livro.getStatusCode().is2xxSuccessful()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("source", "REST API");
-            response.put("data", livro.getBody());
-            response.put("_links", Map.of(
-                "gateway", "/gateway",
-                "self", "/gateway/livros/" + id,
-                "all", "/gateway/livros",
-                "direct", "/api/livros/" + id
-            ));
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new GatewayEnvelope(REST, livro.getBody(),
+                GATEWAY, SELF_LIVRO.comId(id), ALL_LIVROS, DIRECT_LIVRO.comId(id)));
         }
-        return ResponseEntity.notFound().build();
+        //5xx e 429 do backend chegam aqui como exceção (handleBackendErro); o resto dos 4xx vai com o mesmo status
+        return ResponseEntity.status(livro.getStatusCode()).build();
     }
     
     @PostMapping("/livros")
     @Operation(summary = "Criar livro via Gateway", description = "Cria novo livro através do Gateway")
-    public ResponseEntity<Map<String, Object>> createLivroViaGateway(@RequestBody Livro livro) {
-        var response = livroController.createLivro(livro);
+    public ResponseEntity<?> createLivroViaGateway(@RequestBody Livro livro) {
+        var response = escreverLivros(() -> livrosBackend.createLivro(livro));
+        
+        if (response.getStatusCode().is2xxSuccessful()) {
+            return ResponseEntity.ok(new GatewayEnvelope(REST, response.getBody(),
+                GATEWAY, SELF_LIVRO.comId(livro.getId()), ALL_LIVROS));
+        }
+        //repassa o erro do REST (ex: 409 para ISBN duplicado)
+        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+    }
+    
+    @PostMapping("/livros/batch")
+    @Operation(summary = "Criar livros em lote via Gateway", description = "Cria vários livros em um único request à API REST, "
+            + "com um resultado por livro")
+    public ResponseEntity<?> createLivrosViaGateway(@RequestBody List<Livro> livros) {
+        if (livros.size() > LivroController.MAX_BATCH) {
+            return ResponseEntity.badRequest()
+                    .body(new ErroEnvelope("No máximo " + LivroController.MAX_BATCH + " livros por lote", REST));
+        }
+        var response = escreverLivros(() -> livrosBackend.createLivros(livros));
         
         if (response.getStatusCode().is2xxSuccessful()) {
-            Map<String, Object> result = new HashMap<>();
-            result.put("source", "REST API");
-            result.put("data", response.getBody());
-            result.put("_links", Map.of(
-                "gateway", "/gateway",
-                "self", "/gateway/livros/" + livro.getId(),
-                "all", "/gateway/livros"
-            ));
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(new GatewayEnvelope(REST, response.getBody(), LIVROS_BATCH_LINKS));
         }
-        return ResponseEntity.badRequest().build();
+        return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
     }
     
     @GetMapping("/usuarios")
-    @Operation(summary = "Usuários via Gateway", description = "Acessa dados de usuários via SOAP através do Gateway")
-    public Map<String, Object> getAllUsuariosViaGateway() {
-        // Simulando uma chamada SOAP, numa implementação real seria via cliente SOAP
+    @Operation(summary = "Usuários via Gateway", description = "Acessa dados de usuários via SOAP através do Gateway. "
+            + "Com ids=1,2,3 busca vários usuários em um único getUsuariosByIdsRequest")
+    public ResponseEntity<?> getAllUsuariosViaGateway(@RequestParam(required = false) String ids,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        if (ids != null) {
+            var request = new UsuarioSoapController.GetUsuariosByIdsRequest();
+            request.setIds(LivroController.parseIds(ids));
+            String query = LivroController.idsQuery(request.getIds(), null);
+            var response = usuarios("/usuarios" + query, () -> usuariosBackend.getUsuariosByIds(request));
+            return ResponseEntity.ok(new UsuariosEnvelope(SOAP, response.getUsuarios(), response.getNotFound(), new Link[] {
+                GATEWAY, SELF_USUARIOS.comSufixo(query), WSDL, SOAP_ENDPOINT
+            }));
+        }
+        
+        //no modo remote o XML da resposta vira JSON direto da conexão, sem passar pelos DTOs
+        if (usuariosBackend.remoto()) {
+            return soap(soapTranscoder.operacao(ALL_USUARIOS_SOAP), Map.of(), accept, USUARIOS_LINKS);
+        }
+        
+        // No modo remote é uma chamada SOAP de verdade para o /ws, no in-process chama o @Endpoint direto
 
         // 1. vc cria o "envelope" da carta (request)
         var request = new UsuarioSoapController.GetAllUsuariosRequest();
-        // 2. vc entrega a carta  (SOAP controller)
-        var response = usuarioSoapController.getAllUsuarios(request);
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("source", "SOAP API");
-        result.put("usuarios", response.getUsuarios());
-        result.put("count", response.getUsuarios().size());
-        result.put("_links", Map.of(
-            "gateway", "/gateway",
-            "self", "/gateway/usuarios",
-            "wsdl", "/ws/usuarios.wsdl",
-            "soap", "/ws"
-        ));
+        // 2. vc entrega a carta  (backend SOAP)
+        var response = usuarios("/usuarios", () -> usuariosBackend.getAllUsuarios(request));
         
-        return result;
+        return ResponseEntity.ok(new UsuariosEnvelope(SOAP, response.getUsuarios(), USUARIOS_LINKS));
     }
     
     @GetMapping("/usuarios/{id}")
     @Operation(summary = "Usuário por ID via Gateway", description = "Acessa usuário específico via SOAP através do Gateway")
-    public ResponseEntity<Map<String, Object>> getUsuarioByIdViaGateway(@PathVariable Long id) {
+    public ResponseEntity<?> getUsuarioByIdViaGateway(@PathVariable Long id,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        if (usuariosBackend.remoto()) {
+            return soap(soapTranscoder.operacao(USUARIO_SOAP), Map.of("id", id.toString()), accept, GATEWAY, SELF_USUARIO.comId(id), ALL_USUARIOS, WSDL);
+        }
+        
         var request = new UsuarioSoapController.GetUsuarioRequest();
         request.setId(id);
-        var response = usuarioSoapController.getUsuario(request);
+        var response = usuarios("/usuarios/" + id, () -> usuariosBackend.getUsuario(request));
         
-        Map<String, Object> result = new HashMap<>();
         if (response.getUsuario() != null) {
-            result.put("source", "SOAP API");
-            result.put("usuario", response.getUsuario());
-            result.put("_links", Map.of(
-                "gateway", "/gateway",
-                "self", "/gateway/usuarios/" + id,
-                "all", "/gateway/usuarios",
-                "wsdl", "/ws/usuarios.wsdl"
-            ));
-            
-            return ResponseEntity.ok(result);
-        } else {
-            result.put("error", "Usuário não encontrado");
-            result.put("source", "SOAP API");
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(new UsuarioEnvelope(SOAP, response.getUsuario(),
+                GATEWAY, SELF_USUARIO.comId(id), ALL_USUARIOS, WSDL));
         }
+        return ResponseEntity.notFound().build();
     }
     
     @PostMapping("/usuarios")
     @Operation(summary = "Criar usuário via Gateway", description = "Cria novo usuário via SOAP através do Gateway")
-    public ResponseEntity<Map<String, Object>> createUsuarioViaGateway(@RequestBody Map<String, String> usuarioData) {
+    public ResponseEntity<?> createUsuarioViaGateway(@RequestBody Map<String, String> usuarioData) {
         String nome = usuarioData.get("nome");
         String email = usuarioData.get("email");
         
         if (nome == null || nome.trim().isEmpty() || email == null || email.trim().isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", "Nome e email são obrigatórios");
-            error.put("source", "SOAP API");
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErroEnvelope("Nome e email são obrigatórios", SOAP));
         }
         
         var request = new UsuarioSoapController.CreateUsuarioRequest();
         request.setNome(nome);
         request.setEmail(email);
-        var response = usuarioSoapController.createUsuario(request);
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("source", "SOAP API");
-        result.put("usuario", response.getUsuario());
-        result.put("message", "Usuário criado com sucesso");
-        result.put("_links", Map.of(
-            "gateway", "/gateway",
-            "self", "/gateway/usuarios/" + response.getUsuario().getId(),
-            "all", "/gateway/usuarios",
-            "wsdl", "/ws/usuarios.wsdl"
-        ));
-        
-        return ResponseEntity.ok(result);
+        UsuarioSoapController.CreateUsuarioResponse response;
+        try {
+            response = escreverUsuarios(() -> usuariosBackend.createUsuario(request));
+        } catch (EmailDuplicadoException e) {
+            //o SOAP responde com Fault, no gateway vira 409
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroEnvelope(e.getMessage(), SOAP));
+        }
+        
+        var usuario = response.getUsuario();
+        return ResponseEntity.ok(new UsuarioEnvelope(SOAP, usuario, "Usuário criado com sucesso", new Link[] {
+            GATEWAY, SELF_USUARIO.comId(usuario.getId()), ALL_USUARIOS, WSDL
+        }));
+    }
+    
+    @PostMapping("/usuarios/batch")
+    @Operation(summary = "Criar usuários em lote via Gateway", description = "Cria vários usuários em um único "
+            + "createUsuariosBatchRequest SOAP, com um resultado por usuário (201 criado, 400 inválido, 409 email duplicado)")
+    public ResponseEntity<?> createUsuariosViaGateway(@RequestBody List<Map<String, String>> usuariosData) {
+        if (usuariosData.size() > UsuarioSoapController.MAX_BATCH) {
+            return ResponseEntity.badRequest()
+                    .body(new ErroEnvelope("No máximo " + UsuarioSoapController.MAX_BATCH + " usuários por lote", SOAP));
+        }
+        
+        var request = new UsuarioSoapController.CreateUsuariosBatchRequest();
+        for (Map<String, String> usuarioData : usuariosData) {
+            var novo = new UsuarioSoapController.NovoUsuarioXml();
+            if (usuarioData != null) {
+                novo.setNome(usuarioData.get("nome"));
+                novo.setEmail(usuarioData.get("email"));
+            }
+            request.getUsuarios().add(novo);
+        }
+        var response = escreverUsuarios(() -> usuariosBackend.createUsuariosBatch(request));
+        
+        List<LoteEnvelope.Item> resultados = new ArrayList<>(response.getResultados().size());
+        for (var resultado : response.getResultados()) {
+            resultados.add(switch (resultado.getStatus()) {
+                case UsuarioSoapController.ResultadoLoteXml.CREATED -> LoteEnvelope.Item.criado(resultado.getIndex(), resultado.getUsuario());
+                case UsuarioSoapController.ResultadoLoteXml.DUPLICATE ->
+                        LoteEnvelope.Item.erro(resultado.getIndex(), HttpStatus.CONFLICT.value(), resultado.getError());
+                default -> LoteEnvelope.Item.erro(resultado.getIndex(), HttpStatus.BAD_REQUEST.value(), resultado.getError());
+            });
+        }
+        return ResponseEntity.ok(LoteEnvelope.of(SOAP, resultados, USUARIOS_BATCH_LINKS));
+    }
+    
+    //rotas de gateway.soap.routes: registradas pelo GatewaySoapRoutesConfig com este método,
+    //o pattern que casou diz qual é a operação e os parâmetros vêm do path e da query string
+    @Operation(summary = "Operação SOAP via Gateway", description = "Rotas de gateway.soap.routes: a operação "
+            + "do usuarios.xsd é chamada com os parâmetros do path/query e a resposta XML é convertida direto em JSON")
+    public ResponseEntity<?> getSoapRoute(HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        var operacao = soapTranscoder.rota(pattern);
+        
+        Map<String, String> valores = new HashMap<>();
+        request.getParameterMap().forEach((nome, valor) -> valores.put(nome, valor[0]));
+        @SuppressWarnings("unchecked")
+        var variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variaveis != null) {
+            valores.putAll(variaveis);
+        }
+        String query = request.getQueryString() == null ? "" : "?" + request.getQueryString();
+        return soap(operacao, valores, request.getHeader(HttpHeaders.ACCEPT), GATEWAY,
+            Link.fixo("self", request.getRequestURI() + query), WSDL, SOAP_ENDPOINT);
+    }
+    
+    //chamada transcodificada: o corpo já sai pronto do SoapJsonTranscoder, no formato do Accept
+    private ResponseEntity<?> soap(SoapJsonTranscoder.Operacao operacao, Map<String, String> valores, String accept, Link... links)
+            throws HttpMediaTypeNotAcceptableException {
+        byte[] pedido;
+        try {
+            pedido = soapTranscoder.pedido(operacao, valores);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErroEnvelope(e.getMessage(), SOAP));
+        }
+        MediaType formato = soapTranscoder.formato(accept);
+        //a chave do coalescing inclui o formato: JSON e CBOR do mesmo pedido são respostas diferentes
+        String rota = "soap:" + operacao.pedido() + ":" + new String(pedido, StandardCharsets.UTF_8) + ":" + formato;
+        var resposta = usuarios(rota, () -> soapTranscoder.transcodificar(operacao, pedido, formato, links));
+        
+        if (resposta.vazio() && operacao.route().notFoundIfEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().contentType(resposta.tipo()).body(resposta.corpo());
+    }
+    
+    //leituras: o RequestCoalescer fica fora do bulkhead, então só a chamada que vai ao backend ocupa vaga;
+    //quem espera recebe o mesmo objeto de resposta (só lido aqui) ou a mesma exceção
+    private <T> T livros(String rota, Supplier<T> chamada) {
+        return coalescer.call(BackendGuards.LIVROS, rota, () -> guards.livros().call(chamada));
+    }
+    
+    private <T> T usuarios(String rota, Supplier<T> chamada) {
+        return coalescer.call(BackendGuards.USUARIOS, rota, () -> guards.usuarios().call(chamada));
+    }
+    
+    //escritas: terminada a escrita, as leituras novas não se juntam a uma chamada que começou antes dela
+    private <T> T escreverLivros(Supplier<T> chamada) {
+        try {
+            return guards.livros().call(chamada);
+        } finally {
+            coalescer.invalidate(BackendGuards.LIVROS);
+        }
+    }
+    
+    private <T> T escreverUsuarios(Supplier<T> chamada) {
+        try {
+            return guards.usuarios().call(chamada);
+        } finally {
+            coalescer.invalidate(BackendGuards.USUARIOS);
+        }
+    }
+    
+    //backend fora do ar ou sem responder dentro do timeout (modo remote)
+    //o GatewayCacheFilter pode trocar essa resposta pela última resposta boa (vencida) do cache
+    @ExceptionHandler({ResourceAccessException.class, WebServiceIOException.class})
+    public ResponseEntity<ErroEnvelope> handleBackendIndisponivel(Exception e, HttpServletRequest request) {
+        String source = e instanceof WebServiceIOException ? SOAP : REST;
+        meterRegistry.counter("gateway.errors", "source", source, "reason", "unavailable").increment();
+        request.setAttribute(GatewayCacheFilter.BACKEND_INDISPONIVEL, true);
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(new ErroEnvelope("Backend indisponível: " + e.getMessage(), source));
+    }
+    
+    //backend REST respondeu 5xx ou 429 (modo remote): 502, ou 503 com o Retry-After dele
+    //o GatewayCacheFilter pode trocar essa resposta pela última resposta boa (vencida) do cache
+    @ExceptionHandler({HttpServerErrorException.class, HttpClientErrorException.TooManyRequests.class})
+    public ResponseEntity<ErroEnvelope> handleBackendErro(RestClientResponseException e, HttpServletRequest request) {
+        boolean sobrecarregado = e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        meterRegistry.counter("gateway.errors", "source", REST, "reason", sobrecarregado ? "overloaded" : "error").increment();
+        request.setAttribute(GatewayCacheFilter.BACKEND_INDISPONIVEL, true);
+        if (sobrecarregado) {
+            String retryAfter = e.getResponseHeaders() == null ? null : e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfter != null ? retryAfter : "1")
+                    .body(new ErroEnvelope("Backend sobrecarregado: " + e.getStatusText(), REST));
+        }
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body(new ErroEnvelope("Erro do backend: " + e.getStatusCode().value() + " " + e.getStatusText(), REST));
+    }
+    
+    //outros 4xx do backend REST (ex: fields inválido): o erro é do request, então status e corpo
+    //passam como vieram, igual ao modo in-process
+    @ExceptionHandler(HttpClientErrorException.class)
+    public ResponseEntity<byte[]> handleBackendRecusouRequest(HttpClientErrorException e) {
+        var response = ResponseEntity.status(e.getStatusCode());
+        MediaType tipo = e.getResponseHeaders() == null ? null : e.getResponseHeaders().getContentType();
+        if (tipo != null) {
+            response.contentType(tipo);
+        }
+        return response.body(e.getResponseBodyAsByteArray());
+    }
+
+    //SOAP Fault do backend de usuários (transcodificado ou pelo WebServiceTemplate): Client é erro
+    //do request (ex: pageToken inválido), Server é erro do backend
+    @ExceptionHandler(SoapFaultException.class)
+    public ResponseEntity<ErroEnvelope> handleSoapFault(SoapFaultException e) {
+        if (e.isClient()) {
+            return ResponseEntity.badRequest().body(new ErroEnvelope(e.getMessage(), SOAP));
+        }
+        meterRegistry.counter("gateway.errors", "source", SOAP, "reason", "fault").increment();
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(new ErroEnvelope("Fault do backend: " + e.getMessage(), SOAP));
+    }
+    
+    //circuito aberto, bulkhead cheio ou espera esgotada pela chamada igual de outro request
+    @ExceptionHandler(BackendIndisponivelException.class)
+    public ResponseEntity<ErroEnvelope> handleBackendRecusado(BackendIndisponivelException e, HttpServletRequest request) {
+        String source = BackendGuards.USUARIOS.equals(e.getBackend()) ? SOAP : REST;
+        meterRegistry.counter("gateway.errors", "source", source, "reason", e.getMotivo()).increment();
+        request.setAttribute(GatewayCacheFilter.BACKEND_INDISPONIVEL, true);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(new ErroEnvelope(e.getMessage(), source));
     }
 }
@@ -1,80 +1,327 @@
 package com.example.proj.controller;
 
+import com.example.proj.envelope.ErroEnvelope;
+import com.example.proj.envelope.Link;
+import com.example.proj.envelope.LivroEnvelope;
+import com.example.proj.envelope.LivrosEnvelope;
+import com.example.proj.envelope.LoteEnvelope;
+import com.example.proj.events.ChangeFeed;
 import com.example.proj.model.Livro;
+import com.example.proj.store.LivroSearchIndex;
+import com.example.proj.store.LivroStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/livros")
 @Tag(name = "Livros", description = "API REST para gerenciamento de livros")
 public class LivroController {
     
-    private List<Livro> livros = new ArrayList<>();
-    private Long nextId = 1L; //próximo ID disponível, L de Long 
+    //tamanho de página quando o cliente pagina sem informar limit, e o máximo permitido
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
     
-    public LivroController() {
-        // Dados iniciais
-        livros.add(new Livro(1L, "Spring Boot in Action", "Craig Walls", "978-1617292545"));
-        livros.add(new Livro(2L, "Clean Code", "Robert Martin", "978-0132350884"));
-        nextId = 3L; //O próximo id disponível é o 3,  pq já tem 2 livros
-    }
+    //máximo de livros por POST /batch (a busca por ids aceita até MAX_LIMIT ids)
+    public static final int MAX_BATCH = 10_000;
+    
+    //campos aceitos no parâmetro fields, na ordem em que aparecem no JSON do Livro
+    private static final List<String> CAMPOS = List.of("id", "titulo", "autor", "isbn");
+    
+    //links HATEOAS: os fixos são criados uma vez só, os outros só completam o prefixo com id/query
+    private static final Link SELF_LIST = Link.fixo("self", "/api/livros");
+    private static final Link GATEWAY_LIST = Link.fixo("gateway", "/gateway/livros");
+    private static final Link ALL = Link.fixo("all", "/api/livros");
+    private static final Link SELF_QUERY = Link.prefixo("self", "/api/livros");
+    private static final Link FIRST_QUERY = Link.prefixo("first", "/api/livros");
+    private static final Link NEXT_QUERY = Link.prefixo("next", "/api/livros");
+    private static final Link GATEWAY_QUERY = Link.prefixo("gateway", "/gateway/livros");
+    private static final Link SELF_ID = Link.prefixo("self", "/api/livros/");
+    private static final Link GATEWAY_ID = Link.prefixo("gateway", "/gateway/livros/");
+    private static final Link SELF_AUTOR = Link.prefixo("self", "/api/livros/autor/");
+    private static final Link SELF_SEARCH = Link.prefixo("self", "/api/livros/search");
+    private static final Link GATEWAY_SEARCH = Link.prefixo("gateway", "/gateway/livros/search");
+    private static final Link[] BATCH_LINKS = {Link.fixo("self", "/api/livros/batch"), ALL};
+    
+    //os livros ficam no LivroStore, que é thread-safe e indexado por id, isbn e autor
+    @Autowired
+    private LivroStore livroStore;
+    
+    //cada livro criado vira um evento no GET /gateway/events
+    @Autowired
+    private ChangeFeed changeFeed;
     
     @GetMapping
-    @Operation(summary = "Listar todos os livros", description = "Retorna lista de todos os livros com links HATEOAS")
-    //hashmap funciona como dicionário, <string, object> para os valores variados do dicionário
-    public Map<String, Object> getAllLivros() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("livros", livros);
-        response.put("count", livros.size());
-        response.put("_links", Map.of(
-            "self", "/api/livros",
-            "gateway", "/gateway/livros"
-        ));
-        return response;
+    @Operation(summary = "Listar todos os livros", description = "Retorna lista de livros com links HATEOAS. "
+            + "Com limit/after pagina por cursor (ID do último livro da página anterior); "
+            + "fields=id,titulo devolve só os campos pedidos; ids=1,2,3 busca vários livros de uma vez")
+    public LivrosEnvelope getAllLivros(@RequestParam(required = false) Integer limit,
+                                       @RequestParam(required = false) Long after,
+                                       @RequestParam(required = false) String fields,
+                                       @RequestParam(required = false) String ids) {
+        //com ids a busca é pelos ids pedidos, limit/after não se aplicam
+        if (ids != null) {
+            return getLivrosByIds(ids, fields);
+        }
+        Set<String> campos = parseFields(fields);
+        
+        //sem limit/after continua devolvendo a lista inteira, como antes
+        if (limit == null && after == null) {
+            String query = query(null, null, fields);
+            return new LivrosEnvelope(projetar(livroStore.findAll(), campos), livroStore.count(),
+                    query.isEmpty() ? SELF_LIST : SELF_QUERY.comSufixo(query),
+                    query.isEmpty() ? GATEWAY_LIST : GATEWAY_QUERY.comSufixo(query));
+        }
+        
+        int tamanho = pageSize(limit);
+        List<Livro> pagina = livroStore.findPage(after, tamanho);
+        Long cursor = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1).getId();
+        //só tem próxima página se existir algum livro depois do último desta página
+        Long nextCursor = cursor != null && livroStore.hasAfter(cursor) ? cursor : null;
+        
+        String query = query(tamanho, after, fields);
+        Link self = SELF_QUERY.comSufixo(query);
+        Link first = FIRST_QUERY.comSufixo(query(tamanho, null, fields));
+        Link gateway = GATEWAY_QUERY.comSufixo(query);
+        Link[] links = nextCursor == null
+                ? new Link[] {self, first, gateway}
+                : new Link[] {NEXT_QUERY.comSufixo(query(tamanho, nextCursor, fields)), self, first, gateway};
+        return new LivrosEnvelope(projetar(pagina, campos), pagina.size(), livroStore.count(), nextCursor, null, links);
+    }
+    
+    //busca em lote: um único request para vários ids, na ordem pedida; os que não existem vão em notFound
+    public LivrosEnvelope getLivrosByIds(String ids, String fields) {
+        return getLivrosByIds(parseIds(ids), fields);
+    }
+    
+    public LivrosEnvelope getLivrosByIds(List<Long> pedidos, String fields) {
+        Set<String> campos = parseFields(fields);
+        
+        List<Livro> encontrados = new ArrayList<>(pedidos.size());
+        List<Long> naoEncontrados = new ArrayList<>();
+        for (Long id : pedidos) {
+            livroStore.findById(id).ifPresentOrElse(encontrados::add, () -> naoEncontrados.add(id));
+        }
+        
+        String query = idsQuery(pedidos, fields);
+        return new LivrosEnvelope(projetar(encontrados, campos), encontrados.size(), null, null, naoEncontrados,
+                new Link[] {SELF_QUERY.comSufixo(query), GATEWAY_QUERY.comSufixo(query)});
+    }
+    
+    @GetMapping("/search")
+    @Operation(summary = "Buscar livros por título e autor", description = "Busca pelas palavras de q no título e no autor, "
+            + "sem diferenciar acentos e maiúsculas; cada palavra também casa como início de palavra (prog acha Programação). "
+            + "Os livros vêm do mais para o menos relevante; total é quantos livros casaram")
+    public LivrosEnvelope searchLivros(@RequestParam String q,
+                                       @RequestParam(required = false) Integer limit,
+                                       @RequestParam(required = false) String fields) {
+        Set<String> campos = parseFields(fields);
+        int tamanho = pageSize(limit);
+        LivroSearchIndex.Resultado resultado = livroStore.search(q, tamanho);
+        
+        String query = searchQuery(q, limit, fields);
+        return new LivrosEnvelope(projetar(resultado.livros(), campos), resultado.livros().size(), resultado.total(), null, null,
+                new Link[] {SELF_SEARCH.comSufixo(query), GATEWAY_SEARCH.comSufixo(query)});
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Buscar livro por ID", description = "Retorna um livro específico com links HATEOAS")
-    public ResponseEntity<Map<String, Object>> getLivroById(@PathVariable Long id) {
-        return livros.stream()
-                .filter(livro -> livro.getId().equals(id))
-                .findFirst()
-                .map(livro -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("livro", livro);
-                    response.put("_links", Map.of(
-                        "self", "/api/livros/" + id,
-                        "all", "/api/livros",
-                        "gateway", "/gateway/livros/" + id
-                    ));
-                    return ResponseEntity.ok(response);
-                })
+    public ResponseEntity<LivroEnvelope> getLivroById(@PathVariable Long id) {
+        return livroStore.findById(id)
+                .map(livro -> ResponseEntity.ok(livroResponse(livro)))
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/isbn/{isbn}")
+    @Operation(summary = "Buscar livro por ISBN", description = "Retorna o livro com o ISBN informado usando o índice do LivroStore")
+    public ResponseEntity<LivroEnvelope> getLivroByIsbn(@PathVariable String isbn) {
+        return livroStore.findByIsbn(isbn)
+                .map(livro -> ResponseEntity.ok(livroResponse(livro)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/autor/{autor}")
+    @Operation(summary = "Listar livros por autor", description = "Retorna os livros do autor informado usando o índice do LivroStore")
+    public LivrosEnvelope getLivrosByAutor(@PathVariable String autor) {
+        var livros = livroStore.findByAutor(autor);
+        return new LivrosEnvelope(livros, livros.size(), SELF_AUTOR.comSufixo(autor), ALL);
+    }
+    
     @PostMapping
     @Operation(summary = "Criar novo livro", description = "Cria um novo livro e retorna com links HATEOAS")
                                                            //parametro vai vir no corpo da requisição http, não na url
-    public ResponseEntity<Map<String, Object>> createLivro(@RequestBody Livro livro) {
-        livro.setId(nextId++);
-        livros.add(livro);
+    public ResponseEntity<?> createLivro(@RequestBody Livro livro) {
+        //o id é sempre gerado pelo store, mesmo que o cliente mande um
+        livro.setId(null);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("livro", livro);
-        response.put("message", "Livro criado com sucesso");
-        response.put("_links", Map.of(
-            "self", "/api/livros/" + livro.getId(),
-            "all", "/api/livros",
-            "gateway", "/gateway/livros/" + livro.getId()
-        ));
+        if (livroStore.save(livro).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErroEnvelope("Já existe um livro com o ISBN " + livro.getIsbn()));
+        }
+        changeFeed.publicar(ChangeFeed.LIVRO_CRIADO, livro);
+        return ResponseEntity.ok(new LivroEnvelope(livro, "Livro criado com sucesso", links(livro)));
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Criar livros em lote", description = "Cria até " + MAX_BATCH + " livros em um único request. "
+            + "Devolve um resultado por livro, na ordem enviada (201 criado, 400 inválido, 409 ISBN duplicado)")
+    public LoteEnvelope createLivros(@RequestBody List<Livro> livros) {
+        if (livros.size() > MAX_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No máximo " + MAX_BATCH + " livros por lote");
+        }
+        
+        //os livros válidos vão para o store de uma vez só, os resultados voltam na mesma ordem
+        List<Livro> validos = new ArrayList<>(livros.size());
+        for (Livro livro : livros) {
+            if (livro != null) {
+                livro.setId(null);
+                validos.add(livro);
+            }
+        }
+        List<Optional<Livro>> salvos = livroStore.saveAll(validos);
+        changeFeed.publicar(ChangeFeed.LIVRO_CRIADO, salvos.stream().flatMap(Optional::stream).toList());
         
-        return ResponseEntity.ok(response);
+        List<LoteEnvelope.Item> resultados = new ArrayList<>(livros.size());
+        int salvo = 0;
+        for (int i = 0; i < livros.size(); i++) {
+            Livro livro = livros.get(i);
+            if (livro == null) {
+                resultados.add(LoteEnvelope.Item.erro(i, HttpStatus.BAD_REQUEST.value(), "Livro vazio"));
+            } else if (salvos.get(salvo++).isPresent()) {
+                resultados.add(LoteEnvelope.Item.criado(i, livro));
+            } else {
+                resultados.add(LoteEnvelope.Item.erro(i, HttpStatus.CONFLICT.value(), "Já existe um livro com o ISBN " + livro.getIsbn()));
+            }
+        }
+        return LoteEnvelope.of(null, resultados, BATCH_LINKS);
+    }
+    
+    //limit efetivo: DEFAULT_LIMIT se não informado, sempre entre 1 e MAX_LIMIT
+    public static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+    
+    //monta a query string dos links de paginação (?limit=..&after=..&fields=..)
+    public static String query(Integer limit, Long after, String fields) {
+        StringBuilder query = new StringBuilder();
+        if (limit != null) {
+            query.append("&limit=").append(limit);
+        }
+        if (after != null) {
+            query.append("&after=").append(after);
+        }
+        if (fields != null && !fields.isBlank()) {
+            query.append("&fields=").append(fields.replace(" ", ""));
+        }
+        return query.isEmpty() ? "" : "?" + query.substring(1);
+    }
+    
+    //query string dos links da busca (?q=..&limit=..&fields=..), com q codificado para URL
+    public static String searchQuery(String q, Integer limit, String fields) {
+        StringBuilder query = new StringBuilder("?q=").append(URLEncoder.encode(q, StandardCharsets.UTF_8));
+        if (limit != null) {
+            query.append("&limit=").append(limit);
+        }
+        if (fields != null && !fields.isBlank()) {
+            query.append("&fields=").append(fields.replace(" ", ""));
+        }
+        return query.toString();
+    }
+    
+    //query string dos links da busca por ids (?ids=..&fields=..)
+    public static String idsQuery(List<Long> ids, String fields) {
+        StringBuilder query = new StringBuilder("?ids=");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                query.append(',');
+            }
+            query.append(ids.get(i));
+        }
+        if (fields != null && !fields.isBlank()) {
+            query.append("&fields=").append(fields.replace(" ", ""));
+        }
+        return query.toString();
+    }
+    
+    //ids=1,2,3 -> [1, 2, 3], no máximo MAX_LIMIT ids
+    public static List<Long> parseIds(String ids) {
+        String[] partes = ids.split(",");
+        if (partes.length > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No máximo " + MAX_LIMIT + " ids por busca");
+        }
+        List<Long> lista = new ArrayList<>(partes.length);
+        for (String parte : partes) {
+            if (parte.isBlank()) {
+                continue;
+            }
+            try {
+                lista.add(Long.parseLong(parte.trim()));
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Id inválido em ids: " + parte.trim());
+            }
+        }
+        return lista;
+    }
+    
+    //fields=id,titulo -> {id, titulo}; null quer dizer "todos os campos"
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> campos = new LinkedHashSet<>();
+        for (String campo : fields.split(",")) {
+            String nome = campo.trim();
+            if (!CAMPOS.contains(nome)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Campo inválido em fields: " + nome + " (use " + String.join(",", CAMPOS) + ")");
+            }
+            campos.add(nome);
+        }
+        return campos;
+    }
+    
+    //sem projeção devolve os próprios livros; com projeção, um mapa só com os campos pedidos
+    private static Collection<?> projetar(Collection<Livro> livros, Set<String> campos) {
+        if (campos == null) {
+            return livros;
+        }
+        List<Map<String, Object>> projetados = new ArrayList<>(livros.size());
+        for (Livro livro : livros) {
+            Map<String, Object> projetado = new LinkedHashMap<>();
+            for (String campo : campos) {
+                switch (campo) {
+                    case "id" -> projetado.put("id", livro.getId());
+                    case "titulo" -> projetado.put("titulo", livro.getTitulo());
+                    case "autor" -> projetado.put("autor", livro.getAutor());
+                    case "isbn" -> projetado.put("isbn", livro.getIsbn());
+                }
+            }
+            projetados.add(projetado);
+        }
+        return projetados;
+    }
+    
+    //monta a resposta de um livro com os links HATEOAS, usada aqui e no InProcessLivrosBackend
+    public LivroEnvelope livroResponse(Livro livro) {
+        return new LivroEnvelope(livro, links(livro));
+    }
+    
+    private static Link[] links(Livro livro) {
+        return new Link[] {SELF_ID.comId(livro.getId()), ALL, GATEWAY_ID.comId(livro.getId())};
     }
 }
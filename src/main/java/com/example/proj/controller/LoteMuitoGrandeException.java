@@ -0,0 +1,16 @@
+package com.example.proj.controller;
+
+import org.springframework.ws.soap.server.endpoint.annotation.FaultCode;
+import org.springframework.ws.soap.server.endpoint.annotation.SoapFault;
+
+/**
+ * Lançada quando um createUsuariosBatchRequest ou getUsuariosByIdsRequest passa do tamanho máximo.
+ * O Spring-WS converte essa exceção em um SOAP Fault do tipo Client.
+ */
+@SoapFault(faultCode = FaultCode.CLIENT)
+public class LoteMuitoGrandeException extends RuntimeException {
+
+    public LoteMuitoGrandeException(int maximo) {
+        super("O lote pode ter no máximo " + maximo + " itens");
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.proj.controller;
+
+import org.springframework.ws.soap.server.endpoint.annotation.FaultCode;
+import org.springframework.ws.soap.server.endpoint.annotation.SoapFault;
+
+/**
+ * Lançada quando o pageToken do getAllUsuariosRequest não foi gerado pelo serviço.
+ * O Spring-WS converte essa exceção em um SOAP Fault do tipo Client.
+ */
+@SoapFault(faultCode = FaultCode.CLIENT)
+public class PageTokenInvalidoException extends RuntimeException {
+
+    public PageTokenInvalidoException(String pageToken) {
+        super("pageToken inválido: " + pageToken);
+    }
+}
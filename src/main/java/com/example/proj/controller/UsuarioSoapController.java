@@ -1,14 +1,23 @@
 package com.example.proj.controller;
 
+import com.example.proj.events.ChangeFeed;
 import com.example.proj.model.Usuario;
+import com.example.proj.soap.UsuariosStreamingPayload;
+import com.example.proj.store.UsuarioStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
 
 import jakarta.xml.bind.annotation.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 
 @Endpoint
 public class UsuarioSoapController {
@@ -17,15 +26,16 @@ public class UsuarioSoapController {
     //Evita conflitos de nomes entre diferentes serviços SOAP
     private static final String NAMESPACE_URI = "http://proj.example.com/usuario"; 
     
-    private List<Usuario> usuarios = new ArrayList<>();
-    private Long nextId = 1L; //próximo ID disponível, L de Long 
+    //máximo de usuários por createUsuariosBatchRequest e de ids por getUsuariosByIdsRequest
+    public static final int MAX_BATCH = 10_000;
     
-    public UsuarioSoapController() {
-        // Dados iniciais
-        usuarios.add(new Usuario(1L, "João Silva", "joao@email.com"));
-        usuarios.add(new Usuario(2L, "Maria Santos", "maria@email.com"));
-        nextId = 3L; //O próximo id disponível é o 3,  pq já tem 2 usuários
-    }
+    //os usuários ficam no UsuarioStore, que é thread-safe e indexado por id e email
+    @Autowired
+    private UsuarioStore usuarioStore;
+    
+    //cada usuário criado vira um evento no GET /gateway/events
+    @Autowired
+    private ChangeFeed changeFeed;
     
     //Quando chegar um XML com tag <getUsuarioRequest> chama esse método
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getUsuarioRequest")
@@ -34,63 +44,187 @@ public class UsuarioSoapController {
     public GetUsuarioResponse getUsuario(@RequestPayload GetUsuarioRequest request) {
         GetUsuarioResponse response = new GetUsuarioResponse();
         
-        //percorre a lista e retorna o usuário com o id correspondente
-        usuarios.stream()
-                .filter(usuario -> usuario.getId().equals(request.getId()))
-                .findFirst()
-                .ifPresent(usuario -> { 
-                    // Se encontrou o usuário, converte pra XML e coloca na resposta
-                    UsuarioXml usuarioXml = new UsuarioXml();
-                    usuarioXml.setId(usuario.getId());
-                    usuarioXml.setNome(usuario.getNome());
-                    usuarioXml.setEmail(usuario.getEmail());
-                    response.setUsuario(usuarioXml);
-                });
+        //busca O(1) pelo id, se encontrou converte pra XML e coloca na resposta
+        usuarioStore.findById(request.getId())
+                .ifPresent(usuario -> response.setUsuario(toXml(usuario)));
+        
+        return response;
+    }
+    
+    //Busca pelo índice de email do store, sem percorrer a lista
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getUsuarioByEmailRequest")
+    @ResponsePayload
+    public GetUsuarioByEmailResponse getUsuarioByEmail(@RequestPayload GetUsuarioByEmailRequest request) {
+        GetUsuarioByEmailResponse response = new GetUsuarioByEmailResponse();
+        
+        usuarioStore.findByEmail(request.getEmail())
+                .ifPresent(usuario -> response.setUsuario(toXml(usuario)));
         
         return response;
     }
     
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getAllUsuariosRequest")
     @ResponsePayload
-    //busca todos os usuários e retorna em formato XML, como um dto
-    public GetAllUsuariosResponse getAllUsuarios(@RequestPayload GetAllUsuariosRequest request) {
+    //busca os usuários e retorna em formato XML, como um dto
+    //offset/limit/pageToken paginam; streaming=true escreve os usuários direto do store na resposta
+    public GetAllUsuariosResponse getAllUsuarios(@RequestPayload GetAllUsuariosRequest request, MessageContext messageContext) {
+        if (Boolean.TRUE.equals(request.getStreaming())
+                && messageContext.getResponse() instanceof StreamingWebServiceMessage streamingResponse) {
+            //nenhum UsuarioXml é criado: o payload percorre o store enquanto escreve o XML
+            Long after = decodePageToken(request.getPageToken());
+            Iterable<Usuario> usuarios = () -> usuarioStore.findAfter(after).stream().skip(offset(request)).iterator();
+            long limit = request.getLimit() == null ? Long.MAX_VALUE : Math.max(0, request.getLimit());
+            streamingResponse.setStreamingPayload(new UsuariosStreamingPayload(NAMESPACE_URI, usuarios, limit,
+                    ultimoId -> request.getLimit() != null && usuarioStore.hasAfter(ultimoId) ? encodePageToken(ultimoId) : null));
+            //a resposta já foi definida, não tem objeto JAXB para converter
+            return null;
+        }
+        return getAllUsuarios(request);
+    }
+    
+    //versão sem MessageContext, usada pelo GatewayController (sempre monta a lista de UsuarioXml)
+    public GetAllUsuariosResponse getAllUsuarios(GetAllUsuariosRequest request) {
         GetAllUsuariosResponse response = new GetAllUsuariosResponse();
         
-        List<UsuarioXml> usuariosList = usuarios.stream()
-                .map(usuario -> {
-                    UsuarioXml usuarioXml = new UsuarioXml();
-                    usuarioXml.setId(usuario.getId());
-                    usuarioXml.setNome(usuario.getNome());
-                    usuarioXml.setEmail(usuario.getEmail());
-                    return usuarioXml;
-                })
+        Long after = decodePageToken(request.getPageToken());
+        var usuarios = usuarioStore.findAfter(after).stream().skip(offset(request));
+        if (request.getLimit() != null) {
+            usuarios = usuarios.limit(Math.max(0, request.getLimit()));
+        }
+        List<UsuarioXml> usuariosList = usuarios
+                .map(UsuarioSoapController::toXml)
                 .toList();
         
         response.getUsuarios().addAll(usuariosList);
+        //só existe próxima página quando o cliente pediu um limit e ainda há usuários depois do último
+        if (request.getLimit() != null && !usuariosList.isEmpty()) {
+            Long ultimoId = usuariosList.get(usuariosList.size() - 1).getId();
+            if (usuarioStore.hasAfter(ultimoId)) {
+                response.setNextPageToken(encodePageToken(ultimoId));
+            }
+        }
         return response;
     }
     
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "createUsuarioRequest")
     @ResponsePayload
     //Cria um novo usuário a partir do XML recebido e retorna o usuário criado em XML, como um dto
+    //Se o email já existir, lança EmailDuplicadoException, que vira um SOAP Fault
     public CreateUsuarioResponse createUsuario(@RequestPayload CreateUsuarioRequest request) {
         CreateUsuarioResponse response = new CreateUsuarioResponse();
         
         Usuario novoUsuario = new Usuario();
-        novoUsuario.setId(nextId++);
         novoUsuario.setNome(request.getNome());
         novoUsuario.setEmail(request.getEmail());
-        usuarios.add(novoUsuario);
+        Usuario salvo = usuarioStore.save(novoUsuario)
+                .orElseThrow(() -> new EmailDuplicadoException(request.getEmail()));
+        changeFeed.publicar(ChangeFeed.USUARIO_CRIADO, salvo);
         
-        UsuarioXml usuarioXml = new UsuarioXml();
-        usuarioXml.setId(novoUsuario.getId());
-        usuarioXml.setNome(novoUsuario.getNome());
-        usuarioXml.setEmail(novoUsuario.getEmail());
-        response.setUsuario(usuarioXml);
+        response.setUsuario(toXml(salvo));
+        
+        return response;
+    }
+    
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "createUsuariosBatchRequest")
+    @ResponsePayload
+    //Cria vários usuários em um envelope só. Cada usuário tem o seu resultado (na mesma ordem do request):
+    //um email duplicado ou sem nome/email não vira Fault, só marca aquele item
+    public CreateUsuariosBatchResponse createUsuariosBatch(@RequestPayload CreateUsuariosBatchRequest request) {
+        List<NovoUsuarioXml> novos = request.getUsuarios();
+        if (novos.size() > MAX_BATCH) {
+            throw new LoteMuitoGrandeException(MAX_BATCH);
+        }
+        
+        //os válidos vão para o store de uma vez só, os resultados voltam na mesma ordem
+        List<Usuario> validos = new ArrayList<>(novos.size());
+        for (NovoUsuarioXml novo : novos) {
+            if (valido(novo)) {
+                validos.add(new Usuario(null, novo.getNome(), novo.getEmail()));
+            }
+        }
+        List<Optional<Usuario>> salvos = usuarioStore.saveAll(validos);
+        changeFeed.publicar(ChangeFeed.USUARIO_CRIADO, salvos.stream().flatMap(Optional::stream).toList());
+        
+        CreateUsuariosBatchResponse response = new CreateUsuariosBatchResponse();
+        int salvo = 0;
+        for (int i = 0; i < novos.size(); i++) {
+            NovoUsuarioXml novo = novos.get(i);
+            ResultadoLoteXml resultado = new ResultadoLoteXml();
+            resultado.setIndex(i);
+            if (!valido(novo)) {
+                resultado.setStatus(ResultadoLoteXml.INVALID);
+                resultado.setError("Nome e email são obrigatórios");
+            } else {
+                Optional<Usuario> criado = salvos.get(salvo++);
+                if (criado.isPresent()) {
+                    resultado.setStatus(ResultadoLoteXml.CREATED);
+                    resultado.setUsuario(toXml(criado.get()));
+                } else {
+                    resultado.setStatus(ResultadoLoteXml.DUPLICATE);
+                    resultado.setError("Já existe um usuário com o email " + novo.getEmail());
+                }
+            }
+            response.getResultados().add(resultado);
+        }
+        return response;
+    }
+    
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getUsuariosByIdsRequest")
+    @ResponsePayload
+    //busca vários usuários em um envelope só, na ordem pedida; os ids que não existem voltam em notFound
+    public GetUsuariosByIdsResponse getUsuariosByIds(@RequestPayload GetUsuariosByIdsRequest request) {
+        if (request.getIds().size() > MAX_BATCH) {
+            throw new LoteMuitoGrandeException(MAX_BATCH);
+        }
         
+        GetUsuariosByIdsResponse response = new GetUsuariosByIdsResponse();
+        for (Long id : request.getIds()) {
+            usuarioStore.findById(id).ifPresentOrElse(
+                    usuario -> response.getUsuarios().add(toXml(usuario)),
+                    () -> response.getNotFound().add(id));
+        }
         return response;
     }
     
+    private static boolean valido(NovoUsuarioXml novo) {
+        return novo.getNome() != null && !novo.getNome().isBlank()
+                && novo.getEmail() != null && !novo.getEmail().isBlank();
+    }
+    
+    private static long offset(GetAllUsuariosRequest request) {
+        return request.getOffset() == null ? 0 : Math.max(0, request.getOffset());
+    }
+    
+    //o pageToken é opaco para o cliente: por dentro é só o último ID entregue em Base64
+    private static String encodePageToken(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("after:" + ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Long decodePageToken(String pageToken) {
+        if (pageToken == null || pageToken.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(pageToken.trim()), StandardCharsets.UTF_8);
+            if (valor.startsWith("after:")) {
+                return Long.parseLong(valor.substring("after:".length()));
+            }
+        } catch (IllegalArgumentException e) {
+            //cai no erro abaixo
+        }
+        throw new PageTokenInvalidoException(pageToken);
+    }
+    
+    //converte o modelo para o "DTO do SOAP"
+    private static UsuarioXml toXml(Usuario usuario) {
+        UsuarioXml usuarioXml = new UsuarioXml();
+        usuarioXml.setId(usuario.getId());
+        usuarioXml.setNome(usuario.getNome());
+        usuarioXml.setEmail(usuario.getEmail());
+        return usuarioXml;
+    }
+    
     //templates do XLM
     // Classes XML para SOAP, são classes que mapeiam exatamente a estrutura do XML que será trocado no SOAP. "DTOs do SOAP"
     @XmlRootElement(name = "getUsuarioRequest", namespace = NAMESPACE_URI)
@@ -111,10 +245,41 @@ public class UsuarioSoapController {
         public void setUsuario(UsuarioXml usuario) { this.usuario = usuario; }
     }
     
+    @XmlRootElement(name = "getUsuarioByEmailRequest", namespace = NAMESPACE_URI)
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class GetUsuarioByEmailRequest {
+        private String email;
+        
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+    }
+    
+    @XmlRootElement(name = "getUsuarioByEmailResponse", namespace = NAMESPACE_URI)
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class GetUsuarioByEmailResponse {
+        private UsuarioXml usuario;
+        
+        public UsuarioXml getUsuario() { return usuario; }
+        public void setUsuario(UsuarioXml usuario) { this.usuario = usuario; }
+    }
+    
     @XmlRootElement(name = "getAllUsuariosRequest", namespace = NAMESPACE_URI)
     @XmlAccessorType(XmlAccessType.FIELD)
     public static class GetAllUsuariosRequest {
-        // Vazio pro exemplo
+        //todos opcionais: sem nenhum deles a resposta traz todos os usuários
+        private Integer offset;
+        private Integer limit;
+        private String pageToken;
+        private Boolean streaming;
+        
+        public Integer getOffset() { return offset; }
+        public void setOffset(Integer offset) { this.offset = offset; }
+        public Integer getLimit() { return limit; }
+        public void setLimit(Integer limit) { this.limit = limit; }
+        public String getPageToken() { return pageToken; }
+        public void setPageToken(String pageToken) { this.pageToken = pageToken; }
+        public Boolean getStreaming() { return streaming; }
+        public void setStreaming(Boolean streaming) { this.streaming = streaming; }
     }
     
     @XmlRootElement(name = "getAllUsuariosResponse", namespace = NAMESPACE_URI)
@@ -122,9 +287,12 @@ public class UsuarioSoapController {
     public static class GetAllUsuariosResponse {
         @XmlElement(name = "usuario")
         private List<UsuarioXml> usuarios = new ArrayList<>();
+        private String nextPageToken;
         
         public List<UsuarioXml> getUsuarios() { return usuarios; }
         public void setUsuarios(List<UsuarioXml> usuarios) { this.usuarios = usuarios; }
+        public String getNextPageToken() { return nextPageToken; }
+        public void setNextPageToken(String nextPageToken) { this.nextPageToken = nextPageToken; }
     }
     
     @XmlRootElement(name = "createUsuarioRequest", namespace = NAMESPACE_URI)
@@ -148,6 +316,82 @@ public class UsuarioSoapController {
         public void setUsuario(UsuarioXml usuario) { this.usuario = usuario; }
     }
     
+    @XmlRootElement(name = "createUsuariosBatchRequest", namespace = NAMESPACE_URI)
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class CreateUsuariosBatchRequest {
+        @XmlElement(name = "usuario")
+        private List<NovoUsuarioXml> usuarios = new ArrayList<>();
+        
+        public List<NovoUsuarioXml> getUsuarios() { return usuarios; }
+        public void setUsuarios(List<NovoUsuarioXml> usuarios) { this.usuarios = usuarios; }
+    }
+    
+    @XmlRootElement(name = "createUsuariosBatchResponse", namespace = NAMESPACE_URI)
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class CreateUsuariosBatchResponse {
+        @XmlElement(name = "resultado")
+        private List<ResultadoLoteXml> resultados = new ArrayList<>();
+        
+        public List<ResultadoLoteXml> getResultados() { return resultados; }
+        public void setResultados(List<ResultadoLoteXml> resultados) { this.resultados = resultados; }
+    }
+    
+    @XmlRootElement(name = "getUsuariosByIdsRequest", namespace = NAMESPACE_URI)
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class GetUsuariosByIdsRequest {
+        @XmlElement(name = "id")
+        private List<Long> ids = new ArrayList<>();
+        
+        public List<Long> getIds() { return ids; }
+        public void setIds(List<Long> ids) { this.ids = ids; }
+    }
+    
+    @XmlRootElement(name = "getUsuariosByIdsResponse", namespace = NAMESPACE_URI)
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class GetUsuariosByIdsResponse {
+        @XmlElement(name = "usuario")
+        private List<UsuarioXml> usuarios = new ArrayList<>();
+        private List<Long> notFound = new ArrayList<>();
+        
+        public List<UsuarioXml> getUsuarios() { return usuarios; }
+        public void setUsuarios(List<UsuarioXml> usuarios) { this.usuarios = usuarios; }
+        public List<Long> getNotFound() { return notFound; }
+        public void setNotFound(List<Long> notFound) { this.notFound = notFound; }
+    }
+    
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class NovoUsuarioXml {
+        private String nome;
+        private String email;
+        
+        public String getNome() { return nome; }
+        public void setNome(String nome) { this.nome = nome; }
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+    }
+    
+    //resultado de um item do createUsuariosBatch: usuario quando criado, error quando não
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class ResultadoLoteXml {
+        public static final String CREATED = "CREATED";
+        public static final String INVALID = "INVALID";
+        public static final String DUPLICATE = "DUPLICATE";
+        
+        private int index;
+        private String status;
+        private UsuarioXml usuario;
+        private String error;
+        
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public UsuarioXml getUsuario() { return usuario; }
+        public void setUsuario(UsuarioXml usuario) { this.usuario = usuario; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+    
     @XmlAccessorType(XmlAccessType.FIELD)
     public static class UsuarioXml {
         private Long id;
@@ -0,0 +1,12 @@
+/**
+ * Controllers REST, SOAP e o Gateway.
+ *
+ * O @XmlSchema abaixo faz os DTOs JAXB do UsuarioSoapController usarem o mesmo
+ * namespace qualificado declarado no usuarios.xsd (elementFormDefault="qualified"),
+ * senão elementos como &lt;usr:id&gt; não seriam lidos.
+ */
+@XmlSchema(namespace = "http://proj.example.com/usuario", elementFormDefault = XmlNsForm.QUALIFIED)
+package com.example.proj.controller;
+
+import jakarta.xml.bind.annotation.XmlNsForm;
+import jakarta.xml.bind.annotation.XmlSchema;
@@ -0,0 +1,36 @@
+package com.example.proj.envelope;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * {"complete": ..., "elapsedMs": ..., "sources": {"livros": {...}, "usuarios": {...}}, "_links": {...}}
+ *
+ * complete é false quando alguma fonte não respondeu a tempo ou deu erro; as
+ * outras continuam na resposta (resultado parcial).
+ */
+@JsonSerialize(using = EnvelopeWriter.DashboardEnvelopeSerializer.class)
+public record DashboardEnvelope(long elapsedMs, List<Fonte> sources, Link... links) {
+
+    public static final String OK = "ok";
+    public static final String TIMEOUT = "timeout";
+    public static final String ERROR = "error";
+
+    /**
+     * {"source": ..., "status": ..., "latencyMs": ..., "data": ..., "error": ...}
+     *
+     * data só vem com status ok, error só com status error.
+     */
+    public record Fonte(String nome, String source, String status, long latencyMs, Object data, String error) {
+    }
+
+    public boolean complete() {
+        for (Fonte fonte : sources) {
+            if (!OK.equals(fonte.status())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
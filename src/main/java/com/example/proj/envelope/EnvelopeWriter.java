@@ -0,0 +1,342 @@
+package com.example.proj.envelope;
+
+import com.example.proj.controller.UsuarioSoapController.UsuarioXml;
+import com.example.proj.model.Livro;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ESCRITA DOS ENVELOPES DE RESPOSTA
+ *
+ * Antes cada resposta era um HashMap + Map.of para os links, montados a cada
+ * request e percorridos por reflexão pelo Jackson. Agora os envelopes são
+ * records e cada um tem um serializer que escreve os campos direto no
+ * JsonGenerator, com os nomes já codificados (SerializedString).
+ *
+ * A ordem dos campos é a mesma que o HashMap produzia, então o JSON continua
+ * igual byte a byte para os clientes. Os serializers só usam a API do
+ * JsonGenerator, então funcionam para qualquer formato que o Jackson escreva.
+ */
+public final class EnvelopeWriter {
+
+    private static final SerializedString LINKS = new SerializedString("_links");
+    private static final SerializedString LIVRO = new SerializedString("livro");
+    private static final SerializedString LIVROS = new SerializedString("livros");
+    private static final SerializedString USUARIO = new SerializedString("usuario");
+    private static final SerializedString USUARIOS = new SerializedString("usuarios");
+    private static final SerializedString COUNT = new SerializedString("count");
+    private static final SerializedString TOTAL = new SerializedString("total");
+    private static final SerializedString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString SOURCE = new SerializedString("source");
+    private static final SerializedString DATA = new SerializedString("data");
+    private static final SerializedString ERROR = new SerializedString("error");
+    private static final SerializedString NOT_FOUND = new SerializedString("notFound");
+    private static final SerializedString CREATED = new SerializedString("created");
+    private static final SerializedString FAILED = new SerializedString("failed");
+    private static final SerializedString RESULTS = new SerializedString("results");
+    private static final SerializedString INDEX = new SerializedString("index");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString COMPLETE = new SerializedString("complete");
+    private static final SerializedString ELAPSED_MS = new SerializedString("elapsedMs");
+    private static final SerializedString SOURCES = new SerializedString("sources");
+    private static final SerializedString LATENCY_MS = new SerializedString("latencyMs");
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITULO = new SerializedString("titulo");
+    private static final SerializedString AUTOR = new SerializedString("autor");
+    private static final SerializedString ISBN = new SerializedString("isbn");
+    private static final SerializedString NOME = new SerializedString("nome");
+    private static final SerializedString EMAIL = new SerializedString("email");
+
+    private EnvelopeWriter() {
+    }
+
+    public static class LivroEnvelopeSerializer extends StdSerializer<LivroEnvelope> {
+
+        public LivroEnvelopeSerializer() {
+            super(LivroEnvelope.class);
+        }
+
+        @Override
+        public void serialize(LivroEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            gen.writeFieldName(LIVRO);
+            writeLivro(envelope.livro(), gen);
+            writeLinks(envelope.links(), gen);
+            writeOptional(MESSAGE, envelope.message(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class LivrosEnvelopeSerializer extends StdSerializer<LivrosEnvelope> {
+
+        public LivrosEnvelopeSerializer() {
+            super(LivrosEnvelope.class);
+        }
+
+        @Override
+        public void serialize(LivrosEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            if (envelope.nextCursor() != null) {
+                gen.writeFieldName(NEXT_CURSOR);
+                gen.writeNumber(envelope.nextCursor());
+            }
+            if (envelope.total() != null) {
+                gen.writeFieldName(TOTAL);
+                gen.writeNumber(envelope.total());
+            }
+            writeLinks(envelope.links(), gen);
+            gen.writeFieldName(LIVROS);
+            writeLivros(envelope.livros(), gen, provider);
+            gen.writeFieldName(COUNT);
+            gen.writeNumber(envelope.count());
+            writeIds(NOT_FOUND, envelope.notFound(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class GatewayEnvelopeSerializer extends StdSerializer<GatewayEnvelope> {
+
+        public GatewayEnvelopeSerializer() {
+            super(GatewayEnvelope.class);
+        }
+
+        @Override
+        public void serialize(GatewayEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            gen.writeFieldName(DATA);
+            //envelope tipado (in-process) cai no serializer dele, mapa (remote) no do Jackson
+            provider.defaultSerializeValue(envelope.data(), gen);
+            writeLinks(envelope.links(), gen);
+            gen.writeFieldName(SOURCE);
+            gen.writeString(envelope.source());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class UsuariosEnvelopeSerializer extends StdSerializer<UsuariosEnvelope> {
+
+        public UsuariosEnvelopeSerializer() {
+            super(UsuariosEnvelope.class);
+        }
+
+        @Override
+        public void serialize(UsuariosEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            writeLinks(envelope.links(), gen);
+            gen.writeFieldName(COUNT);
+            gen.writeNumber(envelope.usuarios().size());
+            gen.writeFieldName(SOURCE);
+            gen.writeString(envelope.source());
+            gen.writeFieldName(USUARIOS);
+            gen.writeStartArray();
+            for (UsuarioXml usuario : envelope.usuarios()) {
+                writeUsuario(usuario, gen);
+            }
+            gen.writeEndArray();
+            writeIds(NOT_FOUND, envelope.notFound(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class UsuarioEnvelopeSerializer extends StdSerializer<UsuarioEnvelope> {
+
+        public UsuarioEnvelopeSerializer() {
+            super(UsuarioEnvelope.class);
+        }
+
+        @Override
+        public void serialize(UsuarioEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            writeLinks(envelope.links(), gen);
+            gen.writeFieldName(USUARIO);
+            writeUsuario(envelope.usuario(), gen);
+            gen.writeFieldName(SOURCE);
+            gen.writeString(envelope.source());
+            writeOptional(MESSAGE, envelope.message(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class ErroEnvelopeSerializer extends StdSerializer<ErroEnvelope> {
+
+        public ErroEnvelopeSerializer() {
+            super(ErroEnvelope.class);
+        }
+
+        @Override
+        public void serialize(ErroEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            writeOptional(SOURCE, envelope.source(), gen);
+            gen.writeFieldName(ERROR);
+            gen.writeString(envelope.error());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class LoteEnvelopeSerializer extends StdSerializer<LoteEnvelope> {
+
+        public LoteEnvelopeSerializer() {
+            super(LoteEnvelope.class);
+        }
+
+        @Override
+        public void serialize(LoteEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            writeOptional(SOURCE, envelope.source(), gen);
+            gen.writeFieldName(CREATED);
+            gen.writeNumber(envelope.created());
+            gen.writeFieldName(FAILED);
+            gen.writeNumber(envelope.failed());
+            gen.writeFieldName(RESULTS);
+            gen.writeStartArray();
+            for (LoteEnvelope.Item item : envelope.results()) {
+                gen.writeStartObject(item);
+                gen.writeFieldName(INDEX);
+                gen.writeNumber(item.index());
+                gen.writeFieldName(STATUS);
+                gen.writeNumber(item.status());
+                if (item.item() instanceof Livro livro) {
+                    gen.writeFieldName(LIVRO);
+                    writeLivro(livro, gen);
+                } else if (item.item() instanceof UsuarioXml usuario) {
+                    gen.writeFieldName(USUARIO);
+                    writeUsuario(usuario, gen);
+                }
+                writeOptional(ERROR, item.error(), gen);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            writeLinks(envelope.links(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class DashboardEnvelopeSerializer extends StdSerializer<DashboardEnvelope> {
+
+        public DashboardEnvelopeSerializer() {
+            super(DashboardEnvelope.class);
+        }
+
+        @Override
+        public void serialize(DashboardEnvelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(envelope);
+            gen.writeFieldName(COMPLETE);
+            gen.writeBoolean(envelope.complete());
+            gen.writeFieldName(ELAPSED_MS);
+            gen.writeNumber(envelope.elapsedMs());
+            gen.writeFieldName(SOURCES);
+            gen.writeStartObject();
+            for (DashboardEnvelope.Fonte fonte : envelope.sources()) {
+                gen.writeFieldName(fonte.nome());
+                gen.writeStartObject(fonte);
+                gen.writeFieldName(SOURCE);
+                gen.writeString(fonte.source());
+                gen.writeFieldName(STATUS);
+                gen.writeString(fonte.status());
+                gen.writeFieldName(LATENCY_MS);
+                gen.writeNumber(fonte.latencyMs());
+                if (fonte.data() != null) {
+                    gen.writeFieldName(DATA);
+                    provider.defaultSerializeValue(fonte.data(), gen);
+                }
+                writeOptional(ERROR, fonte.error(), gen);
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+            writeLinks(envelope.links(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * O objeto "_links", também usado pelo SoapJsonTranscoder, que escreve o envelope sem record.
+     */
+    public static void writeLinks(Link[] links, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(LINKS);
+        gen.writeStartObject();
+        for (Link link : links) {
+            link.write(gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeIds(SerializedString nome, List<Long> ids, JsonGenerator gen) throws IOException {
+        if (ids == null) {
+            return;
+        }
+        gen.writeFieldName(nome);
+        gen.writeStartArray();
+        for (Long id : ids) {
+            gen.writeNumber(id.longValue());
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeLivros(Collection<?> livros, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartArray();
+        for (Object livro : livros) {
+            if (livro instanceof Livro l) {
+                writeLivro(l, gen);
+            } else {
+                //projeção do parâmetro fields (mapa com os campos pedidos)
+                provider.defaultSerializeValue(livro, gen);
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    //mesma ordem e mesmos nulls que o Jackson usa para o Livro
+    private static void writeLivro(Livro livro, JsonGenerator gen) throws IOException {
+        if (livro == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(livro);
+        writeId(livro.getId(), gen);
+        writeString(TITULO, livro.getTitulo(), gen);
+        writeString(AUTOR, livro.getAutor(), gen);
+        writeString(ISBN, livro.getIsbn(), gen);
+        gen.writeEndObject();
+    }
+
+    private static void writeUsuario(UsuarioXml usuario, JsonGenerator gen) throws IOException {
+        if (usuario == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(usuario);
+        writeId(usuario.getId(), gen);
+        writeString(NOME, usuario.getNome(), gen);
+        writeString(EMAIL, usuario.getEmail(), gen);
+        gen.writeEndObject();
+    }
+
+    private static void writeId(Long id, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(ID);
+        if (id == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(id.longValue());
+        }
+    }
+
+    private static void writeString(SerializedString nome, String valor, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(nome);
+        gen.writeString(valor);
+    }
+
+    //campos que o HashMap antigo simplesmente não tinha quando não se aplicavam
+    private static void writeOptional(SerializedString nome, String valor, JsonGenerator gen) throws IOException {
+        if (valor != null) {
+            writeString(nome, valor, gen);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.proj.envelope;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * {"source": ..., "error": ...} (source é opcional)
+ */
+@JsonSerialize(using = EnvelopeWriter.ErroEnvelopeSerializer.class)
+public record ErroEnvelope(String error, String source) {
+
+    public ErroEnvelope(String error) {
+        this(error, null);
+    }
+}
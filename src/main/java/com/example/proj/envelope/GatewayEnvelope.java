@@ -0,0 +1,13 @@
+package com.example.proj.envelope;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * {"data": ..., "_links": {...}, "source": ...}
+ *
+ * data é a resposta do backend: um envelope tipado no modo in-process ou o
+ * mapa lido do JSON no modo remote.
+ */
+@JsonSerialize(using = EnvelopeWriter.GatewayEnvelopeSerializer.class)
+public record GatewayEnvelope(String source, Object data, Link... links) {
+}
@@ -0,0 +1,96 @@
+package com.example.proj.envelope;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+
+/**
+ * Um link HATEOAS (nome + endereço) com as partes fixas pré-calculadas.
+ *
+ * Links que não mudam são constantes ({@link #fixo}). Links que dependem de um
+ * ID ou de uma query string partem de um modelo ({@link #prefixo}) e só guardam
+ * o pedaço variável: a String "/api/livros/" + id nunca é montada, os caracteres
+ * são escritos direto no JsonGenerator.
+ */
+public final class Link {
+
+    private final SerializedString rel;
+    private final SerializedString fixo;
+    private final char[] prefixo;
+    private final long id;
+    private final String sufixo;
+
+    private Link(SerializedString rel, SerializedString fixo, char[] prefixo, long id, String sufixo) {
+        this.rel = rel;
+        this.fixo = fixo;
+        this.prefixo = prefixo;
+        this.id = id;
+        this.sufixo = sufixo;
+    }
+
+    /**
+     * Link com endereço fixo, para ser guardado em uma constante.
+     */
+    public static Link fixo(String rel, String href) {
+        return new Link(new SerializedString(rel), new SerializedString(href), null, -1, null);
+    }
+
+    /**
+     * Modelo de link cujo endereço começa com {@code prefixo}; use {@link #comId} ou {@link #comSufixo}.
+     */
+    public static Link prefixo(String rel, String prefixo) {
+        return new Link(new SerializedString(rel), null, prefixo.toCharArray(), -1, null);
+    }
+
+    /**
+     * Link "prefixo + id" a partir deste modelo.
+     */
+    public Link comId(long id) {
+        return new Link(rel, null, prefixo, id, null);
+    }
+
+    /**
+     * Link "prefixo + sufixo" (ex: query string) a partir deste modelo; sufixo vazio dá o próprio prefixo.
+     */
+    public Link comSufixo(String sufixo) {
+        return new Link(rel, null, prefixo, -1, sufixo);
+    }
+
+    void write(JsonGenerator gen) throws IOException {
+        gen.writeFieldName(rel);
+        if (fixo != null) {
+            gen.writeString(fixo);
+            return;
+        }
+        if (sufixo != null) {
+            char[] href = new char[prefixo.length + sufixo.length()];
+            System.arraycopy(prefixo, 0, href, 0, prefixo.length);
+            sufixo.getChars(0, sufixo.length(), href, prefixo.length);
+            gen.writeString(href, 0, href.length);
+            return;
+        }
+        char[] href = new char[prefixo.length + 20];
+        System.arraycopy(prefixo, 0, href, 0, prefixo.length);
+        int tamanho = digitos(id, href, prefixo.length);
+        gen.writeString(href, 0, tamanho);
+    }
+
+    // escreve o id em decimal a partir de href[inicio] e devolve o novo tamanho
+    private static int digitos(long valor, char[] href, int inicio) {
+        if (valor < 0) {
+            String texto = Long.toString(valor); // IDs negativos não existem nos stores, só não quebramos
+            texto.getChars(0, texto.length(), href, inicio);
+            return inicio + texto.length();
+        }
+        int fim = inicio;
+        for (long resto = valor; resto >= 10; resto /= 10) {
+            fim++;
+        }
+        int tamanho = fim + 1;
+        for (long resto = valor; fim >= inicio; resto /= 10) {
+            href[fim--] = (char) ('0' + resto % 10);
+        }
+        return tamanho;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.proj.envelope;
+
+import com.example.proj.model.Livro;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * {"livro": ..., "_links": {...}, "message": ...} (message é opcional)
+ */
+@JsonSerialize(using = EnvelopeWriter.LivroEnvelopeSerializer.class)
+public record LivroEnvelope(Livro livro, String message, Link[] links) {
+
+    public LivroEnvelope(Livro livro, Link... links) {
+        this(livro, null, links);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.proj.envelope;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {"nextCursor": ..., "total": ..., "_links": {...}, "livros": [...], "count": ..., "notFound": [...]}
+ *
+ * total e nextCursor só aparecem na listagem paginada, notFound só na busca por ids.
+ * livros pode ter os próprios Livro ou as projeções (mapas) do parâmetro fields.
+ */
+@JsonSerialize(using = EnvelopeWriter.LivrosEnvelopeSerializer.class)
+public record LivrosEnvelope(Collection<?> livros, int count, Integer total, Long nextCursor, List<Long> notFound,
+                             Link[] links) {
+
+    public LivrosEnvelope(Collection<?> livros, int count, Link... links) {
+        this(livros, count, null, null, null, links);
+    }
+}
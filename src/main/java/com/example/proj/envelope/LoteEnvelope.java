@@ -0,0 +1,40 @@
+package com.example.proj.envelope;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * Resultado de uma criação em lote, um item por elemento enviado e na mesma ordem:
+ * {"source": ..., "created": ..., "failed": ..., "results": [...], "_links": {...}} (source é opcional)
+ */
+@JsonSerialize(using = EnvelopeWriter.LoteEnvelopeSerializer.class)
+public record LoteEnvelope(String source, int created, int failed, List<Item> results, Link... links) {
+
+    /**
+     * {"index": ..., "status": ..., "livro"/"usuario": ..., "error": ...}
+     *
+     * status segue os códigos HTTP (201 criado, 400 inválido, 409 duplicado);
+     * item é um Livro ou UsuarioXml quando criado, error quando não.
+     */
+    public record Item(int index, int status, Object item, String error) {
+
+        public static Item criado(int index, Object item) {
+            return new Item(index, 201, item, null);
+        }
+
+        public static Item erro(int index, int status, String error) {
+            return new Item(index, status, null, error);
+        }
+    }
+
+    public static LoteEnvelope of(String source, List<Item> results, Link... links) {
+        int created = 0;
+        for (Item item : results) {
+            if (item.error() == null) {
+                created++;
+            }
+        }
+        return new LoteEnvelope(source, created, results.size() - created, results, links);
+    }
+}
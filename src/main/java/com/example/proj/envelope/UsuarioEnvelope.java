@@ -0,0 +1,15 @@
+package com.example.proj.envelope;
+
+import com.example.proj.controller.UsuarioSoapController.UsuarioXml;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * {"_links": {...}, "usuario": ..., "source": ..., "message": ...} (message é opcional)
+ */
+@JsonSerialize(using = EnvelopeWriter.UsuarioEnvelopeSerializer.class)
+public record UsuarioEnvelope(String source, UsuarioXml usuario, String message, Link[] links) {
+
+    public UsuarioEnvelope(String source, UsuarioXml usuario, Link... links) {
+        this(source, usuario, null, links);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.proj.envelope;
+
+import com.example.proj.controller.UsuarioSoapController.UsuarioXml;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * {"_links": {...}, "count": ..., "source": ..., "usuarios": [...], "notFound": [...]}
+ *
+ * notFound só aparece na busca por ids.
+ */
+@JsonSerialize(using = EnvelopeWriter.UsuariosEnvelopeSerializer.class)
+public record UsuariosEnvelope(String source, List<UsuarioXml> usuarios, List<Long> notFound, Link[] links) {
+
+    public UsuariosEnvelope(String source, List<UsuarioXml> usuarios, Link... links) {
+        this(source, usuarios, null, links);
+    }
+}
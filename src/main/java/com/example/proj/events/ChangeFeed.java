@@ -0,0 +1,318 @@
+package com.example.proj.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FEED DE CRIAÇÕES (GET /gateway/events, Server-Sent Events)
+ *
+ * O LivroController e o UsuarioSoapController publicam cada livro/usuário criado. Cada
+ * evento ganha um ID sequencial e é serializado uma vez só, num buffer circular com os
+ * últimos buffer-size eventos que todos os assinantes leem (nenhuma fila por assinante).
+ *
+ * - um assinante parado não usa thread: a conexão fica no Tomcat (request assíncrono) e
+ *   só ganha uma virtual thread quando tem evento ou heartbeat para escrever
+ * - quem publica nunca espera assinante: só grava no buffer e avisa os assinantes
+ * - assinante lento (o envio bloqueia no socket) fica para trás no buffer; se o evento
+ *   seguinte dele for sobrescrito, a conexão é fechada e o cliente reconecta com Last-Event-ID
+ * - Last-Event-ID ainda no buffer: recebe o que perdeu; mais antigo que o buffer (ou de antes
+ *   de um restart): recebe um evento reset com o ID atual e deve recarregar as listas
+ */
+public class ChangeFeed implements Closeable {
+
+    public static final String LIVRO_CRIADO = "livro.created";
+    public static final String USUARIO_CRIADO = "usuario.created";
+    public static final String RESET = "reset";
+
+    /**
+     * Um evento do feed; dados é o JSON do livro ou usuário criado.
+     */
+    public record Evento(long id, String tipo, String dados) {
+    }
+
+    /**
+     * Para onde vão os eventos de um assinante (o SseEmitter da conexão). Chamado por uma
+     * thread de cada vez.
+     */
+    public interface Saida {
+
+        void enviar(Evento evento) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void fechar();
+    }
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReferenceArray<Evento> buffer;
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger conectados = new AtomicInteger();
+    private final int maxAssinantes;
+    private final long timeout;
+    private final ExecutorService entregas = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService agendador;
+    private final LongAdder publicados = new LongAdder();
+    private final LongAdder desconectados = new LongAdder();
+
+    public ChangeFeed(ChangeFeedProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.buffer = new AtomicReferenceArray<>(Math.max(1, properties.bufferSize()));
+        this.maxAssinantes = properties.maxSubscribers();
+        this.timeout = properties.timeout().toMillis();
+        this.agendador = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("events-heartbeat").daemon().factory());
+        long heartbeat = properties.heartbeat().toMillis();
+        if (heartbeat > 0) {
+            agendador.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void publicar(String tipo, Object dados) {
+        publicar(tipo, List.of(dados));
+    }
+
+    /**
+     * Publica vários eventos (um lote) e avisa cada assinante uma vez só.
+     */
+    public void publicar(String tipo, List<?> dados) {
+        if (dados.isEmpty()) {
+            return;
+        }
+        for (Object item : dados) {
+            String json = json(item);
+            long id = sequencia.incrementAndGet();
+            buffer.set(slot(id), new Evento(id, tipo, json));
+            publicados.increment();
+        }
+        for (Assinante assinante : assinantes) {
+            agendar(assinante);
+        }
+    }
+
+    /**
+     * Abre uma conexão SSE a partir do Last-Event-ID (null: só eventos novos).
+     *
+     * @return null se já existem max-subscribers conexões
+     */
+    public SseEmitter assinar(String ultimoId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        try {
+            //sem nada para enviar o Tomcat só manda os headers no primeiro evento; o comentário sai na hora
+            emitter.send(SseEmitter.event().comment("conectado"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Assinante assinante = assinar(ultimoId, new SseSaida(emitter));
+        if (assinante == null) {
+            return null;
+        }
+        emitter.onCompletion(() -> cancelar(assinante));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(erro -> cancelar(assinante));
+        return emitter;
+    }
+
+    Assinante assinar(String ultimoId, Saida saida) {
+        if (conectados.incrementAndGet() > maxAssinantes) {
+            conectados.decrementAndGet();
+            return null;
+        }
+        long atual = sequencia.get();
+        Long pedido = id(ultimoId);
+        Assinante assinante;
+        if (pedido == null) {
+            assinante = new Assinante(saida, atual, false);
+        } else if (pedido < 0 || pedido > atual || pedido < atual - buffer.length()) {
+            //o que ele perdeu não está mais no buffer (ou o ID é inválido ou de antes de um restart)
+            assinante = new Assinante(saida, atual, true);
+        } else {
+            assinante = new Assinante(saida, pedido, false);
+        }
+        assinantes.add(assinante);
+        agendar(assinante);
+        return assinante;
+    }
+
+    void cancelar(Assinante assinante) {
+        if (assinante.ativo) {
+            assinante.ativo = false;
+            if (assinantes.remove(assinante)) {
+                conectados.decrementAndGet();
+            }
+        }
+    }
+
+    public int assinantes() {
+        return conectados.get();
+    }
+
+    public long ultimoId() {
+        return sequencia.get();
+    }
+
+    public long publicados() {
+        return publicados.sum();
+    }
+
+    /**
+     * Assinantes desconectados por ficarem mais de buffer-size eventos para trás.
+     */
+    public long desconectados() {
+        return desconectados.sum();
+    }
+
+    @Override
+    public void close() {
+        agendador.shutdownNow();
+        for (Assinante assinante : assinantes) {
+            cancelar(assinante);
+            assinante.saida.fechar();
+        }
+        entregas.shutdownNow();
+    }
+
+    // um assinante tem no máximo uma entrega rodando; aviso que chega durante a entrega faz ela dar mais uma volta
+    private void agendar(Assinante assinante) {
+        if (assinante.avisos.getAndIncrement() == 0) {
+            try {
+                entregas.execute(() -> entregar(assinante));
+            } catch (RuntimeException e) {
+                cancelar(assinante); //executor fechado (shutdown)
+            }
+        }
+    }
+
+    private void entregar(Assinante assinante) {
+        int avisos;
+        do {
+            avisos = assinante.avisos.get();
+            if (assinante.ativo) {
+                enviarPendentes(assinante);
+            }
+        } while (assinante.avisos.addAndGet(-avisos) != 0);
+    }
+
+    private void enviarPendentes(Assinante assinante) {
+        try {
+            boolean enviou = false;
+            if (assinante.reset) {
+                assinante.reset = false;
+                assinante.saida.enviar(new Evento(assinante.cursor, RESET, "{\"lastEventId\":" + assinante.cursor + "}"));
+                enviou = true;
+            }
+            long fim = sequencia.get();
+            while (assinante.cursor < fim) {
+                long proximo = assinante.cursor + 1;
+                Evento evento = buffer.get(slot(proximo));
+                if (evento == null || evento.id() < proximo) {
+                    break; //ainda sendo publicado: quem publica avisa de novo
+                }
+                if (evento.id() > proximo) {
+                    //sobrescrito: o assinante ficou mais de buffer-size eventos para trás
+                    desconectados.increment();
+                    fechar(assinante);
+                    return;
+                }
+                assinante.saida.enviar(evento);
+                assinante.cursor = proximo;
+                enviou = true;
+            }
+            if (assinante.heartbeat && !enviou) {
+                assinante.saida.heartbeat();
+            }
+            assinante.heartbeat = false;
+        } catch (IOException | RuntimeException e) {
+            //conexão fechada pelo cliente
+            fechar(assinante);
+        }
+    }
+
+    private void fechar(Assinante assinante) {
+        cancelar(assinante);
+        assinante.saida.fechar();
+    }
+
+    private void heartbeat() {
+        for (Assinante assinante : assinantes) {
+            assinante.heartbeat = true;
+            agendar(assinante);
+        }
+    }
+
+    private int slot(long id) {
+        return (int) (id % buffer.length());
+    }
+
+    private String json(Object dados) {
+        try {
+            return objectMapper.writeValueAsString(dados);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Long id(String ultimoId) {
+        if (ultimoId == null || ultimoId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(ultimoId.trim());
+        } catch (NumberFormatException e) {
+            return -1L; //ID inválido: reset
+        }
+    }
+
+    static final class Assinante {
+
+        private final Saida saida;
+        private final AtomicInteger avisos = new AtomicInteger();
+        private long cursor; //último ID enviado; só a entrega (uma de cada vez) mexe
+        private boolean reset;
+        private volatile boolean heartbeat;
+        private volatile boolean ativo = true;
+
+        Assinante(Saida saida, long cursor, boolean reset) {
+            this.saida = saida;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+    }
+
+    private record SseSaida(SseEmitter emitter) implements Saida {
+
+        @Override
+        public void enviar(Evento evento) throws IOException {
+            emitter.send(SseEmitter.event().id(Long.toString(evento.id())).name(evento.tipo()).data(evento.dados()));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void fechar() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                //request já reciclado pelo Tomcat (cliente foi embora ou servidor desligando)
+            }
+        }
+    }
+}
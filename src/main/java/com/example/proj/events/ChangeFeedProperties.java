@@ -0,0 +1,23 @@
+package com.example.proj.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Feed de criações do GET /gateway/events (prefixo gateway.events).
+ *
+ * @param bufferSize     eventos recentes guardados para retomar com Last-Event-ID; um assinante
+ *                       que fica mais que isso para trás é desconectado
+ * @param maxSubscribers conexões abertas ao mesmo tempo; acima disso o GET recebe 503
+ * @param heartbeat      intervalo do comentário enviado a quem não recebe eventos (detecta conexão morta)
+ * @param timeout        tempo máximo de uma conexão; o cliente reconecta sozinho com Last-Event-ID (0: sem limite)
+ */
+@ConfigurationProperties(prefix = "gateway.events")
+public record ChangeFeedProperties(
+        @DefaultValue("1024") int bufferSize,
+        @DefaultValue("50000") int maxSubscribers,
+        @DefaultValue("15s") Duration heartbeat,
+        @DefaultValue("30m") Duration timeout) {
+}
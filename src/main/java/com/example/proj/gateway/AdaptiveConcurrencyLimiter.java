@@ -0,0 +1,120 @@
+package com.example.proj.gateway;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite global de requests em andamento que se ajusta pela latência (gradiente, sem lock).
+ *
+ * A cada janela compara a latência média da janela com uma latência de referência: enquanto
+ * a janela não passa de tolerance x referência o limite cresce devagar (raiz do limite,
+ * suavizado); quando passa, o limite cai na hora, na proporção (até pela metade por janela).
+ * Assim o excesso é recusado na entrada em vez de virar fila nos workers.
+ *
+ * - o limite só cresce se os requests em andamento chegaram perto dele na janela
+ * - a referência é a menor latência vista, e sobe bem devagar quando a latência normal do
+ *   serviço muda (~20s para acompanhar uma mudança permanente com janelas de 100ms)
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final int MIN_AMOSTRAS = 10;
+    private static final double SUAVIZACAO = 0.2;
+    private static final double PESO_REFERENCIA = 0.005;
+
+    private final int minLimite;
+    private final int maxLimite;
+    private final double tolerancia;
+    private final long janela;
+
+    private final AtomicInteger emUso = new AtomicInteger();
+    private final AtomicInteger pico = new AtomicInteger();
+    private final LongAdder somaLatencias = new LongAdder();
+    private final LongAdder amostras = new LongAdder();
+    private final AtomicLong fimJanela;
+
+    //só a thread que fecha a janela escreve; tryAcquire e as métricas leem
+    private volatile double limite;
+    private volatile double referencia; //nanos; 0 enquanto não há amostras
+
+    AdaptiveConcurrencyLimiter(AdmissionProperties.Concurrency properties, long agora) {
+        this.minLimite = Math.max(1, properties.minLimit());
+        this.maxLimite = Math.max(minLimite, properties.maxLimit());
+        this.tolerancia = properties.tolerance();
+        this.janela = properties.window().toNanos();
+        this.limite = Math.max(minLimite, Math.min(maxLimite, properties.initialLimit()));
+        this.fimJanela = new AtomicLong(agora + janela);
+    }
+
+    /**
+     * Reserva uma vaga; false se já há {@link #limite()} requests em andamento.
+     */
+    boolean tryAcquire() {
+        int maximo = (int) limite;
+        while (true) {
+            int atual = emUso.get();
+            if (atual >= maximo) {
+                return false;
+            }
+            if (emUso.compareAndSet(atual, atual + 1)) {
+                pico.accumulateAndGet(atual + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devolve a vaga e registra quanto o request levou; a primeira thread depois do fim
+     * da janela recalcula o limite.
+     */
+    void release(long latencia, long agora) {
+        emUso.decrementAndGet();
+        somaLatencias.add(latencia);
+        amostras.increment();
+        long fim = fimJanela.get();
+        if (agora - fim >= 0 && fimJanela.compareAndSet(fim, agora + janela)) {
+            ajustar();
+        }
+    }
+
+    // só uma thread por janela chega aqui (compareAndSet do fimJanela)
+    private void ajustar() {
+        long n = amostras.sumThenReset();
+        long soma = somaLatencias.sumThenReset();
+        if (n < MIN_AMOSTRAS) {
+            //poucas amostras: continuam valendo para a próxima janela
+            amostras.add(n);
+            somaLatencias.add(soma);
+            return;
+        }
+        double atual = (double) soma / n;
+
+        double ref = referencia == 0 || atual < referencia ? atual : referencia + (atual - referencia) * PESO_REFERENCIA;
+        referencia = ref;
+
+        double anterior = limite;
+        double gradiente = Math.max(0.5, Math.min(1.0, tolerancia * ref / Math.max(1, atual)));
+        double novo = anterior * gradiente + Math.sqrt(anterior);
+        int usado = pico.getAndSet(emUso.get());
+        if (novo > anterior) {
+            //sem demanda perto do limite a latência não diz nada sobre ele
+            novo = usado < anterior / 2 ? anterior : anterior * (1 - SUAVIZACAO) + novo * SUAVIZACAO;
+        }
+        limite = Math.max(minLimite, Math.min(maxLimite, novo));
+    }
+
+    int limite() {
+        return (int) limite;
+    }
+
+    int emUso() {
+        return emUso.get();
+    }
+
+    /**
+     * Latência de referência em nanos (0 antes da primeira janela com amostras).
+     */
+    double referencia() {
+        return referencia;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.proj.gateway;
+
+import com.example.proj.envelope.ErroEnvelope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CONTROLE DE ADMISSÃO de /api/**, /gateway/** e /ws/** (REST e SOAP)
+ *
+ * - rate limit por cliente (uma das gateway.admission.client-keys no header gateway.admission.client-header,
+ *   ou o IP): token bucket; sem token o request recebe 429 com Retry-After (quando o próximo token chega)
+ * - limite global de requests em andamento, ajustado pela latência (AdaptiveConcurrencyLimiter);
+ *   acima dele o request recebe 503 com Retry-After, antes de ocupar o controller
+ *
+ * As chamadas do próprio gateway no modo remote (com a {@link GatewayApiKey} ou uma das
+ * gateway.admission.trusted-keys) passam direto: o request do cliente que as gerou já foi admitido.
+ *
+ * REST recebe o erro como ErroEnvelope (JSON); /ws recebe um SOAP Fault. Os limites e as
+ * recusas ficam em GET /gateway/admission e nas métricas gateway.admission.* (MetricsConfig).
+ *
+ * Vem logo depois do filtro de métricas do Spring: as recusas também aparecem em
+ * http.server.requests, e um request recusado não chega no cache nem nos controllers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    public static final String RATE_LIMITED = "rate_limited";
+    public static final String OVERLOADED = "overloaded";
+
+    private static final String SOAP_FAULT = """
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/"><soap:Body><soap:Fault>\
+            <faultcode>soap:Server</faultcode><faultstring>%s</faultstring>\
+            </soap:Fault></soap:Body></soap:Envelope>""";
+
+    private final AdmissionProperties properties;
+    private final GatewayApiKey gatewayApiKey;
+    private final Set<String> conhecidas;
+    private final Set<String> confiaveis;
+    private final Cache<String, TokenBucket> buckets;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LongAdder limitados = new LongAdder();
+    private final LongAdder sobrecarregados = new LongAdder();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public AdmissionFilter(AdmissionProperties properties, GatewayApiKey gatewayApiKey) {
+        this.properties = properties;
+        this.gatewayApiKey = gatewayApiKey;
+        this.conhecidas = Set.copyOf(properties.clientKeys());
+        this.confiaveis = Set.copyOf(properties.trustedKeys());
+        AdmissionProperties.RateLimit rateLimit = properties.rateLimit();
+        //um bucket parado por burst / permitsPerSecond já está cheio: pode sair e ser recriado igual
+        long cheio = (long) (rateLimit.burst() / rateLimit.permitsPerSecond() * 1_000_000_000);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimit.maxClients())
+                .expireAfterAccess(Duration.ofNanos(Math.max(cheio, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+        this.limiter = new AdaptiveConcurrencyLimiter(properties.concurrency(), System.nanoTime());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.enabled()) {
+            return true;
+        }
+        String path = path(request);
+        return !(path.startsWith("/api/") || path.equals("/gateway") || path.startsWith("/gateway/")
+                || path.equals("/ws") || path.startsWith("/ws/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String chave = request.getHeader(properties.clientHeader());
+        if (confiavel(chave)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AdmissionProperties.RateLimit rateLimit = properties.rateLimit();
+        long agora = System.nanoTime();
+        TokenBucket bucket = buckets.get(cliente(chave, request),
+                id -> new TokenBucket(rateLimit.permitsPerSecond(), rateLimit.burst(), agora));
+        long espera = bucket.tryAcquire(agora);
+        if (espera > 0) {
+            limitados.increment();
+            recusar(request, response, HttpStatus.TOO_MANY_REQUESTS, segundos(espera),
+                    "Limite de " + rateLimit.permitsPerSecond() + " requests por segundo excedido");
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            sobrecarregados.increment();
+            recusar(request, response, HttpStatus.SERVICE_UNAVAILABLE, segundos(properties.concurrency().retryAfter().toNanos()),
+                    "Servidor sobrecarregado, tente novamente mais tarde");
+            return;
+        }
+
+        boolean assincrono = false;
+        try {
+            filterChain.doFilter(request, response);
+            assincrono = request.isAsyncStarted();
+        } finally {
+            if (assincrono && !stream(response)) {
+                //a vaga só é devolvida quando a resposta assíncrona termina
+                request.getAsyncContext().addListener(new Liberar(agora));
+            } else {
+                long fim = System.nanoTime();
+                limiter.release(fim - agora, fim);
+            }
+        }
+    }
+
+    /**
+     * Limites atuais e quantos requests foram recusados, para o GET /gateway/admission.
+     */
+    public Map<String, Object> stats() {
+        AdmissionProperties.RateLimit rateLimit = properties.rateLimit();
+        Map<String, Object> porCliente = new LinkedHashMap<>();
+        porCliente.put("permitsPerSecond", rateLimit.permitsPerSecond());
+        porCliente.put("burst", rateLimit.burst());
+        porCliente.put("clients", clientes());
+        porCliente.put("rejected", rejeitados(RATE_LIMITED));
+
+        Map<String, Object> concorrencia = new LinkedHashMap<>();
+        concorrencia.put("limit", limite());
+        concorrencia.put("inFlight", emUso());
+        concorrencia.put("referenceLatencyMs", limiter.referencia() / 1_000_000);
+        concorrencia.put("rejected", rejeitados(OVERLOADED));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.enabled());
+        stats.put("rateLimit", porCliente);
+        stats.put("concurrency", concorrencia);
+        return stats;
+    }
+
+    public int limite() {
+        return limiter.limite();
+    }
+
+    public int emUso() {
+        return limiter.emUso();
+    }
+
+    public long clientes() {
+        return buckets.estimatedSize();
+    }
+
+    public long rejeitados(String motivo) {
+        return (RATE_LIMITED.equals(motivo) ? limitados : sobrecarregados).sum();
+    }
+
+    private void recusar(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                         long retryAfter, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        if (soap(request)) {
+            response.setContentType(MediaType.TEXT_XML_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(SOAP_FAULT.formatted(mensagem));
+        } else {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ErroEnvelope(mensagem));
+        }
+    }
+
+    private boolean confiavel(String chave) {
+        return chave != null && !chave.isBlank() && (gatewayApiKey.confere(chave) || confiaveis.contains(chave));
+    }
+
+    // chave do cliente: a API key, se for uma das conhecidas, ou o IP; uma chave qualquer não vale,
+    // senão trocar de chave a cada request daria sempre um bucket cheio (e tiraria os outros do cache)
+    private String cliente(String chave, HttpServletRequest request) {
+        return chave != null && conhecidas.contains(chave) ? "key:" + chave : "ip:" + request.getRemoteAddr();
+    }
+
+    // um stream SSE (/gateway/events) fica aberto por minutos: devolve a vaga assim que ele começa,
+    // senão cada assinante ocuparia uma vaga e a "latência" dele derrubaria o limite
+    private static boolean stream(HttpServletResponse response) {
+        String tipo = response.getContentType();
+        return tipo != null && tipo.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private static boolean soap(HttpServletRequest request) {
+        String path = path(request);
+        return path.equals("/ws") || path.startsWith("/ws/");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // Retry-After é em segundos inteiros: arredonda para cima, no mínimo 1
+    private static long segundos(long nanos) {
+        return Math.max(1, (nanos + 999_999_999) / 1_000_000_000);
+    }
+
+    private final class Liberar implements AsyncListener {
+
+        private final long inicio;
+
+        Liberar(long inicio) {
+            this.inicio = inicio;
+        }
+
+        //onComplete vem sempre, também depois de timeout e erro
+        @Override
+        public void onComplete(AsyncEvent event) {
+            long agora = System.nanoTime();
+            limiter.release(agora - inicio, agora);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.proj.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuração do controle de admissão de /api, /gateway e /ws (prefixo gateway.admission).
+ *
+ * @param enabled      liga/desliga o AdmissionFilter
+ * @param clientHeader header com a chave do cliente
+ * @param clientKeys   chaves conhecidas de clientes: cada uma tem o seu token bucket; com qualquer outra
+ *                     chave (ou sem o header) o cliente é o IP, senão bastaria trocar de chave a cada request
+ * @param trustedKeys  chaves de outros gateways (o gateway.backend.api-key deles): requests com uma
+ *                     delas já foram admitidos lá e não passam pelo rate limit nem pelo limite de concorrência
+ * @param rateLimit    token bucket por cliente
+ * @param concurrency  limite global de requests em andamento, ajustado pela latência
+ */
+@ConfigurationProperties(prefix = "gateway.admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-API-Key") String clientHeader,
+        @DefaultValue List<String> clientKeys,
+        @DefaultValue List<String> trustedKeys,
+        @DefaultValue RateLimit rateLimit,
+        @DefaultValue Concurrency concurrency) {
+
+    /**
+     * @param permitsPerSecond requests por segundo de cada cliente, em média
+     * @param burst            quantos requests seguidos um cliente parado pode fazer de uma vez
+     * @param maxClients       máximo de clientes acompanhados (os parados há mais tempo saem primeiro)
+     */
+    public record RateLimit(
+            @DefaultValue("100") double permitsPerSecond,
+            @DefaultValue("200") int burst,
+            @DefaultValue("100000") long maxClients) {
+    }
+
+    /**
+     * @param initialLimit requests em andamento permitidos no start
+     * @param minLimit     o limite nunca fica abaixo disso, mesmo com a latência alta
+     * @param maxLimit     o limite nunca passa disso
+     * @param tolerance    quanto a latência pode subir (em vezes a latência de referência) antes do limite cair
+     * @param window       de quanto em quanto tempo o limite é recalculado
+     * @param retryAfter   Retry-After dos requests recusados por sobrecarga (503)
+     */
+    public record Concurrency(
+            @DefaultValue("100") int initialLimit,
+            @DefaultValue("10") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("2.0") double tolerance,
+            @DefaultValue("100ms") Duration window,
+            @DefaultValue("1s") Duration retryAfter) {
+    }
+}
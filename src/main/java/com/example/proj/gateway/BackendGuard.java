@@ -0,0 +1,131 @@
+package com.example.proj.gateway;
+
+import com.example.proj.controller.EmailDuplicadoException;
+import com.example.proj.controller.LoteMuitoGrandeException;
+import com.example.proj.controller.PageTokenInvalidoException;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead + circuit breaker de um backend do gateway.
+ *
+ * O bulkhead limita quantas threads de request podem estar dentro desse backend ao mesmo
+ * tempo: um backend lento ocupa no máximo max-concurrent threads, o resto recebe 503 na
+ * hora e as threads continuam livres para o outro backend. O circuit breaker para de chamar
+ * o backend que está falhando ou lento demais (ver {@link CircuitBreaker}).
+ *
+ * Erros de negócio (email duplicado, lote grande, 4xx do REST menos o 429, Fault Client) não contam como falha.
+ */
+public final class BackendGuard {
+
+    private static final Duration RETRY_BULKHEAD = Duration.ofSeconds(1);
+
+    private final String nome;
+    private final boolean ativo;
+    private final int maxConcorrentes;
+    private final long maxEspera;
+    private final Semaphore vagas;
+    private final CircuitBreaker circuito;
+    private final LongAdder circuitoAberto = new LongAdder();
+    private final LongAdder bulkheadCheio = new LongAdder();
+
+    BackendGuard(String nome, boolean ativo, GatewayResilienceProperties.Backend properties) {
+        this.nome = nome;
+        this.ativo = ativo;
+        this.maxConcorrentes = Math.max(1, properties.maxConcurrent());
+        this.maxEspera = properties.maxWait().toNanos();
+        this.vagas = new Semaphore(maxConcorrentes);
+        this.circuito = new CircuitBreaker(properties);
+    }
+
+    /**
+     * Chama o backend, ou lança {@link BackendIndisponivelException} sem chamar.
+     * Exceções do backend passam sem alteração.
+     */
+    public <T> T call(Supplier<T> chamada) {
+        if (!ativo) {
+            return chamada.get();
+        }
+        if (!reservar()) {
+            bulkheadCheio.increment();
+            throw new BackendIndisponivelException(nome, BackendIndisponivelException.BULKHEAD_FULL, RETRY_BULKHEAD);
+        }
+        try {
+            long inicio = System.nanoTime();
+            if (!circuito.permitir(inicio)) {
+                circuitoAberto.increment();
+                throw new BackendIndisponivelException(nome, BackendIndisponivelException.CIRCUIT_OPEN,
+                        Duration.ofNanos(Math.max(circuito.restanteAberto(inicio), RETRY_BULKHEAD.toNanos())));
+            }
+            boolean falhou = true;
+            try {
+                T resultado = chamada.get();
+                falhou = false;
+                return resultado;
+            } catch (RuntimeException e) {
+                falhou = falhaDoBackend(e);
+                throw e;
+            } finally {
+                long fim = System.nanoTime();
+                circuito.registrar(falhou, fim - inicio, fim);
+            }
+        } finally {
+            vagas.release();
+        }
+    }
+
+    private boolean reservar() {
+        if (maxEspera <= 0) {
+            return vagas.tryAcquire();
+        }
+        try {
+            return vagas.tryAcquire(maxEspera, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean falhaDoBackend(RuntimeException e) {
+        return !(e instanceof EmailDuplicadoException || e instanceof LoteMuitoGrandeException
+                || e instanceof PageTokenInvalidoException
+                || (e instanceof HttpClientErrorException && !(e instanceof HttpClientErrorException.TooManyRequests))
+                || (e instanceof SoapFaultException fault && fault.isClient()));
+    }
+
+    public String nome() {
+        return nome;
+    }
+
+    public CircuitBreaker.Estado estado() {
+        return circuito.estado();
+    }
+
+    public int vagasLivres() {
+        return vagas.availablePermits();
+    }
+
+    public long rejeitados(String motivo) {
+        return (BackendIndisponivelException.CIRCUIT_OPEN.equals(motivo) ? circuitoAberto : bulkheadCheio).sum();
+    }
+
+    /**
+     * Estado do circuito, vagas do bulkhead e recusas, para o GET /gateway/resilience.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuit", estado().name().toLowerCase());
+        stats.put("maxConcurrent", maxConcorrentes);
+        stats.put("available", vagasLivres());
+        stats.put("rejectedCircuitOpen", rejeitados(BackendIndisponivelException.CIRCUIT_OPEN));
+        stats.put("rejectedBulkheadFull", rejeitados(BackendIndisponivelException.BULKHEAD_FULL));
+        return stats;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.proj.gateway;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Um {@link BackendGuard} por backend do gateway: livros (REST) e usuarios (SOAP) não
+ * dividem vagas nem circuito, então problema em um não derruba o outro.
+ */
+@Component
+public class BackendGuards {
+
+    public static final String LIVROS = "livros";
+    public static final String USUARIOS = "usuarios";
+
+    private final BackendGuard livros;
+    private final BackendGuard usuarios;
+
+    public BackendGuards(GatewayResilienceProperties properties) {
+        this.livros = new BackendGuard(LIVROS, properties.enabled(), properties.livros());
+        this.usuarios = new BackendGuard(USUARIOS, properties.enabled(), properties.usuarios());
+    }
+
+    public BackendGuard livros() {
+        return livros;
+    }
+
+    public BackendGuard usuarios() {
+        return usuarios;
+    }
+
+    public List<BackendGuard> todos() {
+        return List.of(livros, usuarios);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (BackendGuard guard : todos()) {
+            stats.put(guard.nome(), guard.stats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.proj.gateway;
+
+import java.time.Duration;
+
+/**
+ * Chamada recusada antes de chegar no backend: circuito aberto, bulkhead cheio ou espera
+ * esgotada pela chamada igual de outro request (RequestCoalescer).
+ * O GatewayController responde 503 com Retry-After.
+ */
+public class BackendIndisponivelException extends RuntimeException {
+
+    public static final String CIRCUIT_OPEN = "circuit_open";
+    public static final String BULKHEAD_FULL = "bulkhead_full";
+    public static final String COALESCING_TIMEOUT = "coalescing_timeout";
+
+    private final String backend;
+    private final String motivo;
+    private final Duration retryAfter;
+
+    public BackendIndisponivelException(String backend, String motivo, Duration retryAfter) {
+        super(switch (motivo) {
+            case CIRCUIT_OPEN -> "Circuito aberto para o backend " + backend;
+            case COALESCING_TIMEOUT -> "Backend " + backend + " não respondeu a tempo (request igual em andamento)";
+            default -> "Backend " + backend + " sem vagas (bulkhead cheio)";
+        });
+        this.backend = backend;
+        this.motivo = motivo;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
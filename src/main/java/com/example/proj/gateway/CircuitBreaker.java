@@ -0,0 +1,129 @@
+package com.example.proj.gateway;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker de um backend, sem lock.
+ *
+ * - FECHADO: as chamadas passam e o resultado das últimas window-size entra numa janela
+ *   circular; com pelo menos minimum-calls na janela, se a taxa de falhas ou de chamadas
+ *   lentas passar do limite, o circuito abre
+ * - ABERTO: nenhuma chamada passa (falha rápida) até open-duration depois da abertura
+ * - MEIO_ABERTO: deixa passar half-open-calls chamadas de teste; se todas derem certo (e
+ *   sem lentidão) o circuito fecha com a janela zerada, na primeira ruim ele abre de novo
+ */
+public final class CircuitBreaker {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    private static final int FALHA = 1;
+    private static final int LENTA = 2;
+
+    private final AtomicIntegerArray janela; //por slot: 0 ok, FALHA | LENTA
+    private final AtomicLong chamadas = new AtomicLong();
+    private final AtomicInteger falhas = new AtomicInteger();
+    private final AtomicInteger lentas = new AtomicInteger();
+
+    private final int minimoChamadas;
+    private final double taxaFalhas;
+    private final double taxaLentas;
+    private final long lenta;
+    private final long tempoAberto;
+    private final int testes;
+
+    private final AtomicInteger estado = new AtomicInteger(Estado.FECHADO.ordinal());
+    private volatile long abertoEm;
+    private final AtomicInteger testesLiberados = new AtomicInteger();
+    private final AtomicInteger testesOk = new AtomicInteger();
+
+    CircuitBreaker(GatewayResilienceProperties.Backend properties) {
+        this.janela = new AtomicIntegerArray(Math.max(1, properties.windowSize()));
+        this.minimoChamadas = Math.max(1, Math.min(properties.minimumCalls(), janela.length()));
+        this.taxaFalhas = properties.failureRateThreshold() / 100.0;
+        this.taxaLentas = properties.slowCallRateThreshold() / 100.0;
+        this.lenta = properties.slowCallDuration().toNanos();
+        this.tempoAberto = properties.openDuration().toNanos();
+        this.testes = Math.max(1, properties.halfOpenCalls());
+    }
+
+    /**
+     * Se a chamada pode ir para o backend agora.
+     */
+    boolean permitir(long agora) {
+        Estado atual = estado();
+        if (atual == Estado.ABERTO) {
+            if (agora - abertoEm < tempoAberto) {
+                return false;
+            }
+            //passou o tempo aberto: uma thread só faz a troca e zera os testes
+            if (estado.compareAndSet(Estado.ABERTO.ordinal(), Estado.MEIO_ABERTO.ordinal())) {
+                testesOk.set(0);
+                testesLiberados.set(0);
+            }
+            atual = estado();
+        }
+        if (atual == Estado.MEIO_ABERTO) {
+            return testesLiberados.incrementAndGet() <= testes;
+        }
+        return atual == Estado.FECHADO;
+    }
+
+    /**
+     * Resultado de uma chamada que foi permitida.
+     */
+    void registrar(boolean falhou, long duracao, long agora) {
+        boolean lentaDemais = duracao >= lenta;
+        if (estado() == Estado.MEIO_ABERTO) {
+            if (falhou || lentaDemais) {
+                abrir(Estado.MEIO_ABERTO, agora);
+            } else if (testesOk.incrementAndGet() >= testes
+                    && estado.compareAndSet(Estado.MEIO_ABERTO.ordinal(), Estado.FECHADO.ordinal())) {
+                zerarJanela();
+            }
+            return;
+        }
+
+        int novo = (falhou ? FALHA : 0) | (lentaDemais ? LENTA : 0);
+        long n = chamadas.getAndIncrement();
+        int antigo = janela.getAndSet((int) (n % janela.length()), novo);
+        falhas.addAndGet((novo & FALHA) - (antigo & FALHA));
+        lentas.addAndGet(((novo & LENTA) - (antigo & LENTA)) / LENTA);
+
+        long naJanela = Math.min(n + 1, janela.length());
+        if (naJanela >= minimoChamadas
+                && (falhas.get() >= taxaFalhas * naJanela || lentas.get() >= taxaLentas * naJanela)) {
+            abrir(Estado.FECHADO, agora);
+        }
+    }
+
+    Estado estado() {
+        return Estado.values()[estado.get()];
+    }
+
+    /**
+     * Nanos que faltam para o circuito aberto aceitar chamadas de teste (0 se não está aberto).
+     */
+    long restanteAberto(long agora) {
+        return estado() == Estado.ABERTO ? Math.max(0, tempoAberto - (agora - abertoEm)) : 0;
+    }
+
+    private void abrir(Estado de, long agora) {
+        //uma chamada que termina com o circuito já aberto não estende o tempo aberto
+        if (estado.get() == de.ordinal()) {
+            abertoEm = agora;
+            estado.compareAndSet(de.ordinal(), Estado.ABERTO.ordinal());
+        }
+    }
+
+    // volta a contar do zero: o histórico de antes da abertura não vale mais
+    private void zerarJanela() {
+        for (int i = 0; i < janela.length(); i++) {
+            janela.set(i, 0);
+        }
+        falhas.set(0);
+        lentas.set(0);
+        chamadas.set(0);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.proj.gateway;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Faz o server.compression.min-response-size valer para as respostas de /api/**, /gateway/** e /ws.
+ *
+ * O Tomcat só deixa de comprimir uma resposta pequena quando sabe o tamanho dela na hora de
+ * mandar os headers. Os converters do Jackson e o XMLStreamWriter do /ws dão flush no fim da
+ * escrita, o que manda os headers sem Content-Length: toda resposta ia com gzip, mesmo as de
+ * 200 bytes. Aqui o flush é ignorado enquanto a resposta ainda não passou de min-response-size;
+ * no fim o Tomcat calcula o Content-Length e não comprime. Resposta maior continua sendo enviada
+ * aos poucos (e comprimida).
+ *
+ * O /gateway/events (text/event-stream) fica de fora: o flush é o que entrega cada evento.
+ */
+@Component
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private final boolean habilitado;
+    private final long minimo;
+
+    public CompressionThresholdFilter(@Value("${server.compression.enabled:false}") boolean habilitado,
+                                      @Value("${server.compression.min-response-size:2KB}") DataSize minimo) {
+        this.habilitado = habilitado;
+        this.minimo = minimo.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!habilitado) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.startsWith("/api/") || path.startsWith("/gateway/") || path.equals("/ws") || path.startsWith("/ws/"))
+                || path.equals("/gateway/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, new SemFlushResponse(response, minimo));
+    }
+
+    private static final class SemFlushResponse extends HttpServletResponseWrapper {
+
+        private final long minimo;
+        private ServletOutputStream saida;
+
+        SemFlushResponse(HttpServletResponse response, long minimo) {
+            super(response);
+            this.minimo = minimo;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (saida == null) {
+                saida = new SemFlushOutputStream(super.getOutputStream());
+            }
+            return saida;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!segurar()) {
+                super.flushBuffer();
+            }
+        }
+
+        private boolean segurar() {
+            long escritos = saida instanceof SemFlushOutputStream s ? s.escritos : 0;
+            String tipo = getContentType();
+            return escritos < minimo && (tipo == null || !tipo.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        }
+
+        private final class SemFlushOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+            private long escritos;
+
+            SemFlushOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                escritos++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                escritos += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (!segurar()) {
+                    delegate.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
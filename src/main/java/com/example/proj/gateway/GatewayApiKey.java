@@ -0,0 +1,52 @@
+package com.example.proj.gateway;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Chave que o gateway manda (no header gateway.admission.client-header) nas chamadas do modo
+ * remote aos próprios backends, e que o {@link AdmissionFilter} reconhece.
+ *
+ * O request do cliente já passou pelo rate limit e ocupa uma vaga do limite de concorrência no
+ * gateway; a chamada ao /api ou /ws que ele gera não é contada de novo. Sem gateway.backend.api-key
+ * a chave é aleatória, gerada no start: serve quando o backend é esta mesma instância (o padrão,
+ * localhost:8080). Com o backend em outra instância, a mesma chave vai no gateway.backend.api-key
+ * do gateway e no gateway.admission.trusted-keys do backend.
+ */
+@Component
+public class GatewayApiKey {
+
+    private final String valor;
+
+    @Autowired
+    public GatewayApiKey(GatewayBackendProperties properties) {
+        this(StringUtils.hasText(properties.apiKey()) ? properties.apiKey() : aleatoria());
+    }
+
+    public GatewayApiKey(String valor) {
+        this.valor = valor;
+    }
+
+    public String valor() {
+        return valor;
+    }
+
+    /**
+     * Comparação em tempo constante: o tempo da resposta não diz quantos caracteres conferem.
+     */
+    public boolean confere(String chave) {
+        return chave != null && MessageDigest.isEqual(valor.getBytes(StandardCharsets.UTF_8), chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String aleatoria() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        return "gateway-" + HexFormat.of().formatHex(bytes);
+    }
+}
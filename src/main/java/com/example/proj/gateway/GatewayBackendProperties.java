@@ -0,0 +1,31 @@
+package com.example.proj.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração dos backends do gateway (prefixo gateway.backend no application.properties).
+ *
+ * @param mode           in-process (chama os controllers da mesma JVM) ou remote (chama /api/livros e /ws via HTTP)
+ * @param connectTimeout tempo máximo para abrir uma conexão com qualquer backend
+ * @param apiKey         chave mandada aos backends no modo remote (ver GatewayApiKey); vazia = aleatória
+ * @param livros         endereço e timeout da API REST de livros
+ * @param usuarios       endereço e timeout do serviço SOAP de usuários
+ */
+@ConfigurationProperties(prefix = "gateway.backend")
+public record GatewayBackendProperties(
+        @DefaultValue("in-process") String mode,
+        @DefaultValue("1s") Duration connectTimeout,
+        String apiKey,
+        @DefaultValue Backend livros,
+        @DefaultValue Backend usuarios) {
+
+    /**
+     * @param url     endereço base (REST) ou endereço do endpoint (SOAP)
+     * @param timeout tempo máximo de espera pela resposta desse backend
+     */
+    public record Backend(String url, @DefaultValue("2s") Duration timeout) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.proj.gateway;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Filtro que coloca o GatewayResponseCache na frente das rotas de livros e usuários do gateway.
+ *
+ * - GET com If-None-Match igual ao ETag guardado: 304 sem corpo, sem chamar o controller
+ * - GET com resposta no cache: devolve os bytes guardados, sem chamar o controller
+ *   (uma resposta por Accept, porque o mesmo recurso pode sair em JSON, CBOR ou Smile)
+ * - GET sem resposta no cache: chama o controller e guarda a resposta se for 200
+ * - POST que deu certo: invalida o grupo (livros ou usuarios)
+ * - GET com o backend indisponível (circuito aberto, bulkhead cheio, timeout): devolve a última
+ *   resposta boa guardada, mesmo vencida, com o header Warning: 110 (stale)
+ */
+@Component
+public class GatewayCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * Atributo do request marcado pelo GatewayController quando a resposta de erro veio de um
+     * backend indisponível (e pode ser trocada por uma resposta vencida).
+     */
+    public static final String BACKEND_INDISPONIVEL = GatewayCacheFilter.class.getName() + ".BACKEND_INDISPONIVEL";
+
+    private static final String STALE = "110 - \"Response is Stale\"";
+
+    @Autowired
+    private GatewayResponseCache cache;
+
+    @Autowired
+    private GatewayCacheProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled() || grupo(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String grupo = grupo(request);
+
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            doGet(grupo, request, response, filterChain);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+        if (HttpMethod.POST.matches(request.getMethod()) && response.getStatus() < 300) {
+            cache.invalidate(grupo);
+        }
+    }
+
+    private void doGet(String grupo, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        GatewayResponseCache.Chave chave = new GatewayResponseCache.Chave(grupo, uri(request),
+                Objects.requireNonNullElse(request.getHeader(HttpHeaders.ACCEPT), ""));
+        GatewayResponseCache.Resposta resposta = cache.get(chave);
+        if (resposta != null) {
+            write(resposta, request, response);
+            return;
+        }
+
+        long geracao = cache.geracao(grupo);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+            GatewayResponseCache.Resposta vencida = request.getAttribute(BACKEND_INDISPONIVEL) == null ? null : cache.getStale(chave);
+            if (vencida == null) {
+                wrapper.copyBodyToResponse();
+                return;
+            }
+            //descarta o 503/504 (status, headers e corpo) e serve a última resposta boa
+            wrapper.reset();
+            response.setHeader(HttpHeaders.WARNING, STALE);
+            write(vencida, request, response);
+            return;
+        }
+
+        resposta = cache.put(chave, geracao, wrapper.getContentAsByteArray(), wrapper.getContentType());
+        if (resposta == null) {
+            //grande demais para o cache: sai sem ETag, como antes de existir o cache
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        wrapper.setHeader(HttpHeaders.ETAG, resposta.etag());
+        wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), resposta.etag())) {
+            cache.recordNotModified();
+            wrapper.resetBuffer();
+            wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void write(GatewayResponseCache.Resposta resposta, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, resposta.etag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), resposta.etag())) {
+            cache.recordNotModified();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(resposta.contentType());
+        response.setContentLength(resposta.corpo().length);
+        response.getOutputStream().write(resposta.corpo());
+    }
+
+    // If-None-Match pode trazer vários ETags separados por vírgula, ou *; a comparação é a fraca
+    // do HTTP (ignora o W/), então um ETag copiado com ou sem o W/ vale do mesmo jeito
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaco = opaco(etag);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || opaco(valor).equals(opaco)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaco(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String uri(HttpServletRequest request) {
+        return request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+    }
+
+    // só as rotas de dados entram no cache; /gateway, /gateway/cache etc. ficam de fora
+    private static String grupo(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/gateway/livros") || path.startsWith("/gateway/livros/")) {
+            return "livros";
+        }
+        if (path.equals("/gateway/usuarios") || path.startsWith("/gateway/usuarios/")) {
+            return "usuarios";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.proj.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuração do cache de respostas do gateway (prefixo gateway.cache).
+ *
+ * @param enabled       liga/desliga o cache
+ * @param maxBytes      soma máxima dos corpos guardados, em cada um dos dois caches (o do TTL e o das
+ *                      respostas vencidas); as menos usadas saem primeiro
+ * @param maxEntryBytes respostas maiores que isso não entram no cache
+ * @param ttl           tempo que uma resposta fica no cache depois de gerada
+ * @param staleTtl      por quanto tempo a última resposta boa ainda pode ser servida (vencida) quando o
+ *                      backend está indisponível ou com o circuito aberto; 0 desliga
+ */
+@ConfigurationProperties(prefix = "gateway.cache")
+public record GatewayCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64MB") DataSize maxBytes,
+        @DefaultValue("1MB") DataSize maxEntryBytes,
+        @DefaultValue("30s") Duration ttl,
+        @DefaultValue("10m") Duration staleTtl) {
+}
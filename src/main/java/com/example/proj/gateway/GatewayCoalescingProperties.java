@@ -0,0 +1,18 @@
+package com.example.proj.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Junção de leituras iguais e simultâneas nos backends do gateway (prefixo gateway.coalescing).
+ *
+ * @param enabled liga/desliga; desligado, cada request chama o backend
+ * @param maxWait quanto um request espera pela chamada de outro antes de desistir com 503
+ */
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public record GatewayCoalescingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2s") Duration maxWait) {
+}
@@ -0,0 +1,132 @@
+package com.example.proj.gateway;
+
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosRequest;
+import com.example.proj.envelope.DashboardEnvelope;
+import com.example.proj.envelope.DashboardEnvelope.Fonte;
+import com.example.proj.envelope.Link;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * FAN-OUT DO /gateway/dashboard
+ *
+ * Chama o backend de livros (REST) e o de usuários (SOAP) ao mesmo tempo, cada
+ * um na sua virtual thread, então a latência é a da chamada mais lenta e não a
+ * soma das duas. As duas chamadas dividem um único deadline: o que não terminar
+ * até lá é cancelado (interrompido) e vai na resposta com status timeout, sem
+ * derrubar a outra fonte.
+ *
+ * Nenhuma chamada sobrevive ao request: ao sair, tudo que ainda está rodando é
+ * cancelado, no mesmo espírito do StructuredTaskScope (que no Java 21 ainda é preview).
+ */
+@Component
+public class GatewayDashboard {
+
+    private static final Link[] LINKS = {
+        Link.fixo("gateway", "/gateway"),
+        Link.fixo("self", "/gateway/dashboard"),
+        Link.fixo("livros", "/gateway/livros"),
+        Link.fixo("usuarios", "/gateway/usuarios")
+    };
+
+    @Autowired
+    private LivrosBackend livrosBackend;
+
+    @Autowired
+    private UsuariosBackend usuariosBackend;
+
+    //mesmos bulkheads e circuit breakers do GatewayController
+    @Autowired
+    private BackendGuards guards;
+
+    @Autowired
+    private GatewayDashboardProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ExecutorService executor;
+
+    /**
+     * @param deadline tempo máximo pedido pelo cliente, ou null para o padrão (gateway.dashboard.deadline)
+     */
+    public DashboardEnvelope montar(Duration deadline) {
+        long inicio = System.nanoTime();
+        long limite = inicio + deadline(deadline).toNanos();
+        int limit = properties.limit();
+
+        Future<Resultado> livros = executor.submit(medir(inicio,
+                () -> guards.livros().call(() -> livrosBackend.getAllLivros(limit, null, null))));
+        Future<Resultado> usuarios = executor.submit(medir(inicio, () -> {
+            GetAllUsuariosRequest request = new GetAllUsuariosRequest();
+            request.setLimit(limit);
+            return guards.usuarios().call(() -> usuariosBackend.getAllUsuarios(request)).getUsuarios();
+        }));
+        try {
+            List<Fonte> fontes = List.of(
+                    aguardar("livros", "REST API", livros, inicio, limite),
+                    aguardar("usuarios", "SOAP API", usuarios, inicio, limite));
+            for (Fonte fonte : fontes) {
+                if (!DashboardEnvelope.OK.equals(fonte.status())) {
+                    meterRegistry.counter("gateway.errors", "source", fonte.source(), "reason", fonte.status()).increment();
+                }
+            }
+            return new DashboardEnvelope(millis(inicio, System.nanoTime()), fontes, LINKS);
+        } finally {
+            //nada continua rodando depois da resposta (o cancel não faz nada se já terminou)
+            livros.cancel(true);
+            usuarios.cancel(true);
+        }
+    }
+
+    private Duration deadline(Duration pedido) {
+        if (pedido == null || pedido.isNegative() || pedido.isZero()) {
+            return properties.deadline();
+        }
+        return pedido.compareTo(properties.maxDeadline()) > 0 ? properties.maxDeadline() : pedido;
+    }
+
+    // cada chamada anota quando terminou, assim a latência de uma fonte não inclui a espera pela outra
+    private static Callable<Resultado> medir(long inicio, Callable<Object> chamada) {
+        return () -> {
+            Object data = chamada.call();
+            return new Resultado(data, millis(inicio, System.nanoTime()));
+        };
+    }
+
+    private static Fonte aguardar(String nome, String source, Future<Resultado> future, long inicio, long limite) {
+        try {
+            Resultado resultado = future.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return new Fonte(nome, source, DashboardEnvelope.OK, resultado.latencyMs(), resultado.data(), null);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return new Fonte(nome, source, DashboardEnvelope.TIMEOUT, millis(inicio, limite), null, null);
+        } catch (ExecutionException e) {
+            return new Fonte(nome, source, DashboardEnvelope.ERROR, millis(inicio, System.nanoTime()), null,
+                    String.valueOf(e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Fonte(nome, source, DashboardEnvelope.ERROR, millis(inicio, System.nanoTime()), null, "Interrompido");
+        }
+    }
+
+    private static long millis(long inicio, long fim) {
+        return TimeUnit.NANOSECONDS.toMillis(fim - inicio);
+    }
+
+    private record Resultado(Object data, long latencyMs) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.proj.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do /gateway/dashboard (prefixo gateway.dashboard).
+ *
+ * @param deadline    tempo máximo padrão para montar o dashboard; o que não chegou até lá vai como timeout
+ * @param maxDeadline maior deadline que o cliente pode pedir com ?deadlineMs=
+ * @param limit       quantos livros e usuários entram no dashboard
+ */
+@ConfigurationProperties(prefix = "gateway.dashboard")
+public record GatewayDashboardProperties(
+        @DefaultValue("1s") Duration deadline,
+        @DefaultValue("5s") Duration maxDeadline,
+        @DefaultValue("10") int limit) {
+}
@@ -0,0 +1,43 @@
+package com.example.proj.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bulkhead e circuit breaker de cada backend do gateway (prefixo gateway.resilience).
+ *
+ * @param enabled  liga/desliga os dois; desligado, o gateway chama os backends direto
+ * @param livros   limites do backend REST de livros
+ * @param usuarios limites do backend SOAP de usuários
+ */
+@ConfigurationProperties(prefix = "gateway.resilience")
+public record GatewayResilienceProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Backend livros,
+        @DefaultValue Backend usuarios) {
+
+    /**
+     * @param maxConcurrent         chamadas simultâneas a esse backend (bulkhead)
+     * @param maxWait               espera por uma vaga no bulkhead antes de recusar (0: recusa na hora)
+     * @param windowSize            quantas chamadas recentes entram nas taxas do circuit breaker
+     * @param minimumCalls          chamadas na janela antes do circuito poder abrir
+     * @param failureRateThreshold  % de falhas na janela que abre o circuito
+     * @param slowCallDuration      a partir de quanto tempo uma chamada conta como lenta
+     * @param slowCallRateThreshold % de chamadas lentas na janela que abre o circuito
+     * @param openDuration          tempo aberto (falhando rápido) antes das chamadas de teste
+     * @param halfOpenCalls         chamadas de teste que precisam dar certo para fechar o circuito
+     */
+    public record Backend(
+            @DefaultValue("64") int maxConcurrent,
+            @DefaultValue("0ms") Duration maxWait,
+            @DefaultValue("20") int windowSize,
+            @DefaultValue("10") int minimumCalls,
+            @DefaultValue("50") int failureRateThreshold,
+            @DefaultValue("1s") Duration slowCallDuration,
+            @DefaultValue("80") int slowCallRateThreshold,
+            @DefaultValue("10s") Duration openDuration,
+            @DefaultValue("3") int halfOpenCalls) {
+    }
+}
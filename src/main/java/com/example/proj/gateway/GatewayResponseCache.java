@@ -0,0 +1,153 @@
+package com.example.proj.gateway;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CACHE DAS RESPOSTAS GET DO GATEWAY
+ *
+ * Guarda o corpo já serializado de /gateway/livros/** e /gateway/usuarios/**,
+ * com TTL e limite em bytes (Caffeine, com o tamanho do corpo como peso); uma resposta
+ * maior que max-entry-bytes não entra. Cada resposta tem um ETag calculado uma
+ * vez, na hora em que entra no cache. O ETag é fraco (W/) porque o Tomcat não comprime
+ * respostas com ETag forte: a mesma resposta sai com ou sem gzip.
+ *
+ * As respostas são separadas em grupos ("livros", "usuarios"): um POST no
+ * gateway invalida o grupo inteiro, porque ele muda tanto as listas quanto
+ * as buscas por ID.
+ *
+ * A última resposta boa de cada chave também fica guardada por stale-ttl, fora do
+ * TTL e das invalidações: é o que o GatewayCacheFilter serve (marcada como vencida)
+ * quando o backend está indisponível ou com o circuito aberto.
+ */
+@Component
+public class GatewayResponseCache {
+
+    private final Cache<Chave, Resposta> respostas;
+    private final Cache<Chave, Resposta> vencidas; //null com stale-ttl 0
+    private final long maxEntrada;
+
+    // cada invalidação incrementa a geração do grupo; uma resposta gerada antes
+    // da invalidação (GET concorrente com o POST) não entra mais no cache
+    private final Map<String, AtomicLong> geracoes = new ConcurrentHashMap<>();
+    private final LongAdder naoModificados = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+    private final LongAdder vencidasServidas = new LongAdder();
+    private final LongAdder grandesDemais = new LongAdder();
+
+    public GatewayResponseCache(GatewayCacheProperties properties) {
+        this.respostas = Caffeine.newBuilder()
+                .maximumWeight(properties.maxBytes().toBytes())
+                .weigher((Chave chave, Resposta resposta) -> resposta.corpo().length)
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        this.vencidas = properties.staleTtl().isZero() ? null : Caffeine.newBuilder()
+                .maximumWeight(properties.maxBytes().toBytes())
+                .weigher((Chave chave, Resposta resposta) -> resposta.corpo().length)
+                .expireAfterWrite(properties.staleTtl())
+                .build();
+        this.maxEntrada = properties.maxEntryBytes().toBytes();
+    }
+
+    /**
+     * Chave de uma resposta: o grupo, a URI completa (com query string) e o header Accept,
+     * que escolhe entre JSON, CBOR e Smile.
+     */
+    public record Chave(String grupo, String uri, String accept) {
+    }
+
+    /**
+     * Resposta pronta para ser escrita, com o ETag já calculado.
+     */
+    public record Resposta(byte[] corpo, String contentType, String etag) {
+    }
+
+    public Resposta get(Chave chave) {
+        return respostas.getIfPresent(chave);
+    }
+
+    public long geracao(String grupo) {
+        return geracoes.computeIfAbsent(grupo, g -> new AtomicLong()).get();
+    }
+
+    /**
+     * Guarda a resposta, a não ser que o grupo tenha sido invalidado depois de {@code geracao}.
+     *
+     * @return a resposta com o ETag, ou null se o corpo for maior que max-entry-bytes (não fica guardado)
+     */
+    public Resposta put(Chave chave, long geracao, byte[] corpo, String contentType) {
+        if (corpo.length > maxEntrada) {
+            grandesDemais.increment();
+            return null;
+        }
+        Resposta resposta = new Resposta(corpo, contentType, etag(corpo));
+        if (vencidas != null) {
+            vencidas.put(chave, resposta);
+        }
+        if (geracao(chave.grupo()) == geracao) {
+            respostas.put(chave, resposta);
+            // se o grupo foi invalidado enquanto o put acontecia, desfaz
+            if (geracao(chave.grupo()) != geracao) {
+                respostas.invalidate(chave);
+            }
+        }
+        return resposta;
+    }
+
+    /**
+     * Última resposta boa da chave, mesmo fora do TTL ou invalidada (null se não houver).
+     */
+    public Resposta getStale(Chave chave) {
+        Resposta resposta = vencidas == null ? null : vencidas.getIfPresent(chave);
+        if (resposta != null) {
+            vencidasServidas.increment();
+        }
+        return resposta;
+    }
+
+    public void invalidate(String grupo) {
+        geracoes.computeIfAbsent(grupo, g -> new AtomicLong()).incrementAndGet();
+        respostas.asMap().keySet().removeIf(chave -> chave.grupo().equals(grupo));
+        invalidacoes.increment();
+    }
+
+    public void recordNotModified() {
+        naoModificados.increment();
+    }
+
+    /**
+     * Contadores do cache (acertos, faltas, remoções, 304, invalidações, respostas vencidas servidas,
+     * respostas grandes demais para entrar) e o total de bytes guardados.
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = respostas.stats();
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("size", respostas.estimatedSize());
+        resultado.put("bytes", respostas.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        resultado.put("hits", stats.hitCount());
+        resultado.put("misses", stats.missCount());
+        resultado.put("hitRate", stats.hitRate());
+        resultado.put("evictions", stats.evictionCount());
+        resultado.put("notModified", naoModificados.sum());
+        resultado.put("invalidations", invalidacoes.sum());
+        resultado.put("staleServed", vencidasServidas.sum());
+        resultado.put("tooLarge", grandesDemais.sum());
+        return resultado;
+    }
+
+    // muda sempre que qualquer byte do corpo mudar, mas é fraco (W/): com ETag forte o Tomcat não comprime,
+    // e o mesmo ETag vale para a resposta com e sem gzip
+    private static String etag(byte[] corpo) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(corpo) + "\"";
+    }
+}
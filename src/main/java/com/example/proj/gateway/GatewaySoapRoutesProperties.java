@@ -0,0 +1,33 @@
+package com.example.proj.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rotas GET do gateway servidas direto de uma operação do usuarios.xsd (prefixo gateway.soap),
+ * sem um método no GatewayController para cada uma, ver SoapJsonTranscoder.
+ *
+ * @param routes as rotas, na ordem do application.properties
+ */
+@ConfigurationProperties(prefix = "gateway.soap")
+public record GatewaySoapRoutesProperties(@DefaultValue List<Route> routes) {
+
+    /**
+     * Os campos do request vêm das variáveis do path ou dos query params com o mesmo nome
+     * (repetidos separados por vírgula).
+     *
+     * @param path            caminho no gateway, pode ter variáveis: /gateway/usuarios/by-email
+     * @param operation       operação do XSD, sem o sufixo: getUsuarioByEmail usa os elementos
+     *                        getUsuarioByEmailRequest e getUsuarioByEmailResponse
+     * @param notFoundIfEmpty responde 404 quando o elemento da resposta vem vazio
+     * @param fields          nome no JSON dos campos do elemento da resposta (usuario=usuarios);
+     *                        os que não aparecem aqui mantêm o nome do XSD
+     */
+    public record Route(String path, String operation,
+                        @DefaultValue("false") boolean notFoundIfEmpty,
+                        @DefaultValue Map<String, String> fields) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.proj.gateway;
+
+import com.example.proj.controller.LivroController;
+import com.example.proj.model.Livro;
+import com.example.proj.store.LivroStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Modo padrão: o gateway chama o LivroController da mesma aplicação.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.backend.mode", havingValue = "in-process", matchIfMissing = true)
+public class InProcessLivrosBackend implements LivrosBackend {
+
+    @Autowired
+    private LivroController livroController;
+
+    @Autowired
+    private LivroStore livroStore;
+
+    @Override
+    public Object getAllLivros(Integer limit, Long after, String fields) {
+        return livroController.getAllLivros(limit, after, fields, null);
+    }
+
+    @Override
+    public Object getLivrosByIds(List<Long> ids, String fields) {
+        return livroController.getLivrosByIds(ids, fields);
+    }
+
+    @Override
+    public Object searchLivros(String q, Integer limit, String fields) {
+        return livroController.searchLivros(q, limit, fields);
+    }
+
+    @Override
+    public ResponseEntity<?> getLivroById(Long id) {
+        //busca direto no store (O(1)) e só monta a resposta do controller REST se o livro existir
+        return livroStore.findById(id)
+                .map(livro -> ResponseEntity.ok(livroController.livroResponse(livro)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Override
+    public ResponseEntity<?> createLivro(Livro livro) {
+        return livroController.createLivro(livro);
+    }
+
+    @Override
+    public ResponseEntity<?> createLivros(List<Livro> livros) {
+        return ResponseEntity.ok(livroController.createLivros(livros));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.proj.gateway;
+
+import com.example.proj.controller.UsuarioSoapController;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuarioRequest;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuarioResponse;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuariosBatchRequest;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuariosBatchResponse;
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosRequest;
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosResponse;
+import com.example.proj.controller.UsuarioSoapController.GetUsuarioRequest;
+import com.example.proj.controller.UsuarioSoapController.GetUsuarioResponse;
+import com.example.proj.controller.UsuarioSoapController.GetUsuariosByIdsRequest;
+import com.example.proj.controller.UsuarioSoapController.GetUsuariosByIdsResponse;
+import com.example.proj.soap.StreamingSaajSoapMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapBody;
+import org.springframework.ws.soap.SoapFault;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+import org.springframework.xml.transform.TransformerHelper;
+
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.stax.StAXResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+
+/**
+ * Modo padrão: o gateway chama o @Endpoint SOAP da mesma aplicação como um bean,
+ * sem montar envelope nem passar pelo MessageDispatcherServlet.
+ *
+ * As chamadas transcodificadas ({@link #call}) passam por um MessageDispatcher próprio, com
+ * os mesmos endpoints, interceptors e Faults do /ws, mas sem HTTP: o payload da resposta
+ * (JAXB ou streaming) é escrito direto no writer do transcoder.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.backend.mode", havingValue = "in-process", matchIfMissing = true)
+public class InProcessUsuariosBackend implements UsuariosBackend {
+
+    private static final TransformerHelper TRANSFORMER = new TransformerHelper();
+
+    @Autowired
+    private UsuarioSoapController usuarioSoapController;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private SaajSoapMessageFactory messageFactory;
+
+    private volatile SoapMessageDispatcher dispatcher;
+
+    //criado na primeira chamada: os endpoints e interceptors do Spring-WS são beans que podem
+    //ainda não existir quando este backend é criado
+    private SoapMessageDispatcher dispatcher() {
+        SoapMessageDispatcher atual = dispatcher;
+        if (atual == null) {
+            synchronized (this) {
+                atual = dispatcher;
+                if (atual == null) {
+                    atual = new SoapMessageDispatcher();
+                    atual.setApplicationContext(applicationContext);
+                    dispatcher = atual;
+                }
+            }
+        }
+        return atual;
+    }
+
+    @Override
+    public void call(byte[] payload, XMLStreamWriter resposta) {
+        try {
+            WebServiceMessage request = messageFactory.createWebServiceMessage();
+            TRANSFORMER.transform(new StreamSource(new ByteArrayInputStream(payload)), request.getPayloadResult());
+            MessageContext context = new DefaultMessageContext(request, messageFactory);
+            dispatcher().receive(context);
+
+            SoapMessage response = (SoapMessage) context.getResponse();
+            SoapBody body = response.getSoapBody();
+            if (body.hasFault()) {
+                SoapFault fault = body.getFault();
+                throw new SoapFaultException(fault.getFaultCode().getLocalPart(), fault.getFaultStringOrReason());
+            }
+            if (response instanceof StreamingSaajSoapMessage streaming) {
+                streaming.writePayloadTo(resposta);
+            } else {
+                TRANSFORMER.transform(response.getPayloadSource(), new StAXResult(resposta));
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Chamada SOAP in-process falhou: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public GetAllUsuariosResponse getAllUsuarios(GetAllUsuariosRequest request) {
+        return usuarioSoapController.getAllUsuarios(request);
+    }
+
+    @Override
+    public GetUsuarioResponse getUsuario(GetUsuarioRequest request) {
+        return usuarioSoapController.getUsuario(request);
+    }
+
+    @Override
+    public CreateUsuarioResponse createUsuario(CreateUsuarioRequest request) {
+        return usuarioSoapController.createUsuario(request);
+    }
+
+    @Override
+    public CreateUsuariosBatchResponse createUsuariosBatch(CreateUsuariosBatchRequest request) {
+        return usuarioSoapController.createUsuariosBatch(request);
+    }
+
+    @Override
+    public GetUsuariosByIdsResponse getUsuariosByIds(GetUsuariosByIdsRequest request) {
+        return usuarioSoapController.getUsuariosByIds(request);
+    }
+}
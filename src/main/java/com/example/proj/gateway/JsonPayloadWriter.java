@@ -0,0 +1,306 @@
+package com.example.proj.gateway;
+
+import com.example.proj.soap.SoapSchema;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * XMLStreamWriter que escreve num JsonGenerator: quem gera o XML de uma resposta SOAP
+ * (o JAXB, o UsuariosStreamingPayload ou a leitura de uma resposta remota) escreve aqui e o
+ * JSON sai na mesma passada, sem DTO, sem DOM e sem Map no meio.
+ *
+ * Os campos do elemento raiz (ex: getUsuarioResponse) vão para o objeto que já está aberto
+ * no generator, renomeados por {@code nomes} (ex: usuario → usuarios); os elementos de dentro
+ * mantêm o nome do XSD. O SoapSchema diz o que é array (maxOccurs > 1, que sai como [] quando
+ * não veio nenhum), número ou booleano. Elementos que não estão no XSD são ignorados.
+ */
+public final class JsonPayloadWriter implements XMLStreamWriter {
+
+    //um elemento aberto: objeto (tipo != null), valor simples (campo != null) ou ignorado
+    private static final class Nivel {
+
+        final SoapSchema.Tipo tipo;
+        final SoapSchema.Campo campo;
+        final StringBuilder texto;
+        final Set<String> vistos = new HashSet<>();
+        SoapSchema.Campo arrayAberto;
+
+        Nivel(SoapSchema.Tipo tipo, SoapSchema.Campo campo) {
+            this.tipo = tipo;
+            this.campo = campo;
+            this.texto = campo != null ? new StringBuilder() : null;
+        }
+    }
+
+    private static final Nivel IGNORADO = new Nivel(null, null);
+
+    private final JsonGenerator gen;
+    private final SoapSchema.Tipo raiz;
+    private final Map<String, String> nomes;
+    private final SoapSchema.Campo contado;
+    private final Deque<Nivel> niveis = new ArrayDeque<>();
+
+    private boolean vazio = true;
+    private int contagem;
+
+    public JsonPayloadWriter(JsonGenerator gen, SoapSchema.Tipo raiz, Map<String, String> nomes) {
+        this.gen = gen;
+        this.raiz = raiz;
+        this.nomes = nomes;
+        this.contado = raiz.campos().stream().filter(c -> c.repetido() && !c.simples()).findFirst().orElse(null);
+    }
+
+    /**
+     * O elemento raiz veio sem nenhum filho (ex: getUsuarioResponse de um id que não existe).
+     */
+    public boolean vazio() {
+        return vazio;
+    }
+
+    /**
+     * Quantos itens vieram no primeiro campo repetido e complexo da raiz (os usuários de um
+     * getAllUsuariosResponse), ou -1 quando a raiz não tem um campo assim.
+     */
+    public int contagem() {
+        return contado == null ? -1 : contagem;
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        try {
+            if (niveis.isEmpty()) {
+                niveis.push(new Nivel(raiz, null));
+                return;
+            }
+            Nivel pai = niveis.peek();
+            SoapSchema.Campo campo = pai.tipo == null ? null : pai.tipo.campo(localName);
+            if (campo == null) {
+                niveis.push(IGNORADO);
+                return;
+            }
+            boolean naRaiz = niveis.size() == 1;
+            if (naRaiz) {
+                vazio = false;
+                if (campo == contado) {
+                    contagem++;
+                }
+            }
+            if (pai.arrayAberto != campo) {
+                fecharArray(pai);
+                gen.writeFieldName(naRaiz ? nomes.getOrDefault(localName, localName) : localName);
+                if (campo.repetido()) {
+                    gen.writeStartArray();
+                    pai.arrayAberto = campo;
+                }
+            }
+            pai.vistos.add(campo.nome());
+            if (campo.simples()) {
+                niveis.push(new Nivel(null, campo));
+            } else {
+                gen.writeStartObject();
+                niveis.push(new Nivel(campo.tipo(), null));
+            }
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        try {
+            Nivel nivel = niveis.pop();
+            if (nivel.campo != null) {
+                escreverValor(nivel.campo, nivel.texto.toString().strip());
+            } else if (nivel.tipo != null) {
+                fecharArray(nivel);
+                //repetidos que não vieram saem como [], como nas listas dos envelopes
+                for (SoapSchema.Campo campo : nivel.tipo.campos()) {
+                    if (campo.repetido() && !nivel.vistos.contains(campo.nome())) {
+                        String nome = campo.nome();
+                        gen.writeFieldName(niveis.isEmpty() ? nomes.getOrDefault(nome, nome) : nome);
+                        gen.writeStartArray();
+                        gen.writeEndArray();
+                    }
+                }
+                if (!niveis.isEmpty()) {
+                    gen.writeEndObject();
+                }
+            }
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    private void fecharArray(Nivel nivel) throws IOException {
+        if (nivel.arrayAberto != null) {
+            gen.writeEndArray();
+            nivel.arrayAberto = null;
+        }
+    }
+
+    private void escreverValor(SoapSchema.Campo campo, String texto) throws IOException {
+        switch (campo.valor()) {
+            case NUMERO -> {
+                if (texto.isEmpty()) {
+                    gen.writeNull();
+                } else if (texto.indexOf('.') < 0 && texto.indexOf('e') < 0 && texto.indexOf('E') < 0 && texto.length() < 19) {
+                    gen.writeNumber(Long.parseLong(texto));
+                } else {
+                    gen.writeNumber(new BigDecimal(texto));
+                }
+            }
+            case BOOLEANO -> gen.writeBoolean(texto.equals("true") || texto.equals("1"));
+            default -> gen.writeString(texto);
+        }
+    }
+
+    @Override
+    public void writeCharacters(String text) {
+        Nivel nivel = niveis.peek();
+        if (nivel != null && nivel.texto != null) {
+            nivel.texto.append(text);
+        }
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) {
+        Nivel nivel = niveis.peek();
+        if (nivel != null && nivel.texto != null) {
+            nivel.texto.append(text, start, len);
+        }
+    }
+
+    @Override
+    public void writeCData(String data) {
+        writeCharacters(data);
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeStartElement(localName);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeStartElement(localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        writeStartElement(localName);
+        writeEndElement();
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeEmptyElement(localName);
+    }
+
+    // atributos, namespaces e o resto do XML não têm lugar no JSON
+
+    @Override
+    public void writeAttribute(String localName, String value) {
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value) {
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) {
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) {
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) {
+    }
+
+    @Override
+    public void writeComment(String data) {
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) {
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) {
+    }
+
+    @Override
+    public void writeDTD(String dtd) {
+    }
+
+    @Override
+    public void writeEntityRef(String name) {
+    }
+
+    @Override
+    public void writeStartDocument() {
+    }
+
+    @Override
+    public void writeStartDocument(String version) {
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) {
+    }
+
+    @Override
+    public void writeEndDocument() {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String getPrefix(String uri) {
+        return null;
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) {
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) {
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) {
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        throw new IllegalArgumentException(name);
+    }
+}
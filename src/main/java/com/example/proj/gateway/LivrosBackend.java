@@ -0,0 +1,31 @@
+package com.example.proj.gateway;
+
+import com.example.proj.model.Livro;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Backend de livros usado pelo GatewayController.
+ *
+ * As assinaturas são as mesmas do LivroController, então o gateway não sabe se
+ * está falando com o controller na mesma JVM (in-process) ou com a API REST
+ * de outra instância via HTTP (remote).
+ *
+ * O corpo é o envelope tipado do LivroController no modo in-process e o mapa
+ * lido do JSON no modo remote; os dois são escritos com o mesmo JSON.
+ */
+public interface LivrosBackend {
+
+    Object getAllLivros(Integer limit, Long after, String fields);
+
+    Object getLivrosByIds(List<Long> ids, String fields);
+
+    Object searchLivros(String q, Integer limit, String fields);
+
+    ResponseEntity<?> getLivroById(Long id);
+
+    ResponseEntity<?> createLivro(Livro livro);
+
+    ResponseEntity<?> createLivros(List<Livro> livros);
+}
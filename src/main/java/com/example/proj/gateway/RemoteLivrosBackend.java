@@ -0,0 +1,135 @@
+package com.example.proj.gateway;
+
+import com.example.proj.model.Livro;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Modo remote: chama a API REST /api/livros de outra instância via HTTP.
+ *
+ * O RestClient é criado no GatewayBackendConfig com um HttpClient compartilhado
+ * (conexões keep-alive reaproveitadas) e o timeout próprio do backend de livros.
+ */
+public class RemoteLivrosBackend implements LivrosBackend {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP = new ParameterizedTypeReference<>() {};
+    private static final ResponseErrorHandler ERROS = new DefaultResponseErrorHandler();
+
+    private final RestClient restClient;
+
+    public RemoteLivrosBackend(RestClient restClient) {
+        this.restClient = restClient;
+    }
+
+    @Override
+    public Object getAllLivros(Integer limit, Long after, String fields) {
+        return restClient.get()
+                .uri(uri -> listUri(uri, limit, after, fields))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(MAP);
+    }
+
+    @Override
+    public Object getLivrosByIds(List<Long> ids, String fields) {
+        return restClient.get()
+                .uri(uri -> {
+                    uri.path("/api/livros").queryParam("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+                    if (fields != null) {
+                        uri.queryParam("fields", fields);
+                    }
+                    return uri.build();
+                })
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(MAP);
+    }
+
+    @Override
+    public Object searchLivros(String q, Integer limit, String fields) {
+        return restClient.get()
+                .uri(uri -> {
+                    uri.path("/api/livros/search").queryParam("q", "{q}");
+                    if (limit != null) {
+                        uri.queryParam("limit", limit);
+                    }
+                    if (fields != null) {
+                        uri.queryParam("fields", fields);
+                    }
+                    return uri.build(q);
+                })
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(MAP);
+    }
+
+    @Override
+    public ResponseEntity<?> getLivroById(Long id) {
+        return restClient.get()
+                .uri("/api/livros/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange((request, response) -> toEntity(response));
+    }
+
+    @Override
+    public ResponseEntity<?> createLivro(Livro livro) {
+        ResponseEntity<Map<String, Object>> response = restClient.post()
+                .uri("/api/livros")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(livro)
+                .exchange((request, resposta) -> toEntity(resposta));
+        //o GatewayController usa o id do livro para montar os links, igual ao modo in-process
+        if (response.getBody() != null && response.getBody().get("livro") instanceof Map<?, ?> criado
+                && criado.get("id") instanceof Number id) {
+            livro.setId(id.longValue());
+        }
+        return response;
+    }
+
+    @Override
+    public ResponseEntity<?> createLivros(List<Livro> livros) {
+        return restClient.post()
+                .uri("/api/livros/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(livros)
+                .exchange((request, response) -> toEntity(response));
+    }
+
+    private static URI listUri(UriBuilder uri, Integer limit, Long after, String fields) {
+        uri.path("/api/livros");
+        if (limit != null) {
+            uri.queryParam("limit", limit);
+        }
+        if (after != null) {
+            uri.queryParam("after", after);
+        }
+        if (fields != null) {
+            uri.queryParam("fields", fields);
+        }
+        return uri.build();
+    }
+
+    //repassa status e corpo dos 4xx (404, 409, 400) sem transformar em exceção; 5xx e 429 são falha do
+    //backend e viram exceção como no retrieve(), para o circuit breaker contar e o cache servir a resposta vencida
+    private static ResponseEntity<Map<String, Object>> toEntity(RestClient.RequestHeadersSpec.ConvertibleClientHttpResponse response) throws IOException {
+        if (response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            ERROS.handleError(response);
+        }
+        Map<String, Object> body = response.getHeaders().getContentLength() == 0 ? null : response.bodyTo(MAP);
+        return ResponseEntity.status(response.getStatusCode()).body(body);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.proj.gateway;
+
+import com.example.proj.controller.EmailDuplicadoException;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuarioRequest;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuarioResponse;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuariosBatchRequest;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuariosBatchResponse;
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosRequest;
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosResponse;
+import com.example.proj.controller.UsuarioSoapController.GetUsuarioRequest;
+import com.example.proj.controller.UsuarioSoapController.GetUsuarioResponse;
+import com.example.proj.controller.UsuarioSoapController.GetUsuariosByIdsRequest;
+import com.example.proj.controller.UsuarioSoapController.GetUsuariosByIdsResponse;
+import jakarta.xml.soap.SOAPConstants;
+import org.springframework.ws.client.WebServiceIOException;
+import org.springframework.ws.client.WebServiceTransportException;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.soap.client.SoapFaultClientException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Modo remote: envia envelopes SOAP de verdade para o /ws de outra instância.
+ *
+ * O WebServiceTemplate é criado uma vez no GatewayBackendConfig, com um
+ * Jaxb2Marshaller reaproveitado entre as chamadas (o JAXBContext é criado só uma vez).
+ *
+ * As chamadas transcodificadas ({@link #call}) não usam o template: o envelope SOAP 1.1 vai
+ * pelo mesmo HttpClient e a resposta é lida com StAX direto da conexão, passando para o
+ * writer só o que está dentro do Body, sem SAAJ, DOM nem JAXB.
+ */
+public class RemoteUsuariosBackend implements UsuariosBackend {
+
+    private static final String SOAP_11 = SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE;
+    private static final byte[] INICIO_ENVELOPE = ("<soapenv:Envelope xmlns:soapenv=\"" + SOAP_11 + "\"><soapenv:Body>")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIM_ENVELOPE = "</soapenv:Body></soapenv:Envelope>".getBytes(StandardCharsets.UTF_8);
+    private static final XMLInputFactory INPUT_FACTORY = inputFactory();
+
+    private final WebServiceTemplate webServiceTemplate;
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final Duration timeout;
+    private final String apiKeyHeader;
+    private final String apiKey;
+
+    /**
+     * @param apiKeyHeader header do controle de admissão, que leva a apiKey (a GatewayApiKey) nas chamadas {@link #call}
+     */
+    public RemoteUsuariosBackend(WebServiceTemplate webServiceTemplate, HttpClient httpClient, URI uri, Duration timeout,
+                                 String apiKeyHeader, String apiKey) {
+        this.webServiceTemplate = webServiceTemplate;
+        this.httpClient = httpClient;
+        this.uri = uri;
+        this.timeout = timeout;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKey = apiKey;
+    }
+
+    //a resposta vem de outra instância: sem DTD e sem entidades externas
+    private static XMLInputFactory inputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    @Override
+    public boolean remoto() {
+        return true;
+    }
+
+    @Override
+    public void call(byte[] payload, XMLStreamWriter resposta) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", "\"\"")
+                .header(apiKeyHeader, apiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(INICIO_ENVELOPE, payload, FIM_ENVELOPE)))
+                .build();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw new WebServiceIOException("I/O error: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebServiceIOException("Chamada SOAP interrompida");
+        }
+
+        try (InputStream corpo = response.body()) {
+            //Fault no SOAP 1.1 vem com 500, qualquer outro status é erro do transporte
+            if (response.statusCode() != 200 && response.statusCode() != 500) {
+                throw new WebServiceTransportException("Resposta HTTP " + response.statusCode() + " do /ws");
+            }
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(corpo);
+            try {
+                lerBody(reader, resposta);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new WebServiceIOException("I/O error: " + e.getMessage(), e);
+        } catch (XMLStreamException e) {
+            throw new WebServiceIOException("Resposta SOAP inválida: " + e.getMessage(), new IOException(e));
+        }
+    }
+
+    //pula até o Body e copia o payload para o writer, evento por evento
+    private static void lerBody(XMLStreamReader reader, XMLStreamWriter resposta) throws XMLStreamException {
+        while (!(reader.isStartElement() && reader.getLocalName().equals("Body") && SOAP_11.equals(reader.getNamespaceURI()))) {
+            if (!reader.hasNext()) {
+                throw new XMLStreamException("Envelope SOAP sem Body");
+            }
+            reader.next();
+        }
+        if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+            return; //Body vazio
+        }
+        if (reader.getLocalName().equals("Fault") && SOAP_11.equals(reader.getNamespaceURI())) {
+            throw lerFault(reader);
+        }
+
+        int profundidade = 0;
+        do {
+            switch (reader.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    resposta.writeStartElement(reader.getPrefix(), reader.getLocalName(), reader.getNamespaceURI());
+                    profundidade++;
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    resposta.writeEndElement();
+                    profundidade--;
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        resposta.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                default -> { }
+            }
+        } while (profundidade > 0 && reader.hasNext() && reader.next() > 0);
+    }
+
+    private static SoapFaultException lerFault(XMLStreamReader reader) throws XMLStreamException {
+        String faultCode = null;
+        String faultString = null;
+        while (reader.hasNext()) {
+            int evento = reader.next();
+            if (evento == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("Fault")) {
+                break;
+            }
+            if (evento == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "faultcode" -> {
+                        String code = reader.getElementText().strip();
+                        faultCode = code.substring(code.indexOf(':') + 1);
+                    }
+                    case "faultstring" -> faultString = reader.getElementText();
+                    default -> { }
+                }
+            }
+        }
+        return new SoapFaultException(faultCode, faultString);
+    }
+
+    @Override
+    public GetAllUsuariosResponse getAllUsuarios(GetAllUsuariosRequest request) {
+        return (GetAllUsuariosResponse) enviar(request);
+    }
+
+    @Override
+    public GetUsuarioResponse getUsuario(GetUsuarioRequest request) {
+        return (GetUsuarioResponse) enviar(request);
+    }
+
+    @Override
+    public CreateUsuarioResponse createUsuario(CreateUsuarioRequest request) {
+        try {
+            return (CreateUsuarioResponse) enviar(request);
+        } catch (SoapFaultException e) {
+            //só o Fault do email duplicado vira 409; os outros Client (ex: payload inválido) seguem como 400
+            if (e.isClient() && EmailDuplicadoException.isMensagem(e.getMessage())) {
+                throw new EmailDuplicadoException(request.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CreateUsuariosBatchResponse createUsuariosBatch(CreateUsuariosBatchRequest request) {
+        return (CreateUsuariosBatchResponse) enviar(request);
+    }
+
+    @Override
+    public GetUsuariosByIdsResponse getUsuariosByIds(GetUsuariosByIdsRequest request) {
+        return (GetUsuariosByIdsResponse) enviar(request);
+    }
+
+    //Fault do template vira a mesma SoapFaultException das chamadas transcodificadas:
+    //Client é 400 e não conta no circuit breaker, Server é 502
+    private Object enviar(Object request) {
+        try {
+            return webServiceTemplate.marshalSendAndReceive(request);
+        } catch (SoapFaultClientException e) {
+            throw new SoapFaultException(e.getFaultCode().getLocalPart(), e.getFaultStringOrReason());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.proj.gateway;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Junta leituras iguais que chegam ao mesmo tempo em uma chamada só ao backend (single flight).
+ *
+ * O primeiro request de uma chave (rota + parâmetros) chama o backend; os que chegam enquanto
+ * essa chamada está em andamento esperam por ela e recebem o mesmo resultado, ou a mesma
+ * exceção. Quando a chamada termina a chave sai do mapa: nada fica guardado, o cache de
+ * respostas continua sendo o GatewayResponseCache.
+ *
+ * A espera é limitada por gateway.coalescing.max-wait; quem passa disso recebe
+ * {@link BackendIndisponivelException} (503), como um bulkhead cheio. O resultado é dividido
+ * entre as threads, então quem chama só pode ler o objeto devolvido.
+ *
+ * Cada escrita no backend ({@link #invalidate}) muda a geração do backend, que faz parte da
+ * chave: uma leitura que chega depois da escrita não se junta à chamada que começou antes dela
+ * (e traria a lista sem o registro novo), faz a sua.
+ */
+@Component
+public class RequestCoalescer {
+
+    private static final Duration RETRY_TIMEOUT = Duration.ofSeconds(1);
+
+    private final boolean ativo;
+    private final long maxEspera;
+    private final ConcurrentHashMap<Chave, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> geracoes = new ConcurrentHashMap<>();
+    private final LongAdder chamadas = new LongAdder();
+    private final LongAdder juntados = new LongAdder();
+    private final LongAdder esgotados = new LongAdder();
+
+    public RequestCoalescer(GatewayCoalescingProperties properties) {
+        this.ativo = properties.enabled();
+        this.maxEspera = properties.maxWait().toNanos();
+    }
+
+    private record Chave(String backend, long geracao, String rota) {
+    }
+
+    /**
+     * Chama o backend, ou espera a chamada igual que já está em andamento.
+     *
+     * @param backend nome do backend (BackendGuards.LIVROS ou USUARIOS), usado também no 503
+     * @param rota    rota e parâmetros que identificam a leitura
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(String backend, String rota, Supplier<T> chamada) {
+        if (!ativo) {
+            return chamada.get();
+        }
+        Chave chave = new Chave(backend, geracao(backend).get(), rota);
+        CompletableFuture<Object> nova = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            juntados.increment();
+            return (T) esperar(backend, existente);
+        }
+
+        chamadas.increment();
+        try {
+            T resultado = chamada.get();
+            //sai do mapa antes de completar: quem chegar depois faz uma chamada nova
+            emAndamento.remove(chave, nova);
+            nova.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            emAndamento.remove(chave, nova);
+            nova.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Chamado depois de cada escrita no backend (com sucesso ou não: uma escrita que falhou
+     * no meio pode ter gravado parte): as leituras seguintes não esperam chamadas anteriores.
+     */
+    public void invalidate(String backend) {
+        if (ativo) {
+            geracao(backend).incrementAndGet();
+        }
+    }
+
+    private AtomicLong geracao(String backend) {
+        return geracoes.computeIfAbsent(backend, b -> new AtomicLong());
+    }
+
+    private Object esperar(String backend, CompletableFuture<Object> chamada) {
+        try {
+            return chamada.get(maxEspera, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            //a mesma exceção do backend, para o @ExceptionHandler de cada request tratar igual
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            esgotados.increment();
+            throw new BackendIndisponivelException(backend, BackendIndisponivelException.COALESCING_TIMEOUT, RETRY_TIMEOUT);
+        }
+    }
+
+    public long chamadas() {
+        return chamadas.sum();
+    }
+
+    public long juntados() {
+        return juntados.sum();
+    }
+
+    public long esgotados() {
+        return esgotados.sum();
+    }
+
+    public int emAndamento() {
+        return emAndamento.size();
+    }
+
+    /**
+     * Chamadas feitas, requests que esperaram a chamada de outro e esperas esgotadas, para o
+     * GET /gateway/resilience.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ativo);
+        stats.put("inFlight", emAndamento());
+        stats.put("calls", chamadas());
+        stats.put("coalesced", juntados());
+        stats.put("timedOut", esgotados());
+        return stats;
+    }
+}
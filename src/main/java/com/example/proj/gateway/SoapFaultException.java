@@ -0,0 +1,25 @@
+package com.example.proj.gateway;
+
+/**
+ * SOAP Fault recebido do backend de usuários no modo remote (chamada transcodificada ou
+ * pelo WebServiceTemplate), com o faultcode e o faultstring do backend.
+ * Um Fault Client (request inválido) vira 400 no GatewayController e não conta como falha do
+ * backend no circuit breaker; um Fault Server vira 502.
+ */
+public class SoapFaultException extends RuntimeException {
+
+    private final String faultCode;
+
+    public SoapFaultException(String faultCode, String faultString) {
+        super(faultString);
+        this.faultCode = faultCode;
+    }
+
+    public String getFaultCode() {
+        return faultCode;
+    }
+
+    public boolean isClient() {
+        return "Client".equals(faultCode);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.proj.gateway;
+
+import com.example.proj.envelope.EnvelopeWriter;
+import com.example.proj.envelope.Link;
+import com.example.proj.soap.SoapSchema;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converte a resposta de uma operação SOAP de usuários direto no envelope JSON do gateway.
+ *
+ * O payload do request é montado a partir de parâmetros HTTP na ordem do usuarios.xsd, e o da
+ * resposta passa pelo {@link JsonPayloadWriter} enquanto é gerado pelo endpoint (in-process)
+ * ou lido da conexão (remote): entre o XML e o JSON não existe UsuarioXml, HashMap nem árvore
+ * JAXB. A saída é {"_links", "source", campos da resposta, "count"}, em JSON, CBOR ou Smile
+ * conforme o Accept; count vem por último porque só é conhecido no fim do XML.
+ *
+ * As rotas de gateway.soap.routes são validadas contra o XSD na inicialização.
+ */
+@Component
+public class SoapJsonTranscoder {
+
+    private static final String SOURCE = "SOAP API";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    /**
+     * Uma rota já resolvida no XSD: elementos e tipos do request e da resposta.
+     */
+    public record Operacao(GatewaySoapRoutesProperties.Route route, String pedido, SoapSchema.Tipo tipoPedido,
+                           SoapSchema.Tipo tipoResposta) {
+    }
+
+    /**
+     * O envelope já escrito, no formato pedido; vazio quando o elemento da resposta não tinha filhos.
+     */
+    public record Resposta(byte[] corpo, MediaType tipo, boolean vazio) {
+    }
+
+    private final SoapSchema schema;
+    private final UsuariosBackend backend;
+    private final Map<MediaType, JsonFactory> formatos = new LinkedHashMap<>();
+    private final Map<String, Operacao> rotas = new LinkedHashMap<>();
+
+    public SoapJsonTranscoder(SoapSchema schema, UsuariosBackend backend, GatewaySoapRoutesProperties properties,
+                              ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cbor,
+                              MappingJackson2SmileHttpMessageConverter smile) {
+        this.schema = schema;
+        this.backend = backend;
+        //mesma ordem dos converters: JSON quando o cliente aceita qualquer tipo
+        formatos.put(MediaType.APPLICATION_JSON, objectMapper.getFactory());
+        formatos.put(MediaType.APPLICATION_CBOR, cbor.getObjectMapper().getFactory());
+        formatos.put(new MediaType("application", "x-jackson-smile"), smile.getObjectMapper().getFactory());
+        for (GatewaySoapRoutesProperties.Route route : properties.routes()) {
+            rotas.put(route.path(), operacao(route));
+        }
+    }
+
+    /**
+     * Resolve a operação da rota no XSD.
+     *
+     * @throws IllegalStateException se a operação não existe ou o request tem campos complexos
+     */
+    public Operacao operacao(GatewaySoapRoutesProperties.Route route) {
+        String pedido = route.operation() + "Request";
+        SoapSchema.Tipo tipoPedido = schema.elemento(pedido);
+        SoapSchema.Tipo tipoResposta = schema.elemento(route.operation() + "Response");
+        if (tipoPedido == null || tipoResposta == null) {
+            throw new IllegalStateException("Operação " + route.operation() + " não existe no usuarios.xsd (rota " + route.path() + ")");
+        }
+        for (SoapSchema.Campo campo : tipoPedido.campos()) {
+            if (!campo.simples()) {
+                throw new IllegalStateException("Rota " + route.path() + ": o campo " + campo.nome() + " de " + pedido
+                        + " não é um valor simples e não pode vir de um parâmetro HTTP");
+            }
+        }
+        return new Operacao(route, pedido, tipoPedido, tipoResposta);
+    }
+
+    /**
+     * As rotas de gateway.soap.routes, para o GatewaySoapRoutesConfig registrar.
+     */
+    public List<Operacao> rotas() {
+        return new ArrayList<>(rotas.values());
+    }
+
+    /**
+     * A rota registrada com esse path (o padrão, com as variáveis), ou null.
+     */
+    public Operacao rota(String path) {
+        return rotas.get(path);
+    }
+
+    /**
+     * Monta o payload do request (sem envelope) com os valores de cada campo do XSD.
+     *
+     * @throws IllegalArgumentException se faltar um campo obrigatório ou um valor não for do tipo do campo
+     */
+    public byte[] pedido(Operacao operacao, Map<String, String> valores) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(256);
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(saida, "UTF-8");
+            writer.writeStartElement("", operacao.pedido(), schema.namespace());
+            writer.writeDefaultNamespace(schema.namespace());
+            for (SoapSchema.Campo campo : operacao.tipoPedido().campos()) {
+                String valor = valores.get(campo.nome());
+                if (valor == null || valor.isBlank()) {
+                    if (campo.obrigatorio()) {
+                        throw new IllegalArgumentException("Parâmetro obrigatório: " + campo.nome());
+                    }
+                    continue;
+                }
+                for (String item : campo.repetido() ? valor.split(",") : new String[] {valor}) {
+                    writer.writeStartElement("", campo.nome(), schema.namespace());
+                    writer.writeCharacters(validar(campo, item.strip()));
+                    writer.writeEndElement();
+                }
+            }
+            writer.writeEndElement();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private static String validar(SoapSchema.Campo campo, String valor) {
+        boolean valido = switch (campo.valor()) {
+            case NUMERO -> numero(valor);
+            case BOOLEANO -> valor.equals("true") || valor.equals("false");
+            default -> true;
+        };
+        if (!valido) {
+            throw new IllegalArgumentException("Parâmetro " + campo.nome() + " inválido: " + valor);
+        }
+        return valor;
+    }
+
+    private static boolean numero(String valor) {
+        try {
+            new BigDecimal(valor);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * O formato da resposta pelo header Accept: JSON, CBOR ou Smile, como nos envelopes tipados.
+     *
+     * @throws HttpMediaTypeNotAcceptableException se o cliente não aceita nenhum dos três (406)
+     */
+    public MediaType formato(String accept) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> aceitos;
+        try {
+            aceitos = accept == null || accept.isBlank() ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotAcceptableException(e.getMessage());
+        }
+        aceitos = new ArrayList<>(aceitos);
+        aceitos.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType formato : formatos.keySet()) {
+                if (aceito.includes(formato)) {
+                    return formato;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(new ArrayList<>(formatos.keySet()));
+    }
+
+    /**
+     * Chama a operação e escreve o envelope. Exceções do backend (SoapFaultException,
+     * WebServiceIOException) passam direto, como nas chamadas com DTO.
+     */
+    public Resposta transcodificar(Operacao operacao, byte[] pedido, MediaType formato, Link... links) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(1024);
+        try (JsonGenerator gen = formatos.get(formato).createGenerator(saida)) {
+            gen.writeStartObject();
+            EnvelopeWriter.writeLinks(links, gen);
+            gen.writeStringField("source", SOURCE);
+            JsonPayloadWriter payload = new JsonPayloadWriter(gen, operacao.tipoResposta(), operacao.route().fields());
+            backend.call(pedido, payload);
+            if (payload.contagem() >= 0) {
+                gen.writeNumberField("count", payload.contagem());
+            }
+            gen.writeEndObject();
+            gen.flush();
+            return new Resposta(saida.toByteArray(), formato, payload.vazio());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.proj.gateway;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket de um cliente, sem lock.
+ *
+ * Em vez de guardar a quantidade de tokens e a hora do último refill (dois valores que
+ * precisariam mudar juntos), guarda só quando o bucket estaria cheio de novo ("cheio", em
+ * nanos). Cada request empurra esse instante um intervalo para frente; se ele já está mais
+ * de burst - 1 intervalos no futuro, o bucket está vazio. Um compareAndSet atualiza tudo.
+ */
+final class TokenBucket {
+
+    private final long intervalo;  //nanos para repor um token
+    private final long tolerancia; //quanto "cheio" pode estar no futuro e ainda sobrar um token
+    private final AtomicLong cheio;
+
+    TokenBucket(double permitsPerSecond, int burst, long agora) {
+        this.intervalo = Math.max(1, Math.round(1_000_000_000 / permitsPerSecond));
+        this.tolerancia = intervalo * (Math.max(1, burst) - 1);
+        this.cheio = new AtomicLong(agora);
+    }
+
+    /**
+     * Consome um token. Devolve 0 se conseguiu, ou quantos nanos faltam para o próximo token.
+     */
+    long tryAcquire(long agora) {
+        while (true) {
+            long atual = cheio.get();
+            long base = Math.max(atual, agora); //parado há tempo: o bucket já encheu
+            long espera = base - agora - tolerancia;
+            if (espera > 0) {
+                return espera;
+            }
+            if (cheio.compareAndSet(atual, base + intervalo)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.proj.gateway;
+
+import com.example.proj.controller.UsuarioSoapController.CreateUsuarioRequest;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuarioResponse;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuariosBatchRequest;
+import com.example.proj.controller.UsuarioSoapController.CreateUsuariosBatchResponse;
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosRequest;
+import com.example.proj.controller.UsuarioSoapController.GetAllUsuariosResponse;
+import com.example.proj.controller.UsuarioSoapController.GetUsuarioRequest;
+import com.example.proj.controller.UsuarioSoapController.GetUsuarioResponse;
+import com.example.proj.controller.UsuarioSoapController.GetUsuariosByIdsRequest;
+import com.example.proj.controller.UsuarioSoapController.GetUsuariosByIdsResponse;
+
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Backend SOAP de usuários usado pelo GatewayController.
+ *
+ * Recebe e devolve os mesmos "DTOs do SOAP" do UsuarioSoapController, seja
+ * chamando o @Endpoint direto (in-process) ou enviando o envelope SOAP para o
+ * /ws de outra instância (remote). No modo remote um SOAP Fault sai como
+ * {@link SoapFaultException}.
+ */
+public interface UsuariosBackend {
+
+    GetAllUsuariosResponse getAllUsuarios(GetAllUsuariosRequest request);
+
+    GetUsuarioResponse getUsuario(GetUsuarioRequest request);
+
+    /**
+     * @throws com.example.proj.controller.EmailDuplicadoException se o email já estiver em uso
+     */
+    CreateUsuarioResponse createUsuario(CreateUsuarioRequest request);
+
+    CreateUsuariosBatchResponse createUsuariosBatch(CreateUsuariosBatchRequest request);
+
+    GetUsuariosByIdsResponse getUsuariosByIds(GetUsuariosByIdsRequest request);
+
+    /**
+     * Chamada sem DTO, usada pelo SoapJsonTranscoder: envia o payload XML (o elemento do
+     * request, sem envelope) e escreve o payload da resposta no writer conforme é gerado
+     * (in-process) ou lido da conexão (remote).
+     *
+     * @throws SoapFaultException se a resposta for um SOAP Fault
+     */
+    void call(byte[] payload, XMLStreamWriter resposta);
+
+    /**
+     * true quando o backend é o /ws de outra instância (gateway.backend.mode=remote).
+     */
+    default boolean remoto() {
+        return false;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.proj.soap;
+
+import com.sun.xml.messaging.saaj.soap.MessageImpl;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+
+/**
+ * Responde em Fast Infoset (XML binário, application/fastinfoset) a quem pediu: request com
+ * esse formato no Accept, ou que já chegou em Fast Infoset. Os outros continuam recebendo XML.
+ *
+ * A leitura não precisa de nada: com o FastInfoset no classpath o SAAJ já lê um request com
+ * Content-Type application/fastinfoset e guarda na mensagem se o cliente aceita o formato.
+ * Aqui a resposta só é marcada, no afterCompletion (depois do endpoint e dos Faults, antes da
+ * escrita); quem escreve os bytes é a StreamingSaajSoapMessage ou o próprio SAAJ.
+ */
+public class FastInfosetInterceptor implements EndpointInterceptor {
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+        if (messageContext.hasResponse() && aceita(messageContext.getRequest())
+                && messageContext.getResponse() instanceof SaajSoapMessage resposta
+                && resposta.getSaajMessage() instanceof MessageImpl saaj) {
+            saaj.setIsFastInfoset(true);
+        }
+    }
+
+    private static boolean aceita(WebServiceMessage request) {
+        return request instanceof SaajSoapMessage mensagem && mensagem.getSaajMessage() instanceof MessageImpl saaj
+                && (saaj.isFastInfoset() || saaj.acceptFastInfoset());
+    }
+}
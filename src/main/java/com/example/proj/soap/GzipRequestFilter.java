@@ -0,0 +1,158 @@
+package com.example.proj.soap;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Aceita requests do /ws com Content-Encoding: gzip (o Tomcat só comprime respostas).
+ *
+ * O corpo é descomprimido enquanto o SAAJ lê, sem guardar o request inteiro, e os headers
+ * Content-Encoding e Content-Length somem do request que chega no MessageDispatcherServlet.
+ * Um corpo que passa de soap.encoding.max-inflated-request-size depois de descomprimido
+ * (gzip bomb) interrompe a leitura com erro.
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private final SoapProperties properties;
+
+    public GzipRequestFilter(SoapProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return !(path.equals("/ws") || path.startsWith("/ws/")) || encoding == null || !encoding.trim().equalsIgnoreCase("gzip");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(new GzipRequest(request, properties.encoding().maxInflatedRequestSize().toBytes()), response);
+    }
+
+    private static final class GzipRequest extends HttpServletRequestWrapper {
+
+        private final long limite;
+        private ServletInputStream entrada;
+
+        GzipRequest(HttpServletRequest request, long limite) {
+            super(request);
+            this.limite = limite;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (entrada == null) {
+                entrada = new GzipInputStream(new GZIPInputStream(super.getInputStream(), 8192), limite);
+            }
+            return entrada;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return removido(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return removido(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !removido(name)).toList());
+        }
+
+        private static boolean removido(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static final class GzipInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+        private final long limite;
+        private long lidos;
+        private boolean fim;
+
+        GzipInputStream(InputStream delegate, long limite) {
+            this.delegate = delegate;
+            this.limite = limite;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            contar(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            contar(n);
+            return n;
+        }
+
+        private void contar(int n) throws IOException {
+            if (n < 0) {
+                fim = true;
+                return;
+            }
+            lidos += n;
+            if (lidos > limite) {
+                throw new IOException("Request descomprimido maior que " + limite + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return fim;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        //o delegate é um GZIPInputStream bloqueante, não há como repassar o listener;
+        //IllegalStateException é o que o contrato do ServletInputStream prevê para quem não aceita
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new IllegalStateException("Leitura assíncrona de request com gzip não é suportada");
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
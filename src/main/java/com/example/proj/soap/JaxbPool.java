@@ -0,0 +1,84 @@
+package com.example.proj.soap;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.JAXBIntrospector;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import java.util.function.Predicate;
+
+/**
+ * Um JAXBContext para todos os DTOs do SOAP, com Marshaller e Unmarshaller reaproveitados.
+ *
+ * O JAXBContext é thread-safe e caro de criar: existe um só na aplicação. Marshaller
+ * e Unmarshaller não são thread-safe, então cada request pega um do pool e devolve
+ * ao terminar, em vez de criar um novo por mensagem.
+ */
+public class JaxbPool {
+
+    private final JAXBContext context;
+    private final Predicate<Class<?>> suportados;
+    private final JAXBIntrospector introspector;
+    private final Pool<Marshaller, JAXBException> marshallers;
+    private final Pool<Unmarshaller, JAXBException> unmarshallers;
+
+    /**
+     * @param suportados quais classes o context conhece; as outras ficam com o JAXB padrão do Spring-WS
+     */
+    public JaxbPool(JAXBContext context, Predicate<Class<?>> suportados, int max) {
+        this.context = context;
+        this.suportados = suportados;
+        this.introspector = context.createJAXBIntrospector();
+        this.marshallers = new Pool<>(max, () -> {
+            // o DTO é sempre escrito dentro do Body: sem startDocument/endDocument
+            Marshaller marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            return marshaller;
+        });
+        this.unmarshallers = new Pool<>(max, context::createUnmarshaller);
+    }
+
+    public boolean supports(Class<?> tipo) {
+        return suportados.test(tipo);
+    }
+
+    public JAXBContext getContext() {
+        return context;
+    }
+
+    public QName nome(Object valor) {
+        return introspector.getElementName(valor);
+    }
+
+    public <T> T unmarshal(Source source, Class<T> tipo) throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.pegar();
+        try {
+            return unmarshaller.unmarshal(source, tipo).getValue();
+        } finally {
+            unmarshallers.devolver(unmarshaller);
+        }
+    }
+
+    public void marshal(Object valor, Result result) throws JAXBException {
+        Marshaller marshaller = marshallers.pegar();
+        try {
+            marshaller.marshal(valor, result);
+        } finally {
+            marshallers.devolver(marshaller);
+        }
+    }
+
+    public void marshal(Object valor, XMLStreamWriter writer) throws JAXBException {
+        Marshaller marshaller = marshallers.pegar();
+        try {
+            marshaller.marshal(valor, writer);
+        } finally {
+            marshallers.devolver(marshaller);
+        }
+    }
+}
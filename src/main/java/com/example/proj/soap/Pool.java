@@ -0,0 +1,36 @@
+package com.example.proj.soap;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool simples para objetos caros de criar e que não são thread-safe
+ * (Marshaller, Unmarshaller, Validator).
+ *
+ * Não existe limite de objetos em uso: se o pool estiver vazio, um novo é criado;
+ * na devolução, o que passar de {@code max} ociosos é descartado. Assim nenhum
+ * request espera pelo pool.
+ */
+final class Pool<T, E extends Exception> {
+
+    @FunctionalInterface
+    interface Criador<T, E extends Exception> {
+        T criar() throws E;
+    }
+
+    private final ArrayBlockingQueue<T> livres;
+    private final Criador<T, E> criador;
+
+    Pool(int max, Criador<T, E> criador) {
+        this.livres = new ArrayBlockingQueue<>(Math.max(1, max));
+        this.criador = criador;
+    }
+
+    T pegar() throws E {
+        T livre = livres.poll();
+        return livre != null ? livre : criador.criar();
+    }
+
+    void devolver(T objeto) {
+        livres.offer(objeto);
+    }
+}
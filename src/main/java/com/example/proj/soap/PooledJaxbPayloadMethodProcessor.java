@@ -0,0 +1,117 @@
+package com.example.proj.soap;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.xml.bind.JAXBException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processador JAXB dos DTOs @XmlRootElement dos @Endpoint, no lugar do padrão do Spring-WS.
+ *
+ * O padrão guarda um JAXBContext por classe e cria um Marshaller/Unmarshaller novo
+ * a cada mensagem; aqui o JAXBContext é o compartilhado do {@link JaxbPool} e os
+ * Marshaller/Unmarshaller vêm do pool. Tipos que o pool não conhece seguem pelo padrão.
+ *
+ * Também mede o JAXB:
+ * - soap.unmarshal: tempo para converter o payload do request no DTO, por tipo
+ * - soap.marshal: tempo para escrever o DTO de resposta, por tipo (nas respostas
+ *   streaming o marshal só acontece no writeTo, e é medido lá)
+ */
+public class PooledJaxbPayloadMethodProcessor extends XmlRootElementPayloadMethodProcessor {
+
+    private final JaxbPool pool;
+    private final ObjectProvider<MeterRegistry> registry;
+    private final ConcurrentHashMap<Class<?>, Timer> unmarshal = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, Timer> marshal = new ConcurrentHashMap<>();
+
+    public PooledJaxbPayloadMethodProcessor(JaxbPool pool, ObjectProvider<MeterRegistry> registry) {
+        this.pool = pool;
+        this.registry = registry;
+    }
+
+    @Override
+    public Object resolveArgument(MessageContext messageContext, MethodParameter parameter) throws JAXBException {
+        Class<?> tipo = parameter.getParameterType();
+        Timer timer = unmarshal.computeIfAbsent(tipo, t -> timer("soap.unmarshal", t,
+                "Tempo do unmarshal JAXB do payload do request"));
+        long inicio = System.nanoTime();
+        try {
+            if (!pool.supports(tipo)) {
+                return super.resolveArgument(messageContext, parameter);
+            }
+            Source payload = messageContext.getRequest().getPayloadSource();
+            return payload == null ? null : pool.unmarshal(payload, tipo);
+        } finally {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    protected void handleReturnValueInternal(MessageContext messageContext, MethodParameter returnType, Object returnValue)
+            throws JAXBException {
+        Timer timer = marshal.computeIfAbsent(returnValue.getClass(), t -> timer("soap.marshal", t,
+                "Tempo do marshal JAXB da resposta para o payload"));
+        if (!pool.supports(returnValue.getClass())) {
+            long inicio = System.nanoTime();
+            try {
+                super.handleReturnValueInternal(messageContext, returnType, returnValue);
+            } finally {
+                timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+            return;
+        }
+
+        WebServiceMessage response = messageContext.getResponse();
+        if (response instanceof StreamingWebServiceMessage streaming) {
+            streaming.setStreamingPayload(new JaxbPayload(pool, returnValue, timer));
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            pool.marshal(returnValue, response.getPayloadResult());
+        } finally {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String nome, Class<?> tipo, String descricao) {
+        return Timer.builder(nome)
+                .description(descricao)
+                .tag("type", tipo.getSimpleName())
+                .register(registry.getObject());
+    }
+
+    // o DTO só é escrito quando a resposta vai para o OutputStream, com um Marshaller do pool
+    private record JaxbPayload(JaxbPool pool, Object valor, Timer timer) implements StreamingPayload {
+
+        @Override
+        public QName getName() {
+            return pool.nome(valor);
+        }
+
+        @Override
+        public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+            long inicio = System.nanoTime();
+            try {
+                pool.marshal(valor, writer);
+            } catch (JAXBException e) {
+                throw new XMLStreamException("Não foi possível escrever " + valor.getClass().getSimpleName() + ": " + e.getMessage(), e);
+            } finally {
+                timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
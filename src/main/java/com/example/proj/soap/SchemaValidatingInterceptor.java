@@ -0,0 +1,137 @@
+package com.example.proj.soap;
+
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.SoapBody;
+import org.springframework.ws.soap.SoapFault;
+import org.springframework.ws.soap.SoapFaultDetail;
+import org.springframework.ws.soap.SoapMessage;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Valida o payload de cada request SOAP contra o XSD antes de ele chegar no @Endpoint.
+ *
+ * - o XSD é compilado uma vez em um {@link Schema} (thread-safe) na criação do interceptor
+ * - cada request usa um Validator do pool (Validator não é thread-safe, mas pode ser reaproveitado)
+ * - a validação percorre o payload como uma sequência de eventos, sem copiar nem gerar
+ *   outro documento; para depois de {@code maxErros} erros
+ * - payload inválido vira um SOAP Fault (Client), com um ValidationError por erro no detail
+ */
+public class SchemaValidatingInterceptor implements EndpointInterceptor {
+
+    public static final QName VALIDATION_ERROR = new QName("http://proj.example.com/usuario", "ValidationError", "usr");
+
+    private final Schema schema;
+    private final int maxErros;
+    private final Pool<Validator, RuntimeException> validators;
+
+    public SchemaValidatingInterceptor(Source xsd, int maxErros, int poolSize) throws SAXException {
+        // a implementação do JDK direto, sem a busca do SchemaFactory.newInstance no classpath
+        this.schema = SchemaFactory.newDefaultInstance().newSchema(xsd);
+        this.maxErros = maxErros;
+        this.validators = new Pool<>(poolSize, schema::newValidator);
+    }
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) throws IOException {
+        Source payload = messageContext.getRequest().getPayloadSource();
+        if (payload == null) {
+            return true;
+        }
+        List<SAXParseException> erros = validar(payload);
+        if (erros.isEmpty()) {
+            return true;
+        }
+
+        SoapBody body = ((SoapMessage) messageContext.getResponse()).getSoapBody();
+        SoapFault fault = body.addClientOrSenderFault("Payload inválido: " + erros.get(0).getMessage(), Locale.ENGLISH);
+        SoapFaultDetail detail = fault.addFaultDetail();
+        for (SAXParseException erro : erros) {
+            detail.addFaultDetailElement(VALIDATION_ERROR).addText(erro.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+    }
+
+    private List<SAXParseException> validar(Source payload) throws IOException {
+        Erros erros = new Erros(maxErros);
+        Validator validator = validators.pegar();
+        try {
+            validator.setErrorHandler(erros);
+            validator.validate(payload);
+        } catch (SAXParseException e) {
+            erros.adicionar(e);
+        } catch (SAXException e) {
+            //Erros.LIMITE: a validação foi interrompida de propósito ao atingir maxErros
+            if (e != Erros.LIMITE) {
+                erros.adicionar(new SAXParseException(e.getMessage(), null, e));
+            }
+        } finally {
+            validator.reset();
+            validators.devolver(validator);
+        }
+        return erros.lista;
+    }
+
+    // warnings são ignorados; error e fatalError entram na lista até o limite
+    private static final class Erros implements ErrorHandler {
+
+        private static final SAXException LIMITE = new SAXException("Limite de erros de validação atingido");
+
+        private final int max;
+        private final List<SAXParseException> lista = new ArrayList<>();
+
+        private Erros(int max) {
+            this.max = Math.max(1, max);
+        }
+
+        @Override
+        public void warning(SAXParseException exception) {
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            adicionar(exception);
+            if (lista.size() >= max) {
+                throw LIMITE;
+            }
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            adicionar(exception);
+            throw LIMITE;
+        }
+
+        private void adicionar(SAXParseException exception) {
+            if (lista.size() < max && !lista.contains(exception)) {
+                lista.add(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.proj.soap;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.ws.FaultAwareWebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mede cada operação SOAP (@PayloadRoot) despachada pelo MessageDispatcherServlet.
+ *
+ * - soap.requests: timer por operação e resultado (success, fault, error)
+ * - soap.faults: contador de SOAP Faults por operação
+ *
+ * Os timers e contadores são criados uma vez por operação e guardados, então
+ * no caminho do request só existe um Timer.start e um stop.
+ *
+ * O MeterRegistry só é buscado no primeiro request: os WsConfigurer são criados
+ * junto com os BeanPostProcessor do Spring-WS, cedo demais para o registry já
+ * ter recebido os filtros (percentis, histogramas) do Spring Boot.
+ */
+public class SoapMetricsInterceptor implements EndpointInterceptor {
+
+    private static final String INICIO = SoapMetricsInterceptor.class.getName() + ".inicio";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final ConcurrentHashMap<Method, Medidores> medidores = new ConcurrentHashMap<>();
+
+    public SoapMetricsInterceptor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) {
+        messageContext.setProperty(INICIO, Timer.start(Clock.SYSTEM));
+        return true;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+        if (!(messageContext.getProperty(INICIO) instanceof Timer.Sample inicio) || !(endpoint instanceof MethodEndpoint metodo)) {
+            return;
+        }
+        Medidores operacao = medidores.computeIfAbsent(metodo.getMethod(), this::medidores);
+        if (messageContext.hasResponse() && messageContext.getResponse() instanceof FaultAwareWebServiceMessage resposta
+                && resposta.hasFault()) {
+            inicio.stop(operacao.fault());
+            operacao.faults().increment();
+        } else {
+            inicio.stop(ex == null ? operacao.success() : operacao.error());
+        }
+    }
+
+    private Medidores medidores(Method metodo) {
+        MeterRegistry registry = this.registry.getObject();
+        PayloadRoot payloadRoot = metodo.getAnnotation(PayloadRoot.class);
+        String operacao = payloadRoot != null ? payloadRoot.localPart() : metodo.getName();
+        return new Medidores(timer(registry, operacao, "success"),
+                timer(registry, operacao, "fault"), timer(registry, operacao, "error"),
+                Counter.builder("soap.faults")
+                        .description("SOAP Faults devolvidos por operação")
+                        .tag("operation", operacao)
+                        .register(registry));
+    }
+
+    private static Timer timer(MeterRegistry registry, String operacao, String outcome) {
+        return Timer.builder("soap.requests")
+                .description("Tempo de cada operação SOAP, do request despachado até a resposta pronta")
+                .tag("operation", operacao)
+                .tag("outcome", outcome)
+                .tag("source", "SOAP")
+                .register(registry);
+    }
+
+    private record Medidores(Timer success, Timer fault, Timer error, Counter faults) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.proj.soap;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuração do /ws (prefixo soap).
+ *
+ * @param validation validação do payload dos requests contra o usuarios.xsd
+ * @param jaxb       pool de Marshaller/Unmarshaller do JAXBContext compartilhado
+ * @param encoding   formatos aceitos além do XML em texto (Fast Infoset, gzip)
+ * @param wsdl       de onde vem o /ws/usuarios.wsdl
+ */
+@ConfigurationProperties(prefix = "soap")
+public record SoapProperties(
+        @DefaultValue Validation validation,
+        @DefaultValue Jaxb jaxb,
+        @DefaultValue Encoding encoding,
+        @DefaultValue Wsdl wsdl) {
+
+    /**
+     * @param enabled   valida cada request antes de chegar no @Endpoint; inválido vira SOAP Fault (Client)
+     * @param maxErrors quantos erros de validação vão no detail do Fault (a validação para no último)
+     */
+    public record Validation(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("10") int maxErrors) {
+    }
+
+    /**
+     * @param poolSize quantos Marshaller, Unmarshaller e Validator ociosos ficam guardados para reuso
+     */
+    public record Jaxb(
+            @DefaultValue("64") int poolSize) {
+    }
+
+    /**
+     * @param fastInfoset           responde em Fast Infoset (application/fastinfoset) a quem manda esse Accept
+     *                              ou o request nesse formato; sem isso o /ws só responde XML
+     * @param maxInflatedRequestSize tamanho máximo de um request com Content-Encoding: gzip depois de descomprimido
+     */
+    public record Encoding(
+            @DefaultValue("true") boolean fastInfoset,
+            @DefaultValue("16MB") DataSize maxInflatedRequestSize) {
+    }
+
+    /**
+     * @param prerendered serve o WSDL gerado no build (mvn -Pfast-startup package) em vez de montá-lo
+     *                    a partir do usuarios.xsd na inicialização
+     */
+    public record Wsdl(
+            @DefaultValue("false") boolean prerendered) {
+    }
+}
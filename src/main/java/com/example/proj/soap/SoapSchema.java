@@ -0,0 +1,208 @@
+package com.example.proj.soap;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estrutura dos elementos do usuarios.xsd, lida uma vez na inicialização: para cada elemento,
+ * os filhos na ordem da sequence, se são repetidos ou obrigatórios e se o valor é número,
+ * booleano ou texto.
+ *
+ * É o que o gateway precisa para montar o payload de um request a partir de parâmetros HTTP e
+ * para converter o XML de uma resposta em JSON sem JAXB (arrays, números e booleanos no lugar
+ * certo). Só cobre o que o usuarios.xsd usa: elementos globais com complexType/sequence
+ * (inline ou nomeado) e tipos simples do XML Schema ou restrições deles.
+ */
+public final class SoapSchema {
+
+    public enum Valor { TEXTO, NUMERO, BOOLEANO }
+
+    private static final Set<String> NUMEROS = Set.of("long", "int", "short", "byte", "integer", "decimal",
+            "double", "float", "positiveInteger", "nonNegativeInteger", "unsignedInt", "unsignedLong");
+
+    /**
+     * Um filho da sequence. Simples tem {@code valor} e {@code tipo} nulo; complexo, o contrário.
+     */
+    public record Campo(String nome, Valor valor, Tipo tipo, boolean obrigatorio, boolean repetido) {
+
+        public boolean simples() {
+            return tipo == null;
+        }
+    }
+
+    /**
+     * Um complexType: os campos na ordem da sequence.
+     */
+    public static final class Tipo {
+
+        private final List<Campo> campos = new ArrayList<>();
+        private final Map<String, Campo> porNome = new HashMap<>();
+
+        public List<Campo> campos() {
+            return Collections.unmodifiableList(campos);
+        }
+
+        /**
+         * O campo com esse nome local, ou null se o elemento não faz parte do tipo.
+         */
+        public Campo campo(String nome) {
+            return porNome.get(nome);
+        }
+
+        private void adicionar(Campo campo) {
+            campos.add(campo);
+            porNome.put(campo.nome(), campo);
+        }
+    }
+
+    private final String namespace;
+    private final Map<String, Tipo> elementos = new HashMap<>();
+
+    // definições ainda não resolvidas (por nome), para tipos usados antes de serem declarados
+    private final Map<String, Element> complexTypes = new HashMap<>();
+    private final Map<String, Element> simpleTypes = new HashMap<>();
+    private final Map<String, Tipo> resolvidos = new HashMap<>();
+
+    private SoapSchema(Element schema) {
+        this.namespace = schema.getAttribute("targetNamespace");
+        for (Element filho : filhos(schema)) {
+            switch (filho.getLocalName()) {
+                case "complexType" -> complexTypes.put(filho.getAttribute("name"), filho);
+                case "simpleType" -> simpleTypes.put(filho.getAttribute("name"), filho);
+                default -> { }
+            }
+        }
+        for (Element filho : filhos(schema)) {
+            if (filho.getLocalName().equals("element")) {
+                Tipo tipo = tipoDoElemento(filho);
+                if (tipo != null) {
+                    elementos.put(filho.getAttribute("name"), tipo);
+                }
+            }
+        }
+    }
+
+    public static SoapSchema ler(InputStream xsd) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            Document documento = factory.newDocumentBuilder().parse(xsd);
+            return new SoapSchema(documento.getDocumentElement());
+        } catch (Exception e) {
+            throw new IllegalStateException("Não foi possível ler o XSD: " + e.getMessage(), e);
+        }
+    }
+
+    public String namespace() {
+        return namespace;
+    }
+
+    /**
+     * O tipo do elemento global com esse nome (ex: getUsuarioResponse), ou null.
+     */
+    public Tipo elemento(String nome) {
+        return elementos.get(nome);
+    }
+
+    private Tipo tipoDoElemento(Element elemento) {
+        for (Element filho : filhos(elemento)) {
+            if (filho.getLocalName().equals("complexType")) {
+                return complexo(filho);
+            }
+        }
+        String tipo = local(elemento.getAttribute("type"));
+        return complexTypes.containsKey(tipo) ? resolver(tipo) : null;
+    }
+
+    private Tipo resolver(String nome) {
+        Tipo tipo = resolvidos.get(nome);
+        if (tipo == null) {
+            tipo = new Tipo();
+            resolvidos.put(nome, tipo); //antes dos campos, para tipos recursivos
+            preencher(tipo, complexTypes.get(nome));
+        }
+        return tipo;
+    }
+
+    private Tipo complexo(Element complexType) {
+        Tipo tipo = new Tipo();
+        preencher(tipo, complexType);
+        return tipo;
+    }
+
+    private void preencher(Tipo tipo, Element complexType) {
+        for (Element sequence : filhos(complexType)) {
+            if (!sequence.getLocalName().equals("sequence")) {
+                continue;
+            }
+            for (Element elemento : filhos(sequence)) {
+                if (elemento.getLocalName().equals("element")) {
+                    tipo.adicionar(campo(elemento));
+                }
+            }
+        }
+    }
+
+    private Campo campo(Element elemento) {
+        String nome = elemento.getAttribute("name");
+        String min = elemento.getAttribute("minOccurs");
+        String max = elemento.getAttribute("maxOccurs");
+        boolean obrigatorio = min.isEmpty() || Integer.parseInt(min) > 0;
+        boolean repetido = max.equals("unbounded") || (!max.isEmpty() && Integer.parseInt(max) > 1);
+
+        Tipo inline = null;
+        for (Element filho : filhos(elemento)) {
+            if (filho.getLocalName().equals("complexType")) {
+                inline = complexo(filho);
+            }
+        }
+        String tipo = local(elemento.getAttribute("type"));
+        if (inline != null || complexTypes.containsKey(tipo)) {
+            return new Campo(nome, null, inline != null ? inline : resolver(tipo), obrigatorio, repetido);
+        }
+        return new Campo(nome, valor(tipo), null, obrigatorio, repetido);
+    }
+
+    // tipo do XML Schema (xs:long...) ou simpleType declarado aqui, que vale pelo tipo base
+    private Valor valor(String tipo) {
+        Element simpleType = simpleTypes.get(tipo);
+        if (simpleType != null) {
+            for (Element restriction : filhos(simpleType)) {
+                if (restriction.getLocalName().equals("restriction")) {
+                    return valor(local(restriction.getAttribute("base")));
+                }
+            }
+            return Valor.TEXTO;
+        }
+        if (NUMEROS.contains(tipo)) {
+            return Valor.NUMERO;
+        }
+        return tipo.equals("boolean") ? Valor.BOOLEANO : Valor.TEXTO;
+    }
+
+    private static String local(String qname) {
+        return qname.substring(qname.indexOf(':') + 1);
+    }
+
+    private static List<Element> filhos(Element pai) {
+        List<Element> filhos = new ArrayList<>();
+        for (Node filho = pai.getFirstChild(); filho != null; filho = filho.getNextSibling()) {
+            if (filho instanceof Element e && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(e.getNamespaceURI())) {
+                filhos.add(e);
+            }
+        }
+        return filhos;
+    }
+}
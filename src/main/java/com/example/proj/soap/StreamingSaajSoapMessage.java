@@ -0,0 +1,200 @@
+package com.example.proj.soap;
+
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+import com.sun.xml.messaging.saaj.soap.MessageImpl;
+import jakarta.xml.soap.MessageFactory;
+import jakarta.xml.soap.MimeHeader;
+import jakarta.xml.soap.SOAPEnvelope;
+import jakarta.xml.soap.SOAPException;
+import jakarta.xml.soap.SOAPHeader;
+import jakarta.xml.soap.SOAPMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageException;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+import org.springframework.ws.transport.TransportOutputStream;
+import org.springframework.xml.transform.TransformerHelper;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stax.StAXResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Mensagem SAAJ que escreve o payload do Body direto no OutputStream (StAX).
+ *
+ * Enquanto nenhum StreamingPayload for definido, funciona igual à SaajSoapMessage.
+ * Com um payload definido, o envelope é escrito à mão e o payload é gerado só
+ * na hora do writeTo, sem nunca existir uma árvore DOM com o conteúdo todo.
+ * Numa resposta marcada como Fast Infoset (FastInfosetInterceptor) o mesmo payload vai
+ * para um writer de Fast Infoset em vez do de XML; sem payload (Faults) quem escreve é o
+ * próprio SAAJ.
+ */
+public class StreamingSaajSoapMessage extends SaajSoapMessage implements StreamingWebServiceMessage {
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+    private static final TransformerHelper TRANSFORMER = new TransformerHelper();
+
+    private StreamingPayload streamingPayload;
+
+    public StreamingSaajSoapMessage(SOAPMessage soapMessage, MessageFactory messageFactory) {
+        super(soapMessage, true, messageFactory);
+    }
+
+    @Override
+    public void setStreamingPayload(StreamingPayload payload) {
+        this.streamingPayload = payload;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try {
+            SOAPMessage saajMessage = getSaajMessage();
+            // um Fault adicionado depois do payload (ex: erro num interceptor) tem prioridade
+            // e headers SOAP são raros nas respostas: nesses casos volta para o caminho DOM normal
+            if (streamingPayload != null && (saajMessage.getSOAPBody().hasFault() || hasHeaderElements(saajMessage.getSOAPHeader()))) {
+                materialize();
+            }
+            if (streamingPayload != null) {
+                writeStreaming(saajMessage, outputStream);
+            } else if (isFastInfoset(saajMessage)) {
+                writeFastInfoset(saajMessage, outputStream);
+            } else {
+                super.writeTo(outputStream);
+            }
+        }
+        catch (SOAPException ex) {
+            throw new SaajSoapMessageException("Could not write streaming message: " + ex.getMessage(), ex);
+        }
+        catch (XMLStreamException ex) {
+            throw new IOException("Could not write streaming payload: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void writeStreaming(SOAPMessage saajMessage, OutputStream outputStream) throws SOAPException, XMLStreamException, IOException {
+        writeMimeHeaders(saajMessage, outputStream);
+
+        SOAPEnvelope envelope = saajMessage.getSOAPPart().getEnvelope();
+        String prefix = envelope.getPrefix();
+        String namespace = envelope.getNamespaceURI();
+
+        boolean fastInfoset = isFastInfoset(saajMessage);
+        XMLStreamWriter writer = fastInfoset ? new StAXDocumentSerializer(outputStream)
+                : OUTPUT_FACTORY.createXMLStreamWriter(outputStream, "UTF-8");
+        if (fastInfoset) {
+            writer.writeStartDocument(); //cabeçalho do documento Fast Infoset
+        }
+        writer.writeStartElement(prefix, "Envelope", namespace);
+        writer.writeNamespace(prefix, namespace);
+        if (saajMessage.getSOAPHeader() != null) {
+            writer.writeEmptyElement(prefix, "Header", namespace);
+        }
+        writer.writeStartElement(prefix, "Body", namespace);
+        streamingPayload.writeTo(writer);
+        writer.writeEndElement();
+        writer.writeEndElement();
+        if (fastInfoset) {
+            writer.writeEndDocument();
+        }
+        writer.flush();
+        writer.close();
+    }
+
+    /**
+     * Escreve só o payload do Body no writer, sem envelope e sem passar por bytes: direto do
+     * StreamingPayload quando existe, senão a partir do Body DOM. É como o gateway lê a
+     * resposta de uma chamada SOAP feita dentro da própria aplicação.
+     */
+    public void writePayloadTo(XMLStreamWriter writer) throws XMLStreamException {
+        if (streamingPayload != null) {
+            streamingPayload.writeTo(writer);
+            return;
+        }
+        Source payload = getPayloadSource();
+        if (payload == null) {
+            return;
+        }
+        try {
+            TRANSFORMER.transform(payload, new StAXResult(writer));
+        } catch (TransformerException ex) {
+            throw new XMLStreamException("Could not write payload: " + ex.getMessage(), ex);
+        }
+    }
+
+    // o SAAJ cria o xml:lang do faultstring sem namespace (setAttribute, DOM nível 1): no XML em
+    // texto não faz diferença, mas em Fast Infoset o atributo sairia com o nome "xml:lang" sem
+    // namespace e o cliente não conseguiria ler a mensagem
+    private void writeFastInfoset(SOAPMessage saajMessage, OutputStream outputStream) throws SOAPException, IOException {
+        corrigirAtributosXml(saajMessage.getSOAPPart().getEnvelope());
+        super.writeTo(outputStream);
+    }
+
+    private static void corrigirAtributosXml(Element elemento) {
+        NamedNodeMap atributos = elemento.getAttributes();
+        for (int i = atributos.getLength() - 1; i >= 0; i--) {
+            Attr atributo = (Attr) atributos.item(i);
+            if (atributo.getNamespaceURI() == null && atributo.getName().startsWith(XMLConstants.XML_NS_PREFIX + ":")) {
+                elemento.removeAttributeNode(atributo);
+                elemento.setAttributeNS(XMLConstants.XML_NS_URI, atributo.getName(), atributo.getValue());
+            }
+        }
+        for (Node filho = elemento.getFirstChild(); filho != null; filho = filho.getNextSibling()) {
+            if (filho instanceof Element e) {
+                corrigirAtributosXml(e);
+            }
+        }
+    }
+
+    private static void writeMimeHeaders(SOAPMessage saajMessage, OutputStream outputStream) throws SOAPException, IOException {
+        // saveChanges preenche o Content-Type, que é repassado como header HTTP
+        saajMessage.saveChanges();
+        if (outputStream instanceof TransportOutputStream transportOutputStream) {
+            for (Iterator<MimeHeader> headers = saajMessage.getMimeHeaders().getAllHeaders(); headers.hasNext(); ) {
+                MimeHeader header = headers.next();
+                // o Content-Length calculado pelo SAAJ não vale para o que é escrito aqui
+                // (Body vazio no streaming, codificação do próprio SAAJ no Fast Infoset)
+                if (!"Content-Length".equalsIgnoreCase(header.getName())) {
+                    transportOutputStream.addHeader(header.getName(), header.getValue());
+                }
+            }
+        }
+    }
+
+    private static boolean isFastInfoset(SOAPMessage saajMessage) {
+        return saajMessage instanceof MessageImpl saaj && saaj.isFastInfoset();
+    }
+
+    // escreve o payload dentro do Body DOM, para os casos em que o streaming não dá
+    private void materialize() throws SOAPException, XMLStreamException {
+        SOAPMessage saajMessage = getSaajMessage();
+        if (!saajMessage.getSOAPBody().hasFault()) {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(new DOMResult(saajMessage.getSOAPBody()));
+            streamingPayload.writeTo(writer);
+            writer.flush();
+        }
+        streamingPayload = null;
+    }
+
+    private static boolean hasHeaderElements(SOAPHeader header) {
+        if (header == null) {
+            return false;
+        }
+        for (Node child = header.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.proj.soap;
+
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+/**
+ * Fábrica de mensagens SAAJ que cria respostas "streaming".
+ *
+ * As respostas criadas aqui aceitam um StreamingPayload: em vez de montar o
+ * XML inteiro em uma árvore DOM, o payload é escrito direto no OutputStream
+ * da resposta HTTP. O próprio Spring-WS aproveita isso para os retornos JAXB
+ * dos @Endpoints, e o getAllUsuarios usa para o modo de resultados grandes.
+ *
+ * O SAAJ chama TransformerFactory.newInstance() ao ler e ao escrever cada envelope;
+ * a propriedade javax.xml.transform.TransformerFactory, que evita a busca do provider
+ * no classpath a cada chamada, vai na linha de comando (app.jvmArguments no pom).
+ */
+public class StreamingSaajSoapMessageFactory extends SaajSoapMessageFactory {
+
+    @Override
+    public SaajSoapMessage createWebServiceMessage() {
+        return new StreamingSaajSoapMessage(super.createWebServiceMessage().getSaajMessage(), getMessageFactory());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.proj.soap;
+
+import com.example.proj.model.Usuario;
+import org.springframework.ws.stream.StreamingPayload;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.Iterator;
+import java.util.function.LongFunction;
+
+/**
+ * Escreve um getAllUsuariosResponse direto a partir do UsuarioStore.
+ *
+ * Cada &lt;usuario&gt; é gerado enquanto a coleção é percorrida, sem criar a lista
+ * de UsuarioXml nem a árvore JAXB: a memória usada não depende de quantos
+ * usuários existem.
+ */
+public class UsuariosStreamingPayload implements StreamingPayload {
+
+    // namespace padrão (sem prefixo), igual ao que o JAXB escreve nos outros retornos
+    private static final String PREFIX = "";
+
+    private final String namespace;
+    private final Iterable<Usuario> usuarios;
+    private final long limit;
+    private final LongFunction<String> nextPageToken;
+
+    /**
+     * @param usuarios      usuários a partir da posição pedida (é percorrido só na hora de escrever)
+     * @param limit         máximo de usuários escritos
+     * @param nextPageToken recebe o último ID escrito e devolve o token da próxima página, ou null se não houver
+     */
+    public UsuariosStreamingPayload(String namespace, Iterable<Usuario> usuarios, long limit, LongFunction<String> nextPageToken) {
+        this.namespace = namespace;
+        this.usuarios = usuarios;
+        this.limit = limit;
+        this.nextPageToken = nextPageToken;
+    }
+
+    @Override
+    public QName getName() {
+        return new QName(namespace, "getAllUsuariosResponse", PREFIX);
+    }
+
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement(PREFIX, "getAllUsuariosResponse", namespace);
+        writer.writeDefaultNamespace(namespace);
+
+        long escritos = 0;
+        Long ultimoId = null;
+        for (Iterator<Usuario> it = usuarios.iterator(); escritos < limit && it.hasNext(); escritos++) {
+            Usuario usuario = it.next();
+            writer.writeStartElement(PREFIX, "usuario", namespace);
+            element(writer, "id", String.valueOf(usuario.getId()));
+            element(writer, "nome", usuario.getNome());
+            element(writer, "email", usuario.getEmail());
+            writer.writeEndElement();
+            ultimoId = usuario.getId();
+        }
+
+        String token = ultimoId == null ? null : nextPageToken.apply(ultimoId);
+        if (token != null) {
+            element(writer, "nextPageToken", token);
+        }
+        writer.writeEndElement();
+    }
+
+    private void element(XMLStreamWriter writer, String nome, String valor) throws XMLStreamException {
+        writer.writeStartElement(PREFIX, nome, namespace);
+        if (valor != null) {
+            writer.writeCharacters(valor);
+        }
+        writer.writeEndElement();
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.proj.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * JOURNAL APPEND-ONLY (WRITE-AHEAD LOG) EM ARQUIVOS MAPEADOS EM MEMÓRIA
+ *
+ * Cada registro vai para o fim do segmento atual (journal-NNNN.log, mapeado com mmap),
+ * então gravar é só copiar bytes para a memória, sem chamada de sistema por registro.
+ * O formato de cada registro é [tamanho int][crc32c int][payload].
+ *
+ * - append: grava o registro e devolve a sua posição (segmento + offset)
+ * - sync: espera até a posição estar no disco (group commit: quem chega enquanto um
+ *   force está em andamento espera o próximo, e um único force cobre todos)
+ * - rolar: fecha o segmento atual e começa outro; usado pelo snapshot para marcar
+ *   até onde o journal já está coberto
+ *
+ * Um registro cortado no meio (queda durante a escrita) falha no CRC e marca o fim do journal.
+ */
+public class Journal implements Closeable {
+
+    private static final String PREFIXO = "journal-";
+    private static final String SUFIXO = ".log";
+    private static final int CABECALHO = 8; //tamanho + crc
+
+    private final Path dir;
+    private final int tamanhoSegmento;
+    private final boolean fsync;
+
+    //escrita: protege o segmento atual e a posição de escrita
+    private final ReentrantLock escrita = new ReentrantLock();
+    private Segmento atual;
+    private int posicao;
+    private boolean fechado;
+
+    //commit: quem está fazendo o force e até onde o journal já está no disco
+    private final ReentrantLock commit = new ReentrantLock();
+    private final Condition gravado = commit.newCondition();
+    private boolean forcando;
+    private long duravel;
+
+    /**
+     * Abre o journal do diretório, entregando ao {@code leitor} o payload de cada registro
+     * dos segmentos a partir de {@code desde}, na ordem em que foram gravados.
+     * Segmentos mais antigos que {@code desde} (já cobertos por um snapshot) são apagados.
+     *
+     * @param tamanhoSegmento tamanho de cada arquivo mapeado; um registro nunca passa de um segmento para outro
+     * @param fsync           se false, sync não força o disco (os dados sobrevivem à queda do processo, não do sistema)
+     */
+    public Journal(Path dir, int tamanhoSegmento, boolean fsync, long desde, Consumer<ByteBuffer> leitor) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.fsync = fsync;
+
+        List<Long> segmentos = segmentos();
+        for (long numero : segmentos) {
+            if (numero < desde) {
+                Files.deleteIfExists(arquivo(numero));
+            }
+        }
+        segmentos.removeIf(numero -> numero < desde);
+
+        if (segmentos.isEmpty()) {
+            atual = Segmento.abrir(arquivo(Math.max(desde, 1)), Math.max(desde, 1), tamanhoSegmento);
+            return;
+        }
+        for (int i = 0; i < segmentos.size(); i++) {
+            boolean ultimo = i == segmentos.size() - 1;
+            Segmento segmento = Segmento.abrir(arquivo(segmentos.get(i)), segmentos.get(i), tamanhoSegmento);
+            int fim = ler(segmento.buffer(), leitor);
+            if (!ultimo) {
+                if (!vazio(segmento.buffer(), fim)) {
+                    throw new IllegalStateException("Registro corrompido no meio do journal: " + arquivo(segmentos.get(i)) + " offset " + fim);
+                }
+                segmento.close();
+                continue;
+            }
+            //no último segmento, o que vier depois do último registro válido é uma escrita cortada: é descartado
+            limpar(segmento.buffer(), fim);
+            atual = segmento;
+            posicao = fim;
+        }
+        duravel = marca(atual.numero(), posicao);
+    }
+
+    /**
+     * Grava um registro no fim do journal.
+     *
+     * @return a posição do registro, para passar ao {@link #sync}
+     */
+    public long append(byte[] payload) {
+        if (payload.length == 0 || CABECALHO + payload.length > tamanhoSegmento) {
+            throw new IllegalArgumentException("Registro com " + payload.length + " bytes não cabe em um segmento do journal");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        escrita.lock();
+        try {
+            if (fechado) {
+                throw new IllegalStateException("Journal fechado");
+            }
+            if (posicao + CABECALHO + payload.length > atual.buffer().capacity()) {
+                novoSegmento();
+            }
+            MappedByteBuffer buffer = atual.buffer();
+            buffer.putInt(posicao + 4, (int) crc.getValue());
+            buffer.put(posicao + CABECALHO, payload);
+            buffer.putInt(posicao, payload.length);
+            posicao += CABECALHO + payload.length;
+            return marca(atual.numero(), posicao);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Espera até o registro na posição informada (e todos antes dele) estar no disco.
+     * Várias threads esperando ao mesmo tempo são atendidas pelo mesmo force.
+     */
+    public void sync(long posicao) {
+        if (!fsync) {
+            return;
+        }
+        commit.lock();
+        try {
+            while (duravel < posicao) {
+                if (forcando) {
+                    //outra thread já está gravando: espera e confere de novo (o force dela pode já nos cobrir)
+                    gravado.awaitUninterruptibly();
+                    continue;
+                }
+                forcando = true;
+                commit.unlock();
+                long alvo = 0;
+                try {
+                    alvo = forcar();
+                } finally {
+                    commit.lock();
+                    forcando = false;
+                    duravel = Math.max(duravel, alvo);
+                    gravado.signalAll();
+                }
+            }
+        } finally {
+            commit.unlock();
+        }
+    }
+
+    /**
+     * Força o segmento atual para o disco e começa um novo.
+     *
+     * @return o número do novo segmento: todo registro gravado antes está em um segmento menor
+     */
+    public long rolar() {
+        escrita.lock();
+        try {
+            novoSegmento();
+            return atual.numero();
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Apaga os segmentos com número menor que o informado (já cobertos por um snapshot).
+     */
+    public void descartarAte(long segmento) throws IOException {
+        for (long numero : segmentos()) {
+            if (numero < segmento) {
+                Files.deleteIfExists(arquivo(numero));
+            }
+        }
+    }
+
+    /**
+     * Posição do fim do journal (muda a cada append).
+     */
+    public long posicao() {
+        escrita.lock();
+        try {
+            return marca(atual.numero(), posicao);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        escrita.lock();
+        try {
+            if (fechado) {
+                return;
+            }
+            fechado = true;
+            atual.buffer().force();
+            atual.close();
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // chamado com a trava de escrita
+    private void novoSegmento() {
+        try {
+            atual.buffer().force();
+            atual.close();
+            long numero = atual.numero() + 1;
+            atual = Segmento.abrir(arquivo(numero), numero, tamanhoSegmento);
+            posicao = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // só uma thread por vez chega aqui (flag forcando); força apenas o trecho ainda não gravado
+    private long forcar() {
+        Segmento segmento;
+        int fim;
+        escrita.lock();
+        try {
+            segmento = atual;
+            fim = posicao;
+        } finally {
+            escrita.unlock();
+        }
+        int inicio = segmento.forcado;
+        if (fim > inicio) {
+            segmento.buffer().force(inicio, fim - inicio);
+            segmento.forcado = fim;
+        }
+        return marca(segmento.numero(), fim);
+    }
+
+    // lê os registros válidos do segmento e devolve o offset logo depois do último
+    private static int ler(MappedByteBuffer buffer, Consumer<ByteBuffer> leitor) {
+        int offset = 0;
+        CRC32C crc = new CRC32C();
+        while (offset + CABECALHO <= buffer.capacity()) {
+            int tamanho = buffer.getInt(offset);
+            if (tamanho <= 0 || offset + CABECALHO + tamanho > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(offset + CABECALHO, tamanho);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            leitor.accept(payload);
+            offset += CABECALHO + tamanho;
+        }
+        return offset;
+    }
+
+    // confere 8 bytes por vez: o resto de um segmento novo pode ter dezenas de MB
+    private static boolean vazio(MappedByteBuffer buffer, int desde) {
+        int i = desde;
+        for (; i + 8 <= buffer.capacity(); i += 8) {
+            if (buffer.getLong(i) != 0) {
+                return false;
+            }
+        }
+        for (; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // zera o resto do segmento, para um registro antigo depois do corte nunca ser lido como válido
+    private static void limpar(MappedByteBuffer buffer, int desde) {
+        if (vazio(buffer, desde)) {
+            return;
+        }
+        byte[] zeros = new byte[8192];
+        for (int i = desde; i < buffer.capacity(); i += zeros.length) {
+            buffer.put(i, zeros, 0, Math.min(zeros.length, buffer.capacity() - i));
+        }
+        buffer.force();
+    }
+
+    // posição = número do segmento nos 32 bits altos e offset nos baixos; sempre cresce
+    private static long marca(long segmento, int offset) {
+        return (segmento << 32) | offset;
+    }
+
+    private List<Long> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(dir)) {
+            return new ArrayList<>(arquivos
+                    .map(arquivo -> arquivo.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO))
+                    .map(nome -> Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private Path arquivo(long numero) {
+        return dir.resolve(PREFIXO + String.format("%016d", numero) + SUFIXO);
+    }
+
+    private static final class Segmento implements Closeable {
+
+        private final long numero;
+        private final FileChannel canal;
+        private final MappedByteBuffer buffer;
+        private int forcado; //até onde o force já foi feito (só a thread que faz o force mexe)
+
+        private Segmento(long numero, FileChannel canal, MappedByteBuffer buffer) {
+            this.numero = numero;
+            this.canal = canal;
+            this.buffer = buffer;
+        }
+
+        static Segmento abrir(Path arquivo, long numero, int tamanho) throws IOException {
+            FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            //o mapeamento continua válido depois de fechar o canal
+            return new Segmento(numero, canal, canal.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(tamanho, canal.size())));
+        }
+
+        long numero() {
+            return numero;
+        }
+
+        MappedByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
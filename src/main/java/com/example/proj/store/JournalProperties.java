@@ -0,0 +1,26 @@
+package com.example.proj.store;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuração da persistência dos stores (prefixo store.journal).
+ *
+ * @param enabled          liga o journal e os snapshots; desligado, os dados ficam só em memória
+ * @param dir              diretório dos segmentos do journal e dos snapshots
+ * @param segmentSize      tamanho de cada segmento do journal (arquivo mapeado em memória)
+ * @param fsync            se false, o save não espera o disco (sobrevive à queda do processo, não da máquina)
+ * @param snapshotInterval intervalo entre snapshots; cada snapshot permite apagar os segmentos que ele cobre
+ */
+@ConfigurationProperties(prefix = "store.journal")
+public record JournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data") Path dir,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("true") boolean fsync,
+        @DefaultValue("5m") Duration snapshotInterval) {
+}
@@ -0,0 +1,369 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Livro;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ÍNDICE INVERTIDO DA BUSCA DE LIVROS (título e autor)
+ *
+ * Cada palavra do título e do autor, normalizada (minúsculas e sem acento:
+ * "Programação" vira "programacao"), aponta para os livros que a contêm. O índice é
+ * atualizado pelo LivroStore a cada livro inserido, sem reconstrução (e a cada insert desfeito,
+ * quando o journal recusa o livro).
+ *
+ * Busca:
+ * - cada palavra da consulta casa com os termos que começam com ela ("prog" acha "programacao");
+ *   palavras de uma letra só casam inteiras
+ * - todas as palavras da consulta precisam aparecer no livro (título ou autor)
+ * - palavras muito comuns (de, da, o, a...) não são indexadas nem buscadas
+ * - os candidatos vêm da palavra mais rara da consulta; cada um é conferido e pontuado com as
+ *   palavras já normalizadas na indexação
+ *
+ * Pontuação de cada palavra da consulta: o melhor termo do livro que casa com ela, com
+ * peso do campo (título 2, autor 1) x (1 se igual, 0.5 se prefixo) x idf do termo.
+ * Empates ficam com o título mais curto e depois com o ID menor.
+ */
+public class LivroSearchIndex {
+
+    //acima disso a consulta é ampla demais: confere só os primeiros candidatos (total vira um mínimo)
+    static final int MAX_CANDIDATOS = 100_000;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos", "em", "na", "no", "nas", "nos",
+            "um", "uma", "por", "para", "com", "the", "of", "and");
+
+    private static final Comparator<Pontuado> ORDEM = Comparator.comparingDouble(Pontuado::score)
+            .thenComparing(Comparator.comparingInt(Pontuado::tamanhoTitulo).reversed())
+            .thenComparing(pontuado -> pontuado.livro().getId(), Comparator.reverseOrder());
+
+    private final ConcurrentSkipListMap<String, Postings> termos = new ConcurrentSkipListMap<>();
+    private final AtomicInteger documentos = new AtomicInteger();
+
+    /**
+     * Resultado da busca: os livros mais relevantes (até o limit pedido) e quantos livros casaram.
+     */
+    public record Resultado(List<Livro> livros, int total) {
+    }
+
+    /**
+     * Indexa o título e o autor do livro.
+     */
+    public void add(Livro livro) {
+        List<String> titulo = tokens(livro.getTitulo());
+        List<String> autor = tokens(livro.getAutor());
+        titulo.removeIf(STOPWORDS::contains);
+        autor.removeIf(STOPWORDS::contains);
+        //as palavras guardadas no documento são as mesmas Strings das chaves do índice
+        Documento documento = new Documento(livro, new String[titulo.size()], new String[autor.size()], titulo.size());
+        List<Postings> novos = new ArrayList<>(titulo.size() + autor.size());
+        indexar(titulo, documento.titulo(), novos);
+        indexar(autor, documento.autor(), novos);
+        for (Postings postings : novos) {
+            postings.add(documento);
+        }
+        documentos.incrementAndGet();
+    }
+
+    /**
+     * Tira do índice um livro indexado com {@link #add} (o mesmo objeto).
+     */
+    public void remove(Livro livro) {
+        List<String> palavras = tokens(livro.getTitulo());
+        palavras.addAll(tokens(livro.getAutor()));
+        palavras.removeIf(STOPWORDS::contains);
+        boolean removido = false;
+        for (String palavra : new LinkedHashSet<>(palavras)) {
+            Postings postings = termos.get(palavra);
+            if (postings != null) {
+                removido |= postings.remove(livro);
+            }
+        }
+        if (removido) {
+            documentos.decrementAndGet();
+        }
+    }
+
+    private void indexar(List<String> palavras, String[] termosDoCampo, List<Postings> novos) {
+        for (int i = 0; i < palavras.size(); i++) {
+            Postings postings = termos.computeIfAbsent(palavras.get(i), Postings::new);
+            termosDoCampo[i] = postings.termo;
+            //palavra repetida no mesmo livro só entra uma vez
+            if (!novos.contains(postings)) {
+                novos.add(postings);
+            }
+        }
+    }
+
+    /**
+     * Busca os livros que têm todas as palavras da consulta, do mais para o menos relevante.
+     */
+    public Resultado search(String consulta, int limit) {
+        List<String> palavras = tokens(consulta);
+        palavras.removeIf(STOPWORDS::contains);
+        if (palavras.isEmpty()) {
+            return new Resultado(List.of(), 0);
+        }
+
+        //cada palavra vira o conjunto de termos do índice que casam com ela (já com o peso de cada um);
+        //a mais rara define os candidatos, as outras só são conferidas em cada candidato
+        int n = documentos.get();
+        List<Palavra> resolvidas = new ArrayList<>(palavras.size());
+        Palavra maisRara = null;
+        for (String palavra : palavras) {
+            Palavra resolvida = resolver(palavra, n);
+            if (resolvida.livros == 0) {
+                return new Resultado(List.of(), 0);
+            }
+            resolvidas.add(resolvida);
+            if (maisRara == null || resolvida.livros < maisRara.livros) {
+                maisRara = resolvida;
+            }
+        }
+
+        PriorityQueue<Pontuado> melhores = new PriorityQueue<>(limit + 1, ORDEM);
+        int total = 0;
+        int conferidos = 0;
+        for (int ordem = 0; ordem < maisRara.postings.size() && conferidos < MAX_CANDIDATOS; ordem++) {
+            Postings postings = maisRara.postings.get(ordem);
+            int tamanho = postings.tamanho();
+            Documento[] lista = postings.documentos(); //depois do tamanho: o array lido tem pelo menos "tamanho" livros
+            for (int i = 0; i < tamanho && conferidos < MAX_CANDIDATOS; i++) {
+                Documento documento = lista[i];
+                if (documento == null) {
+                    continue; //livro removido depois deste leitor ler o tamanho
+                }
+                //um livro com "programa" e "programacao" aparece nos dois termos de "prog": conta só no primeiro
+                if (ordem > 0 && maisRara.primeiroTermo(documento) < ordem) {
+                    continue;
+                }
+                conferidos++;
+                double score = pontuar(documento, resolvidas);
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                //só cria o Pontuado se ele pode entrar entre os melhores
+                if (melhores.size() < limit || score >= melhores.peek().score()) {
+                    melhores.add(new Pontuado(documento.livro(), score, documento.palavrasTitulo()));
+                    if (melhores.size() > limit) {
+                        melhores.poll();
+                    }
+                }
+            }
+        }
+
+        Livro[] livros = new Livro[melhores.size()];
+        for (int i = livros.length - 1; i >= 0; i--) {
+            livros[i] = melhores.poll().livro();
+        }
+        return new Resultado(Arrays.asList(livros), total);
+    }
+
+    /**
+     * Quebra o texto em palavras normalizadas: minúsculas, sem acento, só letras e dígitos.
+     */
+    static List<String> tokens(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return tokens;
+        }
+        String normalizado = normalizar(texto);
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                tokens.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // minúsculas e sem acento; texto só com ASCII (o caso comum) não passa pelo Normalizer
+    private static String normalizar(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0x7F) {
+                String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+                StringBuilder semAcento = new StringBuilder(decomposto.length());
+                for (int j = 0; j < decomposto.length(); j++) {
+                    char c = decomposto.charAt(j);
+                    if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                        semAcento.append(Character.toLowerCase(c));
+                    }
+                }
+                return semAcento.toString();
+            }
+        }
+        return texto.toLowerCase(Locale.ROOT);
+    }
+
+    // termos que casam com a palavra: ela mesma e, com 2 letras ou mais, os que começam com ela
+    private Palavra resolver(String palavra, int n) {
+        Map<String, Postings> casados;
+        if (palavra.length() < 2) {
+            Postings postings = termos.get(palavra);
+            casados = postings == null ? Map.of() : Map.of(palavra, postings);
+        } else {
+            casados = termos.subMap(palavra, true, palavra + Character.MAX_VALUE, false);
+        }
+        Palavra resolvida = new Palavra();
+        for (Postings postings : casados.values()) {
+            int df = postings.tamanho();
+            if (df == 0) {
+                continue;
+            }
+            //termos raros valem mais: ln(1 + N/df); prefixo vale metade da palavra inteira
+            double idf = Math.log(1 + (double) n / df);
+            double casamento = postings.termo.equals(palavra) ? 1.0 : 0.5;
+            resolvida.termos.put(postings.termo, new Termo(casamento * idf, resolvida.postings.size()));
+            resolvida.postings.add(postings);
+            resolvida.livros += df;
+        }
+        return resolvida;
+    }
+
+    // pontua o livro, ou 0 se alguma palavra da consulta não aparece nele
+    private static double pontuar(Documento documento, List<Palavra> palavras) {
+        double score = 0;
+        for (Palavra palavra : palavras) {
+            double melhor = Math.max(palavra.pontuar(documento.titulo(), 2.0), palavra.pontuar(documento.autor(), 1.0));
+            if (melhor == 0) {
+                return 0;
+            }
+            score += melhor;
+        }
+        return score;
+    }
+
+    /**
+     * Livro indexado, com as palavras (sem stopwords) já normalizadas: a busca confere e
+     * pontua os candidatos sem normalizar o título e o autor de novo.
+     */
+    private record Documento(Livro livro, String[] titulo, String[] autor, int palavrasTitulo) {
+    }
+
+    /**
+     * Uma palavra da consulta resolvida no índice: os termos que casam com ela, em ordem.
+     */
+    private static final class Palavra {
+
+        private final Map<String, Termo> termos = new HashMap<>();
+        private final List<Postings> postings = new ArrayList<>();
+        private int livros; //com repetição: um livro pode estar em mais de um termo
+
+        double pontuar(String[] campo, double peso) {
+            double melhor = 0;
+            for (String palavra : campo) {
+                Termo termo = termos.get(palavra);
+                if (termo != null) {
+                    melhor = Math.max(melhor, peso * termo.peso());
+                }
+            }
+            return melhor;
+        }
+
+        int primeiroTermo(Documento documento) {
+            int primeiro = Integer.MAX_VALUE;
+            for (String palavra : documento.titulo()) {
+                Termo termo = termos.get(palavra);
+                if (termo != null) {
+                    primeiro = Math.min(primeiro, termo.ordem());
+                }
+            }
+            for (String palavra : documento.autor()) {
+                Termo termo = termos.get(palavra);
+                if (termo != null) {
+                    primeiro = Math.min(primeiro, termo.ordem());
+                }
+            }
+            return primeiro;
+        }
+    }
+
+    private record Termo(double peso, int ordem) {
+    }
+
+    private record Pontuado(Livro livro, double score, int tamanhoTitulo) {
+    }
+
+    /**
+     * Livros de um termo, em ordem de inserção. O add troca o array (quando enche) antes de
+     * publicar o novo tamanho, então quem lê tamanho e depois documentos nunca passa do fim.
+     * O remove (raro: só quando o journal recusa o livro) publica uma cópia sem o livro antes de
+     * diminuir o tamanho; quem leu o tamanho antigo acha um null na última posição e pula.
+     * Os adds do mesmo termo são serializados por um ReentrantLock e não por synchronized, que
+     * prenderia a carrier de uma virtual thread esperando a vez.
+     */
+    private static final class Postings {
+
+        private final String termo;
+        private final ReentrantLock escrita = new ReentrantLock();
+        private volatile Documento[] documentos = new Documento[1];
+        private volatile int tamanho;
+
+        Postings(String termo) {
+            this.termo = termo;
+        }
+
+        void add(Documento documento) {
+            escrita.lock();
+            try {
+                Documento[] atual = documentos;
+                if (tamanho == atual.length) {
+                    atual = Arrays.copyOf(atual, tamanho * 2);
+                    atual[tamanho] = documento;
+                    documentos = atual;
+                } else {
+                    atual[tamanho] = documento;
+                }
+                tamanho = tamanho + 1;
+            } finally {
+                escrita.unlock();
+            }
+        }
+
+        boolean remove(Livro livro) {
+            escrita.lock();
+            try {
+                Documento[] atual = documentos;
+                for (int i = 0; i < tamanho; i++) {
+                    if (atual[i].livro() == livro) {
+                        Documento[] copia = new Documento[atual.length];
+                        System.arraycopy(atual, 0, copia, 0, i);
+                        System.arraycopy(atual, i + 1, copia, i, tamanho - i - 1);
+                        documentos = copia;
+                        tamanho = tamanho - 1;
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                escrita.unlock();
+            }
+        }
+
+        int tamanho() {
+            return tamanho;
+        }
+
+        Documento[] documentos() {
+            return documentos;
+        }
+    }
+}
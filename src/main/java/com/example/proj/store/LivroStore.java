@@ -0,0 +1,253 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Livro;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ARMAZENAMENTO THREAD-SAFE DOS LIVROS
+ *
+ * Substitui a ArrayList que ficava dentro do LivroController. Todas as
+ * estruturas são concorrentes, então vários POST/GET simultâneos não perdem
+ * escritas nem geram IDs repetidos.
+ *
+ * - livrosPorId: busca O(1) pelo ID
+ * - livrosOrdenados: mesma coleção ordenada por ID (para listar na ordem de criação)
+ * - idPorIsbn: índice único por ISBN
+ * - idsPorAutor: índice secundário por autor (um autor tem vários livros)
+ * - searchIndex: índice invertido das palavras do título e do autor, para a busca
+ *
+ * Com store.journal.enabled=true cada livro criado também vai para o Journal (ver StorePersistence).
+ */
+@Component
+public class LivroStore {
+
+    //valor no idPorIsbn enquanto o insert está em andamento (findById(-1) não acha nada)
+    private static final Long RESERVADO = -1L;
+
+    private final ConcurrentHashMap<Long, Livro> livrosPorId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Livro> livrosOrdenados = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> idPorIsbn = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> idsPorAutor = new ConcurrentHashMap<>();
+    private final LivroSearchIndex searchIndex = new LivroSearchIndex();
+    private final AtomicLong nextId = new AtomicLong(1L); //próximo ID disponível, incrementado de forma atômica
+    private volatile Journal journal; //null quando a persistência está desligada (store.journal.enabled=false)
+
+    public LivroStore() {
+        // Dados iniciais
+        save(new Livro(null, "Spring Boot in Action", "Craig Walls", "978-1617292545"));
+        save(new Livro(null, "Clean Code", "Robert Martin", "978-0132350884"));
+    }
+
+    /**
+     * Salva um novo livro, gerando o ID de forma atômica.
+     * Com o journal ligado, só retorna depois do livro estar gravado no disco.
+     *
+     * @return o livro salvo, ou vazio se já existir outro livro com o mesmo ISBN
+     */
+    public Optional<Livro> save(Livro livro) {
+        long posicao = gravar(livro);
+        if (posicao < 0) {
+            return Optional.empty();
+        }
+        sync(posicao);
+        return Optional.of(livro);
+    }
+
+    /**
+     * Salva um lote de livros em uma única passada, na ordem recebida.
+     * Cada item passa pelo mesmo índice único do {@link #save}, então um ISBN repetido
+     * (já existente ou repetido dentro do próprio lote) só recusa aquele item.
+     * O lote inteiro vai para o disco com um único sync no journal.
+     *
+     * @return um resultado por item, na mesma ordem: o livro salvo ou vazio se o ISBN já estava em uso
+     */
+    public List<Optional<Livro>> saveAll(List<Livro> livros) {
+        List<Optional<Livro>> resultados = new ArrayList<>(livros.size());
+        long ultima = 0;
+        for (Livro livro : livros) {
+            long posicao = gravar(livro);
+            resultados.add(posicao < 0 ? Optional.empty() : Optional.of(livro));
+            ultima = Math.max(ultima, posicao);
+        }
+        sync(ultima);
+        return resultados;
+    }
+
+    public Optional<Livro> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(livrosPorId.get(id));
+    }
+
+    public Optional<Livro> findByIsbn(String isbn) {
+        String chave = chave(isbn);
+        return chave == null ? Optional.empty() : findById(idPorIsbn.get(chave));
+    }
+
+    public List<Livro> findByAutor(String autor) {
+        String chave = chave(autor);
+        Set<Long> ids = chave == null ? null : idsPorAutor.get(chave);
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream()
+                .sorted()
+                .map(livrosPorId::get)
+                .toList();
+    }
+
+    /**
+     * Busca por palavras do título e do autor, sem diferenciar acentos e maiúsculas,
+     * do livro mais para o menos relevante (ver {@link LivroSearchIndex}).
+     */
+    public LivroSearchIndex.Resultado search(String consulta, int limit) {
+        return searchIndex.search(consulta, limit);
+    }
+
+    /**
+     * Visão (somente leitura, ordenada por ID) de todos os livros.
+     * Não copia nada: é segura para iterar enquanto outras threads escrevem.
+     */
+    public Collection<Livro> findAll() {
+        return livrosOrdenados.values();
+    }
+
+    /**
+     * Paginação por cursor (keyset no ID): devolve até {@code limit} livros com ID
+     * maior que {@code after}. Não usa offset, então o custo é o mesmo em qualquer página.
+     *
+     * @param after último ID da página anterior, ou null para começar do início
+     */
+    public List<Livro> findPage(Long after, int limit) {
+        var depois = after == null ? livrosOrdenados : livrosOrdenados.tailMap(after, false);
+        return depois.values().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Indica se existe algum livro com ID maior que o informado (ou seja, se há próxima página).
+     */
+    public boolean hasAfter(Long id) {
+        return livrosOrdenados.higherKey(id) != null;
+    }
+
+    public int count() {
+        return livrosPorId.size();
+    }
+
+    /**
+     * Coloca no store um livro lido do snapshot ou do journal, com o ID que ele já tinha.
+     * Pode ser chamado mais de uma vez para o mesmo livro (o snapshot e o journal se sobrepõem).
+     */
+    void restore(Livro livro) {
+        Long id = livro.getId();
+        nextId.accumulateAndGet(id + 1, Math::max);
+        if (livrosPorId.containsKey(id)) {
+            return; //livros nunca mudam depois de criados: é o mesmo livro, e o searchIndex não pode repeti-lo
+        }
+        index(livro);
+        String isbn = chave(livro.getIsbn());
+        if (isbn != null) {
+            idPorIsbn.put(isbn, id);
+        }
+    }
+
+    /**
+     * Liga (ou desliga, com null) o journal: a partir daqui todo livro salvo é gravado nele.
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    // insere no store e no journal; devolve a posição no journal (0 sem journal) ou -1 se o ISBN já existir
+    private long gravar(Livro livro) {
+        String isbn = chave(livro.getIsbn());
+        if (isbn == null) {
+            return insert(livro);
+        }
+
+        // o ISBN é reservado com putIfAbsent antes do insert, então dois POST com o mesmo
+        // ISBN nunca criam dois livros, e ISBNs diferentes não se bloqueiam. O insert (que
+        // pode esperar a trava do journal) não roda dentro de um computeIfAbsent: esperar
+        // com o "balde" do ConcurrentHashMap travado prende a carrier da virtual thread
+        if (idPorIsbn.putIfAbsent(isbn, RESERVADO) != null) {
+            return -1;
+        }
+        try {
+            long posicao = insert(livro);
+            idPorIsbn.put(isbn, livro.getId());
+            return posicao;
+        } catch (RuntimeException e) {
+            idPorIsbn.remove(isbn, RESERVADO);
+            throw e;
+        }
+    }
+
+    // o livro entra no store antes do journal: um snapshot iniciado depois do append sempre o enxerga.
+    // Se o append falha (disco cheio, registro grande demais, journal fechado no shutdown) o livro sai
+    // de todos os índices antes da exceção: o cliente recebe erro e o livro não pode continuar visível
+    private long insert(Livro livro) {
+        livro.setId(nextId.getAndIncrement());
+        index(livro);
+        Journal atual = journal;
+        if (atual == null) {
+            return 0;
+        }
+        try {
+            return atual.append(Registros.livro(livro));
+        } catch (RuntimeException e) {
+            unindex(livro);
+            throw e;
+        }
+    }
+
+    // usa o mesmo Long do livro em todos os índices, em vez de um boxing por índice
+    private void index(Livro livro) {
+        Long id = livro.getId();
+        livrosPorId.put(id, livro);
+        livrosOrdenados.put(id, livro);
+
+        String autor = chave(livro.getAutor());
+        if (autor != null) {
+            idsPorAutor.computeIfAbsent(autor, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        searchIndex.add(livro);
+    }
+
+    private void unindex(Livro livro) {
+        Long id = livro.getId();
+        searchIndex.remove(livro);
+        String autor = chave(livro.getAutor());
+        Set<Long> ids = autor == null ? null : idsPorAutor.get(autor);
+        if (ids != null) {
+            ids.remove(id);
+        }
+        livrosOrdenados.remove(id, livro);
+        livrosPorId.remove(id, livro);
+    }
+
+    // espera o journal gravar até a posição; depois do insert, sem segurar nenhuma reserva durante o fsync
+    private void sync(long posicao) {
+        Journal atual = journal;
+        if (atual != null && posicao > 0) {
+            atual.sync(posicao);
+        }
+    }
+
+    // ISBN e autor são comparados sem diferenciar maiúsculas/minúsculas e espaços nas pontas
+    private static String chave(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        return valor.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Livro;
+import com.example.proj.model.Usuario;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato binário dos livros e usuários no journal e no snapshot.
+ *
+ * [tipo byte][id long][campos...], cada campo texto como [tamanho int][UTF-8], com tamanho -1 para null.
+ */
+final class Registros {
+
+    static final byte LIVRO = 1;
+    static final byte USUARIO = 2;
+
+    private Registros() {
+    }
+
+    static byte[] livro(Livro livro) {
+        byte[] titulo = bytes(livro.getTitulo());
+        byte[] autor = bytes(livro.getAutor());
+        byte[] isbn = bytes(livro.getIsbn());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + tamanho(titulo) + tamanho(autor) + tamanho(isbn));
+        buffer.put(LIVRO).putLong(livro.getId());
+        put(buffer, titulo);
+        put(buffer, autor);
+        put(buffer, isbn);
+        return buffer.array();
+    }
+
+    static byte[] usuario(Usuario usuario) {
+        byte[] nome = bytes(usuario.getNome());
+        byte[] email = bytes(usuario.getEmail());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + tamanho(nome) + tamanho(email));
+        buffer.put(USUARIO).putLong(usuario.getId());
+        put(buffer, nome);
+        put(buffer, email);
+        return buffer.array();
+    }
+
+    static byte tipo(ByteBuffer buffer) {
+        return buffer.get();
+    }
+
+    // lê o livro que vem depois do tipo
+    static Livro lerLivro(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        return new Livro(id, texto(buffer), texto(buffer), texto(buffer));
+    }
+
+    // lê o usuário que vem depois do tipo
+    static Usuario lerUsuario(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        return new Usuario(id, texto(buffer), texto(buffer));
+    }
+
+    private static byte[] bytes(String valor) {
+        return valor == null ? null : valor.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int tamanho(byte[] valor) {
+        return 4 + (valor == null ? 0 : valor.length);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] valor) {
+        if (valor == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(valor.length).put(valor);
+    }
+
+    private static String texto(ByteBuffer buffer) {
+        int tamanho = buffer.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] valor = new byte[tamanho];
+        buffer.get(valor);
+        return new String(valor, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.proj.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * PERSISTÊNCIA DOS STORES: SNAPSHOT + JOURNAL
+ *
+ * Na criação restaura o LivroStore e o UsuarioStore a partir do último snapshot e
+ * reaplica o resto do journal (o que foi gravado depois do snapshot); só então liga o
+ * journal nos stores, então a aplicação só atende requests com os dados já carregados.
+ *
+ * O snapshot (snapshot-NNNN.bin) é uma cópia compacta de todos os livros e usuários.
+ * Antes de gerá-lo o journal rola para o segmento NNNN: tudo que está nos segmentos
+ * anteriores já foi inserido nos stores e aparece no snapshot, então esses segmentos são
+ * apagados. Registros do segmento NNNN que também entraram no snapshot são reaplicados
+ * sem efeito (o restore é por ID).
+ *
+ * Formato: [mágico][versão][segmento], depois os registros no mesmo formato do journal
+ * ([tamanho][crc32c][payload]), com tamanho 0 separando livros de usuários e no fim.
+ */
+public class StorePersistence implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(StorePersistence.class);
+
+    private static final String PREFIXO = "snapshot-";
+    private static final String SUFIXO = ".bin";
+    private static final int MAGICO = 0x4C425353; //"LBSS"
+    private static final int VERSAO = 1;
+
+    private final Path dir;
+    private final LivroStore livroStore;
+    private final UsuarioStore usuarioStore;
+    private final Journal journal;
+    private final ScheduledExecutorService agendador;
+
+    private final ReentrantLock snapshot = new ReentrantLock();
+    private long coberto; //posição do journal no último snapshot (ou na abertura); guardado pela trava snapshot
+
+    public StorePersistence(LivroStore livroStore, UsuarioStore usuarioStore, JournalProperties properties) throws IOException {
+        this.dir = Files.createDirectories(properties.dir());
+        this.livroStore = livroStore;
+        this.usuarioStore = usuarioStore;
+
+        long inicio = System.nanoTime();
+        long desde = restaurarSnapshot();
+        long[] reaplicados = {0};
+        this.journal = new Journal(dir, Math.toIntExact(properties.segmentSize().toBytes()), properties.fsync(), desde, registro -> {
+            aplicar(registro);
+            reaplicados[0]++;
+        });
+        //sem nada no journal depois do snapshot, o snapshot atual já cobre tudo
+        coberto = reaplicados[0] == 0 ? journal.posicao() : -1;
+        log.info("Stores restaurados de {} em {} ms: {} livros, {} usuarios ({} registros do journal)", dir,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), livroStore.count(), usuarioStore.count(), reaplicados[0]);
+
+        livroStore.setJournal(journal);
+        usuarioStore.setJournal(journal);
+
+        Duration intervalo = properties.snapshotInterval();
+        if (intervalo.isZero()) {
+            agendador = null;
+            return;
+        }
+        agendador = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("store-snapshot").daemon().factory());
+        agendador.scheduleWithFixedDelay(this::snapshotAgendado, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Grava um snapshot de todos os livros e usuários e apaga os segmentos do journal que ele cobre.
+     * Não faz nada se nada foi gravado desde o último snapshot. Os stores continuam aceitando
+     * escritas enquanto o snapshot é gerado.
+     */
+    public void snapshot() throws IOException {
+        snapshot.lock();
+        try {
+            if (journal.posicao() == coberto) {
+                return;
+            }
+            long segmento = journal.rolar();
+            coberto = journal.posicao();
+
+            Path arquivo = arquivo(segmento);
+            Path temporario = dir.resolve(arquivo.getFileName() + ".tmp");
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16));
+                saida.writeInt(MAGICO);
+                saida.writeInt(VERSAO);
+                saida.writeLong(segmento);
+                escrever(saida, livroStore.findAll(), Registros::livro);
+                escrever(saida, usuarioStore.findAll(), Registros::usuario);
+                saida.flush();
+                canal.force(true);
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for (long antigo : snapshots()) {
+                if (antigo < segmento) {
+                    Files.deleteIfExists(arquivo(antigo));
+                }
+            }
+            journal.descartarAte(segmento);
+        } finally {
+            snapshot.unlock();
+        }
+    }
+
+    /**
+     * Para o agendador, grava um último snapshot (o próximo start não precisa reaplicar o journal) e fecha o journal.
+     */
+    @Override
+    public void close() throws IOException {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void snapshotAgendado() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            //o journal continua valendo; o próximo snapshot tenta de novo
+            log.warn("Falha ao gravar o snapshot dos stores em {}", dir, e);
+        }
+    }
+
+    // carrega o snapshot mais recente e devolve o segmento do journal a partir do qual reaplicar
+    private long restaurarSnapshot() throws IOException {
+        List<Long> existentes = snapshots();
+        if (existentes.isEmpty()) {
+            return 1;
+        }
+        long segmento = existentes.get(existentes.size() - 1);
+        Path arquivo = arquivo(segmento);
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO || entrada.readLong() != segmento) {
+                throw new IllegalStateException("Snapshot inválido: " + arquivo);
+            }
+            CRC32C crc = new CRC32C();
+            for (int secao = 0; secao < 2; secao++) {
+                for (int tamanho = entrada.readInt(); tamanho > 0; tamanho = entrada.readInt()) {
+                    int esperado = entrada.readInt();
+                    byte[] payload = entrada.readNBytes(tamanho);
+                    crc.reset();
+                    crc.update(payload);
+                    if (payload.length != tamanho || (int) crc.getValue() != esperado) {
+                        throw new IllegalStateException("Snapshot corrompido: " + arquivo);
+                    }
+                    aplicar(ByteBuffer.wrap(payload));
+                }
+            }
+        }
+        return segmento;
+    }
+
+    // aplica um registro do snapshot ou do journal no store certo
+    private void aplicar(ByteBuffer registro) {
+        byte tipo = Registros.tipo(registro);
+        switch (tipo) {
+            case Registros.LIVRO -> livroStore.restore(Registros.lerLivro(registro));
+            case Registros.USUARIO -> usuarioStore.restore(Registros.lerUsuario(registro));
+            default -> throw new IllegalStateException("Tipo de registro desconhecido: " + tipo);
+        }
+    }
+
+    private static <T> void escrever(DataOutputStream saida, Collection<T> itens, Function<T, byte[]> formato) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (T item : itens) {
+            byte[] payload = formato.apply(item);
+            crc.reset();
+            crc.update(payload);
+            saida.writeInt(payload.length);
+            saida.writeInt((int) crc.getValue());
+            saida.write(payload);
+        }
+        saida.writeInt(0); //fim da seção
+    }
+
+    private List<Long> snapshots() throws IOException {
+        try (Stream<Path> arquivos = Files.list(dir)) {
+            return arquivos
+                    .map(arquivo -> arquivo.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO))
+                    .map(nome -> Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path arquivo(long segmento) {
+        return dir.resolve(PREFIXO + String.format("%016d", segmento) + SUFIXO);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Usuario;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ARMAZENAMENTO THREAD-SAFE DOS USUÁRIOS
+ *
+ * Usado pelo UsuarioSoapController, que é chamado ao mesmo tempo por várias
+ * threads do MessageDispatcherServlet. Nenhuma operação usa lock global:
+ * as leituras são lock-free e a criação só reserva o email no ConcurrentHashMap
+ * (putIfAbsent), sem segurar trava enquanto grava.
+ *
+ * - usuariosPorId: busca O(1) pelo ID
+ * - usuariosOrdenados: mesma coleção ordenada por ID
+ * - idPorEmail: índice único email → id, garante que não existam dois usuários com o mesmo email
+ *
+ * Com store.journal.enabled=true cada usuário criado também vai para o Journal (ver StorePersistence).
+ */
+@Component
+public class UsuarioStore {
+
+    //valor no idPorEmail enquanto o insert está em andamento (findById(-1) não acha nada)
+    private static final Long RESERVADO = -1L;
+
+    private final ConcurrentHashMap<Long, Usuario> usuariosPorId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Usuario> usuariosOrdenados = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> idPorEmail = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1L); //próximo ID disponível, incrementado de forma atômica
+    private volatile Journal journal; //null quando a persistência está desligada (store.journal.enabled=false)
+
+    public UsuarioStore() {
+        // Dados iniciais
+        save(new Usuario(null, "João Silva", "joao@email.com"));
+        save(new Usuario(null, "Maria Santos", "maria@email.com"));
+    }
+
+    /**
+     * Salva um novo usuário, gerando o ID de forma atômica.
+     * Com o journal ligado, só retorna depois do usuário estar gravado no disco.
+     *
+     * @return o usuário salvo, ou vazio se o email já estiver em uso
+     */
+    public Optional<Usuario> save(Usuario usuario) {
+        long posicao = gravar(usuario);
+        if (posicao < 0) {
+            return Optional.empty();
+        }
+        sync(posicao);
+        return Optional.of(usuario);
+    }
+
+    /**
+     * Salva um lote de usuarios em uma única passada, na ordem recebida.
+     * Cada item passa pelo mesmo índice único do {@link #save}, então um email repetido
+     * (já existente ou repetido dentro do próprio lote) só recusa aquele item.
+     * O lote inteiro vai para o disco com um único sync no journal.
+     *
+     * @return um resultado por item, na mesma ordem: o usuario salvo ou vazio se o email já estava em uso
+     */
+    public List<Optional<Usuario>> saveAll(List<Usuario> usuarios) {
+        List<Optional<Usuario>> resultados = new ArrayList<>(usuarios.size());
+        long ultima = 0;
+        for (Usuario usuario : usuarios) {
+            long posicao = gravar(usuario);
+            resultados.add(posicao < 0 ? Optional.empty() : Optional.of(usuario));
+            ultima = Math.max(ultima, posicao);
+        }
+        sync(ultima);
+        return resultados;
+    }
+
+    public Optional<Usuario> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(usuariosPorId.get(id));
+    }
+
+    public Optional<Usuario> findByEmail(String email) {
+        String chave = chave(email);
+        return chave == null ? Optional.empty() : findById(idPorEmail.get(chave));
+    }
+
+    /**
+     * Visão (somente leitura, ordenada por ID) de todos os usuários.
+     * Não copia nada: é segura para iterar enquanto outras threads escrevem.
+     */
+    public Collection<Usuario> findAll() {
+        return usuariosOrdenados.values();
+    }
+
+    /**
+     * Visão (ordenada por ID) dos usuários com ID maior que {@code after}.
+     * É usada na paginação por cursor e no modo streaming: nada é copiado,
+     * os usuários são lidos à medida que a coleção é percorrida.
+     *
+     * @param after último ID já entregue, ou null para começar do início
+     */
+    public Collection<Usuario> findAfter(Long after) {
+        return after == null ? usuariosOrdenados.values() : usuariosOrdenados.tailMap(after, false).values();
+    }
+
+    /**
+     * Indica se existe algum usuário com ID maior que o informado (ou seja, se há próxima página).
+     */
+    public boolean hasAfter(Long id) {
+        return usuariosOrdenados.higherKey(id) != null;
+    }
+
+    public int count() {
+        return usuariosPorId.size();
+    }
+
+    /**
+     * Coloca no store um usuário lido do snapshot ou do journal, com o ID que ele já tinha.
+     * Pode ser chamado mais de uma vez para o mesmo usuário (o snapshot e o journal se sobrepõem).
+     */
+    void restore(Usuario usuario) {
+        Long id = usuario.getId();
+        nextId.accumulateAndGet(id + 1, Math::max);
+        usuariosPorId.put(id, usuario);
+        usuariosOrdenados.put(id, usuario);
+        String email = chave(usuario.getEmail());
+        if (email != null) {
+            idPorEmail.put(email, id);
+        }
+    }
+
+    /**
+     * Liga (ou desliga, com null) o journal: a partir daqui todo usuário salvo é gravado nele.
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    // insere no store e no journal; devolve a posição no journal (0 sem journal) ou -1 se o email já existir
+    private long gravar(Usuario usuario) {
+        String email = chave(usuario.getEmail());
+        if (email == null) {
+            return insert(usuario);
+        }
+
+        // o email é reservado com putIfAbsent antes de gerar o ID, então um email duplicado
+        // não "queima" nenhum ID e dois cadastros simultâneos nunca passam juntos. O insert
+        // (que pode esperar a trava do journal) não roda dentro de um computeIfAbsent: esperar
+        // com o "balde" do ConcurrentHashMap travado prende a carrier da virtual thread
+        if (idPorEmail.putIfAbsent(email, RESERVADO) != null) {
+            return -1;
+        }
+        try {
+            long posicao = insert(usuario);
+            idPorEmail.put(email, usuario.getId());
+            return posicao;
+        } catch (RuntimeException e) {
+            idPorEmail.remove(email, RESERVADO);
+            throw e;
+        }
+    }
+
+    // o usuário entra no store antes do journal: um snapshot iniciado depois do append sempre o enxerga.
+    // Se o append falha o usuário sai do store antes da exceção, para não ficar visível depois do erro
+    private long insert(Usuario usuario) {
+        Long id = nextId.getAndIncrement(); //o mesmo Long em todos os índices
+        usuario.setId(id);
+        usuariosPorId.put(id, usuario);
+        usuariosOrdenados.put(id, usuario);
+        Journal atual = journal;
+        if (atual == null) {
+            return 0;
+        }
+        try {
+            return atual.append(Registros.usuario(usuario));
+        } catch (RuntimeException e) {
+            usuariosOrdenados.remove(id, usuario);
+            usuariosPorId.remove(id, usuario);
+            throw e;
+        }
+    }
+
+    // espera o journal gravar até a posição; depois do insert, sem segurar nenhuma reserva durante o fsync
+    private void sync(long posicao) {
+        Journal atual = journal;
+        if (atual != null && posicao > 0) {
+            atual.sync(posicao);
+        }
+    }
+
+    // emails são comparados sem diferenciar maiúsculas/minúsculas e espaços nas pontas
+    private static String chave(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
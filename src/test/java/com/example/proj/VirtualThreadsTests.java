@@ -0,0 +1,77 @@
+package com.example.proj;
+
+import com.example.proj.gateway.LivrosBackend;
+import com.example.proj.gateway.UsuariosBackend;
+import com.example.proj.store.UsuarioStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@SpyBean
+	private LivrosBackend livrosBackend;
+
+	@SpyBean
+	private UsuariosBackend usuariosBackend;
+
+	@SpyBean
+	private UsuarioStore usuarioStore;
+
+	private final Map<String, Boolean> virtual = new ConcurrentHashMap<>();
+
+	@AfterEach
+	void resetSpies() {
+		Mockito.reset(livrosBackend, usuariosBackend, usuarioStore);
+	}
+
+	@Test
+	void restGatewayAndSoapRequestsRunOnVirtualThreads() {
+		doAnswer(invocation -> {
+			virtual.put("gateway livros", Thread.currentThread().isVirtual());
+			return invocation.callRealMethod();
+		}).when(livrosBackend).getLivroById(anyLong());
+		doAnswer(invocation -> {
+			virtual.put("gateway usuarios", Thread.currentThread().isVirtual());
+			return invocation.callRealMethod();
+		}).when(usuariosBackend).getUsuario(any());
+		doAnswer(invocation -> {
+			virtual.put("ws", Thread.currentThread().isVirtual());
+			return invocation.callRealMethod();
+		}).when(usuarioStore).findByEmail(any());
+
+		assertThat(restTemplate.getForEntity("/gateway/livros/1", String.class).getStatusCode().value()).isEqualTo(200);
+		assertThat(restTemplate.getForEntity("/gateway/usuarios/1", String.class).getStatusCode().value()).isEqualTo(200);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.TEXT_XML);
+		ResponseEntity<String> soap = restTemplate.postForEntity("/ws", new HttpEntity<>("""
+				<soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+				<soapenv:Body><usr:getUsuarioByEmailRequest><usr:email>maria@email.com</usr:email></usr:getUsuarioByEmailRequest></soapenv:Body>
+				</soapenv:Envelope>""", headers), String.class);
+		assertThat(soap.getBody()).contains("Maria Santos");
+
+		assertThat(virtual).containsOnlyKeys("gateway livros", "gateway usuarios", "ws").doesNotContainValue(false);
+	}
+
+}
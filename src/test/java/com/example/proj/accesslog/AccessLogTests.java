@@ -0,0 +1,245 @@
+package com.example.proj.accesslog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogTests {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final List<String> linhas = new CopyOnWriteArrayList<>();
+	private AccessLog accessLog;
+
+	@AfterEach
+	void fechar() {
+		if (accessLog != null) {
+			accessLog.close();
+		}
+	}
+
+	@Test
+	void ringBufferKeepsTheOrderAndRefusesWhenFull() {
+		RingBuffer<Integer> fila = new RingBuffer<>(3);
+		assertThat(fila.capacidade()).isEqualTo(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(fila.offer(i)).isTrue();
+		}
+		assertThat(fila.offer(4)).isFalse();
+		assertThat(fila.size()).isEqualTo(4);
+
+		assertThat(fila.poll()).isZero();
+		assertThat(fila.offer(4)).isTrue();
+		List<Integer> resto = new ArrayList<>();
+		for (Integer item = fila.poll(); item != null; item = fila.poll()) {
+			resto.add(item);
+		}
+		assertThat(resto).containsExactly(1, 2, 3, 4);
+		assertThat(fila.size()).isZero();
+	}
+
+	@Test
+	void ringBufferDeliversEveryItemOnceWithConcurrentProducers() throws Exception {
+		RingBuffer<Integer> fila = new RingBuffer<>(64);
+		int produtores = 4;
+		int porProdutor = 20_000;
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < produtores; p++) {
+			int base = p * porProdutor;
+			threads.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < porProdutor; i++) {
+					while (!fila.offer(base + i)) {
+						Thread.onSpinWait();
+					}
+				}
+			}));
+		}
+
+		boolean[] vistos = new boolean[produtores * porProdutor];
+		int[] ultimoPorProdutor = new int[produtores];
+		Arrays.fill(ultimoPorProdutor, -1);
+		for (int recebidos = 0; recebidos < vistos.length; ) {
+			Integer item = fila.poll();
+			if (item == null) {
+				Thread.onSpinWait();
+				continue;
+			}
+			assertThat(vistos[item]).as("item %d entregue duas vezes", item).isFalse();
+			vistos[item] = true;
+			//cada produtor sai na ordem em que colocou
+			assertThat(item).isGreaterThan(ultimoPorProdutor[item / porProdutor]);
+			ultimoPorProdutor[item / porProdutor] = item;
+			recebidos++;
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(fila.poll()).isNull();
+	}
+
+	@Test
+	void slowDiskDropsRecordsWithoutBlockingTheRequestThreads() throws Exception {
+		CountDownLatch liberar = new CountDownLatch(1);
+		accessLog = new AccessLog(8, linha -> {
+			try {
+				liberar.await(); //disco travado
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			linhas.add(linha);
+		});
+
+		long inicio = System.nanoTime();
+		int aceitos = 0;
+		for (int i = 0; i < 1_000; i++) {
+			if (accessLog.registrar(registro("/api/livros/" + i))) {
+				aceitos++;
+			}
+		}
+		assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(1));
+		//a fila (8) mais o registro parado na gravação
+		assertThat(aceitos).isBetween(8, 9);
+		assertThat(accessLog.descartados()).isEqualTo(1_000 - aceitos);
+
+		liberar.countDown();
+		int esperados = aceitos;
+		aguardar(() -> accessLog.gravados() == esperados);
+		assertThat(linhas).hasSize(esperados);
+		assertThat(accessLog.pendentes()).isZero();
+	}
+
+	@Test
+	void eachRequestBecomesOneCompactRecordWithRouteStatusSizeAndDuration() throws Exception {
+		AccessLogFilter filter = filter(0);
+		MockHttpServletRequest request = request("GET", "/gateway/usuarios/7");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {
+			req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/gateway/usuarios/{id}");
+			res.setContentType("application/json");
+			res.getOutputStream().write("{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+		});
+
+		JsonNode registro = unicoRegistro();
+		assertThat(registro.get("method").asText()).isEqualTo("GET");
+		assertThat(registro.get("path").asText()).isEqualTo("/gateway/usuarios/7");
+		assertThat(registro.get("route").asText()).isEqualTo("/gateway/usuarios/{id}");
+		assertThat(registro.get("status").asInt()).isEqualTo(200);
+		assertThat(registro.get("bytes").asLong()).isEqualTo(8);
+		assertThat(registro.get("durationMs").asDouble()).isGreaterThanOrEqualTo(0);
+		assertThat(registro.get("client").asText()).isEqualTo("127.0.0.1");
+		assertThat(registro.has("operation")).isFalse();
+		assertThat(registro.has("requestBody")).isFalse();
+		assertThat(registro.has("responseBody")).isFalse();
+		assertThat(response.getContentAsString()).isEqualTo("{\"id\":7}");
+	}
+
+	@Test
+	void sampledSoapRequestCarriesTheOperationAndTheTruncatedPayloads() throws Exception {
+		AccessLogFilter filter = filter(1);
+		MockHttpServletRequest request = request("POST", "/ws");
+		request.setContentType("text/xml; charset=utf-8");
+		request.setContent("<getUsuarioRequest><id>1</id></getUsuarioRequest>".getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		String resposta = "<getUsuarioResponse>" + "x".repeat(100) + "</getUsuarioResponse>";
+		filter.doFilter(request, response, (req, res) -> {
+			StreamUtils.copyToByteArray(req.getInputStream());
+			req.setAttribute(AccessLogFilter.OPERACAO, "getUsuarioRequest");
+			res.setContentType("text/xml;charset=UTF-8");
+			res.getWriter().write(resposta);
+		});
+
+		JsonNode registro = unicoRegistro();
+		assertThat(registro.get("route").asText()).isEqualTo("/ws");
+		assertThat(registro.get("operation").asText()).isEqualTo("getUsuarioRequest");
+		assertThat(registro.get("bytes").asLong()).isEqualTo(resposta.length());
+		assertThat(registro.get("requestBody").asText()).isEqualTo("<getUsuarioRequest><id>1</id></getUsuarioRequest>".substring(0, 32));
+		assertThat(registro.get("responseBody").asText()).isEqualTo(resposta.substring(0, 32));
+		assertThat(response.getContentAsString()).isEqualTo(resposta);
+	}
+
+	@Test
+	void surrogatePairSplitAcrossWriterCallsIsEncodedWhole() throws Exception {
+		AccessLogFilter filter = filter(1);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		String resposta = "{\"titulo\":\"\uD83D\uDCDA\"}";
+		int metade = resposta.indexOf('\uDCDA');
+		filter.doFilter(request("GET", "/api/livros/1"), response, (req, res) -> {
+			res.setContentType("application/json;charset=UTF-8");
+			res.getWriter().write(resposta, 0, metade);
+			res.getWriter().write(resposta, metade, resposta.length() - metade);
+		});
+
+		JsonNode registro = unicoRegistro();
+		assertThat(registro.get("bytes").asLong()).isEqualTo(resposta.getBytes(StandardCharsets.UTF_8).length);
+		assertThat(registro.get("responseBody").asText()).isEqualTo(resposta);
+		assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(resposta);
+	}
+
+	@Test
+	void exceptionInTheChainIsRecordedAs500AndOtherPathsAreNotRecorded() throws Exception {
+		AccessLogFilter filter = filter(0);
+		FilterChain falha = (req, res) -> {
+			throw new IllegalStateException("backend");
+		};
+		try {
+			filter.doFilter(request("GET", "/api/livros"), new MockHttpServletResponse(), falha);
+		} catch (IllegalStateException e) {
+			//o container responde 500
+		}
+		filter.doFilter(request("GET", "/actuator/prometheus"), new MockHttpServletResponse(), (req, res) -> { });
+		filter.doFilter(request("GET", "/index.html"), new MockHttpServletResponse(), (req, res) -> { });
+
+		JsonNode registro = unicoRegistro();
+		assertThat(registro.get("path").asText()).isEqualTo("/api/livros");
+		assertThat(registro.get("status").asInt()).isEqualTo(500);
+	}
+
+	private AccessLogFilter filter(double amostragem) {
+		accessLog = new AccessLog(16, linhas::add);
+		return new AccessLogFilter(new AccessLogProperties(true, 16, null, amostragem, DataSize.ofBytes(32)), accessLog);
+	}
+
+	private JsonNode unicoRegistro() throws Exception {
+		aguardar(() -> !linhas.isEmpty());
+		accessLog.close();
+		assertThat(linhas).hasSize(1);
+		return mapper.readTree(linhas.get(0));
+	}
+
+	private static MockHttpServletRequest request(String metodo, String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest(metodo, path);
+		request.setRemoteAddr("127.0.0.1");
+		return request;
+	}
+
+	private static AccessLog.Registro registro(String path) {
+		return new AccessLog.Registro(System.currentTimeMillis(), "GET", path, "/api/livros/{id}", null, 200, 10, 1_000,
+				"127.0.0.1", null, null);
+	}
+
+	private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condicao.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condição não atingida em 5s").isLessThan(limite);
+			Thread.sleep(5);
+		}
+	}
+}
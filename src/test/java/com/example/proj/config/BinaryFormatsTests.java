@@ -0,0 +1,117 @@
+package com.example.proj.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "server.compression.min-response-size=256B")
+class BinaryFormatsTests {
+
+	private static final String SMILE = "application/x-jackson-smile";
+
+	private final ObjectMapper json = new ObjectMapper();
+	private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+	private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void livrosAreServedAsCborOrSmileWhenAskedAndJsonOtherwise() throws Exception {
+		HttpResponse<byte[]> comoJson = get("/api/livros", MediaType.APPLICATION_JSON_VALUE, null);
+		HttpResponse<byte[]> comoCbor = get("/api/livros", MediaType.APPLICATION_CBOR_VALUE, null);
+		HttpResponse<byte[]> comoSmile = get("/api/livros", SMILE, null);
+		HttpResponse<byte[]> qualquer = get("/api/livros", "*/*", null);
+
+		assertThat(tipo(comoCbor)).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+		assertThat(tipo(comoSmile)).isEqualTo(SMILE);
+		assertThat(tipo(qualquer)).startsWith(MediaType.APPLICATION_JSON_VALUE);
+		JsonNode esperado = json.readTree(comoJson.body());
+		assertThat(cbor.readTree(comoCbor.body())).isEqualTo(esperado);
+		assertThat(smile.readTree(comoSmile.body())).isEqualTo(esperado);
+		assertThat(esperado.get("_links").get("self").asText()).isEqualTo("/api/livros");
+		assertThat(comoCbor.body().length).isLessThan(comoJson.body().length);
+	}
+
+	@Test
+	void gatewayCacheKeepsOneResponsePerFormat() throws Exception {
+		HttpResponse<byte[]> comoSmile = get("/gateway/livros", SMILE, null);
+		HttpResponse<byte[]> comoJson = get("/gateway/livros", MediaType.APPLICATION_JSON_VALUE, null);
+		HttpResponse<byte[]> smileDoCache = get("/gateway/livros", SMILE, null);
+
+		assertThat(tipo(comoJson)).startsWith(MediaType.APPLICATION_JSON_VALUE);
+		assertThat(tipo(smileDoCache)).isEqualTo(SMILE);
+		assertThat(smileDoCache.body()).isEqualTo(comoSmile.body());
+		assertThat(smile.readTree(smileDoCache.body())).isEqualTo(json.readTree(comoJson.body()));
+		assertThat(comoJson.headers().firstValue(HttpHeaders.ETAG)).isNotEqualTo(smileDoCache.headers().firstValue(HttpHeaders.ETAG));
+		assertThat(comoJson.headers().allValues(HttpHeaders.VARY)).anySatisfy(vary -> assertThat(vary).containsIgnoringCase("accept"));
+	}
+
+	@Test
+	void largeResponsesAreGzippedAndTheWeakEtagStillRevalidates() throws Exception {
+		HttpResponse<byte[]> semGzip = get("/gateway/livros", MediaType.APPLICATION_JSON_VALUE, null);
+		HttpResponse<byte[]> comGzip = get("/gateway/livros", MediaType.APPLICATION_JSON_VALUE, "gzip");
+
+		assertThat(semGzip.body().length).isGreaterThan(256);
+		assertThat(semGzip.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+		assertThat(comGzip.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+		assertThat(gunzip(comGzip.body())).isEqualTo(semGzip.body());
+
+		//o ETag é fraco (o Tomcat não comprime resposta com ETag forte) e vale para a resposta com e sem gzip
+		String etag = comGzip.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+		assertThat(etag).startsWith("W/");
+		HttpResponse<byte[]> naoModificada = client.send(request("/gateway/livros", MediaType.APPLICATION_JSON_VALUE, "gzip")
+				.header(HttpHeaders.IF_NONE_MATCH, etag).build(), HttpResponse.BodyHandlers.ofByteArray());
+		assertThat(naoModificada.statusCode()).isEqualTo(304);
+
+		//abaixo de min-response-size não comprime
+		HttpResponse<byte[]> pequena = get("/api/livros/1", MediaType.APPLICATION_JSON_VALUE, "gzip");
+		assertThat(pequena.body().length).isLessThan(256);
+		assertThat(pequena.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+	}
+
+	private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+		HttpResponse<byte[]> response = client.send(request(path, accept, acceptEncoding).build(), HttpResponse.BodyHandlers.ofByteArray());
+		assertThat(response.statusCode()).isEqualTo(200);
+		return response;
+	}
+
+	private HttpRequest.Builder request(String path, String accept, String acceptEncoding) {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header(HttpHeaders.ACCEPT, accept);
+		if (acceptEncoding != null) {
+			request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		return request;
+	}
+
+	private static String tipo(HttpResponse<?> response) {
+		return response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse("");
+	}
+
+	private static byte[] gunzip(byte[] corpo) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(corpo))) {
+			return in.readAllBytes();
+		}
+	}
+
+}
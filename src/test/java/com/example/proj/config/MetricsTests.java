@@ -0,0 +1,71 @@
+package com.example.proj.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//métricas e tracing ficam desligados nos testes por padrão; aqui o export do Prometheus é justamente o que se testa
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricsTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void prometheusExposesSoapOperationsWithPercentiles() {
+		soap("<usr:getUsuarioRequest><usr:id>1</usr:id></usr:getUsuarioRequest>");
+		soap("<usr:createUsuarioRequest><usr:nome>Outro João</usr:nome><usr:email>joao@email.com</usr:email></usr:createUsuarioRequest>");
+
+		String metrics = prometheus();
+
+		assertThat(metrics)
+				.containsPattern("soap_requests_seconds_count\\{[^}]*operation=\"getUsuarioRequest\"[^}]*outcome=\"success\"")
+				.containsPattern("soap_requests_seconds\\{[^}]*operation=\"getUsuarioRequest\"[^}]*quantile=\"0.99\"")
+				.containsPattern("soap_requests_seconds_count\\{[^}]*operation=\"createUsuarioRequest\"[^}]*outcome=\"fault\"")
+				.containsPattern("soap_faults_total\\{[^}]*operation=\"createUsuarioRequest\"")
+				.containsPattern("soap_unmarshal_seconds_count\\{[^}]*type=\"GetUsuarioRequest\"")
+				.containsPattern("soap_marshal_seconds_count\\{[^}]*type=\"GetUsuarioResponse\"")
+				.contains("soap_requests_seconds_bucket");
+	}
+
+	@Test
+	void prometheusExposesGatewayRoutesAndStoreSizes() {
+		assertThat(restTemplate.getForEntity("/gateway/livros/1", String.class).getStatusCode().value()).isEqualTo(200);
+
+		String metrics = prometheus();
+
+		assertThat(metrics)
+				.containsPattern("http_server_requests_seconds_count\\{[^}]*source=\"REST\"[^}]*uri=\"/gateway/livros/\\{id}\"")
+				.containsPattern("http_server_requests_seconds\\{.*source=\"REST\".*quantile=\"0.999\"")
+				.containsPattern("store_size\\{[^}]*store=\"livros\"")
+				.containsPattern("store_size\\{[^}]*store=\"usuarios\"")
+				.contains("gateway_admission_limit")
+				.containsPattern("gateway_admission_rejected_total\\{[^}]*reason=\"rate_limited\"");
+	}
+
+	private String prometheus() {
+		ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+		assertThat(response.getStatusCode().value()).isEqualTo(200);
+		return response.getBody();
+	}
+
+	private ResponseEntity<String> soap(String payload) {
+		String envelope = """
+				<soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+				<soap:Body>%s</soap:Body>
+				</soap:Envelope>""".formatted(payload);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.TEXT_XML);
+		return restTemplate.postForEntity("/ws", new HttpEntity<>(envelope, headers), String.class);
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.example.proj.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
+import org.springframework.xml.xsd.SimpleXsdSchema;
+import org.xmlunit.builder.DiffBuilder;
+import org.xmlunit.builder.Input;
+import org.xmlunit.diff.Diff;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WsdlPrerenderTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void prerenderedWsdlIsTheSameAsTheOneBuiltAtStartup() throws Exception {
+		Path arquivo = dir.resolve("usuarios.wsdl");
+		WsdlPrerender.render(arquivo);
+
+		SimpleXsdSchema schema = new SimpleXsdSchema(new ClassPathResource("usuarios.xsd"));
+		schema.afterPropertiesSet();
+		DefaultWsdl11Definition gerado = WebServiceConfig.wsdlGerado(schema);
+		gerado.afterPropertiesSet();
+
+		Diff diff = DiffBuilder.compare(Input.from(gerado.getSource()))
+				.withTest(Input.fromFile(arquivo.toFile()))
+				.ignoreWhitespace()
+				.checkForIdentical()
+				.build();
+		assertThat(diff.hasDifferences()).as(diff.toString()).isFalse();
+	}
+}
@@ -0,0 +1,147 @@
+package com.example.proj.controller;
+
+import com.example.proj.model.Livro;
+import com.example.proj.store.LivroStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LivroControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private LivroStore livroStore;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void gatewayWalksTheWholeCatalogFollowingNextCursors() throws Exception {
+		for (int i = 0; i < 25; i++) {
+			livroStore.save(new Livro(null, "Paginado " + i, "Autor Paginado", null));
+		}
+
+		List<Long> ids = new ArrayList<>();
+		String url = "/gateway/livros?limit=7&fields=id,titulo";
+		while (url != null) {
+			JsonNode pagina = json(url);
+			JsonNode data = pagina.get("data");
+			assertThat(data.get("count").asInt()).isLessThanOrEqualTo(7);
+			for (JsonNode livro : data.get("livros")) {
+				assertThat(livro.fieldNames()).toIterable().containsExactly("id", "titulo");
+				ids.add(livro.get("id").asLong());
+			}
+			JsonNode next = pagina.get("_links").get("next");
+			url = next == null ? null : next.asText();
+		}
+
+		assertThat(ids).hasSize(livroStore.count()).isSorted().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void withoutPaginationParametersReturnsTheFullList() throws Exception {
+		JsonNode response = json("/api/livros");
+
+		assertThat(response.get("livros")).hasSize(livroStore.count());
+		assertThat(response.get("_links").get("self").asText()).isEqualTo("/api/livros");
+		assertThat(response.has("nextCursor")).isFalse();
+	}
+
+	@Test
+	void unknownProjectionFieldIsRejected() throws Exception {
+		mockMvc.perform(get("/api/livros?fields=id,preco")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void batchCreateReturnsOneResultPerLivroInOrder() throws Exception {
+		String lote = """
+				[{"titulo": "Lote A", "autor": "Autor Lote", "isbn": "lote-a"},
+				 {"titulo": "Lote A de novo", "autor": "Autor Lote", "isbn": "LOTE-A"},
+				 null,
+				 {"titulo": "Lote B", "autor": "Autor Lote", "isbn": "lote-b"}]""";
+		String body = mockMvc.perform(post("/gateway/livros/batch").contentType(MediaType.APPLICATION_JSON).content(lote))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		JsonNode data = objectMapper.readTree(body).get("data");
+		assertThat(data.get("created").asInt()).isEqualTo(2);
+		assertThat(data.get("failed").asInt()).isEqualTo(2);
+		assertThat(data.get("results")).extracting(r -> r.get("status").asInt()).containsExactly(201, 409, 400, 201);
+		long idB = data.get("results").get(3).get("livro").get("id").asLong();
+		assertThat(livroStore.findByIsbn("lote-b")).get().extracting(Livro::getId).isEqualTo(idB);
+	}
+
+	@Test
+	void searchFindsNewLivrosIgnoringAccentsAndRanksTitleMatchesFirst() throws Exception {
+		String criado = """
+				{"titulo": "Memórias Póstumas de Brás Cubas", "autor": "Machado de Assis", "isbn": "busca-1"}""";
+		mockMvc.perform(post("/api/livros").contentType(MediaType.APPLICATION_JSON).content(criado)).andExpect(status().isOk());
+		livroStore.save(new Livro(null, "Crônicas Escolhidas", "Brás Memorialista", "busca-2"));
+
+		JsonNode response = json("/api/livros/search?q=memor bras&fields=titulo");
+		assertThat(response.get("livros")).extracting(l -> l.get("titulo").asText())
+				.containsExactly("Memórias Póstumas de Brás Cubas", "Crônicas Escolhidas");
+		assertThat(response.get("total").asInt()).isEqualTo(2);
+		assertThat(response.get("_links").get("self").asText()).isEqualTo("/api/livros/search?q=memor+bras&fields=titulo");
+
+		JsonNode gateway = json("/gateway/livros/search?q=MACHADO assis&limit=5");
+		assertThat(gateway.get("data").get("livros")).extracting(l -> l.get("isbn").asText()).containsExactly("busca-1");
+		assertThat(gateway.get("_links").get("direct").asText()).isEqualTo("/api/livros/search?q=MACHADO+assis&limit=5");
+		assertThat(json("/api/livros/search?q=inexistente").get("count").asInt()).isZero();
+	}
+
+	@Test
+	void lookupByIdsKeepsTheRequestedOrderAndListsMissingIds() throws Exception {
+		JsonNode response = json("/api/livros?ids=2,999999,1&fields=id");
+
+		assertThat(response.get("livros")).extracting(l -> l.get("id").asLong()).containsExactly(2L, 1L);
+		assertThat(response.get("notFound")).extracting(JsonNode::asLong).containsExactly(999999L);
+		assertThat(response.get("_links").get("self").asText()).isEqualTo("/api/livros?ids=2,999999,1&fields=id");
+		mockMvc.perform(get("/api/livros?ids=1,abc")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void gatewayBatchCreatesUsuariosThroughSoap() throws Exception {
+		String lote = """
+				[{"nome": "Gateway Lote", "email": "gateway.lote@email.com"},
+				 {"nome": "Gateway Lote", "email": "joao@email.com"}]""";
+		String body = mockMvc.perform(post("/gateway/usuarios/batch").contentType(MediaType.APPLICATION_JSON).content(lote))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		JsonNode response = objectMapper.readTree(body);
+		assertThat(response.get("source").asText()).isEqualTo("SOAP API");
+		assertThat(response.get("results")).extracting(r -> r.get("status").asInt()).containsExactly(201, 409);
+
+		long id = response.get("results").get(0).get("usuario").get("id").asLong();
+		JsonNode usuarios = json("/gateway/usuarios?ids=" + id + ",999999");
+		assertThat(usuarios.get("usuarios")).extracting(u -> u.get("email").asText()).containsExactly("gateway.lote@email.com");
+		assertThat(usuarios.get("notFound")).extracting(JsonNode::asLong).containsExactly(999999L);
+	}
+
+	private JsonNode json(String url) throws Exception {
+		String body = mockMvc.perform(get(url))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		return objectMapper.readTree(body);
+	}
+
+}
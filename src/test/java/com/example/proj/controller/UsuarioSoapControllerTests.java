@@ -0,0 +1,136 @@
+package com.example.proj.controller;
+
+import com.example.proj.model.Usuario;
+import com.example.proj.store.UsuarioStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UsuarioSoapControllerTests {
+
+	private static final Pattern NEXT_PAGE_TOKEN = Pattern.compile("<nextPageToken>([^<]+)</nextPageToken>");
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private UsuarioStore usuarioStore;
+
+	@Test
+	void getUsuarioByEmailUsesTheEmailIndex() {
+		ResponseEntity<String> response = soap("""
+				<usr:getUsuarioByEmailRequest><usr:email>MARIA@email.com</usr:email></usr:getUsuarioByEmailRequest>""");
+
+		assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+		assertThat(response.getBody()).contains("getUsuarioByEmailResponse").contains("Maria Santos");
+	}
+
+	@Test
+	void createUsuarioWithDuplicateEmailReturnsSoapFault() {
+		ResponseEntity<String> response = soap("""
+				<usr:createUsuarioRequest><usr:nome>Outro João</usr:nome><usr:email>joao@email.com</usr:email></usr:createUsuarioRequest>""");
+
+		assertThat(response.getStatusCode().value()).isEqualTo(500);
+		assertThat(response.getBody()).contains("Fault").contains("Client").contains("joao@email.com");
+	}
+
+	@Test
+	void getAllUsuariosPagesWithLimitAndPageToken() {
+		for (int i = 0; i < 5; i++) {
+			usuarioStore.save(new Usuario(null, "Paginado " + i, "paginado" + i + "@email.com"));
+		}
+
+		int usuarios = 0;
+		String pageToken = null;
+		do {
+			String token = pageToken == null ? "" : "<usr:pageToken>" + pageToken + "</usr:pageToken>";
+			String body = soap("<usr:getAllUsuariosRequest><usr:limit>2</usr:limit>" + token + "</usr:getAllUsuariosRequest>").getBody();
+			int pagina = ocorrencias(body, "<usuario>");
+			assertThat(pagina).isBetween(1, 2);
+			usuarios += pagina;
+			Matcher matcher = NEXT_PAGE_TOKEN.matcher(body);
+			pageToken = matcher.find() ? matcher.group(1) : null;
+		} while (pageToken != null);
+
+		assertThat(usuarios).isEqualTo(usuarioStore.count());
+	}
+
+	@Test
+	void streamingModeWritesTheSameUsuariosAsTheJaxbMode() {
+		for (int i = 0; i < 2_000; i++) {
+			usuarioStore.save(new Usuario(null, "Streaming " + i, "streaming" + i + "@email.com"));
+		}
+
+		String jaxb = soap("<usr:getAllUsuariosRequest><usr:offset>1</usr:offset><usr:limit>1500</usr:limit></usr:getAllUsuariosRequest>").getBody();
+		String streaming = soap("<usr:getAllUsuariosRequest><usr:offset>1</usr:offset><usr:limit>1500</usr:limit>"
+				+ "<usr:streaming>true</usr:streaming></usr:getAllUsuariosRequest>").getBody();
+
+		assertThat(ocorrencias(streaming, "<usuario>")).isEqualTo(1500);
+		assertThat(streaming).isEqualTo(jaxb);
+	}
+
+	@Test
+	void invalidPageTokenReturnsSoapFault() {
+		ResponseEntity<String> response = soap("<usr:getAllUsuariosRequest><usr:pageToken>???</usr:pageToken></usr:getAllUsuariosRequest>");
+
+		assertThat(response.getStatusCode().value()).isEqualTo(500);
+		assertThat(response.getBody()).contains("Fault").contains("pageToken");
+	}
+
+	@Test
+	void createUsuariosBatchReturnsOneResultPerUsuario() {
+		String body = soap("""
+				<usr:createUsuariosBatchRequest>
+				<usr:usuario><usr:nome>Lote Um</usr:nome><usr:email>lote1@email.com</usr:email></usr:usuario>
+				<usr:usuario><usr:nome>Lote Repetido</usr:nome><usr:email>LOTE1@email.com</usr:email></usr:usuario>
+				<usr:usuario><usr:nome></usr:nome><usr:email>lote2@email.com</usr:email></usr:usuario>
+				<usr:usuario><usr:nome>Lote Dois</usr:nome><usr:email>lote2@email.com</usr:email></usr:usuario>
+				</usr:createUsuariosBatchRequest>""").getBody();
+
+		assertThat(ocorrencias(body, "<resultado>")).isEqualTo(4);
+		assertThat(body).containsSubsequence("<index>0</index><status>CREATED</status>",
+				"<index>1</index><status>DUPLICATE</status>",
+				"<index>2</index><status>INVALID</status>",
+				"<index>3</index><status>CREATED</status>");
+		assertThat(usuarioStore.findByEmail("lote2@email.com")).isPresent();
+	}
+
+	@Test
+	void getUsuariosByIdsReturnsFoundUsuariosAndNotFoundIds() {
+		String body = soap("""
+				<usr:getUsuariosByIdsRequest><usr:id>2</usr:id><usr:id>999999</usr:id><usr:id>1</usr:id></usr:getUsuariosByIdsRequest>""")
+				.getBody();
+
+		assertThat(body).containsSubsequence("Maria Santos", "João Silva", "<notFound>999999</notFound>");
+	}
+
+	private static int ocorrencias(String texto, String trecho) {
+		int total = 0;
+		for (int i = texto.indexOf(trecho); i >= 0; i = texto.indexOf(trecho, i + 1)) {
+			total++;
+		}
+		return total;
+	}
+
+	private ResponseEntity<String> soap(String payload) {
+		String envelope = """
+				<soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+				<soap:Body>%s</soap:Body>
+				</soap:Envelope>""".formatted(payload);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.TEXT_XML);
+		return restTemplate.postForEntity("/ws", new HttpEntity<>(envelope, headers), String.class);
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.example.proj.envelope;
+
+import com.example.proj.controller.UsuarioSoapController.UsuarioXml;
+import com.example.proj.model.Livro;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Os envelopes tipados precisam gerar exatamente o mesmo JSON que os HashMap
+ * usados antes. Os links antigos eram Map.of (ordem aleatória por JVM), então
+ * aqui eles são LinkedHashMap na ordem que os envelopes escrevem.
+ */
+class EnvelopeWriterTests {
+
+	private static final Link SELF = Link.prefixo("self", "/api/livros/");
+	private static final Link ALL = Link.fixo("all", "/api/livros");
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void livroEnvelopeMatchesLegacyMap() throws Exception {
+		Livro livro = new Livro(42L, "Clean \"Code\"", "Robert Martin", null);
+
+		assertSameJson(new LivroEnvelope(livro, SELF.comId(42), ALL),
+				legacy("livro", livro, "_links", links("self", "/api/livros/42", "all", "/api/livros")));
+		assertSameJson(new LivroEnvelope(livro, "Livro criado com sucesso", new Link[] {SELF.comId(0), ALL}),
+				legacy("livro", livro, "message", "Livro criado com sucesso",
+						"_links", links("self", "/api/livros/0", "all", "/api/livros")));
+	}
+
+	@Test
+	void livrosEnvelopeMatchesLegacyMap() throws Exception {
+		List<Livro> livros = List.of(new Livro(1L, "A", "B", "C"), new Livro(9_223_372_036_854_775_807L, "D", null, "E"));
+		Link self = Link.prefixo("self", "/api/livros").comSufixo("?limit=2");
+		Link next = Link.prefixo("next", "/api/livros").comSufixo("?limit=2&after=7");
+
+		assertSameJson(new LivrosEnvelope(livros, 2, ALL),
+				legacy("livros", livros, "count", 2, "_links", links("all", "/api/livros")));
+		assertSameJson(new LivrosEnvelope(livros, 2, 10, 7L, null, new Link[] {next, self}),
+				legacy("livros", livros, "count", 2, "total", 10, "nextCursor", 7L,
+						"_links", links("next", "/api/livros?limit=2&after=7", "self", "/api/livros?limit=2")));
+
+		Map<String, Object> projecao = new LinkedHashMap<>();
+		projecao.put("titulo", "A");
+		projecao.put("id", 1L);
+		assertSameJson(new LivrosEnvelope(List.of(projecao), 1, 1, null, null, new Link[] {self}),
+				legacy("livros", List.of(projecao), "count", 1, "total", 1, "_links", links("self", "/api/livros?limit=2")));
+	}
+
+	@Test
+	void gatewayAndUsuarioEnvelopesMatchLegacyMaps() throws Exception {
+		UsuarioXml usuario = new UsuarioXml();
+		usuario.setId(3L);
+		usuario.setNome("João Silva");
+		usuario.setEmail("joao@email.com");
+		Map<String, Object> remoto = legacy("livro", Map.of("id", 1), "_links", links("self", "/api/livros/1"));
+
+		assertSameJson(new GatewayEnvelope("REST API", remoto, SELF.comId(1)),
+				legacy("source", "REST API", "data", remoto, "_links", links("self", "/api/livros/1")));
+		assertSameJson(new GatewayEnvelope("REST API", new LivroEnvelope(new Livro(1L, "A", "B", "C"), ALL), ALL),
+				legacy("source", "REST API", "data", legacy("livro", new Livro(1L, "A", "B", "C"), "_links", links("all", "/api/livros")),
+						"_links", links("all", "/api/livros")));
+		assertSameJson(new UsuariosEnvelope("SOAP API", List.of(usuario, new UsuarioXml()), ALL),
+				legacy("source", "SOAP API", "usuarios", List.of(usuario, new UsuarioXml()), "count", 2,
+						"_links", links("all", "/api/livros")));
+		assertSameJson(new UsuarioEnvelope("SOAP API", usuario, "Usuário criado com sucesso", new Link[] {ALL}),
+				legacy("source", "SOAP API", "usuario", usuario, "message", "Usuário criado com sucesso",
+						"_links", links("all", "/api/livros")));
+		assertSameJson(new ErroEnvelope("Backend indisponível", "SOAP API"),
+				legacy("error", "Backend indisponível", "source", "SOAP API"));
+		assertSameJson(new ErroEnvelope("Já existe"), legacy("error", "Já existe"));
+	}
+
+	private void assertSameJson(Object envelope, Map<String, Object> legado) throws Exception {
+		assertThat(mapper.writeValueAsString(envelope)).isEqualTo(mapper.writeValueAsString(legado));
+	}
+
+	private static Map<String, Object> legacy(Object... pares) {
+		Map<String, Object> map = new HashMap<>();
+		for (int i = 0; i < pares.length; i += 2) {
+			map.put((String) pares[i], pares[i + 1]);
+		}
+		return map;
+	}
+
+	private static Map<String, Object> links(String... pares) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < pares.length; i += 2) {
+			map.put(pares[i], pares[i + 1]);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,172 @@
+package com.example.proj.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFeedTests {
+
+	private ChangeFeed feed;
+
+	@AfterEach
+	void fechar() {
+		if (feed != null) {
+			feed.close();
+		}
+	}
+
+	@Test
+	void eventsArriveInOrderAndResumeFromTheLastEventId() throws Exception {
+		feed = feed(16, 10);
+		for (int i = 1; i <= 3; i++) {
+			feed.publicar(ChangeFeed.LIVRO_CRIADO, Map.of("id", i));
+		}
+
+		Gravador novo = new Gravador();
+		Gravador retomado = new Gravador();
+		feed.assinar(null, novo);
+		feed.assinar("1", retomado);
+		feed.publicar(ChangeFeed.USUARIO_CRIADO, List.of(Map.of("id", 4), Map.of("id", 5)));
+
+		aguardar(() -> novo.eventos.size() == 2 && retomado.eventos.size() == 4);
+		assertThat(novo.eventos).extracting(ChangeFeed.Evento::id).containsExactly(4L, 5L);
+		assertThat(retomado.eventos).extracting(ChangeFeed.Evento::id).containsExactly(2L, 3L, 4L, 5L);
+		assertThat(retomado.eventos.get(0).tipo()).isEqualTo(ChangeFeed.LIVRO_CRIADO);
+		assertThat(retomado.eventos.get(0).dados()).isEqualTo("{\"id\":2}");
+		assertThat(retomado.eventos.get(3).tipo()).isEqualTo(ChangeFeed.USUARIO_CRIADO);
+	}
+
+	@Test
+	void lastEventIdOlderThanTheBufferGetsAResetWithTheCurrentId() throws Exception {
+		feed = feed(4, 10);
+		for (int i = 1; i <= 10; i++) {
+			feed.publicar(ChangeFeed.LIVRO_CRIADO, Map.of("id", i));
+		}
+
+		Gravador antigo = new Gravador();
+		Gravador doFuturo = new Gravador();
+		feed.assinar("2", antigo);
+		feed.assinar("99", doFuturo); //ID de antes de um restart
+		feed.publicar(ChangeFeed.LIVRO_CRIADO, Map.of("id", 11));
+
+		aguardar(() -> antigo.eventos.size() == 2 && doFuturo.eventos.size() == 2);
+		for (Gravador gravador : List.of(antigo, doFuturo)) {
+			assertThat(gravador.eventos.get(0).tipo()).isEqualTo(ChangeFeed.RESET);
+			assertThat(gravador.eventos.get(0).id()).isEqualTo(10L);
+			assertThat(gravador.eventos.get(1).id()).isEqualTo(11L);
+		}
+	}
+
+	@Test
+	void slowSubscriberIsDroppedWithoutHoldingThePublisherOrTheOthers() throws Exception {
+		feed = feed(8, 10);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Gravador lento = new Gravador() {
+			@Override
+			public void enviar(ChangeFeed.Evento evento) throws IOException {
+				try {
+					liberar.await(); //socket cheio
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.enviar(evento);
+			}
+		};
+		Gravador rapido = new Gravador();
+		feed.assinar(null, lento);
+		feed.assinar(null, rapido);
+
+		long inicio = System.nanoTime();
+		for (int i = 1; i <= 50; i++) {
+			feed.publicar(ChangeFeed.LIVRO_CRIADO, Map.of("id", i));
+			aguardar(() -> rapido.eventos.size() == feed.ultimoId());
+		}
+		assertThat(System.nanoTime() - inicio).isLessThan(TimeUnit.SECONDS.toNanos(5));
+		assertThat(rapido.eventos).hasSize(50);
+
+		liberar.countDown();
+		aguardar(lento.fechado::get);
+		//o evento que estava sendo enviado chega; depois dele o próximo já foi sobrescrito
+		assertThat(lento.eventos).extracting(ChangeFeed.Evento::id).containsExactly(1L);
+		assertThat(feed.desconectados()).isEqualTo(1);
+		assertThat(feed.assinantes()).isEqualTo(1);
+	}
+
+	@Test
+	void idleSubscribersOnlyGetHeartbeatsAndTheLimitIsEnforced() throws Exception {
+		feed = new ChangeFeed(new ChangeFeedProperties(16, 20_000, Duration.ofMillis(100), Duration.ZERO), new ObjectMapper());
+		AtomicLong heartbeats = new AtomicLong();
+		AtomicInteger eventos = new AtomicInteger();
+		ChangeFeed.Saida parado = new ChangeFeed.Saida() {
+			@Override
+			public void enviar(ChangeFeed.Evento evento) {
+				eventos.incrementAndGet();
+			}
+
+			@Override
+			public void heartbeat() {
+				heartbeats.incrementAndGet();
+			}
+
+			@Override
+			public void fechar() {
+			}
+		};
+		for (int i = 0; i < 20_000; i++) {
+			assertThat(feed.assinar(null, parado)).isNotNull();
+		}
+		assertThat(feed.assinar(null, parado)).isNull();
+		assertThat(feed.assinantes()).isEqualTo(20_000);
+
+		aguardar(() -> heartbeats.get() >= 20_000);
+		feed.publicar(ChangeFeed.LIVRO_CRIADO, Map.of("id", 1));
+		aguardar(() -> eventos.get() == 20_000);
+	}
+
+	private static ChangeFeed feed(int buffer, int maxAssinantes) {
+		return new ChangeFeed(new ChangeFeedProperties(buffer, maxAssinantes, Duration.ZERO, Duration.ZERO), new ObjectMapper());
+	}
+
+	private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condicao.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condição não atingida em 10s").isLessThan(limite);
+			Thread.sleep(5);
+		}
+	}
+
+	private static class Gravador implements ChangeFeed.Saida {
+
+		final List<ChangeFeed.Evento> eventos = new CopyOnWriteArrayList<>();
+		final AtomicBoolean fechado = new AtomicBoolean();
+
+		@Override
+		public void enviar(ChangeFeed.Evento evento) throws IOException {
+			eventos.add(evento);
+		}
+
+		@Override
+		public void heartbeat() {
+		}
+
+		@Override
+		public void fechar() {
+			fechado.set(true);
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+package com.example.proj.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionFilterTests {
+
+	private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void tokenBucketAllowsTheBurstThenRefillsAtTheConfiguredRate() {
+		TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+		assertThat(bucket.tryAcquire(0)).isZero();
+		assertThat(bucket.tryAcquire(0)).isZero();
+		assertThat(bucket.tryAcquire(0)).isZero();
+		//bucket vazio: o próximo token chega em 100ms (10 por segundo)
+		assertThat(bucket.tryAcquire(0)).isEqualTo(100 * MS);
+		assertThat(bucket.tryAcquire(60 * MS)).isEqualTo(40 * MS);
+		assertThat(bucket.tryAcquire(100 * MS)).isZero();
+		assertThat(bucket.tryAcquire(100 * MS)).isPositive();
+
+		//parado bastante tempo, o bucket enche só até o burst
+		long depois = 10 * SEGUNDO;
+		for (int i = 0; i < 3; i++) {
+			assertThat(bucket.tryAcquire(depois)).isZero();
+		}
+		assertThat(bucket.tryAcquire(depois)).isPositive();
+	}
+
+	@Test
+	void concurrencyLimitShrinksWhenLatencyRisesAndGrowsBackWhenItFalls() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+				new AdmissionProperties.Concurrency(40, 4, 100, 2.0, Duration.ofMillis(100), Duration.ofSeconds(1)), 0);
+		long agora = 0;
+
+		//latência estável de 5ms com a demanda no limite: o limite sobe
+		agora = janelas(limiter, agora, 20, 5 * MS);
+		int saudavel = limiter.limite();
+		assertThat(saudavel).isGreaterThan(40);
+
+		//latência 10x maior: o limite cai até o mínimo
+		agora = janelas(limiter, agora, 30, 50 * MS);
+		assertThat(limiter.limite()).isEqualTo(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(limiter.tryAcquire()).isTrue();
+		}
+		assertThat(limiter.tryAcquire()).isFalse();
+		for (int i = 0; i < 4; i++) {
+			limiter.release(50 * MS, agora);
+		}
+
+		//a latência volta ao normal: o limite volta a crescer
+		janelas(limiter, agora, 40, 5 * MS);
+		assertThat(limiter.limite()).isGreaterThan(20);
+	}
+
+	@Test
+	void clientOverItsRateGets429WithRetryAfterAndOtherClientsAreNotAffected() throws Exception {
+		AdmissionFilter filter = filter(new AdmissionProperties.RateLimit(1, 2, 100),
+				new AdmissionProperties.Concurrency(10, 10, 10, 2.0, Duration.ofMillis(100), Duration.ofSeconds(1)));
+		FilterChain ok = (request, response) -> { };
+
+		assertThat(executar(filter, request("/gateway/livros", "cliente-a"), ok).getStatus()).isEqualTo(200);
+		assertThat(executar(filter, request("/api/livros", "cliente-a"), ok).getStatus()).isEqualTo(200);
+		MockHttpServletResponse limitado = executar(filter, request("/gateway/livros", "cliente-a"), ok);
+		assertThat(limitado.getStatus()).isEqualTo(429);
+		assertThat(limitado.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(limitado.getContentAsString(StandardCharsets.UTF_8)).contains("\"error\"");
+
+		assertThat(executar(filter, request("/gateway/livros", "cliente-b"), ok).getStatus()).isEqualTo(200);
+		//sem o header, o cliente é o IP
+		assertThat(executar(filter, request("/ws", null), ok).getStatus()).isEqualTo(200);
+		assertThat(executar(filter, request("/ws", null), ok).getStatus()).isEqualTo(200);
+		MockHttpServletResponse soap = executar(filter, request("/ws", null), ok);
+		assertThat(soap.getStatus()).isEqualTo(429);
+		assertThat(soap.getContentAsString(StandardCharsets.UTF_8)).contains("<soap:Fault>", "<faultcode>soap:Server</faultcode>");
+
+		//rotas fora de /api, /gateway e /ws não passam pelo filtro
+		for (int i = 0; i < 5; i++) {
+			assertThat(executar(filter, request("/actuator/health", "cliente-a"), ok).getStatus()).isEqualTo(200);
+		}
+		assertThat(filter.rejeitados(AdmissionFilter.RATE_LIMITED)).isEqualTo(2);
+	}
+
+	@Test
+	void unknownKeysCountAgainstTheClientAddress() throws Exception {
+		AdmissionFilter filter = filter(new AdmissionProperties.RateLimit(1, 2, 100),
+				new AdmissionProperties.Concurrency(10, 10, 10, 2.0, Duration.ofMillis(100), Duration.ofSeconds(1)));
+		FilterChain ok = (request, response) -> { };
+
+		//uma chave nova a cada request, do mesmo IP: é o mesmo cliente
+		assertThat(executar(filter, request("/gateway/livros", "rotativa-1"), ok).getStatus()).isEqualTo(200);
+		assertThat(executar(filter, request("/gateway/livros", "rotativa-2"), ok).getStatus()).isEqualTo(200);
+		assertThat(executar(filter, request("/gateway/livros", "rotativa-3"), ok).getStatus()).isEqualTo(429);
+		assertThat(executar(filter, request("/gateway/livros", null), ok).getStatus()).isEqualTo(429);
+		assertThat(filter.clientes()).isEqualTo(1);
+
+		//outro IP tem o seu bucket; uma chave conhecida também, mesmo vindo do IP limitado
+		MockHttpServletRequest outroIp = request("/gateway/livros", "rotativa-4");
+		outroIp.setRemoteAddr("10.0.0.2");
+		assertThat(executar(filter, outroIp, ok).getStatus()).isEqualTo(200);
+		assertThat(executar(filter, request("/gateway/livros", "cliente-a"), ok).getStatus()).isEqualTo(200);
+		assertThat(filter.clientes()).isEqualTo(3);
+	}
+
+	@Test
+	void requestsOverTheConcurrencyLimitAreShedWith503() throws Exception {
+		AdmissionFilter filter = filter(new AdmissionProperties.RateLimit(1000, 1000, 100),
+				new AdmissionProperties.Concurrency(1, 1, 1, 2.0, Duration.ofMillis(100), Duration.ofSeconds(2)));
+		MockHttpServletResponse[] durante = new MockHttpServletResponse[1];
+
+		//enquanto o primeiro request está no controller, o segundo é recusado na entrada
+		FilterChain lento = (request, response) ->
+				durante[0] = executar(filter, request("/gateway/usuarios", "outro"), (r, s) -> { });
+		assertThat(executar(filter, request("/gateway/livros", "um"), lento).getStatus()).isEqualTo(200);
+
+		assertThat(durante[0].getStatus()).isEqualTo(503);
+		assertThat(durante[0].getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+		assertThat(filter.rejeitados(AdmissionFilter.OVERLOADED)).isEqualTo(1);
+		assertThat(filter.emUso()).isZero();
+		assertThat(executar(filter, request("/gateway/usuarios", "outro"), (r, s) -> { }).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void gatewayCallsSkipTheRateLimitAndTheConcurrencyLimit() throws Exception {
+		AdmissionFilter filter = filter(new AdmissionProperties.RateLimit(1, 1, 100),
+				new AdmissionProperties.Concurrency(1, 1, 1, 2.0, Duration.ofMillis(100), Duration.ofSeconds(1)));
+		MockHttpServletResponse[] internas = new MockHttpServletResponse[6];
+
+		//o request do cliente ocupa a única vaga; as chamadas que o gateway faz dentro dele passam
+		FilterChain gateway = (request, response) -> {
+			for (int i = 0; i < 3; i++) {
+				internas[i] = executar(filter, request("/api/livros", "gateway"), (r, s) -> { });
+				internas[3 + i] = executar(filter, request("/ws", "outro-gateway"), (r, s) -> { });
+			}
+		};
+		assertThat(executar(filter, request("/gateway/livros", "cliente"), gateway).getStatus()).isEqualTo(200);
+		assertThat(internas).extracting(MockHttpServletResponse::getStatus).containsOnly(200);
+		assertThat(filter.rejeitados(AdmissionFilter.RATE_LIMITED)).isZero();
+		assertThat(filter.rejeitados(AdmissionFilter.OVERLOADED)).isZero();
+		assertThat(filter.clientes()).isEqualTo(1);
+
+		//uma chave parecida não serve
+		assertThat(executar(filter, request("/api/livros", "gateway2"), (r, s) -> { }).getStatus()).isEqualTo(200);
+		assertThat(executar(filter, request("/api/livros", "gateway2"), (r, s) -> { }).getStatus()).isEqualTo(429);
+	}
+
+	// "quantas" janelas com a demanda no limite atual e a latência dada; devolve o novo "agora"
+	private static long janelas(AdaptiveConcurrencyLimiter limiter, long agora, int quantas, long latencia) {
+		for (int janela = 0; janela < quantas; janela++) {
+			//3 rodadas por janela: mesmo no limite mínimo a janela tem amostras suficientes
+			for (int rodada = 1; rodada <= 3; rodada++) {
+				int limite = limiter.limite();
+				for (int i = 0; i < limite; i++) {
+					limiter.tryAcquire();
+				}
+				long fim = agora + rodada * 33 * MS;
+				for (int i = 0; i < limite; i++) {
+					limiter.release(latencia, fim);
+				}
+			}
+			agora += 100 * MS;
+		}
+		return agora;
+	}
+
+	private static AdmissionFilter filter(AdmissionProperties.RateLimit rateLimit, AdmissionProperties.Concurrency concurrency) {
+		AdmissionFilter filter = new AdmissionFilter(new AdmissionProperties(true, "X-API-Key",
+				List.of("cliente-a", "cliente-b", "cliente"), List.of("outro-gateway"), rateLimit, concurrency),
+				new GatewayApiKey("gateway"));
+		ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+		return filter;
+	}
+
+	private static MockHttpServletRequest request(String uri, String chave) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		if (chave != null) {
+			request.addHeader("X-API-Key", chave);
+		}
+		return request;
+	}
+
+	private static MockHttpServletResponse executar(AdmissionFilter filter, MockHttpServletRequest request, FilterChain chain)
+			throws IOException, ServletException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+}
@@ -0,0 +1,171 @@
+package com.example.proj.gateway;
+
+import com.example.proj.controller.EmailDuplicadoException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BackendGuardTests {
+
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void circuitOpensOnTheFailureRateAndClosesAfterSuccessfulTrialCalls() {
+		CircuitBreaker circuito = new CircuitBreaker(backend(10, 4, Duration.ofSeconds(1), Duration.ofSeconds(5), 2));
+
+		//3 sucessos + 1 falha: 25% < 50%, continua fechado
+		for (int i = 0; i < 3; i++) {
+			assertThat(circuito.permitir(0)).isTrue();
+			circuito.registrar(false, MS, 0);
+		}
+		circuito.registrar(true, MS, 0);
+		assertThat(circuito.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+
+		//mais falhas: com 3 de 6 o circuito abre
+		for (int i = 0; i < 3; i++) {
+			circuito.registrar(true, MS, 10 * MS);
+		}
+		assertThat(circuito.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+		assertThat(circuito.permitir(1_000 * MS)).isFalse();
+		assertThat(circuito.restanteAberto(1_000 * MS)).isEqualTo(4_010 * MS);
+
+		//depois do tempo aberto: só 2 chamadas de teste passam
+		long depois = 6_000 * MS;
+		assertThat(circuito.permitir(depois)).isTrue();
+		assertThat(circuito.permitir(depois)).isTrue();
+		assertThat(circuito.permitir(depois)).isFalse();
+		circuito.registrar(false, MS, depois);
+		circuito.registrar(false, MS, depois);
+		assertThat(circuito.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+
+		//janela zerada: uma falha só não reabre
+		circuito.registrar(true, MS, depois);
+		assertThat(circuito.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+	}
+
+	@Test
+	void slowCallsOpenTheCircuitAndAFailedTrialReopensIt() {
+		CircuitBreaker circuito = new CircuitBreaker(backend(4, 4, Duration.ofMillis(100), Duration.ofSeconds(1), 1));
+
+		//todas terminam sem erro, mas 4 de 4 passam de 100ms (limite de 80%)
+		for (int i = 0; i < 4; i++) {
+			circuito.registrar(false, 150 * MS, 0);
+		}
+		assertThat(circuito.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+
+		assertThat(circuito.permitir(2_000 * MS)).isTrue();
+		circuito.registrar(false, 150 * MS, 2_000 * MS);
+		assertThat(circuito.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+		assertThat(circuito.permitir(2_500 * MS)).isFalse();
+	}
+
+	@Test
+	void openCircuitFailsFastWithoutCallingTheBackendAndBusinessErrorsDoNotCount() {
+		BackendGuard guard = new BackendGuard("usuarios", true, backend(4, 4, Duration.ofSeconds(1), Duration.ofSeconds(30), 1));
+		AtomicInteger chamadas = new AtomicInteger();
+
+		//email duplicado é erro de negócio: o backend respondeu, o circuito continua fechado
+		for (int i = 0; i < 4; i++) {
+			assertThatThrownBy(() -> guard.call(() -> {
+				chamadas.incrementAndGet();
+				throw new EmailDuplicadoException("x@email.com");
+			})).isInstanceOf(EmailDuplicadoException.class);
+		}
+		assertThat(guard.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+
+		//janela de 4: 2 falhas já são 50%
+		for (int i = 0; i < 2; i++) {
+			assertThatThrownBy(() -> guard.call(() -> {
+				chamadas.incrementAndGet();
+				throw new IllegalStateException("fora do ar");
+			})).hasMessage("fora do ar");
+		}
+		assertThat(guard.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+
+		assertThatThrownBy(() -> guard.call(chamadas::incrementAndGet))
+				.isInstanceOfSatisfying(BackendIndisponivelException.class, e -> {
+					assertThat(e.getMotivo()).isEqualTo(BackendIndisponivelException.CIRCUIT_OPEN);
+					assertThat(e.getRetryAfter()).isBetween(Duration.ofSeconds(29), Duration.ofSeconds(30));
+				});
+		assertThat(chamadas).hasValue(6);
+		assertThat(guard.rejeitados(BackendIndisponivelException.CIRCUIT_OPEN)).isEqualTo(1);
+	}
+
+	@Test
+	void restClientErrorsDoNotCountButTooManyRequestsAndServerErrorsDo() {
+		BackendGuard guard = new BackendGuard("livros", true, backend(4, 4, Duration.ofSeconds(1), Duration.ofSeconds(30), 1));
+
+		for (int i = 0; i < 4; i++) {
+			assertThatThrownBy(() -> guard.call(() -> {
+				throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+			})).isInstanceOf(HttpClientErrorException.NotFound.class);
+		}
+		assertThat(guard.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+
+		//429 é o backend sobrecarregado, 5xx é erro dele: com 2 de 4 o circuito abre
+		assertThatThrownBy(() -> guard.call(() -> {
+			throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null);
+		})).isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+		assertThat(guard.estado()).isEqualTo(CircuitBreaker.Estado.FECHADO);
+		assertThatThrownBy(() -> guard.call(() -> {
+			throw HttpServerErrorException.create(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", null, null, null);
+		})).isInstanceOf(HttpServerErrorException.class);
+		assertThat(guard.estado()).isEqualTo(CircuitBreaker.Estado.ABERTO);
+	}
+
+	@Test
+	void bulkheadRejectsCallsBeyondItsConcurrencyRightAway() throws Exception {
+		BackendGuard guard = new BackendGuard("usuarios", true, backend(20, 10, Duration.ofSeconds(5), Duration.ofSeconds(30), 1));
+		CountDownLatch dentro = new CountDownLatch(2);
+		CountDownLatch liberar = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<?>[] lentas = new Future<?>[2];
+			for (int i = 0; i < 2; i++) {
+				lentas[i] = executor.submit(() -> guard.call(() -> {
+					dentro.countDown();
+					try {
+						return liberar.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+				}));
+			}
+			assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(guard.vagasLivres()).isZero();
+
+			long inicio = System.nanoTime();
+			assertThatThrownBy(() -> guard.call(() -> "rapida"))
+					.isInstanceOfSatisfying(BackendIndisponivelException.class,
+							e -> assertThat(e.getMotivo()).isEqualTo(BackendIndisponivelException.BULKHEAD_FULL));
+			assertThat(System.nanoTime() - inicio).isLessThan(100 * MS);
+
+			liberar.countDown();
+			for (Future<?> lenta : lentas) {
+				lenta.get(5, TimeUnit.SECONDS);
+			}
+			assertThat(guard.call(() -> "rapida")).isEqualTo("rapida");
+			assertThat(guard.vagasLivres()).isEqualTo(2);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// bulkhead de 2 vagas sem espera; circuito com 50% de falhas ou 80% de lentas
+	private static GatewayResilienceProperties.Backend backend(int janela, int minimo, Duration lenta, Duration aberto, int testes) {
+		return new GatewayResilienceProperties.Backend(2, Duration.ZERO, janela, minimo, 50, lenta, 80, aberto, testes);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.example.proj.gateway;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"server.tomcat.threads.max=8",
+		"gateway.cache.ttl=100ms",
+		"gateway.coalescing.enabled=false", //os GETs iguais precisam chegar no bulkhead um por um
+		"gateway.resilience.usuarios.max-concurrent=2",
+		"gateway.resilience.usuarios.window-size=4",
+		"gateway.resilience.usuarios.minimum-calls=4",
+		"gateway.resilience.usuarios.slow-call-duration=5s",
+		"gateway.resilience.usuarios.open-duration=30s"
+})
+class BackendIsolationTests {
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@SpyBean
+	private UsuariosBackend usuariosBackend;
+
+	@AfterEach
+	void resetSpies() {
+		Mockito.reset(usuariosBackend);
+	}
+
+	@Test
+	void slowSoapBackendOnlyHoldsItsOwnBulkheadAndRestKeepsAnswering() throws Exception {
+		doAnswer(invocation -> {
+			Thread.sleep(1_500);
+			return invocation.callRealMethod();
+		}).when(usuariosBackend).getAllUsuarios(any());
+
+		ExecutorService executor = Executors.newFixedThreadPool(6);
+		try {
+			List<Future<ResponseEntity<String>>> usuarios = new ArrayList<>();
+			for (int i = 0; i < 6; i++) {
+				usuarios.add(executor.submit(() -> rest.getForEntity("/gateway/usuarios", String.class)));
+			}
+			Thread.sleep(200);
+
+			//as 2 vagas do SOAP estão ocupadas, mas o REST continua rápido
+			for (int i = 0; i < 20; i++) {
+				long inicio = System.nanoTime();
+				ResponseEntity<String> livros = rest.getForEntity("/gateway/livros?limit=5&after=" + i, String.class);
+				assertThat(livros.getStatusCode().value()).isEqualTo(200);
+				assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(500L);
+			}
+
+			int ok = 0;
+			int recusados = 0;
+			for (Future<ResponseEntity<String>> future : usuarios) {
+				ResponseEntity<String> response = future.get(10, TimeUnit.SECONDS);
+				if (response.getStatusCode().value() == 200) {
+					ok++;
+				} else {
+					assertThat(response.getStatusCode().value()).isEqualTo(503);
+					assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+					assertThat(response.getBody()).contains("bulkhead cheio");
+					recusados++;
+				}
+			}
+			assertThat(ok).isEqualTo(2);
+			assertThat(recusados).isEqualTo(4);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@DirtiesContext
+	void openCircuitFailsFastAndServesTheLastGoodResponseAsStale() throws Exception {
+		ResponseEntity<String> boa = rest.getForEntity("/gateway/usuarios/1", String.class);
+		assertThat(boa.getStatusCode().value()).isEqualTo(200);
+
+		AtomicInteger chamadas = new AtomicInteger();
+		doAnswer(invocation -> {
+			chamadas.incrementAndGet();
+			throw new IllegalStateException("SOAP fora do ar");
+		}).when(usuariosBackend).getUsuario(any());
+		Thread.sleep(200); //passa do ttl do cache
+
+		//falhas (500) até o circuito abrir
+		int status = 0;
+		for (int i = 0; i < 10 && status != 503; i++) {
+			status = rest.getForEntity("/gateway/usuarios/2", String.class).getStatusCode().value();
+		}
+		assertThat(status).isEqualTo(503);
+
+		//aberto: nem chama o backend
+		int antes = chamadas.get();
+		ResponseEntity<String> recusada = rest.getForEntity("/gateway/usuarios/2", String.class);
+		assertThat(recusada.getStatusCode().value()).isEqualTo(503);
+		assertThat(Long.parseLong(recusada.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(20L, 30L);
+		assertThat(chamadas).hasValue(antes);
+
+		//com resposta boa guardada, o cliente recebe a vencida em vez do 503
+		ResponseEntity<String> vencida = rest.getForEntity("/gateway/usuarios/1", String.class);
+		assertThat(vencida.getStatusCode().value()).isEqualTo(200);
+		assertThat(vencida.getHeaders().getFirst(HttpHeaders.WARNING)).startsWith("110");
+		assertThat(vencida.getBody()).isEqualTo(boa.getBody());
+		assertThat(chamadas).hasValue(antes);
+
+		assertThat(rest.getForEntity("/gateway/livros?limit=5", String.class).getStatusCode().value()).isEqualTo(200);
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.example.proj.gateway;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GatewayCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private GatewayResponseCache cache;
+
+	@SpyBean
+	private LivrosBackend livrosBackend;
+
+	@AfterEach
+	void resetSpies() {
+		Mockito.reset(livrosBackend);
+	}
+
+	@Test
+	void secondReadIsServedFromCacheAndIfNoneMatchShortCircuitsTo304() throws Exception {
+		long hits = (long) cache.stats().get("hits");
+
+		MvcResult primeira = mockMvc.perform(get("/gateway/usuarios/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn();
+		String etag = primeira.getResponse().getHeader(HttpHeaders.ETAG);
+
+		MvcResult segunda = mockMvc.perform(get("/gateway/usuarios/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andReturn();
+		assertThat(segunda.getResponse().getContentAsString()).isEqualTo(primeira.getResponse().getContentAsString());
+
+		MvcResult naoModificada = mockMvc.perform(get("/gateway/usuarios/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andReturn();
+		assertThat(naoModificada.getResponse().getContentAsByteArray()).isEmpty();
+		assertThat((long) cache.stats().get("hits")).isEqualTo(hits + 2);
+	}
+
+	@Test
+	void postThroughTheGatewayInvalidatesTheCachedList() throws Exception {
+		String antes = mockMvc.perform(get("/gateway/livros")).andReturn().getResponse().getContentAsString();
+		assertThat(antes).doesNotContain("Livro invalidador");
+
+		mockMvc.perform(post("/gateway/livros")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"titulo\":\"Livro invalidador\",\"autor\":\"Cache\",\"isbn\":\"cache-1\"}"))
+				.andExpect(status().isOk());
+
+		String depois = mockMvc.perform(get("/gateway/livros")).andReturn().getResponse().getContentAsString();
+		assertThat(depois).contains("Livro invalidador");
+	}
+
+	@Test
+	void readStartedAfterAPostSeesTheNewRecordEvenWithAnOlderReadInFlight() throws Exception {
+		String lista = "/gateway/livros?limit=499";
+		CountDownLatch chamou = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		AtomicBoolean primeira = new AtomicBoolean(true);
+		//backend lento: a primeira leitura pega a lista de antes do POST e demora para responder
+		doAnswer(invocation -> {
+			Object livros = invocation.callRealMethod();
+			if (primeira.getAndSet(false)) {
+				chamou.countDown();
+				liberar.await(10, TimeUnit.SECONDS);
+			}
+			return livros;
+		}).when(livrosBackend).getAllLivros(any(), any(), any());
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<String> antiga = executor.submit(() -> mockMvc.perform(get(lista)).andReturn().getResponse().getContentAsString());
+			assertThat(chamou.await(5, TimeUnit.SECONDS)).isTrue();
+
+			mockMvc.perform(post("/gateway/livros")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content("{\"titulo\":\"Livro em voo\",\"autor\":\"Coalescing\",\"isbn\":\"coalescing-1\"}"))
+					.andExpect(status().isOk());
+
+			//não espera a leitura antiga: vai ao backend e já vê o livro novo
+			Future<String> nova = executor.submit(() -> mockMvc.perform(get(lista)).andReturn().getResponse().getContentAsString());
+			assertThat(nova.get(5, TimeUnit.SECONDS)).contains("Livro em voo");
+
+			liberar.countDown();
+			assertThat(antiga.get(5, TimeUnit.SECONDS)).doesNotContain("Livro em voo");
+		} finally {
+			liberar.countDown();
+		}
+
+		//a resposta antiga chegou depois do POST e não ficou no cache
+		String depois = mockMvc.perform(get(lista)).andReturn().getResponse().getContentAsString();
+		assertThat(depois).contains("Livro em voo");
+	}
+
+	@Test
+	void notFoundIsNotCached() throws Exception {
+		mockMvc.perform(get("/gateway/livros/999999")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/gateway/livros/999999")).andExpect(status().isNotFound())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void responsesAboveTheEntryLimitAreNotCached() {
+		var pequeno = new GatewayResponseCache(new GatewayCacheProperties(true, DataSize.ofKilobytes(1), DataSize.ofBytes(100),
+				Duration.ofMinutes(1), Duration.ofMinutes(1)));
+		var chave = new GatewayResponseCache.Chave("livros", "/gateway/livros", "");
+
+		assertThat(pequeno.put(chave, pequeno.geracao("livros"), new byte[101], "application/json")).isNull();
+		assertThat(pequeno.get(chave)).isNull();
+		assertThat(pequeno.getStale(chave)).isNull();
+		assertThat(pequeno.stats().get("tooLarge")).isEqualTo(1L);
+
+		assertThat(pequeno.put(chave, pequeno.geracao("livros"), new byte[100], "application/json")).isNotNull();
+		assertThat(pequeno.get(chave)).isNotNull();
+	}
+
+}
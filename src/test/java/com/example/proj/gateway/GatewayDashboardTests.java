@@ -0,0 +1,114 @@
+package com.example.proj.gateway;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GatewayDashboardTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@SpyBean
+	private LivrosBackend livrosBackend;
+
+	@SpyBean
+	private UsuariosBackend usuariosBackend;
+
+	@AfterEach
+	void resetSpies() {
+		Mockito.reset(livrosBackend, usuariosBackend);
+	}
+
+	@Test
+	void backendsAreCalledInParallel() throws Exception {
+		atrasarLivros(400);
+		atrasarUsuarios(400);
+
+		long inicio = System.nanoTime();
+		JsonNode dashboard = dashboard("/gateway/dashboard?deadlineMs=3000", 200);
+		long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+		assertThat(dashboard.get("complete").asBoolean()).isTrue();
+		assertThat(dashboard.at("/sources/livros/data/livros").size()).isPositive();
+		assertThat(dashboard.at("/sources/usuarios/data").size()).isPositive();
+		//perto da chamada mais lenta (400ms), longe da soma (800ms)
+		assertThat(ms).isBetween(400L, 750L);
+	}
+
+	@Test
+	void slowBackendTimesOutWithoutHidingTheOtherSource() throws Exception {
+		atrasarUsuarios(5_000);
+
+		long inicio = System.nanoTime();
+		JsonNode dashboard = dashboard("/gateway/dashboard?deadlineMs=300", 200);
+		long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+		assertThat(dashboard.get("complete").asBoolean()).isFalse();
+		assertThat(dashboard.at("/sources/livros/status").asText()).isEqualTo("ok");
+		assertThat(dashboard.at("/sources/usuarios/status").asText()).isEqualTo("timeout");
+		assertThat(dashboard.at("/sources/usuarios").has("data")).isFalse();
+		assertThat(ms).isLessThan(1_000L);
+	}
+
+	@Test
+	void failingBackendIsReportedPerSource() throws Exception {
+		doThrow(new IllegalStateException("REST fora do ar")).when(livrosBackend).getAllLivros(anyInt(), any(), any());
+
+		JsonNode dashboard = dashboard("/gateway/dashboard", 200);
+
+		assertThat(dashboard.at("/sources/livros/status").asText()).isEqualTo("error");
+		assertThat(dashboard.at("/sources/livros/error").asText()).isEqualTo("REST fora do ar");
+		assertThat(dashboard.at("/sources/usuarios/status").asText()).isEqualTo("ok");
+	}
+
+	@Test
+	void noSourceInTimeIsAGatewayTimeout() throws Exception {
+		atrasarLivros(5_000);
+		atrasarUsuarios(5_000);
+
+		JsonNode dashboard = dashboard("/gateway/dashboard?deadlineMs=100", 504);
+
+		assertThat(dashboard.get("complete").asBoolean()).isFalse();
+	}
+
+	private void atrasarLivros(long ms) {
+		doAnswer(invocation -> {
+			Thread.sleep(ms);
+			return invocation.callRealMethod();
+		}).when(livrosBackend).getAllLivros(anyInt(), any(), any());
+	}
+
+	private void atrasarUsuarios(long ms) {
+		doAnswer(invocation -> {
+			Thread.sleep(ms);
+			return invocation.callRealMethod();
+		}).when(usuariosBackend).getAllUsuarios(any());
+	}
+
+	private JsonNode dashboard(String url, int status) throws Exception {
+		var response = mockMvc.perform(get(url)).andReturn().getResponse();
+		assertThat(response.getStatus()).isEqualTo(status);
+		return objectMapper.readTree(response.getContentAsString());
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.example.proj.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GatewayEventsTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AdmissionFilter admissionFilter;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void createsArePushedAndAReconnectResumesFromLastEventId() throws Exception {
+		try (Stream<String> linhas = abrir(null)) {
+			Leitor leitor = new Leitor(linhas);
+			//o stream aberto não segura vaga no limite de concorrência (a vaga volta quando o filtro termina)
+			long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (admissionFilter.emUso() > 0 && System.nanoTime() < limite) {
+				Thread.sleep(10);
+			}
+			assertThat(admissionFilter.emUso()).isZero();
+
+			restTemplate.postForEntity("/api/livros", json("{\"titulo\":\"Livro do feed\",\"autor\":\"SSE\",\"isbn\":\"sse-1\"}"), String.class);
+			Evento livro = leitor.proximo();
+			assertThat(livro.tipo()).isEqualTo("livro.created");
+			assertThat(livro.dados()).contains("\"titulo\":\"Livro do feed\"").contains("\"isbn\":\"sse-1\"");
+
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(MediaType.TEXT_XML);
+			restTemplate.postForEntity("/ws", new HttpEntity<>("""
+					<soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+					<soapenv:Body><usr:createUsuarioRequest><usr:nome>Usuario do feed</usr:nome><usr:email>feed@email.com</usr:email></usr:createUsuarioRequest></soapenv:Body>
+					</soapenv:Envelope>""", headers), String.class);
+			Evento usuario = leitor.proximo();
+			assertThat(usuario.tipo()).isEqualTo("usuario.created");
+			assertThat(usuario.dados()).contains("\"email\":\"feed@email.com\"");
+			assertThat(usuario.id()).isEqualTo(livro.id() + 1);
+
+			//quem caiu depois do livro recebe o usuário ao reconectar
+			try (Stream<String> retomadas = abrir(Long.toString(livro.id()))) {
+				Evento perdido = new Leitor(retomadas).proximo();
+				assertThat(perdido).isEqualTo(usuario);
+			}
+		}
+	}
+
+	private Stream<String> abrir(String lastEventId) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/gateway/events"))
+				.header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+		if (lastEventId != null) {
+			request.header("Last-Event-ID", lastEventId);
+		}
+		HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValueSatisfying(
+				tipo -> assertThat(tipo).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+		return response.body();
+	}
+
+	private static HttpEntity<String> json(String body) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		return new HttpEntity<>(body, headers);
+	}
+
+	private record Evento(long id, String tipo, String dados) {
+	}
+
+	// lê as linhas do stream numa thread separada e monta um evento a cada linha em branco
+	private static final class Leitor {
+
+		private final BlockingQueue<Evento> eventos = new LinkedBlockingQueue<>();
+
+		Leitor(Stream<String> linhas) {
+			Thread.ofVirtual().start(() -> {
+				List<String> campos = new ArrayList<>();
+				try {
+					linhas.forEach(linha -> {
+						if (!linha.isEmpty()) {
+							campos.add(linha);
+							return;
+						}
+						if (campos.stream().anyMatch(campo -> campo.startsWith("id:"))) {
+							eventos.add(new Evento(Long.parseLong(campo(campos, "id:")), campo(campos, "event:"), campo(campos, "data:")));
+						}
+						campos.clear();
+					});
+				} catch (RuntimeException e) {
+					//stream fechado no fim do teste
+				}
+			});
+		}
+
+		Evento proximo() throws InterruptedException {
+			Evento evento = eventos.poll(10, TimeUnit.SECONDS);
+			assertThat(evento).as("nenhum evento em 10s").isNotNull();
+			return evento;
+		}
+
+		private static String campo(List<String> campos, String nome) {
+			return campos.stream().filter(campo -> campo.startsWith(nome)).findFirst()
+					.map(campo -> campo.substring(nome.length()).trim()).orElse(null);
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.example.proj.gateway;
+
+import com.example.proj.soap.SoapSchema;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.xml.stream.XMLStreamWriter;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonPayloadWriterTests {
+
+	private static final String NS = "http://proj.example.com/usuario";
+
+	private static final SoapSchema schema = lerSchema();
+
+	@Test
+	void repeatedElementsBecomeArraysWithNumbersAndRenamedRootFields() throws Exception {
+		StringWriter json = new StringWriter();
+		JsonGenerator gen = new JsonFactory().createGenerator(json);
+		gen.writeStartObject();
+		JsonPayloadWriter writer = new JsonPayloadWriter(gen, schema.elemento("getAllUsuariosResponse"), Map.of("usuario", "usuarios"));
+
+		writer.writeStartElement("ns2", "getAllUsuariosResponse", NS);
+		writer.writeNamespace("ns2", NS);
+		usuario(writer, "1", "Ana");
+		writer.writeCharacters("\n  ");
+		usuario(writer, "2", "Bia");
+		elemento(writer, "nextPageToken", "abc");
+		elemento(writer, "desconhecido", "ignorado");
+		writer.writeEndElement();
+		gen.writeEndObject();
+		gen.close();
+
+		assertThat(json.toString()).isEqualTo("{\"usuarios\":[{\"id\":1,\"nome\":\"Ana\",\"email\":\"Ana@email.com\"},"
+				+ "{\"id\":2,\"nome\":\"Bia\",\"email\":\"Bia@email.com\"}],\"nextPageToken\":\"abc\"}");
+		assertThat(writer.contagem()).isEqualTo(2);
+		assertThat(writer.vazio()).isFalse();
+	}
+
+	@Test
+	void emptyResponseHasEmptyArraysAndIsFlaggedEmpty() throws Exception {
+		StringWriter json = new StringWriter();
+		JsonGenerator gen = new JsonFactory().createGenerator(json);
+		gen.writeStartObject();
+		JsonPayloadWriter lista = new JsonPayloadWriter(gen, schema.elemento("getUsuariosByIdsResponse"), Map.of());
+		lista.writeEmptyElement(NS, "getUsuariosByIdsResponse");
+		gen.writeEndObject();
+		gen.close();
+
+		assertThat(json.toString()).isEqualTo("{\"usuario\":[],\"notFound\":[]}");
+		assertThat(lista.contagem()).isZero();
+		assertThat(lista.vazio()).isTrue();
+
+		JsonPayloadWriter unico = new JsonPayloadWriter(new JsonFactory().createGenerator(new StringWriter()),
+				schema.elemento("getUsuarioResponse"), Map.of());
+		unico.writeEmptyElement(NS, "getUsuarioResponse");
+		assertThat(unico.vazio()).isTrue();
+		assertThat(unico.contagem()).isEqualTo(-1);
+	}
+
+	private static void usuario(XMLStreamWriter writer, String id, String nome) throws Exception {
+		writer.writeStartElement("ns2", "usuario", NS);
+		elemento(writer, "id", id);
+		elemento(writer, "nome", nome);
+		elemento(writer, "email", nome + "@email.com");
+		writer.writeEndElement();
+	}
+
+	private static void elemento(XMLStreamWriter writer, String nome, String valor) throws Exception {
+		writer.writeStartElement("ns2", nome, NS);
+		writer.writeCharacters(valor.toCharArray(), 0, valor.length());
+		writer.writeEndElement();
+	}
+
+	private static SoapSchema lerSchema() {
+		try (InputStream xsd = new ClassPathResource("usuarios.xsd").getInputStream()) {
+			return SoapSchema.ler(xsd);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.proj.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Modo remote com o backend sendo esta mesma instância (o padrão) e o controle de admissão ligado:
+ * as chamadas do gateway ao /api e ao /ws não podem cair no bucket do IP 127.0.0.1 nem ocupar
+ * uma segunda vaga do limite de concorrência.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT, properties = {
+		"gateway.backend.mode=remote",
+		"gateway.cache.enabled=false",
+		"gateway.coalescing.enabled=false",
+		"gateway.admission.rate-limit.permits-per-second=1",
+		"gateway.admission.rate-limit.burst=2",
+		"gateway.admission.client-keys=livros-0,livros-1,livros-2,livros-3,livros-4,usuarios-0,usuarios-1,usuarios-2,"
+				+ "usuarios-3,usuarios-4,pages-0,pages-1,pages-2,pages-3,pages-4,apressado",
+		"gateway.admission.concurrency.initial-limit=1",
+		"gateway.admission.concurrency.min-limit=1",
+		"gateway.admission.concurrency.max-limit=1"
+})
+class RemoteAdmissionTests {
+
+	private static final int PORTA = portaLivre();
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private AdmissionFilter admissionFilter;
+
+	@DynamicPropertySource
+	static void backends(DynamicPropertyRegistry registry) {
+		registry.add("server.port", () -> PORTA);
+		registry.add("gateway.backend.livros.url", () -> "http://localhost:" + PORTA);
+		registry.add("gateway.backend.usuarios.url", () -> "http://localhost:" + PORTA + "/ws");
+	}
+
+	@Test
+	void gatewayCallsToItsOwnBackendsAreNotAdmittedAgain() {
+		long limitados = admissionFilter.rejeitados(AdmissionFilter.RATE_LIMITED);
+		long sobrecarregados = admissionFilter.rejeitados(AdmissionFilter.OVERLOADED);
+		//cada request vem de um cliente novo: só as chamadas internas poderiam estourar o burst de 2
+		for (int i = 0; i < 5; i++) {
+			assertThat(get("/gateway/livros?limit=" + (i + 1), "livros-" + i).getStatusCode().value()).isEqualTo(200);
+			assertThat(get("/gateway/usuarios", "usuarios-" + i).getStatusCode().value()).isEqualTo(200);
+			assertThat(get("/gateway/usuarios/pages?limit=" + (i + 1), "pages-" + i).getStatusCode().value()).isEqualTo(200);
+		}
+		assertThat(admissionFilter.rejeitados(AdmissionFilter.RATE_LIMITED)).isEqualTo(limitados);
+		assertThat(admissionFilter.rejeitados(AdmissionFilter.OVERLOADED)).isEqualTo(sobrecarregados);
+		assertThat(admissionFilter.emUso()).isZero();
+
+		//o cliente continua limitado: o terceiro request seguido passa do burst
+		assertThat(get("/gateway/livros?limit=1", "apressado").getStatusCode().value()).isEqualTo(200);
+		assertThat(get("/gateway/livros?limit=2", "apressado").getStatusCode().value()).isEqualTo(200);
+		ResponseEntity<String> limitado = get("/gateway/livros?limit=3", "apressado");
+		assertThat(limitado.getStatusCode().value()).isEqualTo(429);
+		assertThat(admissionFilter.rejeitados(AdmissionFilter.RATE_LIMITED)).isEqualTo(limitados + 1);
+	}
+
+	@Test
+	void onlyTheGatewayKeyBypassesAdmission() {
+		//uma chave qualquer no header não é a do gateway: conta no bucket do IP
+		for (int i = 0; i < 2; i++) {
+			assertThat(get("/api/livros?limit=1", "gateway-falso").getStatusCode().value()).isEqualTo(200);
+		}
+		assertThat(get("/api/livros?limit=1", "gateway-falso").getStatusCode().value()).isEqualTo(429);
+	}
+
+	private ResponseEntity<String> get(String uri, String apiKey) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set("X-API-Key", apiKey);
+		return rest.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+	}
+
+	private static int portaLivre() {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
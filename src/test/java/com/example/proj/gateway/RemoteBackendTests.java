@@ -0,0 +1,259 @@
+package com.example.proj.gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"gateway.backend.mode=remote",
+		//os erros e o timeout provocados aqui não podem abrir o circuito para os outros testes
+		"gateway.resilience.livros.window-size=100",
+		"gateway.resilience.livros.minimum-calls=100"
+})
+@AutoConfigureMockMvc
+class RemoteBackendTests {
+
+	private static final String SOAP_USUARIO = """
+			<SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/"><SOAP-ENV:Body>
+			<getUsuarioResponse xmlns="http://proj.example.com/usuario"><usuario><id>5</id><nome>Stub</nome><email>stub@email.com</email></usuario></getUsuarioResponse>
+			</SOAP-ENV:Body></SOAP-ENV:Envelope>""";
+
+	private static final String SOAP_FAULT = """
+			<SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/"><SOAP-ENV:Body>
+			<SOAP-ENV:Fault><faultcode>SOAP-ENV:Client</faultcode><faultstring xml:lang="en">email inválido</faultstring></SOAP-ENV:Fault>
+			</SOAP-ENV:Body></SOAP-ENV:Envelope>""";
+
+	private static final String SOAP_FAULT_SERVER = """
+			<SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/"><SOAP-ENV:Body>
+			<SOAP-ENV:Fault><faultcode>SOAP-ENV:Server</faultcode><faultstring xml:lang="en">banco fora do ar</faultstring></SOAP-ENV:Fault>
+			</SOAP-ENV:Body></SOAP-ENV:Envelope>""";
+
+	private static final String SOAP_FAULT_DUPLICADO = """
+			<SOAP-ENV:Envelope xmlns:SOAP-ENV="http://schemas.xmlsoap.org/soap/envelope/"><SOAP-ENV:Body>
+			<SOAP-ENV:Fault><faultcode>SOAP-ENV:Client</faultcode><faultstring xml:lang="en">Já existe um usuário com o email dup@email.com</faultstring></SOAP-ENV:Fault>
+			</SOAP-ENV:Body></SOAP-ENV:Envelope>""";
+
+	private static volatile String ultimoPedidoSoap;
+	private static volatile int statusLivro8 = 200;
+
+	private static final HttpServer stub = startStub();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private LivrosBackend livrosBackend;
+
+	@Autowired
+	private GatewayResponseCache cache;
+
+	@DynamicPropertySource
+	static void backends(DynamicPropertyRegistry registry) {
+		String base = "http://localhost:" + stub.getAddress().getPort();
+		registry.add("gateway.backend.livros.url", () -> base);
+		registry.add("gateway.backend.livros.timeout", () -> "500ms");
+		registry.add("gateway.backend.usuarios.url", () -> base + "/ws");
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.stop(0);
+	}
+
+	@Test
+	void livrosAreFetchedOverHttp() throws Exception {
+		assertThat(livrosBackend).isInstanceOf(RemoteLivrosBackend.class);
+
+		mockMvc.perform(get("/gateway/livros?limit=1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.livros[0].titulo").value("Livro remoto"))
+				.andExpect(jsonPath("$._links.next").value("/gateway/livros?limit=1&after=1"));
+		mockMvc.perform(get("/gateway/livros/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.livro.id").value(1));
+		mockMvc.perform(get("/gateway/livros/99"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void usuariosAreFetchedWithARealSoapCall() throws Exception {
+		mockMvc.perform(get("/gateway/usuarios/5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.usuario.nome").value("Stub"))
+				.andExpect(jsonPath("$.usuario.id").value(5))
+				.andExpect(jsonPath("$._links.self").value("/gateway/usuarios/5"));
+		assertThat(ultimoPedidoSoap).contains("<getUsuarioRequest xmlns=\"http://proj.example.com/usuario\"><id>5</id>");
+	}
+
+	@Test
+	void soapFaultFromTheRemoteServiceIsMappedByFaultCode() throws Exception {
+		mockMvc.perform(get("/gateway/usuarios/by-email").param("email", "fault@email.com"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("email inválido"));
+	}
+
+	@Test
+	void backendClientErrorsKeepTheirStatusAndBody() throws Exception {
+		mockMvc.perform(get("/gateway/livros").param("fields", "bogus"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Campo desconhecido em fields: bogus"));
+		mockMvc.perform(get("/gateway/livros").param("ids", "1").param("fields", "bogus"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/gateway/livros/search").param("q", "x").param("fields", "bogus"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void soapFaultsFromTheTemplateCallsAreMappedByFaultCode() throws Exception {
+		mockMvc.perform(get("/gateway/usuarios").param("ids", "66"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("email inválido"));
+		mockMvc.perform(get("/gateway/usuarios").param("ids", "67"))
+				.andExpect(status().isBadGateway())
+				.andExpect(jsonPath("$.error").value("Fault do backend: banco fora do ar"));
+	}
+
+	@Test
+	void onlyTheDuplicateEmailFaultBecomesAConflict() throws Exception {
+		mockMvc.perform(post("/gateway/usuarios").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nome\":\"Dup\",\"email\":\"dup@email.com\"}"))
+				.andExpect(status().isConflict());
+		mockMvc.perform(post("/gateway/usuarios").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nome\":\"Fault\",\"email\":\"fault@email.com\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("email inválido"));
+	}
+
+	@Test
+	void backendErrorsAreNotMappedTo404() throws Exception {
+		mockMvc.perform(get("/gateway/livros/500"))
+				.andExpect(status().isBadGateway())
+				.andExpect(jsonPath("$.source").value("REST API"));
+		mockMvc.perform(get("/gateway/livros/503"))
+				.andExpect(status().isBadGateway());
+		mockMvc.perform(get("/gateway/livros/429"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+		//o 404 continua 404
+		mockMvc.perform(get("/gateway/livros/99"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void backendErrorServesTheStaleResponse() throws Exception {
+		mockMvc.perform(get("/gateway/livros/8"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.livro.id").value(8));
+
+		statusLivro8 = 500;
+		try {
+			cache.invalidate("livros");
+			mockMvc.perform(get("/gateway/livros/8"))
+					.andExpect(status().isOk())
+					.andExpect(header().exists(HttpHeaders.WARNING))
+					.andExpect(jsonPath("$.data.livro.id").value(8));
+		} finally {
+			statusLivro8 = 200;
+		}
+	}
+
+	@Test
+	void slowBackendHitsItsTimeout() throws Exception {
+		long inicio = System.nanoTime();
+		mockMvc.perform(get("/gateway/livros/7"))
+				.andExpect(status().isGatewayTimeout())
+				.andExpect(jsonPath("$.source").value("REST API"));
+		assertThat((System.nanoTime() - inicio) / 1_000_000).isLessThan(2_000);
+	}
+
+	private static HttpServer startStub() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.createContext("/api/livros", exchange -> {
+				String path = exchange.getRequestURI().getPath();
+				String query = exchange.getRequestURI().getQuery();
+				if (query != null && query.contains("fields=bogus")) {
+					reply(exchange, 400, "application/json", """
+							{"status":400,"error":"Bad Request","message":"Campo desconhecido em fields: bogus"}""");
+					return;
+				}
+				switch (path) {
+					case "/api/livros" -> reply(exchange, 200, "application/json", """
+							{"livros":[{"id":1,"titulo":"Livro remoto","autor":"Stub","isbn":"1"}],"count":1,"nextCursor":1,
+							 "_links":{"self":"/api/livros?limit=1"}}""");
+					case "/api/livros/1" -> reply(exchange, 200, "application/json", """
+							{"livro":{"id":1,"titulo":"Livro remoto","autor":"Stub","isbn":"1"},"_links":{"self":"/api/livros/1"}}""");
+					case "/api/livros/8" -> reply(exchange, statusLivro8, "application/json", statusLivro8 == 200 ? """
+							{"livro":{"id":8,"titulo":"Livro oito","autor":"Stub","isbn":"8"}}""" : "");
+					case "/api/livros/500", "/api/livros/503" -> reply(exchange, Integer.parseInt(path.substring(12)), "application/json", "");
+					case "/api/livros/429" -> {
+						exchange.getResponseHeaders().set("Retry-After", "3");
+						reply(exchange, 429, "application/json", "");
+					}
+					case "/api/livros/7" -> {
+						sleep(3_000);
+						reply(exchange, 200, "application/json", "{}");
+					}
+					default -> reply(exchange, 404, "application/json", "");
+				}
+			});
+			server.createContext("/ws", exchange -> {
+				ultimoPedidoSoap = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+				if (ultimoPedidoSoap.contains("fault@email.com") || ultimoPedidoSoap.contains(">66</")) {
+					reply(exchange, 500, "text/xml; charset=utf-8", SOAP_FAULT);
+				} else if (ultimoPedidoSoap.contains(">67</")) {
+					reply(exchange, 500, "text/xml; charset=utf-8", SOAP_FAULT_SERVER);
+				} else if (ultimoPedidoSoap.contains("dup@email.com")) {
+					reply(exchange, 500, "text/xml; charset=utf-8", SOAP_FAULT_DUPLICADO);
+				} else {
+					reply(exchange, 200, "text/xml; charset=utf-8", SOAP_USUARIO);
+				}
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void reply(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+package com.example.proj.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTests {
+
+	@Test
+	void concurrentIdenticalReadsShareOneBackendCall() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer(new GatewayCoalescingProperties(true, Duration.ofSeconds(5)));
+		CountDownLatch chamou = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		AtomicInteger chamadas = new AtomicInteger();
+		Object resposta = new Object();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<Object> primeiro = executor.submit(() -> coalescer.call("usuarios", "/usuarios/1", () -> {
+				chamadas.incrementAndGet();
+				chamou.countDown();
+				await(liberar);
+				return resposta;
+			}));
+			assertThat(chamou.await(5, TimeUnit.SECONDS)).isTrue();
+
+			List<Future<Object>> outros = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				outros.add(executor.submit(() -> coalescer.call("usuarios", "/usuarios/1", () -> {
+					chamadas.incrementAndGet();
+					return new Object();
+				})));
+			}
+			//outra rota e o mesmo id em outro backend não esperam
+			assertThat(coalescer.call("usuarios", "/usuarios/2", () -> "2")).isEqualTo("2");
+			assertThat(coalescer.call("livros", "/usuarios/1", () -> "livro")).isEqualTo("livro");
+			while (coalescer.juntados() < 10) {
+				Thread.sleep(1);
+			}
+			liberar.countDown();
+
+			assertThat(primeiro.get(5, TimeUnit.SECONDS)).isSameAs(resposta);
+			for (Future<Object> outro : outros) {
+				assertThat(outro.get(5, TimeUnit.SECONDS)).isSameAs(resposta);
+			}
+		}
+		assertThat(chamadas).hasValue(1);
+		assertThat(coalescer.chamadas()).isEqualTo(3);
+		assertThat(coalescer.emAndamento()).isZero();
+
+		//terminada a chamada nada fica guardado: a próxima vai ao backend de novo
+		assertThat(coalescer.call("usuarios", "/usuarios/1", () -> "nova")).isEqualTo("nova");
+	}
+
+	@Test
+	void everyWaiterGetsTheBackendException() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer(new GatewayCoalescingProperties(true, Duration.ofSeconds(5)));
+		CountDownLatch liberar = new CountDownLatch(1);
+		IllegalStateException erro = new IllegalStateException("SOAP fora do ar");
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<Object>> requests = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				requests.add(executor.submit(() -> coalescer.call("usuarios", "/usuarios", () -> {
+					await(liberar);
+					throw erro;
+				})));
+			}
+			while (coalescer.chamadas() + coalescer.juntados() < 5) {
+				Thread.sleep(1);
+			}
+			liberar.countDown();
+
+			for (Future<Object> request : requests) {
+				assertThatThrownBy(() -> request.get(5, TimeUnit.SECONDS))
+						.isInstanceOf(ExecutionException.class)
+						.cause().isSameAs(erro);
+			}
+		}
+		assertThat(coalescer.chamadas()).isEqualTo(1);
+		assertThat(coalescer.emAndamento()).isZero();
+	}
+
+	@Test
+	void waitersGiveUpAfterMaxWaitWithoutCancellingTheCall() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer(new GatewayCoalescingProperties(true, Duration.ofMillis(50)));
+		CountDownLatch chamou = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<String> primeiro = executor.submit(() -> coalescer.call("livros", "/livros", () -> {
+				chamou.countDown();
+				await(liberar);
+				return "livros";
+			}));
+			assertThat(chamou.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assertThatThrownBy(() -> coalescer.call("livros", "/livros", () -> "outra"))
+					.isInstanceOfSatisfying(BackendIndisponivelException.class, e -> {
+						assertThat(e.getBackend()).isEqualTo("livros");
+						assertThat(e.getMotivo()).isEqualTo(BackendIndisponivelException.COALESCING_TIMEOUT);
+						assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+					});
+			assertThat(coalescer.esgotados()).isEqualTo(1);
+
+			liberar.countDown();
+			assertThat(primeiro.get(5, TimeUnit.SECONDS)).isEqualTo("livros");
+		}
+	}
+
+	@Test
+	void readAfterAWriteDoesNotJoinTheCallThatStartedBeforeIt() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer(new GatewayCoalescingProperties(true, Duration.ofSeconds(5)));
+		CountDownLatch chamou = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<String> antiga = executor.submit(() -> coalescer.call("livros", "/livros", () -> {
+				chamou.countDown();
+				await(liberar);
+				return "antes da escrita";
+			}));
+			assertThat(chamou.await(5, TimeUnit.SECONDS)).isTrue();
+
+			coalescer.invalidate("livros");
+			assertThat(coalescer.call("livros", "/livros", () -> "depois da escrita")).isEqualTo("depois da escrita");
+			assertThat(coalescer.juntados()).isZero();
+
+			liberar.countDown();
+			assertThat(antiga.get(5, TimeUnit.SECONDS)).isEqualTo("antes da escrita");
+		}
+		assertThat(coalescer.chamadas()).isEqualTo(2);
+		assertThat(coalescer.emAndamento()).isZero();
+	}
+
+	@Test
+	void disabledCallsTheBackendEveryTime() {
+		RequestCoalescer coalescer = new RequestCoalescer(new GatewayCoalescingProperties(false, Duration.ofSeconds(1)));
+		AtomicInteger chamadas = new AtomicInteger();
+
+		coalescer.call("livros", "/livros", chamadas::incrementAndGet);
+		coalescer.call("livros", "/livros", chamadas::incrementAndGet);
+
+		assertThat(chamadas).hasValue(2);
+		assertThat(coalescer.chamadas()).isZero();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
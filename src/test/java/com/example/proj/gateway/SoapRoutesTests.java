@@ -0,0 +1,79 @@
+package com.example.proj.gateway;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SoapRoutesTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void routeFromTheTableCallsTheSoapOperation() throws Exception {
+		mockMvc.perform(get("/gateway/usuarios/by-email?email=maria@email.com"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.usuario.id").isNumber())
+				.andExpect(jsonPath("$.usuario.nome").value("Maria Santos"))
+				.andExpect(jsonPath("$.source").value("SOAP API"))
+				.andExpect(jsonPath("$._links.self").value("/gateway/usuarios/by-email?email=maria@email.com"));
+
+		mockMvc.perform(get("/gateway/usuarios/by-email?email=ninguem@email.com"))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(get("/gateway/usuarios/by-email"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Parâmetro obrigatório: email"));
+	}
+
+	@Test
+	void repeatedElementsAreCountedAndFaultsBecome400() throws Exception {
+		mockMvc.perform(get("/gateway/usuarios/pages?limit=1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.usuarios.length()").value(1))
+				.andExpect(jsonPath("$.count").value(1))
+				.andExpect(jsonPath("$.nextPageToken").isString());
+		//streaming=true: o payload escrito direto do store também passa pelo transcoder
+		mockMvc.perform(get("/gateway/usuarios/pages?limit=1&streaming=true"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.usuarios[0].id").isNumber())
+				.andExpect(jsonPath("$.count").value(1));
+
+		mockMvc.perform(get("/gateway/usuarios/pages?limit=um"))
+				.andExpect(status().isBadRequest());
+		//pageToken que o serviço não gerou: Fault Client no SOAP, 400 no gateway
+		mockMvc.perform(get("/gateway/usuarios/pages?pageToken=invalido"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.source").value("SOAP API"));
+	}
+
+	@Test
+	void formatFollowsTheAcceptHeader() throws Exception {
+		byte[] cbor = mockMvc.perform(get("/gateway/usuarios/by-email?email=joao@email.com")
+						.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getContentAsByteArray();
+		JsonNode usuario = new ObjectMapper(new CBORFactory()).readTree(cbor).get("usuario");
+		assertThat(usuario.get("nome").asText()).isEqualTo("João Silva");
+
+		mockMvc.perform(get("/gateway/usuarios/by-email?email=joao@email.com")
+						.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE))
+				.andExpect(status().isNotAcceptable());
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.proj.soap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"soap.validation.enabled=true", "soap.validation.max-errors=2"})
+class SchemaValidatingInterceptorTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void validRequestsReachTheEndpoint() {
+		assertThat(soap("<usr:getUsuarioRequest><usr:id>1</usr:id></usr:getUsuarioRequest>").getBody())
+				.contains("getUsuarioResponse").contains("João Silva");
+		assertThat(soap("<usr:getAllUsuariosRequest><usr:limit>1</usr:limit><usr:streaming>true</usr:streaming></usr:getAllUsuariosRequest>").getBody())
+				.contains("getAllUsuariosResponse").doesNotContain("Fault");
+		assertThat(soap("<usr:getUsuariosByIdsRequest><usr:id>2</usr:id><usr:id>999999</usr:id></usr:getUsuariosByIdsRequest>").getBody())
+				.contains("Maria Santos").contains("<notFound>999999</notFound>");
+		assertThat(soap("""
+				<usr:createUsuariosBatchRequest>
+				<usr:usuario><usr:nome>Validado</usr:nome><usr:email>validado@email.com</usr:email></usr:usuario>
+				</usr:createUsuariosBatchRequest>""").getBody())
+				.contains("CREATED");
+	}
+
+	@Test
+	void invalidPayloadIsRejectedWithClientFault() {
+		ResponseEntity<String> response = soap("<usr:getUsuarioRequest><usr:id>abc</usr:id></usr:getUsuarioRequest>");
+
+		assertThat(response.getStatusCode().value()).isEqualTo(500);
+		assertThat(response.getBody()).contains("Fault").contains("Client").contains("Payload inválido")
+				.contains("ValidationError").contains("abc");
+	}
+
+	@Test
+	void validationStopsAtMaxErrors() {
+		ResponseEntity<String> response = soap("""
+				<usr:createUsuariosBatchRequest>
+				<usr:usuario><usr:email>sem-nome@email.com</usr:email></usr:usuario>
+				<usr:usuario><usr:nome>Sem email</usr:nome></usr:usuario>
+				<usr:usuario><usr:outro/></usr:usuario>
+				</usr:createUsuariosBatchRequest>""");
+
+		assertThat(response.getStatusCode().value()).isEqualTo(500);
+		assertThat(ocorrencias(response.getBody(), "</usr:ValidationError>")).isEqualTo(2);
+		assertThat(response.getBody()).doesNotContain("CREATED");
+	}
+
+	private static int ocorrencias(String texto, String trecho) {
+		int total = 0;
+		for (int i = texto.indexOf(trecho); i >= 0; i = texto.indexOf(trecho, i + 1)) {
+			total++;
+		}
+		return total;
+	}
+
+	private ResponseEntity<String> soap(String payload) {
+		String envelope = """
+				<soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+				<soap:Body>%s</soap:Body>
+				</soap:Envelope>""".formatted(payload);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.TEXT_XML);
+		return restTemplate.postForEntity("/ws", new HttpEntity<>(envelope, headers), String.class);
+	}
+
+}
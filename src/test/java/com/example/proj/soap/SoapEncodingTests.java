@@ -0,0 +1,161 @@
+package com.example.proj.soap;
+
+import com.sun.xml.fastinfoset.dom.DOMDocumentSerializer;
+import jakarta.xml.soap.MessageFactory;
+import jakarta.xml.soap.MimeHeaders;
+import jakarta.xml.soap.SOAPBody;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.w3c.dom.Document;
+
+import javax.wsdl.Definition;
+import javax.wsdl.factory.WSDLFactory;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "server.compression.min-response-size=256B")
+class SoapEncodingTests {
+
+	private static final String FAST_INFOSET = "application/fastinfoset";
+
+	private static final String ENVELOPE = """
+			<soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/" xmlns:usr="http://proj.example.com/usuario">
+			<soap:Body>%s</soap:Body>
+			</soap:Envelope>""";
+
+	private static final String GET_ALL = "<usr:getAllUsuariosRequest/>";
+	private static final String GET_ALL_STREAMING = "<usr:getAllUsuariosRequest><usr:streaming>true</usr:streaming></usr:getAllUsuariosRequest>";
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void fastInfosetIsOnlyUsedWhenTheClientAdvertisesIt() throws Exception {
+		for (String payload : new String[] {GET_ALL, GET_ALL_STREAMING}) {
+			HttpResponse<byte[]> xml = post(xml(payload), "text/xml", "text/xml", null);
+			HttpResponse<byte[]> fastInfoset = post(xml(payload), "text/xml", FAST_INFOSET + ", text/xml", null);
+
+			assertThat(tipo(xml)).startsWith("text/xml");
+			assertThat(tipo(fastInfoset)).startsWith(FAST_INFOSET);
+			SOAPBody esperado = body(xml);
+			SOAPBody recebido = body(fastInfoset);
+			assertThat(recebido.getFirstChild().getLocalName()).isEqualTo("getAllUsuariosResponse");
+			assertThat(recebido.getTextContent()).isEqualTo(esperado.getTextContent()).contains("João Silva");
+			assertThat(fastInfoset.body().length).isLessThan(xml.body().length);
+		}
+	}
+
+	@Test
+	void fastInfosetRequestGetsAFastInfosetResponse() throws Exception {
+		HttpResponse<byte[]> response = post(fastInfoset("<usr:getUsuarioRequest><usr:id>2</usr:id></usr:getUsuarioRequest>"),
+				FAST_INFOSET, null, null);
+
+		assertThat(tipo(response)).startsWith(FAST_INFOSET);
+		assertThat(body(response).getTextContent()).contains("Maria Santos");
+	}
+
+	@Test
+	void faultsFollowTheNegotiatedFormat() throws Exception {
+		//email já cadastrado: o Fault sai pelo caminho DOM do SAAJ, não pelo streaming
+		HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ws"))
+				.header(HttpHeaders.CONTENT_TYPE, "text/xml")
+				.header(HttpHeaders.ACCEPT, FAST_INFOSET)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(xml(
+						"<usr:createUsuarioRequest><usr:nome>Outro</usr:nome><usr:email>joao@email.com</usr:email></usr:createUsuarioRequest>")))
+				.build(), HttpResponse.BodyHandlers.ofByteArray());
+
+		assertThat(response.statusCode()).isEqualTo(500);
+		assertThat(tipo(response)).startsWith(FAST_INFOSET);
+		assertThat(body(response).hasFault()).isTrue();
+	}
+
+	@Test
+	void gzipRequestAndResponseBodies() throws Exception {
+		HttpResponse<byte[]> response = post(gzip(xml(GET_ALL)), "text/xml", "text/xml", "gzip");
+
+		assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+		String xml = new String(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(), StandardCharsets.UTF_8);
+		assertThat(xml).contains("getAllUsuariosResponse").contains("João Silva");
+
+		//Fast Infoset também vai com gzip
+		HttpResponse<byte[]> binario = post(gzip(xml(GET_ALL)), "text/xml", FAST_INFOSET, "gzip");
+		assertThat(tipo(binario)).startsWith(FAST_INFOSET);
+		assertThat(binario.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+	}
+
+	@Test
+	void wsdlIsStillValid() throws Exception {
+		Definition wsdl = WSDLFactory.newInstance().newWSDLReader()
+				.readWSDL("http://localhost:" + port + "/ws/usuarios.wsdl");
+
+		assertThat(wsdl.getTargetNamespace()).isEqualTo("http://proj.example.com/usuario");
+		assertThat(wsdl.getPortTypes()).hasSize(1);
+		assertThat(wsdl.getBindings()).hasSize(1);
+		assertThat(wsdl.getServices()).hasSize(1);
+	}
+
+	private HttpResponse<byte[]> post(byte[] corpo, String contentType, String accept, String encoding) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ws"))
+				.header(HttpHeaders.CONTENT_TYPE, contentType)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(corpo));
+		if (accept != null) {
+			request.header(HttpHeaders.ACCEPT, accept);
+		}
+		if (encoding != null) {
+			request.header(HttpHeaders.CONTENT_ENCODING, encoding).header(HttpHeaders.ACCEPT_ENCODING, encoding);
+		}
+		HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+		assertThat(response.statusCode()).isEqualTo(200);
+		return response;
+	}
+
+	private static String tipo(HttpResponse<?> response) {
+		return response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse("");
+	}
+
+	// lê a resposta (XML ou Fast Infoset, conforme o Content-Type) com o SAAJ, como um cliente faria
+	private static SOAPBody body(HttpResponse<byte[]> response) throws Exception {
+		MimeHeaders headers = new MimeHeaders();
+		headers.addHeader(HttpHeaders.CONTENT_TYPE, tipo(response));
+		return MessageFactory.newInstance().createMessage(headers, new ByteArrayInputStream(response.body())).getSOAPBody();
+	}
+
+	private static byte[] xml(String payload) {
+		return ENVELOPE.formatted(payload).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] fastInfoset(String payload) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document documento = factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml(payload)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DOMDocumentSerializer serializer = new DOMDocumentSerializer();
+		serializer.setOutputStream(out);
+		serializer.serialize(documento);
+		return out.toByteArray();
+	}
+
+	private static byte[] gzip(byte[] corpo) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(corpo);
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,141 @@
+package com.example.proj.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalTests {
+
+	private static final int SEGMENTO = 4096;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void recordsAreReplayedInOrderAfterReopening() throws IOException {
+		try (Journal journal = abrir(1, new ArrayList<>())) {
+			for (int i = 0; i < 500; i++) {
+				journal.sync(journal.append(bytes("registro " + i)));
+			}
+		}
+
+		List<String> lidos = new ArrayList<>();
+		try (Journal journal = abrir(1, lidos)) {
+			journal.sync(journal.append(bytes("depois de reabrir")));
+		}
+		assertThat(lidos).hasSize(500).startsWith("registro 0").endsWith("registro 499");
+		//500 registros não cabem em um segmento de 4KB: o journal rolou para outros arquivos
+		assertThat(segmentos()).hasSizeGreaterThan(1);
+
+		lidos.clear();
+		abrir(1, lidos).close();
+		assertThat(lidos).hasSize(501).endsWith("depois de reabrir");
+	}
+
+	@Test
+	void tornRecordAtTheTailIsDiscarded() throws IOException {
+		try (Journal journal = abrir(1, new ArrayList<>())) {
+			journal.append(bytes("inteiro"));
+			journal.append(bytes("cortado no meio"));
+		}
+		//simula uma queda durante a escrita: o payload do segundo registro ficou pela metade
+		Path segmento = segmentos().get(0);
+		try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+			canal.write(ByteBuffer.wrap(new byte[4]), 8 + "inteiro".length() + 8 + 4);
+		}
+
+		List<String> lidos = new ArrayList<>();
+		try (Journal journal = abrir(1, lidos)) {
+			journal.append(bytes("novo"));
+		}
+		assertThat(lidos).containsExactly("inteiro");
+
+		lidos.clear();
+		abrir(1, lidos).close();
+		assertThat(lidos).containsExactly("inteiro", "novo");
+	}
+
+	@Test
+	void segmentsBeforeTheSnapshotAreSkippedAndDeleted() throws IOException {
+		long segmento;
+		try (Journal journal = abrir(1, new ArrayList<>())) {
+			journal.append(bytes("antes"));
+			segmento = journal.rolar();
+			journal.append(bytes("depois"));
+		}
+
+		List<String> lidos = new ArrayList<>();
+		abrir(segmento, lidos).close();
+		assertThat(lidos).containsExactly("depois");
+		assertThat(segmentos()).hasSize(1);
+	}
+
+	@Test
+	void concurrentWritersShareTheSync() throws Exception {
+		int threads = 16;
+		int porThread = 200;
+		try (Journal journal = new Journal(dir, 1 << 20, true, 1, registro -> { })) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			CountDownLatch largada = new CountDownLatch(1);
+			List<Future<?>> resultados = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int thread = t;
+				resultados.add(executor.submit(() -> {
+					largada.await();
+					for (int i = 0; i < porThread; i++) {
+						journal.sync(journal.append(bytes(thread + "-" + i)));
+					}
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> resultado : resultados) {
+				resultado.get(60, TimeUnit.SECONDS);
+			}
+			executor.shutdown();
+		}
+
+		List<String> lidos = new ArrayList<>();
+		new Journal(dir, 1 << 20, true, 1, registro -> lidos.add(texto(registro))).close();
+		assertThat(lidos).hasSize(threads * porThread).doesNotHaveDuplicates();
+		//a ordem de cada thread é preservada
+		assertThat(lidos.stream().filter(registro -> registro.startsWith("3-")).toList())
+				.isSortedAccordingTo((a, b) -> Integer.compare(Integer.parseInt(a.substring(2)), Integer.parseInt(b.substring(2))));
+	}
+
+	private Journal abrir(long desde, List<String> lidos) throws IOException {
+		return new Journal(dir, SEGMENTO, true, desde, registro -> lidos.add(texto(registro)));
+	}
+
+	private List<Path> segmentos() throws IOException {
+		try (Stream<Path> arquivos = Files.list(dir)) {
+			return arquivos.sorted().toList();
+		}
+	}
+
+	private static byte[] bytes(String valor) {
+		return valor.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String texto(ByteBuffer registro) {
+		return StandardCharsets.UTF_8.decode(registro).toString();
+	}
+
+}
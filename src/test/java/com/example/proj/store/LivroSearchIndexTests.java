@@ -0,0 +1,73 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Livro;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LivroSearchIndexTests {
+
+	private final LivroSearchIndex index = new LivroSearchIndex();
+
+	@Test
+	void matchesWordsIgnoringAccentsCaseAndStopwords() {
+		add(1, "Programação em Java", "Ana Conceição");
+		add(2, "Introdução à Programacao", "João Souza");
+		add(3, "Culinária Mineira", "Ana Souza");
+
+		assertThat(titulos("PROGRAMAÇÃO")).containsExactlyInAnyOrder("Programação em Java", "Introdução à Programacao");
+		assertThat(titulos("conceicao")).containsExactly("Programação em Java");
+		//todas as palavras precisam aparecer; "de" é ignorada
+		assertThat(titulos("ana de souza")).containsExactly("Culinária Mineira");
+		assertThat(titulos("de")).isEmpty();
+	}
+
+	@Test
+	void wordsAlsoMatchAsPrefixesButExactMatchesRankHigher() {
+		add(1, "Programa de Rádio", "Autor");
+		add(2, "Programação Funcional", "Autor");
+		add(3, "Java", "Prog Autor");
+
+		assertThat(titulos("prog")).containsExactlyInAnyOrder("Java", "Programa de Rádio", "Programação Funcional");
+		assertThat(titulos("programa")).startsWith("Programa de Rádio");
+		//uma letra só casa a palavra inteira
+		assertThat(titulos("j")).isEmpty();
+	}
+
+	@Test
+	void titleMatchesRankAboveAuthorMatchesAndRareWordsAboveCommonOnes() {
+		add(1, "Histórias", "Clarice Lispector");
+		add(2, "Clarice", "Benjamin Moser");
+		add(3, "Livro Comum", "Autor");
+		add(4, "Livro Raro", "Autor");
+		add(5, "Livro Comum", "Autor");
+
+		assertThat(titulos("clarice")).containsExactly("Clarice", "Histórias");
+		assertThat(titulos("livro raro")).first().isEqualTo("Livro Raro");
+	}
+
+	@Test
+	void limitKeepsTheBestResultsAndTotalCountsAllMatches() {
+		for (int i = 1; i <= 50; i++) {
+			add(i, "Volume " + i, "Coleção");
+		}
+		add(51, "Coleção Completa", "Editora");
+
+		LivroSearchIndex.Resultado resultado = index.search("colecao", 5);
+		assertThat(resultado.total()).isEqualTo(51);
+		assertThat(resultado.livros()).hasSize(5).first().extracting(Livro::getTitulo).isEqualTo("Coleção Completa");
+		//empate: ID menor primeiro
+		assertThat(resultado.livros().subList(1, 5)).extracting(Livro::getId).containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	private void add(long id, String titulo, String autor) {
+		index.add(new Livro(id, titulo, autor, null));
+	}
+
+	private List<String> titulos(String consulta) {
+		return index.search(consulta, 10).livros().stream().map(Livro::getTitulo).toList();
+	}
+
+}
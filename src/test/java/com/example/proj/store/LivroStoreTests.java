@@ -0,0 +1,108 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Livro;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LivroStoreTests {
+
+	private static final int THREADS = 16;
+	private static final int LIVROS_POR_THREAD = 5_000;
+
+	@Test
+	void concurrentSavesLoseNoWritesAndNeverRepeatIds() throws Exception {
+		LivroStore store = new LivroStore();
+		int iniciais = store.count();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<List<Long>>> resultados = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			resultados.add(executor.submit(() -> {
+				largada.await();
+				List<Long> ids = new ArrayList<>(LIVROS_POR_THREAD);
+				for (int i = 0; i < LIVROS_POR_THREAD; i++) {
+					Livro livro = new Livro(null, "Livro " + thread + "-" + i, "Autor " + (i % 10), "isbn-" + thread + "-" + i);
+					ids.add(store.save(livro).orElseThrow().getId());
+					// leituras concorrentes com as escritas
+					assertThat(store.findById(livro.getId())).containsSame(livro);
+				}
+				return ids;
+			}));
+		}
+		largada.countDown();
+
+		Set<Long> ids = new HashSet<>();
+		for (Future<List<Long>> resultado : resultados) {
+			ids.addAll(resultado.get(60, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+
+		int total = THREADS * LIVROS_POR_THREAD;
+		assertThat(ids).hasSize(total);
+		assertThat(store.count()).isEqualTo(iniciais + total);
+		assertThat(store.findAll()).hasSize(iniciais + total);
+		assertThat(store.findAll()).extracting(Livro::getId).isSorted();
+		assertThat(store.findByAutor("autor 3")).hasSize(THREADS * LIVROS_POR_THREAD / 10);
+	}
+
+	@Test
+	void concurrentSavesWithSameIsbnCreateOnlyOneLivro() throws Exception {
+		LivroStore store = new LivroStore();
+		int iniciais = store.count();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Boolean>> resultados = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			resultados.add(executor.submit(() -> {
+				largada.await();
+				return store.save(new Livro(null, "Duplicado", "Autor", "978-0000000000")).isPresent();
+			}));
+		}
+		largada.countDown();
+
+		int criados = 0;
+		for (Future<Boolean> resultado : resultados) {
+			if (resultado.get(10, TimeUnit.SECONDS)) {
+				criados++;
+			}
+		}
+		executor.shutdown();
+
+		assertThat(criados).isEqualTo(1);
+		assertThat(store.count()).isEqualTo(iniciais + 1);
+		assertThat(store.findByIsbn(" 978-0000000000 ")).isPresent();
+	}
+
+	@Test
+	void saveAllRejectsOnlyTheDuplicatedItems() {
+		LivroStore store = new LivroStore();
+		int iniciais = store.count();
+
+		List<Optional<Livro>> resultados = store.saveAll(List.of(
+				new Livro(null, "Novo", "Autor", "978-1111111111"),
+				new Livro(null, "Já existe", "Autor", "978-1617292545"),
+				new Livro(null, "Repetido no lote", "Autor", " 978-1111111111"),
+				new Livro(null, "Outro novo", "Autor", "978-2222222222")));
+
+		assertThat(resultados).extracting(Optional::isPresent).containsExactly(true, false, false, true);
+		assertThat(store.count()).isEqualTo(iniciais + 2);
+		//IDs de itens recusados não são "queimados"
+		assertThat(resultados.get(3).orElseThrow().getId()).isEqualTo(resultados.get(0).orElseThrow().getId() + 1);
+	}
+
+}
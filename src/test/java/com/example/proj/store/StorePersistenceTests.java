@@ -0,0 +1,119 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Livro;
+import com.example.proj.model.Usuario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StorePersistenceTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void savedRecordsSurviveARestart() throws IOException {
+		LivroStore livros = new LivroStore();
+		UsuarioStore usuarios = new UsuarioStore();
+		try (StorePersistence persistence = abrir(livros, usuarios)) {
+			livros.save(new Livro(null, "Refactoring", "Martin Fowler", "978-0134757599"));
+			livros.saveAll(List.of(
+					new Livro(null, "Domain-Driven Design", "Eric Evans", "978-0321125217"),
+					new Livro(null, "Sem ISBN", "Autor", null)));
+			usuarios.save(new Usuario(null, "Ana Souza", "ana@email.com"));
+		}
+
+		LivroStore livrosRestaurados = new LivroStore();
+		UsuarioStore usuariosRestaurados = new UsuarioStore();
+		try (StorePersistence persistence = abrir(livrosRestaurados, usuariosRestaurados)) {
+			assertThat(livrosRestaurados.findAll()).extracting(Livro::getTitulo)
+					.containsExactly("Spring Boot in Action", "Clean Code", "Refactoring", "Domain-Driven Design", "Sem ISBN");
+			assertThat(livrosRestaurados.findByIsbn("978-0321125217")).map(Livro::getId).contains(4L);
+			assertThat(livrosRestaurados.findByAutor("martin fowler")).hasSize(1);
+			assertThat(usuariosRestaurados.findByEmail("ANA@email.com")).map(Usuario::getNome).contains("Ana Souza");
+
+			//os índices únicos e a sequência de IDs continuam de onde pararam
+			assertThat(livrosRestaurados.save(new Livro(null, "Repetido", "Autor", "978-0134757599"))).isEmpty();
+			assertThat(livrosRestaurados.save(new Livro(null, "Novo", "Autor", "978-3333333333")).orElseThrow().getId()).isEqualTo(6L);
+			assertThat(usuariosRestaurados.save(new Usuario(null, "Bia", "bia@email.com")).orElseThrow().getId()).isEqualTo(4L);
+		}
+	}
+
+	@Test
+	void restartLoadsTheSnapshotAndReplaysOnlyTheJournalTail() throws IOException {
+		LivroStore livros = new LivroStore();
+		StorePersistence persistence = abrir(livros, new UsuarioStore());
+		for (int i = 0; i < 100; i++) {
+			livros.save(new Livro(null, "Livro " + i, "Autor", "isbn-" + i));
+		}
+		persistence.snapshot();
+		assertThat(arquivos("journal-")).hasSize(1);
+		livros.save(new Livro(null, "Depois do snapshot", "Autor", "isbn-depois"));
+		//sem o close: simula uma queda, o último livro só está no journal
+
+		LivroStore restaurados = new LivroStore();
+		try (StorePersistence reaberto = abrir(restaurados, new UsuarioStore())) {
+			assertThat(restaurados.count()).isEqualTo(2 + 101);
+			assertThat(restaurados.findByIsbn("isbn-depois")).isPresent();
+		}
+		//o close grava um snapshot novo e só sobra o segmento atual do journal
+		assertThat(arquivos("snapshot-")).hasSize(1);
+		assertThat(arquivos("journal-")).hasSize(1);
+	}
+
+	@Test
+	void recordRefusedByAClosedJournalIsNotLeftVisibleInAnyIndex() throws IOException {
+		LivroStore livros = new LivroStore();
+		UsuarioStore usuarios = new UsuarioStore();
+		abrir(livros, usuarios).close(); //shutdown: os stores ainda apontam para o journal fechado
+		int livrosAntes = livros.count();
+		int usuariosAntes = usuarios.count();
+
+		Livro livro = new Livro(null, "Livro Recusado", "Autora Perdida", "isbn-recusado");
+		assertThatThrownBy(() -> livros.save(livro)).isInstanceOf(IllegalStateException.class);
+		assertThat(livros.count()).isEqualTo(livrosAntes);
+		assertThat(livros.findById(livro.getId())).isEmpty();
+		assertThat(livros.findAll()).extracting(Livro::getTitulo).doesNotContain("Livro Recusado");
+		assertThat(livros.findByIsbn("isbn-recusado")).isEmpty();
+		assertThat(livros.findByAutor("Autora Perdida")).isEmpty();
+		assertThat(livros.search("recusado", 10).total()).isZero();
+		assertThat(livros.search("clean", 10).livros()).extracting(Livro::getTitulo).containsExactly("Clean Code");
+
+		Usuario usuario = new Usuario(null, "Recusado", "recusado@email.com");
+		assertThatThrownBy(() -> usuarios.save(usuario)).isInstanceOf(IllegalStateException.class);
+		assertThat(usuarios.count()).isEqualTo(usuariosAntes);
+		assertThat(usuarios.findById(usuario.getId())).isEmpty();
+		assertThat(usuarios.findByEmail("recusado@email.com")).isEmpty();
+
+		//a nova tentativa cria um registro só (o ISBN e o email foram liberados, nada ficou para trás)
+		livros.setJournal(null);
+		usuarios.setJournal(null);
+		assertThat(livros.save(new Livro(null, "Livro Recusado", "Autora Perdida", "isbn-recusado"))).isPresent();
+		assertThat(livros.save(new Livro(null, "Livro Recusado", "Autora Perdida", "isbn-recusado"))).isEmpty();
+		assertThat(livros.search("recusado", 10).total()).isEqualTo(1);
+		assertThat(usuarios.save(new Usuario(null, "Recusado", "recusado@email.com"))).isPresent();
+		assertThat(usuarios.count()).isEqualTo(usuariosAntes + 1);
+	}
+
+	private StorePersistence abrir(LivroStore livros, UsuarioStore usuarios) throws IOException {
+		return new StorePersistence(livros, usuarios,
+				new JournalProperties(true, dir, DataSize.ofKilobytes(64), true, Duration.ZERO));
+	}
+
+	private List<Path> arquivos(String prefixo) throws IOException {
+		try (Stream<Path> arquivos = Files.list(dir)) {
+			return arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith(prefixo)).toList();
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.example.proj.store;
+
+import com.example.proj.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsuarioStoreTests {
+
+	private static final int THREADS = 16;
+	private static final int USUARIOS_POR_THREAD = 2_000;
+
+	@Test
+	void concurrentSavesKeepEmailsUniqueAndIdsDense() throws Exception {
+		UsuarioStore store = new UsuarioStore();
+		int iniciais = store.count();
+
+		// cada email é disputado por duas threads, só uma pode ganhar
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<List<Long>>> resultados = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int par = t / 2;
+			resultados.add(executor.submit(() -> {
+				largada.await();
+				List<Long> ids = new ArrayList<>();
+				for (int i = 0; i < USUARIOS_POR_THREAD; i++) {
+					Optional<Usuario> salvo = store.save(new Usuario(null, "Usuario " + i, "User" + par + "-" + i + "@Email.com"));
+					salvo.ifPresent(usuario -> ids.add(usuario.getId()));
+				}
+				return ids;
+			}));
+		}
+		largada.countDown();
+
+		Set<Long> ids = new HashSet<>();
+		for (Future<List<Long>> resultado : resultados) {
+			ids.addAll(resultado.get(60, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+
+		int esperados = THREADS / 2 * USUARIOS_POR_THREAD;
+		assertThat(ids).hasSize(esperados);
+		assertThat(store.count()).isEqualTo(iniciais + esperados);
+		// emails duplicados não consomem IDs
+		assertThat(store.findAll()).extracting(Usuario::getId).containsExactlyElementsOf(
+				LongStream.rangeClosed(1, iniciais + esperados).boxed().toList());
+		assertThat(store.findByEmail("user3-42@email.com")).isPresent();
+	}
+
+}